@@ -0,0 +1,160 @@
+package com.asd.redis.orm.loadtest;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.serializer.SerializerFeature;
+import com.asd.redis.orm.config.RedisOrmProperties;
+import com.asd.redis.orm.core.RedisOrmTemplate;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.function.IntConsumer;
+import java.util.function.LongFunction;
+
+/**
+ * 值编码的分配对比（--scenario=alloc）
+ * <p>
+ * 分别使用默认的 GenericJackson2JsonRedisSerializer 和线程本地缓冲区编码的 PooledJsonRedisSerializer，
+ * 对小实体和 name 长度为 --value-size 的大实体测量序列化、反序列化、getById 和 updateById 每次操作在调用线程上分配的字节数
+ * （ThreadMXBean.getThreadAllocatedBytes，不含 Lettuce 事件循环线程上的分配）。单线程顺序执行，应在没有其他负载的机器上运行。
+ */
+public class AllocationComparison {
+
+    /**
+     * 测量使用的实体ID从此开始，避免覆盖延迟压测写入的实体
+     */
+    private static final long ID_OFFSET = 1_000_000_000L;
+
+    private static final int ENTITIES = 1000;
+
+    public static void run(LettuceConnectionFactory connectionFactory, RedisOrmProperties properties,
+                           LoadTestOptions options) throws IOException {
+        com.sun.management.ThreadMXBean threadBean = threadBean();
+        int iterations = options.getIterations();
+        char[] padding = new char[options.getValueSize()];
+        Arrays.fill(padding, 'x');
+        String largeName = new String(padding);
+
+        Map<String, Map<String, Object>> results = new LinkedHashMap<>();
+        for (boolean pooled : new boolean[]{false, true}) {
+            RedisOrmTemplate ormTemplate = new RedisOrmTemplate(
+                    LoadTest.redisTemplate(connectionFactory, pooled), properties);
+            Map<String, Object> variant = new LinkedHashMap<>();
+            variant.put("small", measure(ormTemplate, threadBean, iterations, Workload::entity));
+            variant.put("large", measure(ormTemplate, threadBean, iterations, id -> {
+                LoadTestEntity entity = Workload.entity(id);
+                entity.setName(largeName);
+                return entity;
+            }));
+            results.put(pooled ? "pooled" : "default", variant);
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("label", options.getLabel());
+        report.put("scenario", "alloc");
+        report.put("timestamp", System.currentTimeMillis());
+        report.put("iterations", iterations);
+        report.put("valueSize", options.getValueSize());
+        report.put("results", results);
+
+        System.out.printf("%-8s %-6s %-12s %14s %14s%n", "encoder", "value", "operation", "bytes/op", "ns/op");
+        for (Map.Entry<String, Map<String, Object>> variant : results.entrySet()) {
+            for (Map.Entry<String, Object> size : variant.getValue().entrySet()) {
+                @SuppressWarnings("unchecked")
+                Map<String, Map<String, Object>> operations = (Map<String, Map<String, Object>>) size.getValue();
+                for (Map.Entry<String, Map<String, Object>> operation : operations.entrySet()) {
+                    System.out.printf("%-8s %-6s %-12s %14.1f %14.1f%n", variant.getKey(), size.getKey(),
+                            operation.getKey(), operation.getValue().get("bytesPerOp"),
+                            operation.getValue().get("nanosPerOp"));
+                }
+            }
+        }
+
+        Path dir = Paths.get(options.getReportDir());
+        Files.createDirectories(dir);
+        Path json = dir.resolve("alloc-" + options.getLabel() + "-"
+                + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".json");
+        Files.write(json, JSON.toJSONString(report, SerializerFeature.PrettyFormat).getBytes(StandardCharsets.UTF_8));
+        System.out.printf("report written to %s%n", json);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> measure(RedisOrmTemplate ormTemplate, com.sun.management.ThreadMXBean threadBean,
+                                               int iterations, LongFunction<LoadTestEntity> factory) {
+        RedisSerializer<Object> serializer =
+                (RedisSerializer<Object>) ormTemplate.getRedisTemplate().getValueSerializer();
+        List<LoadTestEntity> entities = new ArrayList<>(ENTITIES);
+        List<Long> ids = new ArrayList<>(ENTITIES);
+        byte[][] values = new byte[ENTITIES][];
+        for (int i = 0; i < ENTITIES; i++) {
+            LoadTestEntity entity = factory.apply(ID_OFFSET + i);
+            entities.add(entity);
+            ids.add(entity.getId());
+            values[i] = serializer.serialize(entity);
+        }
+        ormTemplate.saveBatch(entities);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        try {
+            result.put("serialize", measure(threadBean, iterations,
+                    i -> serializer.serialize(entities.get(i % ENTITIES))));
+            result.put("deserialize", measure(threadBean, iterations,
+                    i -> serializer.deserialize(values[i % ENTITIES])));
+            result.put("getById", measure(threadBean, iterations,
+                    i -> ormTemplate.getById(LoadTestEntity.class, ids.get(i % ENTITIES))));
+            result.put("updateById", measure(threadBean, iterations,
+                    i -> ormTemplate.updateById(entities.get(i % ENTITIES))));
+        } finally {
+            ormTemplate.removeByIds(LoadTestEntity.class, ids);
+        }
+        return result;
+    }
+
+    /**
+     * 预热相同次数后测量
+     */
+    private static Map<String, Object> measure(com.sun.management.ThreadMXBean threadBean, int iterations,
+                                               IntConsumer operation) {
+        for (int i = 0; i < iterations; i++) {
+            operation.accept(i);
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threadBean.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            operation.accept(i);
+        }
+        long nanos = System.nanoTime() - start;
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("bytesPerOp", round((double) allocated / iterations));
+        result.put("nanosPerOp", round((double) nanos / iterations));
+        return result;
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        java.lang.management.ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (!(threadBean instanceof com.sun.management.ThreadMXBean)) {
+            throw new IllegalStateException("Per-thread allocation counters require a HotSpot-compatible JVM");
+        }
+        com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+        if (!allocationBean.isThreadAllocatedMemorySupported()) {
+            throw new IllegalStateException("Per-thread allocation counters are not supported by this JVM");
+        }
+        allocationBean.setThreadAllocatedMemoryEnabled(true);
+        return allocationBean;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+}
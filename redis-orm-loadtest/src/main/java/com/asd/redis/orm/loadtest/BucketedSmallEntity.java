@@ -0,0 +1,42 @@
+package com.asd.redis.orm.loadtest;
+
+import com.asd.redis.orm.annotation.RedisEntity;
+import com.asd.redis.orm.annotation.RedisId;
+
+/**
+ * 分桶存储的小实体，每100个实体一个哈希，与 {@link PlainSmallEntity} 字段相同
+ */
+@RedisEntity(prefix = "loadtest-bucketed", bucketSize = 100)
+public class BucketedSmallEntity {
+
+    @RedisId
+    private Long id;
+
+    private String name;
+
+    private Integer score;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Integer getScore() {
+        return score;
+    }
+
+    public void setScore(Integer score) {
+        this.score = score;
+    }
+}
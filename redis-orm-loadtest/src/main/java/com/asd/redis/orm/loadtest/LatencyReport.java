@@ -0,0 +1,184 @@
+package com.asd.redis.orm.loadtest;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONObject;
+import com.alibaba.fastjson.serializer.SerializerFeature;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按操作记录延迟（纳秒）和错误数，输出 p50/p99/p999 与吞吐量
+ * <p>
+ * 报告写入 JSON（用于对比不同的运行）和每个操作的 .hgrm 百分位分布文件（可用 HdrHistogram 的绘图工具查看）。
+ */
+public class LatencyReport {
+
+    /**
+     * 可记录的最大延迟，超过的按最大值记录
+     */
+    private static final long HIGHEST_TRACKABLE = TimeUnit.SECONDS.toNanos(60);
+
+    private static final String[] PERCENTILES = {"p50", "p90", "p99", "p999"};
+    private static final double[] PERCENTILE_VALUES = {50, 90, 99, 99.9};
+
+    private final Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    private final Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+    private final Map<Operation, Long> errorCounts = new EnumMap<>(Operation.class);
+    private long startNanos;
+    private long elapsedNanos;
+
+    public LatencyReport(Collection<Operation> operations) {
+        for (Operation operation : operations) {
+            recorders.put(operation, new Recorder(HIGHEST_TRACKABLE, 3));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    public void record(Operation operation, long nanos) {
+        recorders.get(operation).recordValue(Math.min(nanos, HIGHEST_TRACKABLE));
+    }
+
+    public void recordError(Operation operation) {
+        errors.get(operation).increment();
+    }
+
+    /**
+     * 丢弃预热期间的记录，开始计时
+     */
+    public void start() {
+        for (Operation operation : recorders.keySet()) {
+            recorders.get(operation).getIntervalHistogram();
+            errors.get(operation).reset();
+        }
+        startNanos = System.nanoTime();
+    }
+
+    /**
+     * 结束计时，取出计时期间的记录
+     */
+    public void stop() {
+        elapsedNanos = System.nanoTime() - startNanos;
+        for (Operation operation : recorders.keySet()) {
+            histograms.put(operation, recorders.get(operation).getIntervalHistogram());
+            errorCounts.put(operation, errors.get(operation).sum());
+        }
+    }
+
+    /**
+     * 汇总结果，延迟单位为微秒
+     */
+    public Map<String, Object> summary() {
+        double seconds = elapsedNanos / 1e9;
+        Map<String, Object> operations = new LinkedHashMap<>();
+        long total = 0;
+        for (Map.Entry<Operation, Histogram> entry : histograms.entrySet()) {
+            Histogram histogram = entry.getValue();
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("count", histogram.getTotalCount());
+            result.put("errors", errorCounts.get(entry.getKey()));
+            result.put("throughput", round(histogram.getTotalCount() / seconds));
+            result.put("mean", round(histogram.getMean() / 1000));
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                result.put(PERCENTILES[i], round(histogram.getValueAtPercentile(PERCENTILE_VALUES[i]) / 1000.0));
+            }
+            result.put("max", round(histogram.getMaxValue() / 1000.0));
+            operations.put(entry.getKey().getName(), result);
+            total += histogram.getTotalCount();
+        }
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("elapsedSeconds", round(seconds));
+        summary.put("totalCount", total);
+        summary.put("totalThroughput", round(total / seconds));
+        summary.put("operations", operations);
+        return summary;
+    }
+
+    public void print(PrintStream out) {
+        Map<String, Object> summary = summary();
+        out.printf("elapsed %.1fs, total %d ops, %.1f ops/s%n", summary.get("elapsedSeconds"),
+                summary.get("totalCount"), summary.get("totalThroughput"));
+        out.printf("%-20s %10s %8s %12s %10s %10s %10s %10s %10s%n",
+                "operation", "count", "errors", "ops/s", "p50(us)", "p90(us)", "p99(us)", "p999(us)", "max(us)");
+        @SuppressWarnings("unchecked")
+        Map<String, Map<String, Object>> operations = (Map<String, Map<String, Object>>) summary.get("operations");
+        operations.forEach((name, result) -> out.printf("%-20s %10d %8d %12.1f %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                name, result.get("count"), result.get("errors"), result.get("throughput"), result.get("p50"),
+                result.get("p90"), result.get("p99"), result.get("p999"), result.get("max")));
+    }
+
+    /**
+     * 写入报告
+     *
+     * @return JSON报告的路径
+     */
+    public Path write(LoadTestOptions options) throws IOException {
+        Path dir = Paths.get(options.getReportDir());
+        Files.createDirectories(dir);
+        String name = options.getLabel() + "-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("label", options.getLabel());
+        report.put("timestamp", System.currentTimeMillis());
+        report.put("java", System.getProperty("java.version"));
+        report.put("options", options.toMap());
+        report.put("result", summary());
+        Path json = dir.resolve(name + ".json");
+        Files.write(json, JSON.toJSONString(report, SerializerFeature.PrettyFormat).getBytes(StandardCharsets.UTF_8));
+
+        for (Map.Entry<Operation, Histogram> entry : histograms.entrySet()) {
+            Path hgrm = dir.resolve(name + "-" + entry.getKey().getName() + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(hgrm), false, "UTF-8")) {
+                entry.getValue().outputPercentileDistribution(out, 1000.0);
+            }
+        }
+        return json;
+    }
+
+    /**
+     * 对比两份JSON报告，输出每个操作的吞吐量和延迟变化
+     */
+    public static void compare(Path baseline, Path current, PrintStream out) throws IOException {
+        JSONObject base = JSON.parseObject(new String(Files.readAllBytes(baseline), StandardCharsets.UTF_8));
+        JSONObject next = JSON.parseObject(new String(Files.readAllBytes(current), StandardCharsets.UTF_8));
+        out.printf("baseline: %s (%s)%ncurrent:  %s (%s)%n", base.getString("label"), baseline,
+                next.getString("label"), current);
+        out.printf("%-20s %-10s %12s %12s %9s%n", "operation", "metric", "baseline", "current", "change");
+
+        JSONObject baseOperations = base.getJSONObject("result").getJSONObject("operations");
+        JSONObject nextOperations = next.getJSONObject("result").getJSONObject("operations");
+        Set<String> names = new LinkedHashSet<>(baseOperations.keySet());
+        names.addAll(nextOperations.keySet());
+        for (String name : names) {
+            JSONObject before = baseOperations.getJSONObject(name);
+            JSONObject after = nextOperations.getJSONObject(name);
+            for (String metric : new String[]{"throughput", "p50", "p99", "p999"}) {
+                Double from = before != null ? before.getDouble(metric) : null;
+                Double to = after != null ? after.getDouble(metric) : null;
+                String change = from != null && to != null && from != 0
+                        ? String.format("%+.1f%%", (to - from) / from * 100) : "n/a";
+                out.printf("%-20s %-10s %12s %12s %9s%n", name, metric, format(from), format(to), change);
+            }
+        }
+    }
+
+    private static String format(Double value) {
+        return value != null ? String.format("%.1f", value) : "-";
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+}
@@ -0,0 +1,219 @@
+package com.asd.redis.orm.loadtest;
+
+import com.asd.redis.orm.config.RedisOrmProperties;
+import com.asd.redis.orm.core.PooledJsonRedisSerializer;
+import com.asd.redis.orm.core.RedisOrmTemplate;
+import com.asd.redis.orm.mapper.BaseMapper;
+import com.asd.redis.orm.mapper.BaseMapperImpl;
+import com.asd.redis.orm.mapper.BaseMapperProxy;
+import org.springframework.data.redis.connection.RedisPassword;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 多线程压测入口
+ * <p>
+ * 在N个线程（平台线程或虚拟线程）上按配置的比例循环调用 BaseMapper 的操作，预热结束后按操作记录延迟直方图，
+ * 压测结束后输出 p50/p90/p99/p999 和吞吐量，并写入可在不同运行之间对比的报告。
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        if (options.getCompare() != null) {
+            String[] files = options.getCompare().split(",");
+            if (files.length != 2) {
+                throw new IllegalArgumentException("--compare requires two reports: baseline.json,current.json");
+            }
+            LatencyReport.compare(Paths.get(files[0].trim()), Paths.get(files[1].trim()), System.out);
+            return;
+        }
+
+        LettuceConnectionFactory connectionFactory = connectionFactory(options);
+        try {
+            RedisOrmProperties properties = new RedisOrmProperties();
+            if ("memory".equals(options.getScenario())) {
+                // 逐键统计全部实体
+                properties.getStats().setMaxScanKeys(Integer.MAX_VALUE);
+                properties.getStats().setSampleSize(Integer.MAX_VALUE);
+                MemoryComparison.run(new RedisOrmTemplate(redisTemplate(connectionFactory, options.isPooledBuffers()),
+                        properties), options);
+                return;
+            }
+            if ("alloc".equals(options.getScenario())) {
+                AllocationComparison.run(connectionFactory, properties, options);
+                return;
+            }
+            if (!"latency".equals(options.getScenario())) {
+                throw new IllegalArgumentException("Unknown scenario: " + options.getScenario()
+                        + ", expected latency, memory or alloc");
+            }
+            RedisOrmTemplate ormTemplate = new RedisOrmTemplate(
+                    redisTemplate(connectionFactory, options.isPooledBuffers()), properties);
+            BaseMapper<LoadTestEntity> mapper = mapper(ormTemplate, options.getMapper());
+            Workload workload = new Workload(mapper, options.getEntities(), options.getBatch());
+            prepare(workload, options);
+            run(workload, options);
+        } finally {
+            connectionFactory.destroy();
+        }
+    }
+
+    private static LettuceConnectionFactory connectionFactory(LoadTestOptions options) {
+        RedisStandaloneConfiguration configuration = new RedisStandaloneConfiguration(options.getHost(), options.getPort());
+        configuration.setDatabase(options.getDatabase());
+        if (options.getPassword() != null) {
+            configuration.setPassword(RedisPassword.of(options.getPassword()));
+        }
+        LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory(configuration);
+        connectionFactory.afterPropertiesSet();
+        return connectionFactory;
+    }
+
+    /**
+     * 与自动配置相同的序列化方式
+     */
+    static RedisTemplate<String, Object> redisTemplate(LettuceConnectionFactory connectionFactory,
+                                                       boolean pooledBuffers) {
+        RedisTemplate<String, Object> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        StringRedisSerializer keySerializer = new StringRedisSerializer();
+        GenericJackson2JsonRedisSerializer valueSerializer = pooledBuffers
+                ? new PooledJsonRedisSerializer(new RedisOrmProperties.Serialization().getMaxPooledSize())
+                : new GenericJackson2JsonRedisSerializer();
+        template.setKeySerializer(keySerializer);
+        template.setHashKeySerializer(keySerializer);
+        template.setValueSerializer(valueSerializer);
+        template.setHashValueSerializer(valueSerializer);
+        template.afterPropertiesSet();
+        return template;
+    }
+
+    private static BaseMapper<LoadTestEntity> mapper(RedisOrmTemplate ormTemplate, String type) {
+        if ("direct".equals(type)) {
+            return new BaseMapperImpl<>(ormTemplate, LoadTestMapper.class);
+        }
+        if ("proxy".equals(type)) {
+            return new BaseMapperProxy<>(ormTemplate, LoadTestMapper.class).getProxy();
+        }
+        throw new IllegalArgumentException("Unknown mapper type: " + type + ", expected proxy or direct");
+    }
+
+    /**
+     * 清理并写入压测实体
+     */
+    private static void prepare(Workload workload, LoadTestOptions options) {
+        BaseMapper<LoadTestEntity> mapper = workload.getMapper();
+        if (options.isClean()) {
+            System.out.printf("deleted %d entities%n", mapper.deleteAll());
+        }
+        if (options.isPopulate()) {
+            long start = System.nanoTime();
+            List<LoadTestEntity> chunk = new ArrayList<>(1000);
+            for (long id = 0; id < options.getEntities(); id++) {
+                chunk.add(Workload.entity(id));
+                if (chunk.size() == 1000) {
+                    mapper.insertBatch(chunk);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                mapper.insertBatch(chunk);
+            }
+            System.out.printf("populated %d entities in %d ms%n", options.getEntities(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
+
+    private static void run(Workload workload, LoadTestOptions options) throws Exception {
+        Map<Operation, Integer> mix = options.getMix();
+        Operation[] operations = mix.keySet().toArray(new Operation[0]);
+        int[] cumulativeWeights = new int[operations.length];
+        int totalWeight = 0;
+        for (int i = 0; i < operations.length; i++) {
+            totalWeight += mix.get(operations[i]);
+            cumulativeWeights[i] = totalWeight;
+        }
+        if (totalWeight <= 0) {
+            throw new IllegalArgumentException("--mix must contain at least one positive weight");
+        }
+        int weightBound = totalWeight;
+
+        LatencyReport report = new LatencyReport(mix.keySet());
+        long warmupEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(options.getWarmup());
+        long deadline = warmupEnd + TimeUnit.SECONDS.toNanos(options.getDuration());
+
+        ExecutorService executor = executor(options);
+        System.out.printf("running %s on %d %s threads: warmup %ds, duration %ds%n", mix, options.getThreads(),
+                options.isVirtual() ? "virtual" : "platform", options.getWarmup(), options.getDuration());
+        for (int i = 0; i < options.getThreads(); i++) {
+            executor.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    int choice = ThreadLocalRandom.current().nextInt(weightBound);
+                    int index = 0;
+                    while (cumulativeWeights[index] <= choice) {
+                        index++;
+                    }
+                    Operation operation = operations[index];
+                    long start = System.nanoTime();
+                    try {
+                        operation.run(workload);
+                        report.record(operation, System.nanoTime() - start);
+                    } catch (RuntimeException e) {
+                        report.recordError(operation);
+                    }
+                }
+            });
+        }
+
+        sleepUntil(warmupEnd);
+        report.start();
+        sleepUntil(deadline);
+        report.stop();
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+
+        report.print(System.out);
+        Path path = report.write(options);
+        System.out.printf("report written to %s%n", path);
+    }
+
+    /**
+     * 平台线程使用固定大小的线程池，虚拟线程每个任务一个线程
+     */
+    private static ExecutorService executor(LoadTestOptions options) {
+        if (options.isVirtual()) {
+            try {
+                // 通过反射调用，使压测工具仍可在 Java 8 上编译
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Virtual threads require Java 21 or later", e);
+            }
+        }
+        return Executors.newFixedThreadPool(options.getThreads(), r -> {
+            Thread thread = new Thread(r, "loadtest-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static void sleepUntil(long nanoTime) throws InterruptedException {
+        long remaining = nanoTime - System.nanoTime();
+        if (remaining > 0) {
+            TimeUnit.NANOSECONDS.sleep(remaining);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.asd.redis.orm.loadtest;
+
+import com.asd.redis.orm.annotation.RedisEntity;
+import com.asd.redis.orm.annotation.RedisField;
+import com.asd.redis.orm.annotation.RedisId;
+
+/**
+ * 压测实体
+ */
+@RedisEntity(prefix = "loadtest")
+public class LoadTestEntity {
+
+    @RedisId
+    private Long id;
+
+    private String name;
+
+    /**
+     * 等值索引字段，用于条件查询
+     */
+    @RedisField(index = RedisField.IndexType.EQUAL)
+    private String category;
+
+    private Integer score;
+
+    private Long updatedAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public Integer getScore() {
+        return score;
+    }
+
+    public void setScore(Integer score) {
+        this.score = score;
+    }
+
+    public Long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Long updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
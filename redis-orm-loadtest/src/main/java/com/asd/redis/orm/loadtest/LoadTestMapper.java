@@ -0,0 +1,11 @@
+package com.asd.redis.orm.loadtest;
+
+import com.asd.redis.orm.annotation.RedisMapper;
+import com.asd.redis.orm.mapper.BaseMapper;
+
+/**
+ * 压测Mapper
+ */
+@RedisMapper(entity = LoadTestEntity.class)
+public interface LoadTestMapper extends BaseMapper<LoadTestEntity> {
+}
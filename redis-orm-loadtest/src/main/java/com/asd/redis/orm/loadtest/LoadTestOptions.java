@@ -0,0 +1,310 @@
+package com.asd.redis.orm.loadtest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 压测参数，命令行以 --name=value 传入
+ * <pre>
+ * --host=127.0.0.1 --port=6379 --threads=32 --virtual=false --duration=60 --warmup=10
+ * --entities=100000 --mix=selectById:70,updateById:20,insert:5,selectBatchIds:5
+ * --batch=50 --mapper=proxy --populate=true --clean=false --report-dir=loadtest-reports --label=baseline
+ * --compare=loadtest-reports/a.json,loadtest-reports/b.json
+ * --scenario=memory --entities=1000000
+ * --scenario=alloc --iterations=100000 --value-size=4096
+ * --pooled-buffers=true
+ * </pre>
+ */
+public class LoadTestOptions {
+
+    private String host = "127.0.0.1";
+    private int port = 6379;
+    private int database = 0;
+    private String password;
+
+    /**
+     * 并发线程数
+     */
+    private int threads = Runtime.getRuntime().availableProcessors() * 4;
+
+    /**
+     * 是否使用虚拟线程（需要 Java 21+）
+     */
+    private boolean virtual = false;
+
+    /**
+     * 计时的压测时长（秒）
+     */
+    private int duration = 60;
+
+    /**
+     * 不计入结果的预热时长（秒）
+     */
+    private int warmup = 10;
+
+    /**
+     * 预先写入的实体数量，也是读写操作的ID范围
+     */
+    private int entities = 100_000;
+
+    /**
+     * 操作比例，操作名:权重
+     */
+    private Map<Operation, Integer> mix = parseMix("selectById:70,updateById:20,insert:5,selectBatchIds:5");
+
+    /**
+     * selectBatchIds 每次读取的ID数量
+     */
+    private int batch = 50;
+
+    /**
+     * proxy 使用动态代理的Mapper（与应用一致），direct 直接调用 BaseMapperImpl
+     */
+    private String mapper = "proxy";
+
+    /**
+     * 压测前是否写入实体
+     */
+    private boolean populate = true;
+
+    /**
+     * 压测前是否删除已有的压测实体
+     */
+    private boolean clean = false;
+
+    private String reportDir = "loadtest-reports";
+
+    /**
+     * 报告名称，用于区分不同的运行
+     */
+    private String label = "run";
+
+    /**
+     * 对比两份报告，不执行压测
+     */
+    private String compare;
+
+    /**
+     * latency 执行延迟压测，memory 对比分桶存储与普通存储的内存占用，alloc 对比值编码的每次操作分配字节数
+     */
+    private String scenario = "latency";
+
+    /**
+     * 是否使用线程本地缓冲区编码值
+     */
+    private boolean pooledBuffers = true;
+
+    /**
+     * alloc 场景中每种操作测量的次数
+     */
+    private int iterations = 100000;
+
+    /**
+     * alloc 场景中大实体 name 字段的长度
+     */
+    private int valueSize = 4096;
+
+    public static LoadTestOptions parse(String[] args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Arguments must be --name=value: " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            switch (name) {
+                case "host":
+                    options.host = value;
+                    break;
+                case "port":
+                    options.port = Integer.parseInt(value);
+                    break;
+                case "database":
+                    options.database = Integer.parseInt(value);
+                    break;
+                case "password":
+                    options.password = value;
+                    break;
+                case "threads":
+                    options.threads = Integer.parseInt(value);
+                    break;
+                case "virtual":
+                    options.virtual = Boolean.parseBoolean(value);
+                    break;
+                case "duration":
+                    options.duration = Integer.parseInt(value);
+                    break;
+                case "warmup":
+                    options.warmup = Integer.parseInt(value);
+                    break;
+                case "entities":
+                    options.entities = Integer.parseInt(value);
+                    break;
+                case "mix":
+                    options.mix = parseMix(value);
+                    break;
+                case "batch":
+                    options.batch = Integer.parseInt(value);
+                    break;
+                case "mapper":
+                    options.mapper = value;
+                    break;
+                case "populate":
+                    options.populate = Boolean.parseBoolean(value);
+                    break;
+                case "clean":
+                    options.clean = Boolean.parseBoolean(value);
+                    break;
+                case "report-dir":
+                    options.reportDir = value;
+                    break;
+                case "label":
+                    options.label = value;
+                    break;
+                case "compare":
+                    options.compare = value;
+                    break;
+                case "scenario":
+                    options.scenario = value;
+                    break;
+                case "pooled-buffers":
+                    options.pooledBuffers = Boolean.parseBoolean(value);
+                    break;
+                case "iterations":
+                    options.iterations = Integer.parseInt(value);
+                    break;
+                case "value-size":
+                    options.valueSize = Integer.parseInt(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+        if (options.threads <= 0 || options.entities <= 0 || options.duration <= 0 || options.iterations <= 0) {
+            throw new IllegalArgumentException("threads, entities, duration and iterations must be positive");
+        }
+        return options;
+    }
+
+    private static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new LinkedHashMap<>();
+        for (String part : value.split(",")) {
+            String[] pair = part.trim().split(":");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Mix entries must be operation:weight: " + part);
+            }
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight > 0) {
+                mix.put(Operation.of(pair[0].trim()), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("Mix must contain at least one operation: " + value);
+        }
+        return mix;
+    }
+
+    /**
+     * 报告中记录的参数
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("host", host);
+        map.put("port", port);
+        map.put("threads", threads);
+        map.put("virtual", virtual);
+        map.put("duration", duration);
+        map.put("warmup", warmup);
+        map.put("entities", entities);
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        mix.forEach((operation, weight) -> weights.put(operation.getName(), weight));
+        map.put("mix", weights);
+        map.put("batch", batch);
+        map.put("mapper", mapper);
+        return map;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public int getDatabase() {
+        return database;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    public int getDuration() {
+        return duration;
+    }
+
+    public int getWarmup() {
+        return warmup;
+    }
+
+    public int getEntities() {
+        return entities;
+    }
+
+    public Map<Operation, Integer> getMix() {
+        return mix;
+    }
+
+    public int getBatch() {
+        return batch;
+    }
+
+    public String getMapper() {
+        return mapper;
+    }
+
+    public boolean isPopulate() {
+        return populate;
+    }
+
+    public boolean isClean() {
+        return clean;
+    }
+
+    public String getReportDir() {
+        return reportDir;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public String getCompare() {
+        return compare;
+    }
+
+    public String getScenario() {
+        return scenario;
+    }
+
+    public boolean isPooledBuffers() {
+        return pooledBuffers;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public int getValueSize() {
+        return valueSize;
+    }
+}
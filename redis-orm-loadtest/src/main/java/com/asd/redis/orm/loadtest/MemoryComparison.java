@@ -0,0 +1,135 @@
+package com.asd.redis.orm.loadtest;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.serializer.SerializerFeature;
+import com.asd.redis.orm.core.RedisOrmTemplate;
+import com.asd.redis.orm.model.EntityStatistics;
+import com.asd.redis.orm.model.KeyspaceStatistics;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.function.LongFunction;
+
+/**
+ * 分桶存储与普通存储的内存对比（--scenario=memory）
+ * <p>
+ * 两种存储方式依次写入相同数量、相同内容的实体，用 INFO memory 的 used_memory 增量和
+ * SCAN + MEMORY USAGE 的逐键统计（{@link RedisOrmTemplate#sampleStatistics()}）得到每个实体的内存，测量后删除写入的实体。
+ * used_memory 包含全局字典等开销，应在没有其他写入的库上运行。
+ */
+public class MemoryComparison {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    public static void run(RedisOrmTemplate ormTemplate, LoadTestOptions options) throws IOException {
+        int entities = options.getEntities();
+        Map<String, Object> plain = measure(ormTemplate, PlainSmallEntity.class, entities, id -> {
+            PlainSmallEntity entity = new PlainSmallEntity();
+            entity.setId(id);
+            entity.setName("name-" + id);
+            entity.setScore((int) (id % 1000));
+            return entity;
+        });
+        Map<String, Object> bucketed = measure(ormTemplate, BucketedSmallEntity.class, entities, id -> {
+            BucketedSmallEntity entity = new BucketedSmallEntity();
+            entity.setId(id);
+            entity.setName("name-" + id);
+            entity.setScore((int) (id % 1000));
+            return entity;
+        });
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("label", options.getLabel());
+        report.put("scenario", "memory");
+        report.put("timestamp", System.currentTimeMillis());
+        report.put("entities", entities);
+        report.put("plain", plain);
+        report.put("bucketed", bucketed);
+        report.put("usedMemorySaving", saving(plain, bucketed, "usedMemoryPerEntity"));
+        report.put("keyMemorySaving", saving(plain, bucketed, "keyMemoryPerEntity"));
+
+        System.out.printf("%-10s %12s %10s %16s %16s%n", "storage", "entities", "keys", "used/entity(B)", "key/entity(B)");
+        print("plain", plain);
+        print("bucketed", bucketed);
+        System.out.printf("saving: used_memory %s, MEMORY USAGE %s%n",
+                report.get("usedMemorySaving"), report.get("keyMemorySaving"));
+
+        Path dir = Paths.get(options.getReportDir());
+        Files.createDirectories(dir);
+        Path json = dir.resolve("memory-" + options.getLabel() + "-"
+                + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".json");
+        Files.write(json, JSON.toJSONString(report, SerializerFeature.PrettyFormat).getBytes(StandardCharsets.UTF_8));
+        System.out.printf("report written to %s%n", json);
+    }
+
+    private static <T> Map<String, Object> measure(RedisOrmTemplate ormTemplate, Class<T> entityClass, int entities,
+                                                   LongFunction<T> factory) {
+        ormTemplate.deleteAll(entityClass);
+        RedisTemplate<String, Object> redisTemplate = ormTemplate.getRedisTemplate();
+        long before = usedMemory(redisTemplate);
+
+        List<T> chunk = new ArrayList<>(CHUNK_SIZE);
+        for (long id = 0; id < entities; id++) {
+            chunk.add(factory.apply(id));
+            if (chunk.size() == CHUNK_SIZE) {
+                ormTemplate.saveBatch(chunk);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            ormTemplate.saveBatch(chunk);
+        }
+
+        long usedMemory = usedMemory(redisTemplate) - before;
+        EntityStatistics statistics = find(ormTemplate.sampleStatistics(), entityClass);
+        ormTemplate.deleteAll(entityClass);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("keys", statistics.getKeyCount());
+        result.put("entities", statistics.getEntityCount());
+        result.put("usedMemory", usedMemory);
+        result.put("usedMemoryPerEntity", round((double) usedMemory / entities));
+        result.put("keyMemory", statistics.getTotalMemory());
+        result.put("keyMemoryPerEntity", round((double) statistics.getTotalMemory() / entities));
+        return result;
+    }
+
+    private static long usedMemory(RedisTemplate<String, Object> redisTemplate) {
+        Properties info = redisTemplate.execute((RedisCallback<Properties>) connection -> connection.info("memory"));
+        if (info == null || info.getProperty("used_memory") == null) {
+            throw new IllegalStateException("INFO memory did not return used_memory");
+        }
+        return Long.parseLong(info.getProperty("used_memory").trim());
+    }
+
+    private static EntityStatistics find(KeyspaceStatistics statistics, Class<?> entityClass) {
+        for (EntityStatistics entity : statistics.getEntities()) {
+            if (entity.getEntityClass().equals(entityClass.getName())) {
+                return entity;
+            }
+        }
+        throw new IllegalStateException("No statistics for " + entityClass.getName());
+    }
+
+    private static String saving(Map<String, Object> plain, Map<String, Object> bucketed, String metric) {
+        double before = (Double) plain.get(metric);
+        double after = (Double) bucketed.get(metric);
+        return before > 0 ? String.format("%.1f%%", (before - after) / before * 100) : "n/a";
+    }
+
+    private static void print(String name, Map<String, Object> result) {
+        System.out.printf("%-10s %12d %10d %16.1f %16.1f%n", name, result.get("entities"), result.get("keys"),
+                result.get("usedMemoryPerEntity"), result.get("keyMemoryPerEntity"));
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+}
@@ -0,0 +1,93 @@
+package com.asd.redis.orm.loadtest;
+
+/**
+ * 压测操作，名称与 BaseMapper 方法一致
+ */
+public enum Operation {
+
+    SELECT_BY_ID("selectById") {
+        @Override
+        void run(Workload workload) {
+            workload.getMapper().selectById(workload.randomId());
+        }
+    },
+
+    SELECT_BATCH_IDS("selectBatchIds") {
+        @Override
+        void run(Workload workload) {
+            workload.getMapper().selectBatchIds(workload.randomIds());
+        }
+    },
+
+    INSERT("insert") {
+        @Override
+        void run(Workload workload) {
+            workload.getMapper().insert(Workload.entity(workload.nextId()));
+        }
+    },
+
+    UPDATE_BY_ID("updateById") {
+        @Override
+        void run(Workload workload) {
+            workload.getMapper().updateById(Workload.entity(workload.randomId()));
+        }
+    },
+
+    DELETE_BY_ID("deleteById") {
+        @Override
+        void run(Workload workload) {
+            // 删除后立即写回，保持实体数量不变
+            Long id = workload.randomId();
+            workload.getMapper().deleteById(id);
+            workload.getMapper().insert(Workload.entity(id));
+        }
+    },
+
+    SELECT_BY_CONDITION("selectByCondition") {
+        @Override
+        void run(Workload workload) {
+            LoadTestEntity condition = new LoadTestEntity();
+            condition.setCategory(workload.randomCategory());
+            workload.getMapper().selectByCondition(condition);
+        }
+    },
+
+    SELECT_PAGE("selectPage") {
+        @Override
+        void run(Workload workload) {
+            long pages = Math.max(1, workload.getEntities() / 20);
+            workload.getMapper().selectPage(1 + workload.randomId() % pages, 20);
+        }
+    },
+
+    SELECT_COUNT("selectCount") {
+        @Override
+        void run(Workload workload) {
+            workload.getMapper().selectCount();
+        }
+    };
+
+    private final String name;
+
+    Operation(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 执行一次操作
+     */
+    abstract void run(Workload workload);
+
+    public static Operation of(String name) {
+        for (Operation operation : values()) {
+            if (operation.name.equals(name)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation: " + name);
+    }
+}
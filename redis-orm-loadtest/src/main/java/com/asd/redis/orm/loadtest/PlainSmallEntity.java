@@ -0,0 +1,42 @@
+package com.asd.redis.orm.loadtest;
+
+import com.asd.redis.orm.annotation.RedisEntity;
+import com.asd.redis.orm.annotation.RedisId;
+
+/**
+ * 普通存储的小实体，每个实体一个键，与 {@link BucketedSmallEntity} 字段相同
+ */
+@RedisEntity(prefix = "loadtest-plain")
+public class PlainSmallEntity {
+
+    @RedisId
+    private Long id;
+
+    private String name;
+
+    private Integer score;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Integer getScore() {
+        return score;
+    }
+
+    public void setScore(Integer score) {
+        this.score = score;
+    }
+}
@@ -0,0 +1,79 @@
+package com.asd.redis.orm.loadtest;
+
+import com.asd.redis.orm.mapper.BaseMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 压测操作共享的状态：Mapper、ID范围和新实体的ID序列
+ */
+public class Workload {
+
+    /**
+     * 条件查询使用的分类数量
+     */
+    static final int CATEGORIES = 100;
+
+    private final BaseMapper<LoadTestEntity> mapper;
+    private final int entities;
+    private final int batch;
+    private final AtomicLong nextId;
+
+    public Workload(BaseMapper<LoadTestEntity> mapper, int entities, int batch) {
+        this.mapper = mapper;
+        this.entities = entities;
+        this.batch = batch;
+        this.nextId = new AtomicLong(entities);
+    }
+
+    public BaseMapper<LoadTestEntity> getMapper() {
+        return mapper;
+    }
+
+    /**
+     * 预先写入范围内的随机ID
+     */
+    public Long randomId() {
+        return (long) ThreadLocalRandom.current().nextInt(entities);
+    }
+
+    public List<Long> randomIds() {
+        List<Long> ids = new ArrayList<>(batch);
+        for (int i = 0; i < batch; i++) {
+            ids.add(randomId());
+        }
+        return ids;
+    }
+
+    public String randomCategory() {
+        return category(ThreadLocalRandom.current().nextInt(CATEGORIES));
+    }
+
+    /**
+     * 预先写入范围之外的新ID
+     */
+    public Long nextId() {
+        return nextId.getAndIncrement();
+    }
+
+    public int getEntities() {
+        return entities;
+    }
+
+    public static LoadTestEntity entity(long id) {
+        LoadTestEntity entity = new LoadTestEntity();
+        entity.setId(id);
+        entity.setName("user-" + id);
+        entity.setCategory(category((int) (id % CATEGORIES)));
+        entity.setScore(ThreadLocalRandom.current().nextInt(1000));
+        entity.setUpdatedAt(System.currentTimeMillis());
+        return entity;
+    }
+
+    private static String category(int index) {
+        return "c" + index;
+    }
+}
@@ -0,0 +1,541 @@
+package com.asd.redis.orm.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.*;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Redis ORM 注解处理器
+ * <p>
+ * 为每个 @RedisEntity 生成元数据类（{@code _RedisMetadata}）和访问器（{@code _RedisAccessor}），
+ * 为每个 @RedisMapper 生成Mapper实现（{@code _RedisImpl}），并输出Mapper索引文件 {@value #MAPPER_INDEX}。
+ * 无法生成的类型会输出提示并跳过，运行时对其回退到反射。
+ */
+@SupportedAnnotationTypes({RedisOrmProcessor.REDIS_ENTITY, RedisOrmProcessor.REDIS_MAPPER})
+public class RedisOrmProcessor extends AbstractProcessor {
+
+    static final String REDIS_ENTITY = "com.asd.redis.orm.annotation.RedisEntity";
+    static final String REDIS_MAPPER = "com.asd.redis.orm.annotation.RedisMapper";
+    static final String MAPPER_INDEX = "META-INF/redis-orm/mappers";
+
+    private static final String REDIS_ID = "com.asd.redis.orm.annotation.RedisId";
+    private static final String BASE_MAPPER = "com.asd.redis.orm.mapper.BaseMapper";
+
+    private Elements elements;
+    private Types types;
+    private Filer filer;
+    private Messager messager;
+    private final Set<String> mappers = new TreeSet<>();
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        this.elements = processingEnv.getElementUtils();
+        this.types = processingEnv.getTypeUtils();
+        this.filer = processingEnv.getFiler();
+        this.messager = processingEnv.getMessager();
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement entityAnnotation = elements.getTypeElement(REDIS_ENTITY);
+        if (entityAnnotation != null) {
+            for (TypeElement type : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(entityAnnotation))) {
+                processEntity(type);
+            }
+        }
+
+        TypeElement mapperAnnotation = elements.getTypeElement(REDIS_MAPPER);
+        if (mapperAnnotation != null) {
+            for (TypeElement type : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(mapperAnnotation))) {
+                processMapper(type);
+            }
+        }
+
+        if (roundEnv.processingOver() && !mappers.isEmpty()) {
+            writeMapperIndex();
+        }
+        return false;
+    }
+
+    // ---------------------------------------------------------------- 实体
+
+    private void processEntity(TypeElement type) {
+        if (type.getKind() != ElementKind.CLASS || type.getNestingKind() != NestingKind.TOP_LEVEL
+                || type.getModifiers().contains(Modifier.ABSTRACT) || !type.getTypeParameters().isEmpty()) {
+            skip(type, "only top-level, non-abstract, non-generic classes are supported");
+            return;
+        }
+
+        List<Property> properties = new ArrayList<>();
+        Property id = null;
+        for (VariableElement field : collectFields(type)) {
+            Property property = resolveProperty(type, field);
+            if (property == null) {
+                skip(type, "field '" + field.getSimpleName() + "' has no accessible getter and setter");
+                return;
+            }
+            properties.add(property);
+            if (hasAnnotation(field, REDIS_ID)) {
+                id = property;
+            }
+        }
+        if (id == null) {
+            skip(type, "no @RedisId field");
+            return;
+        }
+        if (!hasNoArgConstructor(type)) {
+            skip(type, "no accessible no-arg constructor");
+            return;
+        }
+
+        String packageName = elements.getPackageOf(type).getQualifiedName().toString();
+        String simpleName = type.getSimpleName().toString();
+        writeSource(type, packageName, simpleName + "_RedisMetadata",
+                metadataSource(type, packageName, simpleName, id, properties));
+        writeSource(type, packageName, simpleName + "_RedisAccessor",
+                accessorSource(packageName, simpleName, id, properties));
+    }
+
+    private String metadataSource(TypeElement type, String packageName, String simpleName, Property id,
+                                  List<Property> properties) {
+        AnnotationMirror entity = findAnnotation(type, REDIS_ENTITY);
+        String prefix = (String) annotationValue(entity, "prefix");
+        if (prefix == null || prefix.isEmpty()) {
+            prefix = simpleName.toLowerCase();
+        }
+        Object expire = annotationValue(entity, "expire");
+
+        StringBuilder out = header(packageName);
+        out.append("/**\n * ").append(simpleName).append(" 的映射元数据，字段常量可用于按字段名查询\n */\n");
+        out.append("public final class ").append(simpleName).append("_RedisMetadata {\n\n");
+        out.append("    public static final String PREFIX = \"").append(escape(prefix)).append("\";\n");
+        out.append("    public static final long EXPIRE = ").append(expire != null ? expire : -1).append("L;\n");
+        out.append("    public static final String ID = \"").append(id.name).append("\";\n\n");
+        out.append("    private ").append(simpleName).append("_RedisMetadata() {\n    }\n\n");
+        out.append("    /**\n     * 字段名\n     */\n    public static final class Fields {\n\n");
+        for (Property property : properties) {
+            out.append("        public static final String ").append(constantName(property.name))
+                    .append(" = \"").append(property.name).append("\";\n");
+        }
+        out.append("\n        private Fields() {\n        }\n    }\n}\n");
+        return out.toString();
+    }
+
+    private String accessorSource(String packageName, String simpleName, Property id, List<Property> properties) {
+        StringBuilder out = header(packageName);
+        out.append("/**\n * ").append(simpleName).append(" 的字段访问器和编解码器\n */\n");
+        out.append("public final class ").append(simpleName).append("_RedisAccessor extends ")
+                .append("com.asd.redis.orm.core.AbstractEntityAccessor<").append(simpleName).append("> {\n\n");
+
+        for (Property property : properties) {
+            if (property.genericType) {
+                out.append("    private static final java.lang.reflect.Type ").append(typeConstant(property))
+                        .append(" = new com.alibaba.fastjson.TypeReference<").append(property.typeName)
+                        .append(">() {\n    }.getType();\n");
+            }
+        }
+
+        out.append("\n    public ").append(simpleName).append("_RedisAccessor() {\n");
+        out.append("        super(").append(simpleName).append(".class");
+        for (Property property : properties) {
+            out.append(", \"").append(property.name).append('"');
+        }
+        out.append(");\n    }\n\n");
+
+        out.append("    @Override\n    public ").append(simpleName).append(" newInstance() {\n");
+        out.append("        return new ").append(simpleName).append("();\n    }\n\n");
+
+        out.append("    @Override\n    public Object getId(").append(simpleName).append(" entity) {\n");
+        out.append("        return ").append(id.getter).append(";\n    }\n\n");
+
+        out.append("    @Override\n    public void setId(").append(simpleName).append(" entity, Object id) {\n");
+        out.append("        setFieldValue(entity, \"").append(id.name).append("\", id);\n    }\n\n");
+
+        out.append("    @Override\n    public Object getFieldValue(").append(simpleName)
+                .append(" entity, String fieldName) {\n        switch (fieldName) {\n");
+        for (Property property : properties) {
+            out.append("            case \"").append(property.name).append("\":\n");
+            out.append("                return ").append(property.getter).append(";\n");
+        }
+        out.append("            default:\n                throw unknownField(fieldName);\n        }\n    }\n\n");
+
+        out.append("    @Override\n    public void setFieldValue(").append(simpleName)
+                .append(" entity, String fieldName, Object value) {\n        switch (fieldName) {\n");
+        for (Property property : properties) {
+            out.append("            case \"").append(property.name).append("\": {\n");
+            out.append("                ").append(property.boxedTypeName).append(" v = ").append(castExpression(property))
+                    .append(";\n");
+            if (property.primitive) {
+                out.append("                if (v != null) {\n                    ")
+                        .append(String.format(property.setter, "v")).append(";\n                }\n");
+            } else {
+                out.append("                ").append(String.format(property.setter, "v")).append(";\n");
+            }
+            out.append("                return;\n            }\n");
+        }
+        out.append("            default:\n                throw unknownField(fieldName);\n        }\n    }\n\n");
+
+        out.append("    @Override\n    public java.util.Map<String, Object> toMap(").append(simpleName)
+                .append(" entity) {\n");
+        out.append("        java.util.Map<String, Object> values = new java.util.LinkedHashMap<>(")
+                .append(Math.max(16, properties.size() * 2)).append(");\n");
+        for (Property property : properties) {
+            out.append("        values.put(\"").append(property.name).append("\", ").append(property.getter)
+                    .append(");\n");
+        }
+        out.append("        return values;\n    }\n}\n");
+        return out.toString();
+    }
+
+    private String castExpression(Property property) {
+        if (property.genericType) {
+            return "com.asd.redis.orm.core.AbstractEntityAccessor.<" + property.boxedTypeName + ">cast(value, "
+                    + typeConstant(property) + ")";
+        }
+        return "cast(value, " + property.boxedTypeName + ".class)";
+    }
+
+    private static String typeConstant(Property property) {
+        return "TYPE_" + constantName(property.name);
+    }
+
+    /**
+     * 收集实体及父类的实例字段，子类字段在前
+     */
+    private List<VariableElement> collectFields(TypeElement type) {
+        List<VariableElement> fields = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        TypeElement current = type;
+        while (current != null && !current.getQualifiedName().contentEquals("java.lang.Object")) {
+            for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                Set<Modifier> modifiers = field.getModifiers();
+                if (!modifiers.contains(Modifier.STATIC) && !modifiers.contains(Modifier.TRANSIENT)
+                        && names.add(field.getSimpleName().toString())) {
+                    fields.add(field);
+                }
+            }
+            TypeMirror superclass = current.getSuperclass();
+            current = superclass.getKind() == TypeKind.DECLARED ? (TypeElement) types.asElement(superclass) : null;
+        }
+        return fields;
+    }
+
+    /**
+     * 确定字段的读写方式：可直接访问的字段直接读写，否则使用getter/setter（包括Lombok生成的）
+     */
+    private Property resolveProperty(TypeElement type, VariableElement field) {
+        String name = field.getSimpleName().toString();
+        TypeMirror fieldType = field.asType();
+        String typeName;
+        try {
+            typeName = typeName(fieldType);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+
+        Property property = new Property();
+        property.name = name;
+        property.typeName = typeName;
+        property.primitive = fieldType.getKind().isPrimitive();
+        property.boxedTypeName = property.primitive
+                ? types.boxedClass((PrimitiveType) fieldType).getQualifiedName().toString() : typeName;
+        property.genericType = typeName.indexOf('<') >= 0;
+
+        TypeElement declaringType = (TypeElement) field.getEnclosingElement();
+        boolean samePackage = elements.getPackageOf(declaringType).equals(elements.getPackageOf(type));
+        Set<Modifier> modifiers = field.getModifiers();
+        boolean directAccess = modifiers.contains(Modifier.PUBLIC)
+                || (!modifiers.contains(Modifier.PRIVATE) && samePackage);
+
+        String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        boolean booleanField = fieldType.getKind() == TypeKind.BOOLEAN;
+        String getterName = booleanField ? "is" + capitalized : "get" + capitalized;
+        String setterName = "set" + capitalized;
+        if (booleanField && name.length() > 2 && name.startsWith("is") && Character.isUpperCase(name.charAt(2))) {
+            getterName = name;
+            setterName = "set" + name.substring(2);
+        }
+
+        if (directAccess) {
+            property.getter = "entity." + name;
+        } else if (hasMethod(type, getterName, 0) || hasLombok(field, declaringType, "Getter", "Data", "Value")) {
+            property.getter = "entity." + getterName + "()";
+        } else {
+            return null;
+        }
+
+        if (directAccess && !modifiers.contains(Modifier.FINAL)) {
+            property.setter = "entity." + name + " = %s";
+        } else if (hasMethod(type, setterName, 1) || (!modifiers.contains(Modifier.FINAL)
+                && hasLombok(field, declaringType, "Setter", "Data"))) {
+            property.setter = "entity." + setterName + "(%s)";
+        } else {
+            return null;
+        }
+        return property;
+    }
+
+    private boolean hasMethod(TypeElement type, String name, int parameters) {
+        for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(type))) {
+            if (method.getSimpleName().contentEquals(name) && method.getParameters().size() == parameters
+                    && !method.getModifiers().contains(Modifier.PRIVATE)
+                    && !method.getModifiers().contains(Modifier.STATIC)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasNoArgConstructor(TypeElement type) {
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+                return true;
+            }
+        }
+        return hasLombok(null, type, "NoArgsConstructor");
+    }
+
+    /**
+     * 字段或类上是否有指定的Lombok注解，Lombok在同一轮处理中生成方法，此时可能还不在语法树中
+     */
+    private boolean hasLombok(Element field, TypeElement type, String... annotations) {
+        for (String annotation : annotations) {
+            if ((field != null && hasAnnotation(field, "lombok." + annotation))
+                    || hasAnnotation(type, "lombok." + annotation)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 生成源码中使用的完整类型名，类型变量等无法生成的类型抛出IllegalArgumentException
+     */
+    private String typeName(TypeMirror type) {
+        switch (type.getKind()) {
+            case BOOLEAN:
+            case BYTE:
+            case SHORT:
+            case INT:
+            case LONG:
+            case CHAR:
+            case FLOAT:
+            case DOUBLE:
+                return type.getKind().name().toLowerCase();
+            case ARRAY:
+                return typeName(((ArrayType) type).getComponentType()) + "[]";
+            case DECLARED:
+                DeclaredType declaredType = (DeclaredType) type;
+                StringBuilder name = new StringBuilder(
+                        ((TypeElement) declaredType.asElement()).getQualifiedName().toString());
+                if (!declaredType.getTypeArguments().isEmpty()) {
+                    name.append('<');
+                    for (int i = 0; i < declaredType.getTypeArguments().size(); i++) {
+                        if (i > 0) {
+                            name.append(", ");
+                        }
+                        name.append(typeName(declaredType.getTypeArguments().get(i)));
+                    }
+                    name.append('>');
+                }
+                return name.toString();
+            case WILDCARD:
+                WildcardType wildcard = (WildcardType) type;
+                if (wildcard.getExtendsBound() != null) {
+                    return "? extends " + typeName(wildcard.getExtendsBound());
+                } else if (wildcard.getSuperBound() != null) {
+                    return "? super " + typeName(wildcard.getSuperBound());
+                }
+                return "?";
+            default:
+                throw new IllegalArgumentException("Unsupported type: " + type);
+        }
+    }
+
+    // ---------------------------------------------------------------- Mapper
+
+    private void processMapper(TypeElement type) {
+        if (type.getKind() != ElementKind.INTERFACE) {
+            return;
+        }
+        mappers.add(elements.getBinaryName(type).toString());
+
+        if (type.getNestingKind() != NestingKind.TOP_LEVEL || !type.getTypeParameters().isEmpty()) {
+            skip(type, "only top-level, non-generic mapper interfaces get a generated implementation");
+            return;
+        }
+        TypeElement baseMapper = elements.getTypeElement(BASE_MAPPER);
+        if (baseMapper == null || !types.isAssignable(types.erasure(type.asType()), types.erasure(baseMapper.asType()))) {
+            skip(type, "mapper does not extend BaseMapper");
+            return;
+        }
+        for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(type))) {
+            if (method.getModifiers().contains(Modifier.ABSTRACT)
+                    && !method.getEnclosingElement().equals(baseMapper)) {
+                skip(type, "method '" + method.getSimpleName() + "' is not declared by BaseMapper");
+                return;
+            }
+        }
+
+        Object entity = annotationValue(findAnnotation(type, REDIS_MAPPER), "entity");
+        if (!(entity instanceof DeclaredType)) {
+            skip(type, "cannot resolve @RedisMapper(entity)");
+            return;
+        }
+
+        String packageName = elements.getPackageOf(type).getQualifiedName().toString();
+        String simpleName = type.getSimpleName().toString();
+        String entityName = typeName((DeclaredType) entity);
+
+        StringBuilder out = header(packageName);
+        out.append("/**\n * ").append(simpleName).append(" 的实现\n */\n");
+        out.append("public class ").append(simpleName).append("_RedisImpl extends ")
+                .append("com.asd.redis.orm.mapper.BaseMapperImpl<").append(entityName).append("> implements ")
+                .append(simpleName).append(" {\n\n");
+        out.append("    public ").append(simpleName).append("_RedisImpl(com.asd.redis.orm.core.RedisOrmTemplate ")
+                .append("redisOrmTemplate) {\n");
+        out.append("        super(redisOrmTemplate, ").append(simpleName).append(".class);\n    }\n}\n");
+        writeSource(type, packageName, simpleName + "_RedisImpl", out.toString());
+    }
+
+    /**
+     * 写出Mapper索引，增量编译时合并已有索引中仍然存在的Mapper
+     */
+    private void writeMapperIndex() {
+        Set<String> entries = new TreeSet<>(mappers);
+        try {
+            FileObject existing = filer.getResource(StandardLocation.CLASS_OUTPUT, "", MAPPER_INDEX);
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(existing.openInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    line = line.trim();
+                    if (!line.isEmpty() && elements.getTypeElement(line.replace('$', '.')) != null) {
+                        entries.add(line);
+                    }
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // 没有已有的索引
+        }
+
+        try {
+            FileObject index = filer.createResource(StandardLocation.CLASS_OUTPUT, "", MAPPER_INDEX);
+            try (Writer writer = new OutputStreamWriter(index.openOutputStream(), StandardCharsets.UTF_8)) {
+                for (String entry : entries) {
+                    writer.write(entry);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "Failed to write " + MAPPER_INDEX + ": " + e.getMessage());
+        }
+    }
+
+    // ---------------------------------------------------------------- 工具方法
+
+    private StringBuilder header(String packageName) {
+        StringBuilder out = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            out.append("package ").append(packageName).append(";\n\n");
+        }
+        out.append("// 由 redis-orm-processor 生成，请勿修改\n");
+        return out;
+    }
+
+    private void writeSource(TypeElement origin, String packageName, String simpleName, String source) {
+        String name = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        try (Writer writer = filer.createSourceFile(name, origin).openWriter()) {
+            writer.write(source);
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "Failed to generate " + name + ": " + e.getMessage(), origin);
+        }
+    }
+
+    private void skip(TypeElement type, String reason) {
+        messager.printMessage(Diagnostic.Kind.NOTE, "redis-orm: skip code generation for "
+                + type.getQualifiedName() + " (" + reason + "), reflection will be used at runtime", type);
+    }
+
+    private boolean hasAnnotation(Element element, String annotation) {
+        return findAnnotation(element, annotation) != null;
+    }
+
+    private AnnotationMirror findAnnotation(Element element, String annotation) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotation)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    private Object annotationValue(AnnotationMirror annotation, String name) {
+        if (annotation == null) {
+            return null;
+        }
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                : annotation.getElementValues().entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue().getValue();
+            }
+        }
+        return null;
+    }
+
+    private static String constantName(String fieldName) {
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < fieldName.length(); i++) {
+            char c = fieldName.charAt(i);
+            if (Character.isUpperCase(c) && i > 0) {
+                name.append('_');
+            }
+            name.append(Character.toUpperCase(c));
+        }
+        return name.toString();
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    /**
+     * 实体字段的生成信息
+     */
+    private static class Property {
+        String name;
+        String typeName;
+        String boxedTypeName;
+        boolean primitive;
+        boolean genericType;
+        /**
+         * 读取字段的表达式
+         */
+        String getter;
+        /**
+         * 设置字段的语句模板，%s为值
+         */
+        String setter;
+    }
+}
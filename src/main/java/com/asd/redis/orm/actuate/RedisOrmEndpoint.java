@@ -0,0 +1,26 @@
+package com.asd.redis.orm.actuate;
+
+import com.asd.redis.orm.core.RedisOrmTemplate;
+import com.asd.redis.orm.model.KeyspaceStatistics;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+/**
+ * 实体统计端点（/actuator/redisorm）
+ * <p>
+ * 每次请求以 SCAN 采样键空间，返回各已注册实体的键数量、MEMORY USAGE 估算的内存、值大小百分位和最大的键。
+ */
+@Endpoint(id = "redisorm")
+public class RedisOrmEndpoint {
+
+    private final RedisOrmTemplate redisOrmTemplate;
+
+    public RedisOrmEndpoint(RedisOrmTemplate redisOrmTemplate) {
+        this.redisOrmTemplate = redisOrmTemplate;
+    }
+
+    @ReadOperation
+    public KeyspaceStatistics statistics() {
+        return redisOrmTemplate.sampleStatistics();
+    }
+}
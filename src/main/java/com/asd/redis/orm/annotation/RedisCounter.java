@@ -0,0 +1,15 @@
+package com.asd.redis.orm.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 标记数值字段为计数器
+ * <p>
+ * 计数器的值保存在实体之外的哈希中，通过 increment 原子递增，读取实体时以计数器的值为准。
+ * 保存实体时用字段值覆盖计数器，updateById 不会覆盖已有的计数器。计数器字段不能建立索引，声明计数器的实体不能过期。
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RedisCounter {
+}
@@ -18,4 +18,71 @@ public @interface RedisEntity {
      * 过期时间（秒），默认-1表示永不过期
      */
     long expire() default -1;
+
+    /**
+     * 是否启用滑动过期，启用后读取实体会异步批量续期，需配合过期时间使用
+     */
+    boolean slidingExpire() default false;
+
+    /**
+     * 读路由策略，默认使用全局配置 redis.orm.read.policy
+     */
+    ReadPolicy readPolicy() default ReadPolicy.DEFAULT;
+
+    /**
+     * 是否维护游标分页索引，启用后可以使用 selectPageAfter 按ID顺序游标分页
+     */
+    boolean keyset() default false;
+
+    /**
+     * 分桶存储时每个桶的实体数量，0表示每个实体单独一个键
+     * <p>
+     * 分桶存储把ID相邻的实体放在同一个哈希中（ID / bucketSize 为桶号），Redis 以紧凑的 listpack 编码保存小哈希，
+     * 适合数量巨大的小实体。要求ID为整数，实体不能过期；桶大小应不超过 hash-max-listpack-entries（默认128）。
+     */
+    int bucketSize() default 0;
+
+    /**
+     * 是否维护实体ID的布隆过滤器，启用后 selectById、selectBatchIds 对一定不存在的ID不访问Redis
+     * <p>
+     * 过滤器大小由全局配置 redis.orm.membership 决定，删除和过期的实体由后台定期重建清除
+     */
+    boolean bloomFilter() default false;
+
+    /**
+     * 时间序列模式的时间字段（毫秒时间戳、Date、Instant 或 LocalDateTime），为空表示不启用
+     * <p>
+     * 启用后实体ID按时间字段写入时间桶，selectRange 和 selectAggregate 只读取与查询范围重叠的桶
+     */
+    String timeField() default "";
+
+    /**
+     * 时间桶的跨度（秒），默认每小时一个桶
+     */
+    long timeBucket() default 3600;
+
+    /**
+     * 时间桶结束后保留的时间（秒），0表示使用实体的过期时间，实体不过期时桶也不过期
+     */
+    long timeRetention() default 0;
+
+    /**
+     * 读路由策略枚举
+     */
+    enum ReadPolicy {
+        /**
+         * 使用全局配置
+         */
+        DEFAULT,
+
+        /**
+         * 所有读操作访问主节点
+         */
+        PRIMARY,
+
+        /**
+         * 优先访问从节点，从节点不可用时回退到主节点
+         */
+        REPLICA_PREFERRED
+    }
 }
\ No newline at end of file
@@ -18,4 +18,34 @@ public @interface RedisField {
      * 是否忽略该字段
      */
     boolean ignore() default false;
+
+    /**
+     * 索引类型，默认不建立索引
+     */
+    IndexType index() default IndexType.NONE;
+
+    /**
+     * 索引类型枚举
+     */
+    enum IndexType {
+        /**
+         * 不建立索引
+         */
+        NONE,
+
+        /**
+         * 字典序前缀索引，仅支持String字段，用于前缀匹配和字符串范围查询
+         */
+        PREFIX,
+
+        /**
+         * 等值索引，每个字段值一个ID集合，用于条件查询的等值、IN和空值条件
+         */
+        EQUAL,
+
+        /**
+         * 数值范围索引，字段值作为ZSET分值，仅支持数值和日期字段，用于条件查询的比较和区间条件
+         */
+        RANGE
+    }
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.asd.redis.orm.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 标记实体的经纬度字段，保存时维护GEO索引以支持范围检索
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RedisGeo {
+    /**
+     * 经度字段名
+     */
+    String longitude() default "longitude";
+
+    /**
+     * 纬度字段名
+     */
+    String latitude() default "latitude";
+}
@@ -0,0 +1,23 @@
+package com.asd.redis.orm.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 标记字段为关联实体，查询时通过 fetch 参数按需批量加载
+ * <p>
+ * 关联实体只用于读取，必须同时标注 @JsonIgnore 避免随实体一起保存，否则解析实体元数据时抛出异常。
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RedisRef {
+    /**
+     * 保存关联实体ID的字段名，字段可以是单个ID或ID集合
+     */
+    String idField();
+
+    /**
+     * 关联的实体类，默认取字段类型（集合字段取泛型参数）
+     */
+    Class<?> target() default void.class;
+}
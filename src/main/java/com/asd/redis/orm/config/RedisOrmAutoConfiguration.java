@@ -1,16 +1,31 @@
 package com.asd.redis.orm.config;
 
+import com.asd.redis.orm.core.EntityLoader;
+import com.asd.redis.orm.core.ExpireRefresher;
+import com.asd.redis.orm.core.ExpiredEntityCleaner;
+import com.asd.redis.orm.core.ReadRouter;
+import com.asd.redis.orm.core.PooledJsonRedisSerializer;
 import com.asd.redis.orm.core.RedisOrmTemplate;
+import com.asd.redis.orm.core.ShardedRedisOrmTemplate;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisPassword;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
 /**
  * Redis ORM自动配置类
  */
@@ -28,6 +43,49 @@ public class RedisOrmAutoConfiguration {
     @Bean
     @ConditionalOnMissingBean
     public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
+        return createRedisTemplate(connectionFactory, properties.getSerialization());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ReadRouter redisOrmReadRouter(RedisTemplate<String, Object> redisTemplate) {
+        List<RedisTemplate<String, Object>> replicas = new ArrayList<>();
+        for (RedisOrmProperties.Node node : properties.getRead().getReplicas()) {
+            replicas.add(createRedisTemplate(createConnectionFactory(node), properties.getSerialization()));
+        }
+        return new ReadRouter(redisTemplate, replicas, properties.getRead());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ExpireRefresher redisOrmExpireRefresher() {
+        return new ExpireRefresher(properties.getSlidingExpire());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public RedisOrmTemplate redisOrmTemplate(RedisTemplate<String, Object> redisTemplate, ReadRouter readRouter,
+                                             ExpireRefresher expireRefresher,
+                                             ObjectProvider<EntityLoader<?>> loaders) {
+        RedisOrmTemplate redisOrmTemplate = new RedisOrmTemplate(redisTemplate, properties);
+        redisOrmTemplate.setReadRouter(readRouter);
+        redisOrmTemplate.setExpireRefresher(expireRefresher);
+        loaders.orderedStream().forEach(redisOrmTemplate::registerLoader);
+        return redisOrmTemplate;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "redis.orm.expire-cleanup", name = "enabled", havingValue = "true")
+    public ExpiredEntityCleaner redisOrmExpiredEntityCleaner(RedisOrmTemplate redisOrmTemplate) {
+        return new ExpiredEntityCleaner(redisOrmTemplate, properties.getExpireCleanup());
+    }
+
+    /**
+     * 创建ORM使用的RedisTemplate
+     */
+    static RedisTemplate<String, Object> createRedisTemplate(RedisConnectionFactory connectionFactory,
+                                                            RedisOrmProperties.Serialization serialization) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(connectionFactory);
 
@@ -36,7 +94,9 @@ public class RedisOrmAutoConfiguration {
         template.setHashKeySerializer(new StringRedisSerializer());
 
         // 设置value的序列化方式
-        GenericJackson2JsonRedisSerializer jsonRedisSerializer = new GenericJackson2JsonRedisSerializer();
+        GenericJackson2JsonRedisSerializer jsonRedisSerializer = serialization.isPooledBuffers()
+                ? new PooledJsonRedisSerializer(serialization.getMaxPooledSize())
+                : new GenericJackson2JsonRedisSerializer();
         template.setValueSerializer(jsonRedisSerializer);
         template.setHashValueSerializer(jsonRedisSerializer);
 
@@ -44,9 +104,58 @@ public class RedisOrmAutoConfiguration {
         return template;
     }
 
-    @Bean
-    @ConditionalOnMissingBean
-    public RedisOrmTemplate redisOrmTemplate(RedisTemplate<String, Object> redisTemplate) {
-        return new RedisOrmTemplate(redisTemplate, properties);
+    /**
+     * 创建指定节点的连接工厂
+     */
+    static LettuceConnectionFactory createConnectionFactory(RedisOrmProperties.Node node) {
+        RedisStandaloneConfiguration configuration = new RedisStandaloneConfiguration(node.getHost(), node.getPort());
+        configuration.setDatabase(node.getDatabase());
+        if (node.getPassword() != null) {
+            configuration.setPassword(RedisPassword.of(node.getPassword()));
+        }
+
+        LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory(configuration);
+        connectionFactory.afterPropertiesSet();
+        return connectionFactory;
+    }
+
+    /**
+     * 客户端分片配置，启用后RedisOrmTemplate按实体ID路由到各分片节点
+     */
+    @Configuration
+    @ConditionalOnProperty(prefix = "redis.orm.sharding", name = "enabled", havingValue = "true")
+    static class ShardingConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public RedisOrmTemplate redisOrmTemplate(RedisOrmProperties properties, ExpireRefresher expireRefresher,
+                                                 ObjectProvider<EntityLoader<?>> loaders) {
+            if (properties.getSharding().getNodes().isEmpty()) {
+                throw new IllegalStateException("redis.orm.sharding.nodes must not be empty when sharding is enabled");
+            }
+            if (!properties.getRead().getReplicas().isEmpty()) {
+                // 副本只对应一个主节点，分片时需要为每个分片单独配置
+                throw new IllegalStateException("redis.orm.read.replicas is not supported when sharding is enabled, "
+                        + "configure redis.orm.sharding.nodes[n].replicas instead");
+            }
+
+            LinkedHashMap<String, RedisTemplate<String, Object>> shardTemplates = new LinkedHashMap<>();
+            List<ReadRouter> readRouters = new ArrayList<>();
+            for (RedisOrmProperties.Node node : properties.getSharding().getNodes()) {
+                RedisTemplate<String, Object> shardTemplate =
+                        createRedisTemplate(createConnectionFactory(node), properties.getSerialization());
+                List<RedisTemplate<String, Object>> replicas = new ArrayList<>();
+                for (RedisOrmProperties.Node replica : node.getReplicas()) {
+                    replicas.add(createRedisTemplate(createConnectionFactory(replica), properties.getSerialization()));
+                }
+                shardTemplates.put(node.toString(), shardTemplate);
+                readRouters.add(new ReadRouter(shardTemplate, replicas, properties.getRead()));
+            }
+            ShardedRedisOrmTemplate redisOrmTemplate = new ShardedRedisOrmTemplate(shardTemplates, properties);
+            redisOrmTemplate.setReadRouters(readRouters);
+            redisOrmTemplate.setExpireRefresher(expireRefresher);
+            loaders.orderedStream().forEach(redisOrmTemplate::registerLoader);
+            return redisOrmTemplate;
+        }
     }
-}
\ No newline at end of file
+}
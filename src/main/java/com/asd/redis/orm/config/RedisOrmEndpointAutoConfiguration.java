@@ -0,0 +1,27 @@
+package com.asd.redis.orm.config;
+
+import com.asd.redis.orm.actuate.RedisOrmEndpoint;
+import com.asd.redis.orm.core.RedisOrmTemplate;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 实体统计端点自动配置，引入 spring-boot-actuator 时生效
+ */
+@Configuration
+@ConditionalOnClass(Endpoint.class)
+@AutoConfigureAfter(RedisOrmAutoConfiguration.class)
+public class RedisOrmEndpointAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnBean(RedisOrmTemplate.class)
+    public RedisOrmEndpoint redisOrmEndpoint(RedisOrmTemplate redisOrmTemplate) {
+        return new RedisOrmEndpoint(redisOrmTemplate);
+    }
+}
@@ -1,7 +1,11 @@
 package com.asd.redis.orm.config;
 
+import com.asd.redis.orm.annotation.RedisEntity;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Redis ORM配置属性
  */
@@ -28,6 +32,81 @@ public class RedisOrmProperties {
      */
     private int cacheSize = 1000;
 
+    /**
+     * 客户端分片配置
+     */
+    private Sharding sharding = new Sharding();
+
+    /**
+     * 读路由配置
+     */
+    private Read read = new Read();
+
+    /**
+     * 滑动过期配置
+     */
+    private SlidingExpire slidingExpire = new SlidingExpire();
+
+    /**
+     * 过期实体派生结构清理配置
+     */
+    private ExpireCleanup expireCleanup = new ExpireCleanup();
+
+    /**
+     * 条件过滤下推配置
+     */
+    private Pushdown pushdown = new Pushdown();
+
+    /**
+     * 批量读取配置
+     */
+    private MultiGet multiGet = new MultiGet();
+
+    /**
+     * 工作单元会话配置
+     */
+    private Session session = new Session();
+
+    /**
+     * 并发读取合并配置
+     */
+    private Coalescing coalescing = new Coalescing();
+
+    /**
+     * 读穿透加载配置
+     */
+    private Loader loader = new Loader();
+
+    /**
+     * 布隆过滤器配置
+     */
+    private Membership membership = new Membership();
+
+    /**
+     * 不存在ID的本地缓存配置
+     */
+    private NegativeCache negativeCache = new NegativeCache();
+
+    /**
+     * 批量删除配置
+     */
+    private BulkDelete bulkDelete = new BulkDelete();
+
+    /**
+     * 实体统计采样配置
+     */
+    private Stats stats = new Stats();
+
+    /**
+     * 值序列化配置
+     */
+    private Serialization serialization = new Serialization();
+
+    /**
+     * 游标分页配置
+     */
+    private Keyset keyset = new Keyset();
+
     public String getKeyPrefix() {
         return keyPrefix;
     }
@@ -59,4 +138,1020 @@ public class RedisOrmProperties {
     public void setCacheSize(int cacheSize) {
         this.cacheSize = cacheSize;
     }
-}
\ No newline at end of file
+
+    public Sharding getSharding() {
+        return sharding;
+    }
+
+    public void setSharding(Sharding sharding) {
+        this.sharding = sharding;
+    }
+
+    public Read getRead() {
+        return read;
+    }
+
+    public void setRead(Read read) {
+        this.read = read;
+    }
+
+    public SlidingExpire getSlidingExpire() {
+        return slidingExpire;
+    }
+
+    public void setSlidingExpire(SlidingExpire slidingExpire) {
+        this.slidingExpire = slidingExpire;
+    }
+
+    public ExpireCleanup getExpireCleanup() {
+        return expireCleanup;
+    }
+
+    public void setExpireCleanup(ExpireCleanup expireCleanup) {
+        this.expireCleanup = expireCleanup;
+    }
+
+    public Pushdown getPushdown() {
+        return pushdown;
+    }
+
+    public void setPushdown(Pushdown pushdown) {
+        this.pushdown = pushdown;
+    }
+
+    public MultiGet getMultiGet() {
+        return multiGet;
+    }
+
+    public void setMultiGet(MultiGet multiGet) {
+        this.multiGet = multiGet;
+    }
+
+    public Session getSession() {
+        return session;
+    }
+
+    public void setSession(Session session) {
+        this.session = session;
+    }
+
+    public Coalescing getCoalescing() {
+        return coalescing;
+    }
+
+    public void setCoalescing(Coalescing coalescing) {
+        this.coalescing = coalescing;
+    }
+
+    public Loader getLoader() {
+        return loader;
+    }
+
+    public void setLoader(Loader loader) {
+        this.loader = loader;
+    }
+
+    public Membership getMembership() {
+        return membership;
+    }
+
+    public void setMembership(Membership membership) {
+        this.membership = membership;
+    }
+
+    public NegativeCache getNegativeCache() {
+        return negativeCache;
+    }
+
+    public void setNegativeCache(NegativeCache negativeCache) {
+        this.negativeCache = negativeCache;
+    }
+
+    public BulkDelete getBulkDelete() {
+        return bulkDelete;
+    }
+
+    public void setBulkDelete(BulkDelete bulkDelete) {
+        this.bulkDelete = bulkDelete;
+    }
+
+    public Stats getStats() {
+        return stats;
+    }
+
+    public void setStats(Stats stats) {
+        this.stats = stats;
+    }
+
+    public Serialization getSerialization() {
+        return serialization;
+    }
+
+    public void setSerialization(Serialization serialization) {
+        this.serialization = serialization;
+    }
+
+    public Keyset getKeyset() {
+        return keyset;
+    }
+
+    public void setKeyset(Keyset keyset) {
+        this.keyset = keyset;
+    }
+
+    /**
+     * 客户端分片配置
+     */
+    public static class Sharding {
+
+        /**
+         * 是否启用客户端分片
+         */
+        private boolean enabled = false;
+
+        /**
+         * 每个分片在哈希环上的虚拟节点数
+         */
+        private int virtualNodes = 160;
+
+        /**
+         * 跨分片并行操作的线程数，小于等于0时与分片数一致
+         */
+        private int parallelism = 0;
+
+        /**
+         * 分片节点列表
+         */
+        private List<Node> nodes = new ArrayList<>();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getVirtualNodes() {
+            return virtualNodes;
+        }
+
+        public void setVirtualNodes(int virtualNodes) {
+            this.virtualNodes = virtualNodes;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public List<Node> getNodes() {
+            return nodes;
+        }
+
+        public void setNodes(List<Node> nodes) {
+            this.nodes = nodes;
+        }
+    }
+
+    /**
+     * 读路由配置
+     */
+    public static class Read {
+
+        /**
+         * 默认读路由策略，实体可通过 @RedisEntity(readPolicy = ...) 覆盖
+         */
+        private RedisEntity.ReadPolicy policy = RedisEntity.ReadPolicy.PRIMARY;
+
+        /**
+         * 从节点列表
+         */
+        private List<Node> replicas = new ArrayList<>();
+
+        /**
+         * 读己之写窗口（毫秒），本地写入后在该时间内的读操作访问主节点，0表示关闭
+         */
+        private long readYourWritesWindow = 0;
+
+        /**
+         * 读己之写窗口内最多跟踪的键数量，超过时改为按实体类型跟踪（窗口内该类型的读取都访问主节点）
+         */
+        private int readYourWritesTrackingSize = 100000;
+
+        public RedisEntity.ReadPolicy getPolicy() {
+            return policy;
+        }
+
+        public void setPolicy(RedisEntity.ReadPolicy policy) {
+            this.policy = policy;
+        }
+
+        public List<Node> getReplicas() {
+            return replicas;
+        }
+
+        public void setReplicas(List<Node> replicas) {
+            this.replicas = replicas;
+        }
+
+        public long getReadYourWritesWindow() {
+            return readYourWritesWindow;
+        }
+
+        public void setReadYourWritesWindow(long readYourWritesWindow) {
+            this.readYourWritesWindow = readYourWritesWindow;
+        }
+
+        public int getReadYourWritesTrackingSize() {
+            return readYourWritesTrackingSize;
+        }
+
+        public void setReadYourWritesTrackingSize(int readYourWritesTrackingSize) {
+            this.readYourWritesTrackingSize = readYourWritesTrackingSize;
+        }
+    }
+
+    /**
+     * 滑动过期配置
+     */
+    public static class SlidingExpire {
+
+        /**
+         * 批量续期的间隔（毫秒）
+         */
+        private long flushInterval = 1000;
+
+        /**
+         * 每个管道发送的续期命令数
+         */
+        private int batchSize = 500;
+
+        /**
+         * 最多等待续期的键数量，超出后丢弃新的续期请求
+         */
+        private int maxPending = 100000;
+
+        public long getFlushInterval() {
+            return flushInterval;
+        }
+
+        public void setFlushInterval(long flushInterval) {
+            this.flushInterval = flushInterval;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getMaxPending() {
+            return maxPending;
+        }
+
+        public void setMaxPending(int maxPending) {
+            this.maxPending = maxPending;
+        }
+    }
+
+    /**
+     * 过期实体派生结构清理配置
+     */
+    public static class ExpireCleanup {
+
+        /**
+         * 是否订阅键空间通知，清理过期或被淘汰实体的索引
+         */
+        private boolean enabled = false;
+
+        /**
+         * 是否自动开启服务端的过期和淘汰事件通知（notify-keyspace-events），修改的是整个服务端的配置，默认不修改
+         */
+        private boolean configureNotifications = false;
+
+        /**
+         * 每批清理的实体数量
+         */
+        private int batchSize = 500;
+
+        /**
+         * 批量清理的间隔（毫秒）
+         */
+        private long flushInterval = 200;
+
+        /**
+         * 等待清理的事件队列容量，超出后丢弃事件，由对账兜底
+         */
+        private int queueCapacity = 100000;
+
+        /**
+         * 对账间隔（毫秒），0表示不对账
+         */
+        private long reconcileInterval = 3600000;
+
+        /**
+         * 对账时每秒检查的ID数量上限，0表示不限流
+         */
+        private double reconcileRate = 1000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public boolean isConfigureNotifications() {
+            return configureNotifications;
+        }
+
+        public void setConfigureNotifications(boolean configureNotifications) {
+            this.configureNotifications = configureNotifications;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getFlushInterval() {
+            return flushInterval;
+        }
+
+        public void setFlushInterval(long flushInterval) {
+            this.flushInterval = flushInterval;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public long getReconcileInterval() {
+            return reconcileInterval;
+        }
+
+        public void setReconcileInterval(long reconcileInterval) {
+            this.reconcileInterval = reconcileInterval;
+        }
+
+        public double getReconcileRate() {
+            return reconcileRate;
+        }
+
+        public void setReconcileRate(double reconcileRate) {
+            this.reconcileRate = reconcileRate;
+        }
+    }
+
+    /**
+     * 条件过滤下推配置
+     */
+    public static class Pushdown {
+
+        /**
+         * 是否在服务端脚本中预先过滤无法使用索引的条件，只返回可能匹配的实体
+         */
+        private boolean enabled = false;
+
+        /**
+         * 单次脚本执行的时间预算（毫秒），按上一批的耗时调整批大小
+         */
+        private long timeBudget = 5;
+
+        /**
+         * 初始批大小（键数量）
+         */
+        private int batchSize = 200;
+
+        /**
+         * 最大批大小（键数量）
+         */
+        private int maxBatchSize = 5000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getTimeBudget() {
+            return timeBudget;
+        }
+
+        public void setTimeBudget(long timeBudget) {
+            this.timeBudget = timeBudget;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getMaxBatchSize() {
+            return maxBatchSize;
+        }
+
+        public void setMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+        }
+    }
+
+    /**
+     * 批量读取配置
+     */
+    public static class MultiGet {
+
+        /**
+         * 每个 MGET 的最大键数量，超过时拆分为多个分块
+         */
+        private int chunkSize = 1000;
+
+        /**
+         * 同时读取和解码的分块数量
+         */
+        private int parallelism = 4;
+
+        /**
+         * 等待执行的分块的最大数量，队列已满时由调用线程直接读取该分块
+         */
+        private int queueCapacity = 64;
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+    }
+
+    /**
+     * 工作单元会话配置
+     */
+    public static class Session {
+
+        /**
+         * Spring事务中的写操作是否自动收集到会话中，在事务提交后一次写入
+         */
+        private boolean transactionSynchronization = false;
+
+        /**
+         * 提交时被 WATCH 的键被其他客户端修改、EXEC 被放弃后的重试次数，用尽后提交抛出异常
+         */
+        private int maxRetries = 3;
+
+        public boolean isTransactionSynchronization() {
+            return transactionSynchronization;
+        }
+
+        public void setTransactionSynchronization(boolean transactionSynchronization) {
+            this.transactionSynchronization = transactionSynchronization;
+        }
+
+        public int getMaxRetries() {
+            return maxRetries;
+        }
+
+        public void setMaxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+        }
+    }
+
+    /**
+     * 并发读取合并配置
+     */
+    public static class Coalescing {
+
+        /**
+         * 是否合并并发的 selectById 为批量读取
+         */
+        private boolean enabled = false;
+
+        /**
+         * 收集请求的时间窗口（微秒）
+         */
+        private long windowMicros = 500;
+
+        /**
+         * 每批的最大键数量，达到时立即发送
+         */
+        private int maxBatchSize = 100;
+
+        /**
+         * 发送批次的线程数，各窗口的批次并行发送
+         */
+        private int dispatchThreads = 4;
+
+        /**
+         * 发送线程的队列容量，队列满时由提交的线程直接发送
+         */
+        private int dispatchQueueCapacity = 1000;
+
+        /**
+         * 调用方等待批次完成的最长时间（毫秒）
+         */
+        private long loadTimeout = 3000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getWindowMicros() {
+            return windowMicros;
+        }
+
+        public void setWindowMicros(long windowMicros) {
+            this.windowMicros = windowMicros;
+        }
+
+        public int getMaxBatchSize() {
+            return maxBatchSize;
+        }
+
+        public void setMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+        }
+
+        public int getDispatchThreads() {
+            return dispatchThreads;
+        }
+
+        public void setDispatchThreads(int dispatchThreads) {
+            this.dispatchThreads = dispatchThreads;
+        }
+
+        public int getDispatchQueueCapacity() {
+            return dispatchQueueCapacity;
+        }
+
+        public void setDispatchQueueCapacity(int dispatchQueueCapacity) {
+            this.dispatchQueueCapacity = dispatchQueueCapacity;
+        }
+
+        public long getLoadTimeout() {
+            return loadTimeout;
+        }
+
+        public void setLoadTimeout(long loadTimeout) {
+            this.loadTimeout = loadTimeout;
+        }
+    }
+
+    /**
+     * 读穿透加载配置
+     */
+    public static class Loader {
+
+        /**
+         * 是否使用Redis分布式锁，保证多个实例中同一个ID只有一个执行加载
+         */
+        private boolean lockEnabled = true;
+
+        /**
+         * 分布式锁的过期时间，也是其他实例等待写回的最长时间（毫秒）
+         */
+        private long lockTimeout = 3000;
+
+        /**
+         * 是否在过期前按概率提前刷新
+         */
+        private boolean earlyRefresh = true;
+
+        /**
+         * 提前刷新的系数，越大越早刷新
+         */
+        private double beta = 1.0;
+
+        /**
+         * 异步刷新的线程数
+         */
+        private int refreshThreads = 2;
+
+        /**
+         * 异步刷新的队列容量，队列满时跳过刷新
+         */
+        private int refreshQueueCapacity = 1000;
+
+        public boolean isLockEnabled() {
+            return lockEnabled;
+        }
+
+        public void setLockEnabled(boolean lockEnabled) {
+            this.lockEnabled = lockEnabled;
+        }
+
+        public long getLockTimeout() {
+            return lockTimeout;
+        }
+
+        public void setLockTimeout(long lockTimeout) {
+            this.lockTimeout = lockTimeout;
+        }
+
+        public boolean isEarlyRefresh() {
+            return earlyRefresh;
+        }
+
+        public void setEarlyRefresh(boolean earlyRefresh) {
+            this.earlyRefresh = earlyRefresh;
+        }
+
+        public double getBeta() {
+            return beta;
+        }
+
+        public void setBeta(double beta) {
+            this.beta = beta;
+        }
+
+        public int getRefreshThreads() {
+            return refreshThreads;
+        }
+
+        public void setRefreshThreads(int refreshThreads) {
+            this.refreshThreads = refreshThreads;
+        }
+
+        public int getRefreshQueueCapacity() {
+            return refreshQueueCapacity;
+        }
+
+        public void setRefreshQueueCapacity(int refreshQueueCapacity) {
+            this.refreshQueueCapacity = refreshQueueCapacity;
+        }
+    }
+
+    /**
+     * 布隆过滤器配置，对 @RedisEntity(bloomFilter = true) 的实体生效
+     */
+    public static class Membership {
+
+        /**
+         * 预计的实体数量，超过后误判率上升
+         */
+        private long expectedInsertions = 1_000_000;
+
+        /**
+         * 期望的误判率
+         */
+        private double falsePositiveRate = 0.01;
+
+        /**
+         * 本地副本从Redis重新加载的间隔（秒），关闭确认时其他实例写入的实体最多在这段时间内被误判为不存在
+         */
+        private long refreshInterval = 10;
+
+        /**
+         * 本地副本中缺少位的ID是否以 GETBIT 在Redis位图上确认；关闭后不访问Redis，直接判断为不存在
+         */
+        private boolean confirmMisses = true;
+
+        /**
+         * 后台重建的间隔（秒），集群内同一时间只有一个实例重建
+         */
+        private long rebuildInterval = 3600;
+
+        public long getExpectedInsertions() {
+            return expectedInsertions;
+        }
+
+        public void setExpectedInsertions(long expectedInsertions) {
+            this.expectedInsertions = expectedInsertions;
+        }
+
+        public double getFalsePositiveRate() {
+            return falsePositiveRate;
+        }
+
+        public void setFalsePositiveRate(double falsePositiveRate) {
+            this.falsePositiveRate = falsePositiveRate;
+        }
+
+        public long getRefreshInterval() {
+            return refreshInterval;
+        }
+
+        public void setRefreshInterval(long refreshInterval) {
+            this.refreshInterval = refreshInterval;
+        }
+
+        public boolean isConfirmMisses() {
+            return confirmMisses;
+        }
+
+        public void setConfirmMisses(boolean confirmMisses) {
+            this.confirmMisses = confirmMisses;
+        }
+
+        public long getRebuildInterval() {
+            return rebuildInterval;
+        }
+
+        public void setRebuildInterval(long rebuildInterval) {
+            this.rebuildInterval = rebuildInterval;
+        }
+    }
+
+    /**
+     * 不存在ID的本地缓存配置
+     */
+    public static class NegativeCache {
+
+        /**
+         * 是否缓存 selectById 未命中的ID
+         */
+        private boolean enabled = false;
+
+        /**
+         * 缓存时间（毫秒），缓存只在本实例内有效，其他实例写入的实体最多在这段时间内被当作不存在，应保持较短
+         */
+        private long ttl = 1000;
+
+        /**
+         * 本地缓存的最大数量，达到后不再缓存新的ID
+         */
+        private int maxSize = 100_000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(long ttl) {
+            this.ttl = ttl;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+    }
+
+    /**
+     * 批量删除配置，对 deleteByCondition 和 deleteAll 生效
+     */
+    public static class BulkDelete {
+
+        /**
+         * 每批扫描和删除的实体数量
+         */
+        private int batchSize = 500;
+
+        /**
+         * 每秒删除的实体数量限制，小于等于0表示不限流
+         */
+        private double rateLimit = 0;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public double getRateLimit() {
+            return rateLimit;
+        }
+
+        public void setRateLimit(double rateLimit) {
+            this.rateLimit = rateLimit;
+        }
+    }
+
+    /**
+     * 游标分页配置
+     */
+    public static class Keyset {
+
+        /**
+         * 每次调用最多检查的ID数量（不少于页大小），条件分页达到上限时返回不满一页的结果和游标
+         */
+        private int maxScanned = 1000;
+
+        public int getMaxScanned() {
+            return maxScanned;
+        }
+
+        public void setMaxScanned(int maxScanned) {
+            this.maxScanned = maxScanned;
+        }
+    }
+
+    /**
+     * 实体统计采样配置
+     */
+    public static class Stats {
+
+        /**
+         * 每个节点最多扫描的键数量，超过后按已扫描的比例估算
+         */
+        private int maxScanKeys = 100_000;
+
+        /**
+         * 每次 SCAN 的 COUNT
+         */
+        private int scanCount = 500;
+
+        /**
+         * 每个节点上每种实体执行 MEMORY USAGE 的键数量
+         */
+        private int sampleSize = 1000;
+
+        /**
+         * 每种实体报告的最大键数量
+         */
+        private int topKeys = 10;
+
+        public int getMaxScanKeys() {
+            return maxScanKeys;
+        }
+
+        public void setMaxScanKeys(int maxScanKeys) {
+            this.maxScanKeys = maxScanKeys;
+        }
+
+        public int getScanCount() {
+            return scanCount;
+        }
+
+        public void setScanCount(int scanCount) {
+            this.scanCount = scanCount;
+        }
+
+        public int getSampleSize() {
+            return sampleSize;
+        }
+
+        public void setSampleSize(int sampleSize) {
+            this.sampleSize = sampleSize;
+        }
+
+        public int getTopKeys() {
+            return topKeys;
+        }
+
+        public void setTopKeys(int topKeys) {
+            this.topKeys = topKeys;
+        }
+    }
+
+    /**
+     * Redis节点配置
+     */
+    public static class Node {
+
+        /**
+         * 主机地址
+         */
+        private String host = "localhost";
+
+        /**
+         * 端口
+         */
+        private int port = 6379;
+
+        /**
+         * 密码
+         */
+        private String password;
+
+        /**
+         * 数据库索引
+         */
+        private int database = 0;
+
+        /**
+         * 该节点的只读副本，仅用于分片节点（非分片时使用 redis.orm.read.replicas）
+         */
+        private List<Node> replicas = new ArrayList<>();
+
+        public String getHost() {
+            return host;
+        }
+
+        public void setHost(String host) {
+            this.host = host;
+        }
+
+        public int getPort() {
+            return port;
+        }
+
+        public void setPort(int port) {
+            this.port = port;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public int getDatabase() {
+            return database;
+        }
+
+        public void setDatabase(int database) {
+            this.database = database;
+        }
+
+        public List<Node> getReplicas() {
+            return replicas;
+        }
+
+        public void setReplicas(List<Node> replicas) {
+            this.replicas = replicas;
+        }
+
+        @Override
+        public String toString() {
+            return host + ":" + port + "/" + database;
+        }
+    }
+
+    /**
+     * 值序列化配置
+     */
+    public static class Serialization {
+
+        /**
+         * 是否在线程本地缓冲区中编码值（输出与 GenericJackson2JsonRedisSerializer 相同），默认关闭。
+         * 只作用于本starter创建的RedisTemplate（包括副本和分片），自定义了redisTemplate时不要开启，
+         * 否则副本和分片的序列化器会与自定义的主节点不一致
+         */
+        private boolean pooledBuffers = false;
+
+        /**
+         * 可复用缓冲区的最大字节数，更大的缓冲区用完即丢弃
+         */
+        private int maxPooledSize = 64 * 1024;
+
+        public boolean isPooledBuffers() {
+            return pooledBuffers;
+        }
+
+        public void setPooledBuffers(boolean pooledBuffers) {
+            this.pooledBuffers = pooledBuffers;
+        }
+
+        public int getMaxPooledSize() {
+            return maxPooledSize;
+        }
+
+        public void setMaxPooledSize(int maxPooledSize) {
+            this.maxPooledSize = maxPooledSize;
+        }
+    }
+}
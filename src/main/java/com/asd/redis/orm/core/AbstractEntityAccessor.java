@@ -0,0 +1,61 @@
+package com.asd.redis.orm.core;
+
+import com.alibaba.fastjson.parser.ParserConfig;
+import com.alibaba.fastjson.util.TypeUtils;
+
+import java.lang.reflect.Type;
+import java.util.Map;
+
+/**
+ * 生成的实体访问器的基类
+ */
+public abstract class AbstractEntityAccessor<T> implements EntityAccessor<T> {
+
+    private final Class<T> entityClass;
+    private final String[] fieldNames;
+
+    protected AbstractEntityAccessor(Class<T> entityClass, String... fieldNames) {
+        this.entityClass = entityClass;
+        this.fieldNames = fieldNames;
+    }
+
+    @Override
+    public Class<T> getEntityClass() {
+        return entityClass;
+    }
+
+    @Override
+    public String[] getFieldNames() {
+        return fieldNames.clone();
+    }
+
+    @Override
+    public T fromMap(Map<String, ?> values) {
+        T entity = newInstance();
+        for (String fieldName : fieldNames) {
+            if (values.containsKey(fieldName)) {
+                setFieldValue(entity, fieldName, values.get(fieldName));
+            }
+        }
+        return entity;
+    }
+
+    /**
+     * 把值转换为字段类型
+     */
+    protected static <V> V cast(Object value, Class<V> type) {
+        return type.isInstance(value) ? type.cast(value) : TypeUtils.castToJavaBean(value, type);
+    }
+
+    /**
+     * 把值转换为泛型字段类型
+     */
+    @SuppressWarnings("unchecked")
+    protected static <V> V cast(Object value, Type type) {
+        return (V) TypeUtils.cast(value, type, ParserConfig.getGlobalInstance());
+    }
+
+    protected IllegalArgumentException unknownField(String fieldName) {
+        return new IllegalArgumentException("Field '" + fieldName + "' not found in " + entityClass.getName());
+    }
+}
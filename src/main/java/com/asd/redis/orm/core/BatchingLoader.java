@@ -0,0 +1,201 @@
+package com.asd.redis.orm.core;
+
+import com.asd.redis.orm.config.RedisOrmProperties;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+/**
+ * 并发单键读取的合并加载器
+ * <p>
+ * 在很短的时间窗口内收集各线程的单键读取，去重后按实体类型各发送一次 MGET，再唤醒所有等待的调用方。
+ * 同一个键已在加载中时直接共享该次加载。批次达到最大数量时由触发的调用线程立即发送，否则定时线程在窗口结束时
+ * 把批次交给发送线程池，各窗口的批次并行发送。调用方最多等待 loadTimeout 毫秒。
+ * 未开启时不创建定时线程和发送线程。
+ */
+class BatchingLoader {
+
+    private final RedisOrmProperties.Coalescing properties;
+    private final BiFunction<Class<?>, List<String>, List<byte[]>> fetcher;
+    private final ConcurrentHashMap<String, CompletableFuture<byte[]>> inFlight = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private final ThreadPoolExecutor dispatcher;
+    private final Object lock = new Object();
+    private volatile boolean closed;
+
+    /**
+     * 等待发送的键到实体类型的映射
+     */
+    private Map<String, Class<?>> pending = new LinkedHashMap<>();
+
+    /**
+     * @param fetcher 按实体类型批量读取，返回与键一一对应的值
+     */
+    BatchingLoader(RedisOrmProperties.Coalescing properties, BiFunction<Class<?>, List<String>, List<byte[]>> fetcher) {
+        this.properties = properties;
+        this.fetcher = fetcher;
+        this.scheduler = properties.isEnabled() ? Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "redis-orm-coalescing");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+        this.dispatcher = properties.isEnabled() ? newDispatcher(properties) : null;
+    }
+
+    /**
+     * 队列满或线程池关闭后由提交的线程直接发送，不会丢弃批次
+     */
+    private static ThreadPoolExecutor newDispatcher(RedisOrmProperties.Coalescing properties) {
+        int threads = Math.max(1, properties.getDispatchThreads());
+        AtomicInteger threadIndex = new AtomicInteger();
+        ThreadPoolExecutor dispatcher = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, properties.getDispatchQueueCapacity())), r -> {
+            Thread thread = new Thread(r, "redis-orm-coalescing-dispatch-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, (task, executor) -> task.run());
+        dispatcher.allowCoreThreadTimeOut(true);
+        return dispatcher;
+    }
+
+    boolean isEnabled() {
+        return scheduler != null && !closed;
+    }
+
+    /**
+     * 关闭定时线程和发送线程，已在等待的批次仍会发送，之后的读取不再合并
+     */
+    void shutdown() {
+        closed = true;
+        if (scheduler != null) {
+            scheduler.shutdown();
+            dispatcher.shutdown();
+        }
+    }
+
+    /**
+     * 读取单个键，等待所在批次完成
+     * <p>
+     * 返回原始值，由各调用方分别反序列化，共享同一次加载的调用方不会拿到同一个实体对象
+     */
+    byte[] load(Class<?> entityClass, String key) {
+        CompletableFuture<byte[]> future = inFlight.get(key);
+        if (future == null) {
+            Map<String, Class<?>> batch = null;
+            synchronized (lock) {
+                future = inFlight.get(key);
+                if (future == null) {
+                    future = new CompletableFuture<>();
+                    inFlight.put(key, future);
+                    pending.put(key, entityClass);
+                    if (pending.size() >= Math.max(1, properties.getMaxBatchSize())) {
+                        batch = drain();
+                    } else if (pending.size() == 1) {
+                        try {
+                            scheduler.schedule(this::flush, properties.getWindowMicros(), TimeUnit.MICROSECONDS);
+                        } catch (RejectedExecutionException e) {
+                            // 已关闭：由当前线程直接发送
+                            batch = drain();
+                        }
+                    }
+                }
+            }
+            if (batch != null) {
+                dispatch(batch);
+            }
+        }
+
+        try {
+            return future.get(properties.getLoadTimeout(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading " + key, e);
+        } catch (TimeoutException e) {
+            // 之后的读取重新发起加载，不再等待这次可能卡住的批次
+            inFlight.remove(key, future);
+            throw new IllegalStateException("Timed out after " + properties.getLoadTimeout()
+                    + " ms while loading " + key, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException("Failed to load " + key, e.getCause());
+        }
+    }
+
+    /**
+     * 窗口结束，把等待中的键交给发送线程（可能已被达到最大数量的调用线程发送）
+     */
+    private void flush() {
+        Map<String, Class<?>> batch;
+        synchronized (lock) {
+            batch = drain();
+        }
+        if (!batch.isEmpty()) {
+            dispatcher.execute(() -> dispatch(batch));
+        }
+    }
+
+    private Map<String, Class<?>> drain() {
+        Map<String, Class<?>> batch = pending;
+        pending = new LinkedHashMap<>();
+        return batch;
+    }
+
+    private void dispatch(Map<String, Class<?>> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        Map<Class<?>, List<String>> keysByType = new LinkedHashMap<>();
+        batch.forEach((key, entityClass) -> keysByType.computeIfAbsent(entityClass, k -> new ArrayList<>()).add(key));
+        for (Map.Entry<Class<?>, List<String>> entry : keysByType.entrySet()) {
+            List<String> keys = entry.getValue();
+            try {
+                List<byte[]> values = fetcher.apply(entry.getKey(), keys);
+                for (int i = 0; i < keys.size(); i++) {
+                    complete(keys.get(i), values != null && i < values.size() ? values.get(i) : null, null);
+                }
+            } catch (Throwable e) {
+                // 包括 Error，不能让等待的调用方一直阻塞
+                for (String key : keys) {
+                    complete(key, null, e);
+                }
+                if (e instanceof Error) {
+                    failRemaining(keysByType, entry.getKey(), e);
+                    throw (Error) e;
+                }
+            }
+        }
+    }
+
+    /**
+     * 出现 Error 时结束同一批次中尚未读取的其他类型
+     */
+    private void failRemaining(Map<Class<?>, List<String>> keysByType, Class<?> failedType, Throwable error) {
+        boolean remaining = false;
+        for (Map.Entry<Class<?>, List<String>> entry : keysByType.entrySet()) {
+            if (remaining) {
+                for (String key : entry.getValue()) {
+                    complete(key, null, error);
+                }
+            } else if (entry.getKey() == failedType) {
+                remaining = true;
+            }
+        }
+    }
+
+    private void complete(String key, byte[] value, Throwable error) {
+        CompletableFuture<byte[]> future = inFlight.remove(key);
+        if (future == null) {
+            return;
+        }
+        if (error != null) {
+            future.completeExceptionally(error);
+        } else {
+            future.complete(value);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.asd.redis.orm.core;
+
+import com.asd.redis.orm.config.RedisOrmProperties;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * 分块并行的批量读取
+ * <p>
+ * 键数量超过分块大小时拆分为多个 MGET，在有界线程池（线程数和等待队列都有上限，饱和时由调用线程执行）中并发执行，每个分块取回后立即在同一线程中解码，
+ * 解码与其他分块的网络等待重叠。Lettuce 共享连接上的并发命令会被流水线发送，不会占用额外连接。
+ * 结果按分块顺序拼接，与输入键的顺序一致。
+ */
+class ChunkedMultiGet {
+
+    private final RedisOrmProperties.MultiGet properties;
+    private volatile ThreadPoolExecutor executor;
+    private volatile boolean closed;
+
+    ChunkedMultiGet(RedisOrmProperties.MultiGet properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * 是否需要拆分
+     */
+    boolean isChunked(int size) {
+        return properties.getChunkSize() > 0 && size > properties.getChunkSize();
+    }
+
+    /**
+     * 分块读取并解码
+     *
+     * @param keys    读取的键
+     * @param fetcher 在指定键上执行读取的方式（用于读路由），返回与键一一对应的原始值
+     * @param decoder 把原始值解码为实体，原始值为null时也会调用
+     * @return 与键一一对应的实体，不存在的键对应null
+     */
+    <T> List<T> get(List<String> keys, BiFunction<List<String>, RedisCallback<List<byte[]>>, List<byte[]>> fetcher,
+                    Function<byte[], T> decoder) {
+        int chunkSize = properties.getChunkSize();
+        List<Future<List<T>>> futures = new ArrayList<>();
+        for (int offset = 0; offset < keys.size(); offset += chunkSize) {
+            List<String> chunk = keys.subList(offset, Math.min(offset + chunkSize, keys.size()));
+            futures.add(submit(() -> {
+                byte[][] rawKeys = new byte[chunk.size()][];
+                for (int i = 0; i < chunk.size(); i++) {
+                    rawKeys[i] = StringRedisSerializer.UTF_8.serialize(chunk.get(i));
+                }
+                List<byte[]> values = fetcher.apply(chunk, connection -> connection.mGet(rawKeys));
+
+                List<T> entities = new ArrayList<>(chunk.size());
+                for (int i = 0; i < chunk.size(); i++) {
+                    entities.add(decoder.apply(values != null && i < values.size() ? values.get(i) : null));
+                }
+                return entities;
+            }));
+        }
+
+        List<T> result = new ArrayList<>(keys.size());
+        try {
+            for (Future<List<T>> future : futures) {
+                result.addAll(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reading entities", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException("Failed to read entities", e.getCause());
+        } finally {
+            cancel(futures);
+        }
+        return result;
+    }
+
+    /**
+     * 提交一个分块，关闭后在调用线程中执行
+     */
+    private <T> Future<T> submit(Callable<T> chunk) {
+        if (closed) {
+            FutureTask<T> task = new FutureTask<>(chunk);
+            task.run();
+            return task;
+        }
+        return executor().submit(chunk);
+    }
+
+    /**
+     * 关闭线程池，之后的分块在调用线程中执行
+     */
+    void shutdown() {
+        closed = true;
+        synchronized (this) {
+            if (executor != null) {
+                executor.shutdown();
+            }
+        }
+    }
+
+    private static void cancel(Collection<? extends Future<?>> futures) {
+        for (Future<?> future : futures) {
+            future.cancel(true);
+        }
+    }
+
+    /**
+     * 首次拆分时创建线程池，空闲线程会自动回收
+     */
+    private ThreadPoolExecutor executor() {
+        ThreadPoolExecutor current = executor;
+        if (current == null) {
+            synchronized (this) {
+                current = executor;
+                if (current == null) {
+                    int parallelism = Math.max(1, properties.getParallelism());
+                    AtomicInteger threadIndex = new AtomicInteger();
+                    // 有界队列，线程池饱和或关闭时由调用线程执行分块，不会无限堆积，也不会丢弃分块
+                    current = new ThreadPoolExecutor(parallelism, parallelism, 60, TimeUnit.SECONDS,
+                            new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity())), r -> {
+                        Thread thread = new Thread(r, "redis-orm-mget-" + threadIndex.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }, (task, pool) -> task.run());
+                    current.allowCoreThreadTimeOut(true);
+                    executor = current;
+                }
+            }
+        }
+        return current;
+    }
+}
@@ -0,0 +1,56 @@
+package com.asd.redis.orm.core;
+
+import java.util.Map;
+
+/**
+ * 实体访问器，由注解处理器在编译期为 @RedisEntity 生成，类名为实体类名加 {@code _RedisAccessor}
+ * <p>
+ * 存在生成的访问器时，运行时通过它读写字段、创建实例和编解码，不存在时回退到反射。
+ */
+public interface EntityAccessor<T> {
+
+    /**
+     * 生成的访问器类名后缀
+     */
+    String CLASS_SUFFIX = "_RedisAccessor";
+
+    Class<T> getEntityClass();
+
+    /**
+     * 参与映射的字段名
+     */
+    String[] getFieldNames();
+
+    /**
+     * 创建空实体
+     */
+    T newInstance();
+
+    Object getId(T entity);
+
+    void setId(T entity, Object id);
+
+    /**
+     * 读取字段值
+     *
+     * @throws IllegalArgumentException 字段不存在
+     */
+    Object getFieldValue(T entity, String fieldName);
+
+    /**
+     * 设置字段值，值的类型与字段不一致时自动转换
+     *
+     * @throws IllegalArgumentException 字段不存在
+     */
+    void setFieldValue(T entity, String fieldName, Object value);
+
+    /**
+     * 把实体编码为字段名到值的映射
+     */
+    Map<String, Object> toMap(T entity);
+
+    /**
+     * 从字段名到值的映射解码实体，映射中不存在的字段保持默认值
+     */
+    T fromMap(Map<String, ?> values);
+}
@@ -0,0 +1,44 @@
+package com.asd.redis.orm.core;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 实体加载器，把 Mapper 作为数据库前的缓存使用时注册为 Spring Bean
+ * <p>
+ * selectById 未命中时调用加载器从数据源读取实体并写回Redis；同一个ID同一时间只有一个调用方执行加载，其他调用方等待其结果。
+ * 实体设置了过期时间时，热点实体会在过期前被提前异步刷新。
+ */
+public interface EntityLoader<T> {
+
+    /**
+     * 加载的实体类型
+     */
+    Class<T> getEntityClass();
+
+    /**
+     * 从数据源加载实体
+     *
+     * @return 实体，不存在时返回null（不写回）
+     */
+    T load(Object id);
+
+    /**
+     * 批量从数据源加载实体，fetchAll 用一次调用加载所有未命中的ID；默认逐个调用 {@link #load(Object)}，
+     * 数据源支持批量查询时应覆盖
+     *
+     * @param ids 调用方传入的原始ID
+     * @return ID（与传入的ID相等）到实体的映射，不存在的ID不包含在内
+     */
+    default Map<Object, T> loadAll(Collection<Object> ids) {
+        Map<Object, T> entities = new LinkedHashMap<>();
+        for (Object id : ids) {
+            T entity = load(id);
+            if (entity != null) {
+                entities.put(id, entity);
+            }
+        }
+        return entities;
+    }
+}
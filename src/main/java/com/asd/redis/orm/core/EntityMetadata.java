@@ -0,0 +1,541 @@
+package com.asd.redis.orm.core;
+
+import com.asd.redis.orm.annotation.RedisCounter;
+import com.asd.redis.orm.annotation.RedisEntity;
+import com.asd.redis.orm.annotation.RedisField;
+import com.asd.redis.orm.annotation.RedisGeo;
+import com.asd.redis.orm.annotation.RedisId;
+import com.asd.redis.orm.annotation.RedisRef;
+import com.asd.redis.orm.config.RedisOrmProperties;
+import com.asd.redis.orm.index.BloomFilterIndex;
+import com.asd.redis.orm.index.CounterField;
+import com.asd.redis.orm.index.EntityIndex;
+import com.asd.redis.orm.index.EqualIndex;
+import com.asd.redis.orm.index.GeoIndex;
+import com.asd.redis.orm.index.KeysetIndex;
+import com.asd.redis.orm.index.PrefixIndex;
+import com.asd.redis.orm.index.RangeIndex;
+import com.asd.redis.orm.index.TimeSeriesIndex;
+import com.asd.redis.orm.utils.ReflectionUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import org.springframework.util.StringUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.*;
+
+/**
+ * 实体元数据，缓存实体类的键前缀、ID字段、过期时间和索引
+ */
+public class EntityMetadata {
+
+    private final Class<?> entityClass;
+    private final String prefix;
+    private final String keyPrefix;
+    private final byte[] rawKeyPrefix;
+    private final int bucketSize;
+    private final byte[] rawBucketPrefix;
+    private final String indexKeyPrefix;
+    private final Field idField;
+    private final long expire;
+    private final boolean slidingExpire;
+    private final List<EntityIndex> indexes = new ArrayList<>();
+    private final Map<String, EntityIndex> indexesByField = new HashMap<>();
+    private final Map<String, RefField> refs = new HashMap<>();
+    private GeoIndex geoIndex;
+    private KeysetIndex keysetIndex;
+    private BloomFilterIndex bloomFilterIndex;
+    private TimeSeriesIndex timeSeriesIndex;
+    private final List<CounterField> counters = new ArrayList<>();
+    private final EntityAccessor<Object> accessor;
+
+    public EntityMetadata(Class<?> entityClass, RedisOrmProperties properties) {
+        this.entityClass = entityClass;
+        this.accessor = loadAccessor(entityClass);
+
+        RedisEntity annotation = entityClass.getAnnotation(RedisEntity.class);
+        this.prefix = annotation != null && !StringUtils.isEmpty(annotation.prefix())
+                ? annotation.prefix() : entityClass.getSimpleName().toLowerCase();
+        this.keyPrefix = properties.getKeyPrefix() + prefix + ":";
+        this.rawKeyPrefix = KeyCodec.encode(keyPrefix);
+        this.indexKeyPrefix = properties.getKeyPrefix() + "idx:" + prefix + ":";
+        this.idField = ReflectionUtils.findFieldWithAnnotation(entityClass, RedisId.class);
+        this.bucketSize = annotation != null ? Math.max(0, annotation.bucketSize()) : 0;
+        this.rawBucketPrefix = KeyCodec.encode(keyPrefix + "bucket:");
+        if (bucketSize > 0) {
+            checkBucketed(annotation);
+        }
+        List<Field> counterFields = ReflectionUtils.findFieldsWithAnnotation(entityClass, RedisCounter.class);
+        if (!counterFields.isEmpty() && annotation != null
+                && (annotation.expire() > 0 || annotation.slidingExpire())) {
+            throw new IllegalStateException("Entities with @RedisCounter fields cannot expire: "
+                    + entityClass.getName());
+        }
+        // 哈希字段不能单独过期，分桶存储和有计数器的实体不使用全局默认过期时间
+        this.expire = bucketSize > 0 || !counterFields.isEmpty() ? -1
+                : annotation != null && annotation.expire() > 0 ? annotation.expire() : properties.getDefaultExpireTime();
+        this.slidingExpire = annotation != null && annotation.slidingExpire() && expire > 0;
+
+        for (Field field : ReflectionUtils.findFieldsWithAnnotation(entityClass, RedisField.class)) {
+            RedisField redisField = field.getAnnotation(RedisField.class);
+            if (redisField.ignore() || redisField.index() == RedisField.IndexType.NONE) {
+                continue;
+            }
+            if (redisField.index() == RedisField.IndexType.PREFIX) {
+                addIndex(field.getName(), new PrefixIndex(this, field));
+            } else if (redisField.index() == RedisField.IndexType.EQUAL) {
+                addIndex(field.getName(), new EqualIndex(this, field));
+            } else if (redisField.index() == RedisField.IndexType.RANGE) {
+                addIndex(field.getName(), new RangeIndex(this, field));
+            }
+        }
+
+        for (Field field : counterFields) {
+            if (indexesByField.containsKey(field.getName())) {
+                throw new IllegalStateException("@RedisCounter field cannot be indexed: "
+                        + entityClass.getName() + "." + field.getName());
+            }
+            CounterField counter = new CounterField(this, field);
+            counters.add(counter);
+            addIndex(field.getName(), counter);
+        }
+
+        RedisGeo geo = entityClass.getAnnotation(RedisGeo.class);
+        if (geo != null) {
+            this.geoIndex = new GeoIndex(this, geo);
+            indexes.add(geoIndex);
+        }
+
+        if (annotation != null && annotation.keyset()) {
+            this.keysetIndex = new KeysetIndex(this);
+            indexes.add(keysetIndex);
+        }
+
+        if (annotation != null && annotation.bloomFilter()) {
+            RedisOrmProperties.Membership membership = properties.getMembership();
+            this.bloomFilterIndex = new BloomFilterIndex(this, membership.getExpectedInsertions(),
+                    membership.getFalsePositiveRate());
+            indexes.add(bloomFilterIndex);
+        }
+
+        if (annotation != null && !StringUtils.isEmpty(annotation.timeField())) {
+            long retention = annotation.timeRetention() > 0 ? annotation.timeRetention() : expire;
+            this.timeSeriesIndex = new TimeSeriesIndex(this, annotation.timeField(), annotation.timeBucket(), retention);
+            indexes.add(timeSeriesIndex);
+        }
+
+        for (Field field : ReflectionUtils.findFieldsWithAnnotation(entityClass, RedisRef.class)) {
+            refs.put(field.getName(), new RefField(entityClass, field, field.getAnnotation(RedisRef.class)));
+        }
+    }
+
+    /**
+     * 加载编译期生成的访问器，不存在时返回null
+     */
+    @SuppressWarnings("unchecked")
+    private static EntityAccessor<Object> loadAccessor(Class<?> entityClass) {
+        try {
+            Class<?> accessorClass = Class.forName(entityClass.getName() + EntityAccessor.CLASS_SUFFIX,
+                    true, entityClass.getClassLoader());
+            return (EntityAccessor<Object>) accessorClass.getDeclaredConstructor().newInstance();
+        } catch (ClassNotFoundException e) {
+            return null;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to instantiate generated accessor of " + entityClass.getName(), e);
+        }
+    }
+
+    private void checkBucketed(RedisEntity annotation) {
+        Class<?> idType = idField != null ? idField.getType() : null;
+        if (idType != Long.class && idType != long.class && idType != Integer.class && idType != int.class) {
+            throw new IllegalStateException("Bucketed storage requires an integer @RedisId: " + entityClass.getName());
+        }
+        if (annotation.expire() > 0 || annotation.slidingExpire()) {
+            throw new IllegalStateException("Bucketed entities cannot expire: " + entityClass.getName());
+        }
+    }
+
+    private void addIndex(String fieldName, EntityIndex index) {
+        indexes.add(index);
+        indexesByField.put(fieldName, index);
+    }
+
+    public Class<?> getEntityClass() {
+        return entityClass;
+    }
+
+    /**
+     * 实体键前缀（不含全局前缀）
+     */
+    public String getPrefix() {
+        return prefix;
+    }
+
+    /**
+     * 实体的键
+     */
+    public String getKey(Object id) {
+        return keyPrefix + id;
+    }
+
+    /**
+     * 实体的键（UTF-8编码），把ID直接写在预编码的前缀之后
+     */
+    public byte[] getRawKey(Object id) {
+        return KeyCodec.concat(rawKeyPrefix, id);
+    }
+
+    /**
+     * 是否分桶存储
+     */
+    public boolean isBucketed() {
+        return bucketSize > 0;
+    }
+
+    /**
+     * 分桶存储时实体所在桶的键
+     */
+    public String getBucketKey(Object id) {
+        return keyPrefix + "bucket:" + bucketOf(id);
+    }
+
+    /**
+     * 分桶存储时实体所在桶的键（UTF-8编码）
+     */
+    public byte[] getRawBucketKey(Object id) {
+        return KeyCodec.concat(rawBucketPrefix, bucketOf(id));
+    }
+
+    /**
+     * 分桶存储时桶的键模式
+     */
+    public String getBucketPattern() {
+        return keyPrefix + "bucket:*";
+    }
+
+    private long bucketOf(Object id) {
+        try {
+            long value = id instanceof Number ? ((Number) id).longValue() : Long.parseLong(String.valueOf(id));
+            return Math.floorDiv(value, bucketSize);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Bucketed entity requires an integer id: " + id, e);
+        }
+    }
+
+    /**
+     * 实体的键模式
+     */
+    public String getKeyPattern() {
+        return keyPrefix + "*";
+    }
+
+    /**
+     * 从实体键中解析ID，不属于该实体类型时返回null
+     */
+    public String getIdFromKey(String key) {
+        return key.startsWith(keyPrefix) ? key.substring(keyPrefix.length()) : null;
+    }
+
+    /**
+     * 实体派生结构的键，位于实体键空间之外，不会被实体键模式匹配
+     */
+    public String getIndexKey(String name) {
+        return indexKeyPrefix + name;
+    }
+
+    public Field getIdField() {
+        if (idField == null) {
+            throw new IllegalArgumentException("No @RedisId field found in " + entityClass.getName());
+        }
+        return idField;
+    }
+
+    /**
+     * 读取实体ID
+     */
+    public Object getId(Object entity) {
+        if (accessor != null) {
+            return accessor.getId(entity);
+        }
+        try {
+            return ReflectionUtils.getFieldValue(entity, getIdField());
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Failed to read id of entity: " + entity, e);
+        }
+    }
+
+    /**
+     * 设置实体ID
+     */
+    public void setId(Object entity, Object id) {
+        if (accessor != null) {
+            accessor.setId(entity, id);
+            return;
+        }
+        try {
+            ReflectionUtils.setFieldValue(entity, getIdField(), id);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Failed to set id of entity: " + entity, e);
+        }
+    }
+
+    /**
+     * 读取字段值
+     *
+     * @throws IllegalArgumentException 字段不存在
+     */
+    public Object getFieldValue(Object entity, String fieldName) {
+        if (accessor != null) {
+            return accessor.getFieldValue(entity, fieldName);
+        }
+        try {
+            return ReflectionUtils.getFieldValue(entity, fieldName);
+        } catch (NoSuchFieldException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Failed to read field: " + fieldName, e);
+        }
+    }
+
+    /**
+     * 读取实体的非空字段
+     */
+    public Map<String, Object> getNonNullFields(Object entity) {
+        if (accessor == null) {
+            return ReflectionUtils.getNonNullFields(entity);
+        }
+        Map<String, Object> result = accessor.toMap(entity);
+        result.values().removeIf(Objects::isNull);
+        return result;
+    }
+
+    /**
+     * 编译期生成的访问器，不存在时返回null
+     */
+    public EntityAccessor<Object> getAccessor() {
+        return accessor;
+    }
+
+    public long getExpire() {
+        return expire;
+    }
+
+    /**
+     * 是否在读取时续期
+     */
+    public boolean isSlidingExpire() {
+        return slidingExpire;
+    }
+
+    public List<EntityIndex> getIndexes() {
+        return indexes;
+    }
+
+    public boolean hasIndexes() {
+        return !indexes.isEmpty();
+    }
+
+    /**
+     * 计数器字段
+     */
+    public List<CounterField> getCounters() {
+        return counters;
+    }
+
+    /**
+     * 布隆过滤器，未启用时返回null
+     */
+    public BloomFilterIndex getBloomFilterIndex() {
+        return bloomFilterIndex;
+    }
+
+    /**
+     * 获取时间序列索引
+     *
+     * @throws IllegalArgumentException 实体未声明 @RedisEntity(timeField = ...)
+     */
+    public TimeSeriesIndex getTimeSeriesIndex() {
+        if (timeSeriesIndex == null) {
+            throw new IllegalArgumentException(entityClass.getName()
+                    + " is not annotated with @RedisEntity(timeField = ...)");
+        }
+        return timeSeriesIndex;
+    }
+
+    /**
+     * 获取游标分页索引
+     *
+     * @throws IllegalArgumentException 实体未声明 @RedisEntity(keyset = true)
+     */
+    public KeysetIndex getKeysetIndex() {
+        if (keysetIndex == null) {
+            throw new IllegalArgumentException(entityClass.getName()
+                    + " is not annotated with @RedisEntity(keyset = true)");
+        }
+        return keysetIndex;
+    }
+
+    /**
+     * 获取GEO索引
+     *
+     * @throws IllegalArgumentException 实体未声明 @RedisGeo
+     */
+    public GeoIndex getGeoIndex() {
+        if (geoIndex == null) {
+            throw new IllegalArgumentException(entityClass.getName() + " is not annotated with @RedisGeo");
+        }
+        return geoIndex;
+    }
+
+    /**
+     * 获取关联字段
+     *
+     * @throws IllegalArgumentException 字段未声明 @RedisRef
+     */
+    public RefField getRef(String fieldName) {
+        RefField ref = refs.get(fieldName);
+        if (ref == null) {
+            throw new IllegalArgumentException("Field '" + fieldName + "' of " + entityClass.getName()
+                    + " is not annotated with @RedisRef");
+        }
+        return ref;
+    }
+
+    /**
+     * 获取字段上的索引，未建立索引时返回null
+     */
+    public EntityIndex findIndex(String fieldName) {
+        return indexesByField.get(fieldName);
+    }
+
+    /**
+     * 获取字段上的索引
+     *
+     * @throws IllegalArgumentException 字段未建立索引
+     */
+    @SuppressWarnings("unchecked")
+    public <I extends EntityIndex> I getIndex(String fieldName, Class<I> indexType) {
+        EntityIndex index = indexesByField.get(fieldName);
+        if (!indexType.isInstance(index)) {
+            throw new IllegalArgumentException("Field '" + fieldName + "' of " + entityClass.getName()
+                    + " has no " + indexType.getSimpleName());
+        }
+        return (I) index;
+    }
+
+    /**
+     * 关联字段元数据
+     */
+    public static class RefField {
+
+        /**
+         * 按默认可见性判断关联字段是否会被 JSON 序列化器写出
+         */
+        private static final ObjectMapper INTROSPECTOR = new ObjectMapper();
+
+        private final Field field;
+        private final Field idField;
+        private final Class<?> target;
+        private final boolean collection;
+
+        RefField(Class<?> entityClass, Field field, RedisRef ref) {
+            this.field = field;
+            this.collection = Collection.class.isAssignableFrom(field.getType());
+
+            Field found = null;
+            for (Field candidate : ReflectionUtils.getAllFields(entityClass)) {
+                if (candidate.getName().equals(ref.idField())) {
+                    found = candidate;
+                    break;
+                }
+            }
+            if (found == null) {
+                throw new IllegalStateException("Ref id field '" + ref.idField() + "' not found in "
+                        + entityClass.getName());
+            }
+            this.idField = found;
+
+            if (ref.target() != void.class) {
+                this.target = ref.target();
+            } else if (!collection) {
+                this.target = field.getType();
+            } else {
+                Type type = field.getGenericType();
+                if (!(type instanceof ParameterizedType)
+                        || !(((ParameterizedType) type).getActualTypeArguments()[0] instanceof Class)) {
+                    throw new IllegalStateException("Cannot infer ref target of " + entityClass.getName() + "."
+                            + field.getName() + ", please specify @RedisRef(target = ...)");
+                }
+                this.target = (Class<?>) ((ParameterizedType) type).getActualTypeArguments()[0];
+            }
+
+            // 加载后的关联实体写在字段上，若随实体序列化，updateById 会把整个关联图写入Redis
+            for (BeanPropertyDefinition property : INTROSPECTOR.getSerializationConfig()
+                    .introspect(INTROSPECTOR.constructType(entityClass)).findProperties()) {
+                if (property.couldSerialize() && field.getName().equals(property.getInternalName())) {
+                    throw new IllegalStateException("@RedisRef field " + entityClass.getName() + "."
+                            + field.getName() + " would be serialized with the entity, annotate it with @JsonIgnore");
+                }
+            }
+        }
+
+        /**
+         * 关联实体的ID，集合字段返回所有ID
+         */
+        public List<Object> getIds(Object entity) {
+            Object value;
+            try {
+                value = ReflectionUtils.getFieldValue(entity, idField);
+            } catch (IllegalAccessException e) {
+                throw new RuntimeException("Failed to read field: " + idField.getName(), e);
+            }
+
+            List<Object> ids = new ArrayList<>();
+            if (value instanceof Collection) {
+                for (Object id : (Collection<?>) value) {
+                    if (id != null) {
+                        ids.add(id);
+                    }
+                }
+            } else if (value != null) {
+                ids.add(value);
+            }
+            return ids;
+        }
+
+        /**
+         * 设置关联实体
+         *
+         * @param entitiesById 关联实体，键为ID的字符串形式
+         */
+        public void attach(Object entity, Map<String, ?> entitiesById) {
+            Object value;
+            if (collection) {
+                Collection<Object> refs = Set.class.isAssignableFrom(field.getType())
+                        ? new LinkedHashSet<>() : new ArrayList<>();
+                for (Object id : getIds(entity)) {
+                    Object ref = entitiesById.get(id.toString());
+                    if (ref != null) {
+                        refs.add(ref);
+                    }
+                }
+                value = refs;
+            } else {
+                List<Object> ids = getIds(entity);
+                value = ids.isEmpty() ? null : entitiesById.get(ids.get(0).toString());
+            }
+
+            try {
+                ReflectionUtils.setFieldValue(entity, field, value);
+            } catch (IllegalAccessException e) {
+                throw new RuntimeException("Failed to set field: " + field.getName(), e);
+            }
+        }
+
+        public Class<?> getTarget() {
+            return target;
+        }
+    }
+}
\ No newline at end of file
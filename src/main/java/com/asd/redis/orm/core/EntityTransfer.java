@@ -0,0 +1,403 @@
+package com.asd.redis.orm.core;
+
+import com.asd.redis.orm.index.CounterField;
+import com.asd.redis.orm.model.TransferOptions;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 实体的流式导出和导入
+ * <p>
+ * 导出时以 SCAN 分批遍历键，按批 MGET 原始值直接写入文件，不做反序列化；实体有计数器字段时按批反序列化，
+ * 用计数器哈希的当前值覆盖后重新序列化。导入时逐条读取文件，按批反序列化后管道写入，并用文件中的值覆盖计数器。
+ * 同时处理中的批次数量受并行度限制，内存占用与数据总量无关。
+ */
+class EntityTransfer {
+
+    /**
+     * 二进制文件头
+     */
+    private static final byte[] BINARY_HEADER = {'R', 'O', 'R', 'M', 1};
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private EntityTransfer() {
+    }
+
+    /**
+     * 导出实体类型的所有实体
+     *
+     * @param template 用于把值转换为实体
+     * @param nodes    实体所在的节点
+     * @return 导出的实体数量
+     */
+    static long export(RedisOrmTemplate template, List<RedisTemplate<String, Object>> nodes,
+                       EntityMetadata metadata, Path file, TransferOptions options) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             BatchExecutor executor = new BatchExecutor(options)) {
+            if (options.getFormat() == TransferOptions.Format.BINARY) {
+                writeFully(channel, ByteBuffer.wrap(BINARY_HEADER));
+            }
+
+            ScanOptions scanOptions = ScanOptions.scanOptions()
+                    .match(metadata.isBucketed() ? metadata.getBucketPattern() : metadata.getKeyPattern())
+                    .count(options.getBatchSize())
+                    .build();
+            for (RedisTemplate<String, Object> node : nodes) {
+                node.execute((RedisCallback<Object>) connection -> {
+                    List<byte[]> keys = new ArrayList<>(options.getBatchSize());
+                    try (Cursor<byte[]> cursor = connection.scan(scanOptions)) {
+                        while (cursor.hasNext()) {
+                            byte[] key = cursor.next();
+                            // 前缀嵌套时跳过属于其他已注册实体的键
+                            if (!metadata.isBucketed()) {
+                                EntityMetadata owner = template.resolveMetadata(StringRedisSerializer.UTF_8.deserialize(key));
+                                if (owner != null && owner != metadata) {
+                                    continue;
+                                }
+                            }
+                            keys.add(key);
+                            if (keys.size() >= options.getBatchSize()) {
+                                submitExport(executor, template, node, metadata, keys, channel, options);
+                                keys = new ArrayList<>(options.getBatchSize());
+                            }
+                        }
+                    }
+                    if (!keys.isEmpty()) {
+                        submitExport(executor, template, node, metadata, keys, channel, options);
+                    }
+                    return null;
+                });
+            }
+            return executor.await();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to export " + metadata.getEntityClass().getName() + " to " + file, e);
+        }
+    }
+
+    private static void submitExport(BatchExecutor executor, RedisOrmTemplate template,
+                                     RedisTemplate<String, Object> node, EntityMetadata metadata, List<byte[]> keys,
+                                     FileChannel channel, TransferOptions options) {
+        executor.submit(() -> {
+            List<byte[]> values = metadata.isBucketed()
+                    ? bucketValues(node, keys)
+                    : node.execute((RedisCallback<List<byte[]>>) connection ->
+                            connection.mGet(keys.toArray(new byte[0][])));
+            if (values != null && !metadata.getCounters().isEmpty()) {
+                values = overlayCounters(template, node, metadata, values);
+            }
+
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(buffer);
+            int count = 0;
+            for (byte[] value : values != null ? values : new ArrayList<byte[]>()) {
+                // SCAN 之后过期的键
+                if (value == null) {
+                    continue;
+                }
+                if (options.getFormat() == TransferOptions.Format.BINARY) {
+                    out.writeInt(value.length);
+                    out.write(value);
+                } else {
+                    out.write(value);
+                    out.write('\n');
+                }
+                count++;
+            }
+
+            synchronized (channel) {
+                writeFully(channel, ByteBuffer.wrap(buffer.toByteArray()));
+            }
+            return count;
+        });
+    }
+
+    /**
+     * 实体值中的计数器字段只是写入时的初始值，用节点上计数器哈希的当前值覆盖后重新序列化
+     */
+    @SuppressWarnings("unchecked")
+    private static List<byte[]> overlayCounters(RedisOrmTemplate template, RedisTemplate<String, Object> node,
+                                                EntityMetadata metadata, List<byte[]> values) {
+        RedisSerializer<Object> valueSerializer = (RedisSerializer<Object>) node.getValueSerializer();
+        RedisSerializer<String> keySerializer = (RedisSerializer<String>) node.getKeySerializer();
+        List<Object> entities = new ArrayList<>(values.size());
+        List<byte[]> ids = new ArrayList<>(values.size());
+        for (byte[] value : values) {
+            // SCAN 之后过期的键
+            if (value == null) {
+                continue;
+            }
+            Object entity = template.convert(valueSerializer.deserialize(value), metadata.getEntityClass());
+            entities.add(entity);
+            ids.add(StringRedisSerializer.UTF_8.serialize(String.valueOf(metadata.getId(entity))));
+        }
+        if (entities.isEmpty()) {
+            return values;
+        }
+
+        List<CounterField> counters = metadata.getCounters();
+        byte[][] fields = ids.toArray(new byte[0][]);
+        List<Object> counterValues = node.executePipelined((RedisCallback<Object>) connection -> {
+            for (CounterField counter : counters) {
+                connection.hMGet(keySerializer.serialize(counter.getKey()), fields);
+            }
+            return null;
+        }, StringRedisSerializer.UTF_8);
+
+        for (int i = 0; i < counters.size(); i++) {
+            List<?> current = (List<?>) counterValues.get(i);
+            for (int j = 0; j < entities.size(); j++) {
+                if (current.get(j) != null) {
+                    counters.get(i).apply(entities.get(j), (String) current.get(j));
+                }
+            }
+        }
+
+        List<byte[]> overlaid = new ArrayList<>(entities.size());
+        for (Object entity : entities) {
+            overlaid.add(valueSerializer.serialize(entity));
+        }
+        return overlaid;
+    }
+
+    /**
+     * 分桶存储时读取一批桶中的所有实体值
+     */
+    private static List<byte[]> bucketValues(RedisTemplate<String, Object> node, List<byte[]> buckets) {
+        List<byte[]> values = new ArrayList<>();
+        node.execute((RedisCallback<Object>) connection -> {
+            connection.openPipeline();
+            for (byte[] bucket : buckets) {
+                connection.hVals(bucket);
+            }
+            for (Object bucketValues : connection.closePipeline()) {
+                if (bucketValues instanceof List) {
+                    for (Object value : (List<?>) bucketValues) {
+                        values.add((byte[]) value);
+                    }
+                }
+            }
+            return null;
+        });
+        return values;
+    }
+
+    /**
+     * 从文件导入实体，已存在的同ID实体及其计数器会被覆盖
+     *
+     * @return 导入的实体数量
+     */
+    static <T> long importFile(RedisOrmTemplate template, Class<T> entityClass, Path file, TransferOptions options) {
+        @SuppressWarnings("unchecked")
+        RedisSerializer<Object> valueSerializer =
+                (RedisSerializer<Object>) template.getRedisTemplate().getValueSerializer();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             InputStream in = new BufferedInputStream(Channels.newInputStream(channel), READ_BUFFER_SIZE);
+             BatchExecutor executor = new BatchExecutor(options)) {
+            boolean binary = options.getFormat() == TransferOptions.Format.BINARY;
+            DataInputStream dataIn = new DataInputStream(in);
+            if (binary) {
+                byte[] header = new byte[BINARY_HEADER.length];
+                dataIn.readFully(header);
+                if (!Arrays.equals(header, BINARY_HEADER)) {
+                    throw new IllegalArgumentException("Not a redis-orm binary export file: " + file);
+                }
+            }
+
+            List<byte[]> values = new ArrayList<>(options.getBatchSize());
+            byte[] value;
+            while ((value = binary ? readRecord(dataIn) : readLine(in)) != null) {
+                if (value.length == 0) {
+                    continue;
+                }
+                values.add(value);
+                if (values.size() >= options.getBatchSize()) {
+                    submitImport(executor, template, entityClass, valueSerializer, values);
+                    values = new ArrayList<>(options.getBatchSize());
+                }
+            }
+            if (!values.isEmpty()) {
+                submitImport(executor, template, entityClass, valueSerializer, values);
+            }
+            return executor.await();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to import " + entityClass.getName() + " from " + file, e);
+        }
+    }
+
+    private static <T> void submitImport(BatchExecutor executor, RedisOrmTemplate template, Class<T> entityClass,
+                                         RedisSerializer<Object> valueSerializer, List<byte[]> values) {
+        executor.submit(() -> {
+            List<T> entities = new ArrayList<>(values.size());
+            for (byte[] value : values) {
+                entities.add(template.convert(valueSerializer.deserialize(value), entityClass));
+            }
+            // 保存时以文件中的值覆盖计数器
+            template.saveBatch(entities);
+            return entities.size();
+        });
+    }
+
+    /**
+     * 读取一条记录，文件恰好在记录边界结束时返回null，最后一条记录不完整时抛出异常
+     */
+    private static byte[] readRecord(DataInputStream in) throws IOException {
+        int first = in.read();
+        if (first == -1) {
+            return null;
+        }
+        try {
+            int length = first << 24 | in.readUnsignedByte() << 16 | in.readUnsignedByte() << 8 | in.readUnsignedByte();
+            if (length < 0) {
+                throw new IOException("Invalid record length " + length + " in binary export file");
+            }
+            byte[] value = new byte[length];
+            in.readFully(value);
+            return value;
+        } catch (EOFException e) {
+            throw new EOFException("Binary export file ends with a truncated record");
+        }
+    }
+
+    private static byte[] readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != -1 && b != '\n') {
+            if (b != '\r') {
+                line.write(b);
+            }
+        }
+        return b == -1 && line.size() == 0 ? null : line.toByteArray();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * 批次执行器，并行度为1时在调用线程中执行，否则最多同时处理 2 * 并行度 个批次
+     */
+    private static class BatchExecutor implements AutoCloseable {
+
+        private final TransferOptions options;
+        private final ExecutorService executor;
+        private final Semaphore permits;
+        private final AtomicLong processed = new AtomicLong();
+        private final AtomicReference<Exception> error = new AtomicReference<>();
+
+        BatchExecutor(TransferOptions options) {
+            this.options = options;
+            int parallelism = Math.max(1, options.getParallelism());
+            this.permits = new Semaphore(parallelism * 2);
+            if (parallelism > 1) {
+                AtomicInteger threadIndex = new AtomicInteger();
+                this.executor = Executors.newFixedThreadPool(parallelism, r -> {
+                    Thread thread = new Thread(r, "redis-orm-transfer-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            } else {
+                this.executor = null;
+            }
+        }
+
+        void submit(Callable<Integer> batch) {
+            checkError();
+            if (executor == null) {
+                run(batch);
+                return;
+            }
+
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while transferring entities", e);
+            }
+            executor.execute(() -> {
+                try {
+                    run(batch);
+                } catch (Exception e) {
+                    error.compareAndSet(null, e);
+                } finally {
+                    permits.release();
+                }
+            });
+        }
+
+        private void run(Callable<Integer> batch) {
+            int count;
+            try {
+                count = batch.call();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to transfer batch", e);
+            }
+
+            long total = processed.addAndGet(count);
+            if (options.getProgressListener() != null) {
+                options.getProgressListener().onProgress(total);
+            }
+        }
+
+        /**
+         * 等待所有批次完成
+         *
+         * @return 处理的实体总数
+         */
+        long await() {
+            if (executor != null) {
+                executor.shutdown();
+                try {
+                    while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                        checkError();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while transferring entities", e);
+                }
+            }
+            checkError();
+            return processed.get();
+        }
+
+        private void checkError() {
+            Exception e = error.get();
+            if (e instanceof RuntimeException) {
+                throw (RuntimeException) e;
+            } else if (e != null) {
+                throw new RuntimeException("Failed to transfer batch", e);
+            }
+        }
+
+        @Override
+        public void close() {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+    }
+}
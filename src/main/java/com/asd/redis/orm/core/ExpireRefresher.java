@@ -0,0 +1,109 @@
+package com.asd.redis.orm.core;
+
+import com.asd.redis.orm.config.RedisOrmProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 滑动过期续期器
+ * <p>
+ * 读操作只把访问过的键记录到并发集合中，后台线程定期以管道批量发送 EXPIRE，读路径上没有额外的网络往返。
+ * 同一个键在一个刷新周期内只续期一次。
+ */
+@Slf4j
+public class ExpireRefresher implements DisposableBean {
+
+    private final RedisOrmProperties.SlidingExpire properties;
+    private final Map<RedisTemplate<String, Object>, ConcurrentHashMap<String, Long>> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final ScheduledExecutorService scheduler;
+
+    public ExpireRefresher(RedisOrmProperties.SlidingExpire properties) {
+        this.properties = properties;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "redis-orm-expire-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 记录被读取的键，等待下一次批量续期
+     *
+     * @param redisTemplate 键所在节点的模板
+     * @param keys          被读取的键
+     * @param expire        过期时间（秒）
+     */
+    public void touch(RedisTemplate<String, Object> redisTemplate, Collection<String> keys, long expire) {
+        if (keys.isEmpty() || expire <= 0) {
+            return;
+        }
+        if (started.compareAndSet(false, true)) {
+            scheduler.scheduleWithFixedDelay(this::flush, properties.getFlushInterval(),
+                    properties.getFlushInterval(), TimeUnit.MILLISECONDS);
+        }
+
+        ConcurrentHashMap<String, Long> keysToRefresh =
+                pending.computeIfAbsent(redisTemplate, k -> new ConcurrentHashMap<>());
+        for (String key : keys) {
+            if (pendingCount.get() >= properties.getMaxPending()) {
+                return;
+            }
+            if (keysToRefresh.put(key, expire) == null) {
+                pendingCount.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * 批量发送续期命令
+     */
+    public void flush() {
+        for (Map.Entry<RedisTemplate<String, Object>, ConcurrentHashMap<String, Long>> entry : pending.entrySet()) {
+            ConcurrentHashMap<String, Long> keysToRefresh = entry.getValue();
+            List<Map.Entry<String, Long>> batch = new ArrayList<>(properties.getBatchSize());
+            Iterator<Map.Entry<String, Long>> iterator = keysToRefresh.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, Long> key = iterator.next();
+                iterator.remove();
+                pendingCount.decrementAndGet();
+                batch.add(new AbstractMap.SimpleImmutableEntry<>(key.getKey(), key.getValue()));
+                if (batch.size() >= properties.getBatchSize()) {
+                    send(entry.getKey(), batch);
+                    batch = new ArrayList<>(properties.getBatchSize());
+                }
+            }
+            if (!batch.isEmpty()) {
+                send(entry.getKey(), batch);
+            }
+        }
+    }
+
+    private void send(RedisTemplate<String, Object> redisTemplate, List<Map.Entry<String, Long>> batch) {
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (Map.Entry<String, Long> key : batch) {
+                    connection.expire(StringRedisSerializer.UTF_8.serialize(key.getKey()), key.getValue());
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("Failed to refresh expiration of {} keys", batch.size(), e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdown();
+        flush();
+    }
+}
@@ -0,0 +1,204 @@
+package com.asd.redis.orm.core;
+
+import com.asd.redis.orm.config.RedisOrmProperties;
+import com.asd.redis.orm.utils.RateLimiter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.listener.PatternTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 过期实体清理器
+ * <p>
+ * 订阅键空间的过期和淘汰事件，把事件放入有界队列，后台线程按实体类型分组后批量清理索引等派生结构。
+ * 通知是尽力而为的（断线或队列满时会丢失），因此再以限流的周期性对账兜底。对账在单独的线程中执行，
+ * 耗时较长时不会阻塞事件的清理。
+ */
+@Slf4j
+public class ExpiredEntityCleaner implements InitializingBean, DisposableBean {
+
+    private final RedisOrmTemplate redisOrmTemplate;
+    private final RedisOrmProperties.ExpireCleanup properties;
+    private final List<RedisMessageListenerContainer> containers = new ArrayList<>();
+    private final Map<RedisOrmTemplate, BlockingQueue<String>> queues = new LinkedHashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private final ScheduledExecutorService reconciler;
+    private final AtomicLong droppedEvents = new AtomicLong();
+    private long reportedDrops;
+
+    public ExpiredEntityCleaner(RedisOrmTemplate redisOrmTemplate, RedisOrmProperties.ExpireCleanup properties) {
+        this.redisOrmTemplate = redisOrmTemplate;
+        this.properties = properties;
+        this.scheduler = daemonScheduler("redis-orm-expired-cleaner");
+        this.reconciler = daemonScheduler("redis-orm-reconciler");
+    }
+
+    private static ScheduledExecutorService daemonScheduler(String name) {
+        return Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        List<RedisOrmTemplate> targets = redisOrmTemplate instanceof ShardedRedisOrmTemplate
+                ? ((ShardedRedisOrmTemplate) redisOrmTemplate).getShards()
+                : Collections.singletonList(redisOrmTemplate);
+
+        for (RedisOrmTemplate target : targets) {
+            BlockingQueue<String> queue = new LinkedBlockingQueue<>(properties.getQueueCapacity());
+            queues.put(target, queue);
+
+            RedisConnectionFactory connectionFactory = target.getRedisTemplate().getConnectionFactory();
+            configureNotifications(target, properties.isConfigureNotifications());
+
+            String database = connectionFactory instanceof LettuceConnectionFactory
+                    ? String.valueOf(((LettuceConnectionFactory) connectionFactory).getDatabase()) : "*";
+            MessageListener listener = (message, pattern) -> onEvent(queue, message);
+            RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+            container.setConnectionFactory(connectionFactory);
+            container.addMessageListener(listener, Arrays.asList(
+                    new PatternTopic("__keyevent@" + database + "__:expired"),
+                    new PatternTopic("__keyevent@" + database + "__:evicted")));
+            container.afterPropertiesSet();
+            container.start();
+            containers.add(container);
+        }
+
+        scheduler.scheduleWithFixedDelay(this::drain, properties.getFlushInterval(),
+                properties.getFlushInterval(), TimeUnit.MILLISECONDS);
+        if (properties.getReconcileInterval() > 0) {
+            reconciler.scheduleWithFixedDelay(this::reconcile, properties.getReconcileInterval(),
+                    properties.getReconcileInterval(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void onEvent(BlockingQueue<String> queue, Message message) {
+        String key = StringRedisSerializer.UTF_8.deserialize(message.getBody());
+        if (key != null && !queue.offer(key)) {
+            droppedEvents.incrementAndGet();
+        }
+    }
+
+    /**
+     * 队列满时丢弃的事件数量（累计），这些实体的残留由对账清理
+     */
+    public long getDroppedEvents() {
+        return droppedEvents.get();
+    }
+
+    /**
+     * 开启过期（x）和淘汰（e）事件通知，保留服务端已有的通知配置；不自动开启时只检查配置，缺少时输出警告
+     */
+    private void configureNotifications(RedisOrmTemplate target, boolean configure) {
+        try {
+            target.getRedisTemplate().execute((RedisCallback<Object>) connection -> {
+                Properties config = connection.getConfig("notify-keyspace-events");
+                String flags = config != null ? config.getProperty("notify-keyspace-events", "") : "";
+                String merged = flags;
+                for (char flag : new char[]{'E', 'x', 'e'}) {
+                    if (merged.indexOf(flag) < 0 && !(flag != 'E' && merged.indexOf('A') >= 0)) {
+                        merged += flag;
+                    }
+                }
+                if (merged.equals(flags)) {
+                    return null;
+                }
+                if (configure) {
+                    connection.setConfig("notify-keyspace-events", merged);
+                } else {
+                    log.warn("notify-keyspace-events is '{}', expired and evicted events will not be received, "
+                            + "set it to include 'Exe' or enable configure-notifications", flags);
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("Failed to check keyspace notifications, please configure notify-keyspace-events manually", e);
+        }
+    }
+
+    /**
+     * 批量清理队列中的过期实体
+     */
+    public void drain() {
+        long dropped = droppedEvents.get();
+        if (dropped > reportedDrops) {
+            log.warn("Expired event queue is full, dropped {} events ({} in total), "
+                    + "stale indexes are left to reconcile", dropped - reportedDrops, dropped);
+            reportedDrops = dropped;
+        }
+        for (Map.Entry<RedisOrmTemplate, BlockingQueue<String>> entry : queues.entrySet()) {
+            List<String> keys = new ArrayList<>(properties.getBatchSize());
+            while (entry.getValue().drainTo(keys, properties.getBatchSize()) > 0) {
+                cleanup(entry.getKey(), keys);
+                keys.clear();
+            }
+        }
+    }
+
+    private void cleanup(RedisOrmTemplate target, List<String> keys) {
+        Map<Class<?>, Set<String>> idsByType = new LinkedHashMap<>();
+        for (String key : keys) {
+            EntityMetadata metadata = redisOrmTemplate.resolveMetadata(key);
+            if (metadata != null && metadata.hasIndexes()) {
+                idsByType.computeIfAbsent(metadata.getEntityClass(), k -> new LinkedHashSet<>())
+                        .add(metadata.getIdFromKey(key));
+            }
+        }
+
+        for (Map.Entry<Class<?>, Set<String>> entry : idsByType.entrySet()) {
+            try {
+                target.cleanupDerived(entry.getKey(), entry.getValue());
+            } catch (Exception e) {
+                log.warn("Failed to clean up {} expired {} entities", entry.getValue().size(),
+                        entry.getKey().getName(), e);
+            }
+        }
+    }
+
+    /**
+     * 对所有已注册的带索引实体执行一次对账
+     */
+    public void reconcile() {
+        RateLimiter rateLimiter = RateLimiter.of(properties.getReconcileRate());
+        for (EntityMetadata metadata : redisOrmTemplate.getRegisteredEntities()) {
+            if (!metadata.hasIndexes()) {
+                continue;
+            }
+            for (RedisOrmTemplate target : queues.keySet()) {
+                try {
+                    long cleaned = target.reconcile(metadata.getEntityClass(), properties.getBatchSize(), rateLimiter);
+                    if (cleaned > 0) {
+                        log.info("Reconciled {} stale {} entities", cleaned, metadata.getEntityClass().getName());
+                    }
+                } catch (Exception e) {
+                    log.warn("Failed to reconcile {}", metadata.getEntityClass().getName(), e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        for (RedisMessageListenerContainer container : containers) {
+            container.destroy();
+        }
+        scheduler.shutdown();
+        reconciler.shutdownNow();
+        scheduler.awaitTermination(properties.getFlushInterval(), TimeUnit.MILLISECONDS);
+        drain();
+    }
+}
@@ -0,0 +1,186 @@
+package com.asd.redis.orm.core;
+
+import com.alibaba.fastjson.JSON;
+import com.asd.redis.orm.config.RedisOrmProperties;
+import com.asd.redis.orm.query.Condition;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.util.*;
+import java.util.function.BiFunction;
+
+/**
+ * 条件过滤下推
+ * <p>
+ * 把条件编码为脚本参数，由同一个缓存的脚本（EVALSHA）在服务端逐批读取实体值、解码JSON并过滤，只返回可能匹配的键和值。
+ * 脚本对无法判断的情况（字段值是对象或数组、类型不一致等）一律放行，客户端仍会用原条件做最终过滤。
+ * 批大小按上一批的耗时调整，使单次脚本执行不超过时间预算。
+ */
+class FilterPushdown {
+
+    private static final LuaScript FILTER = new LuaScript(String.join("\n",
+            "local predicates = cjson.decode(ARGV[1])",
+            "local function unwrap(value)",
+            "  if type(value) == 'table' and #value == 2 and type(value[1]) == 'string' then return value[2] end",
+            "  return value",
+            "end",
+            "local function eq(a, b)",
+            "  if type(a) == 'number' and type(b) == 'number' then return a == b end",
+            "  return tostring(a) == tostring(b)",
+            "end",
+            "local function test(value, p)",
+            "  if p.op == 'IS_NULL' then return value == nil or value == cjson.null end",
+            "  if value == nil or value == cjson.null then return p.op == 'NE' end",
+            "  if type(value) == 'table' then return true end",
+            "  if p.op == 'EQ' then return eq(value, p.v[1]) end",
+            "  if p.op == 'NE' then return not eq(value, p.v[1]) end",
+            "  if p.op == 'IN' then",
+            "    for _, v in ipairs(p.v) do if eq(value, v) then return true end end",
+            "    return false",
+            "  end",
+            "  if type(value) ~= 'number' then return true end",
+            "  if p.op == 'GT' then return value >= p.v[1] end",
+            "  if p.op == 'LT' then return value <= p.v[1] end",
+            "  if p.op == 'BETWEEN' then return value >= p.v[1] and value <= p.v[2] end",
+            "  return true",
+            "end",
+            "local result = {}",
+            "for _, key in ipairs(KEYS) do",
+            "  local raw = redis.call('GET', key)",
+            "  if raw then",
+            "    local ok, entity = pcall(cjson.decode, raw)",
+            "    local matched = true",
+            "    if ok and type(entity) == 'table' then",
+            "      for _, p in ipairs(predicates) do",
+            "        if not test(unwrap(entity[p.f]), p) then matched = false; break end",
+            "      end",
+            "    end",
+            "    if matched then",
+            "      result[#result + 1] = key",
+            "      result[#result + 1] = raw",
+            "    end",
+            "  end",
+            "end",
+            "return result"));
+
+    /**
+     * 脚本中数值为双精度浮点数，超过该范围的整数比较值和 NaN、无穷不下推
+     */
+    private static final double MAX_EXACT_NUMBER = 9007199254740992d;
+
+    private static final int MIN_BATCH_SIZE = 10;
+
+    private final RedisOrmProperties.Pushdown properties;
+    private volatile int batchSize;
+
+    FilterPushdown(RedisOrmProperties.Pushdown properties) {
+        this.properties = properties;
+        this.batchSize = Math.max(MIN_BATCH_SIZE, properties.getBatchSize());
+    }
+
+    boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * 转换为脚本可以判断的条件，无法下推的条件被忽略（由客户端过滤）
+     */
+    static List<Map<String, Object>> toPredicates(Collection<Condition> conditions) {
+        List<Map<String, Object>> predicates = new ArrayList<>();
+        for (Condition condition : conditions) {
+            boolean range = condition.getOperator() == Condition.Operator.GT
+                    || condition.getOperator() == Condition.Operator.LT
+                    || condition.getOperator() == Condition.Operator.BETWEEN;
+            List<Object> values = new ArrayList<>();
+            for (Object value : condition.getValues()) {
+                Object encoded = encode(value, range);
+                if (encoded == null) {
+                    values = null;
+                    break;
+                }
+                values.add(encoded);
+            }
+            if (values == null) {
+                continue;
+            }
+
+            Map<String, Object> predicate = new HashMap<>();
+            predicate.put("f", condition.getField());
+            predicate.put("op", condition.getOperator().name());
+            predicate.put("v", values);
+            predicates.add(predicate);
+        }
+        return predicates;
+    }
+
+    /**
+     * 编码为JSON标量，无法在脚本中判断时返回null
+     */
+    private static Object encode(Object value, boolean range) {
+        Object encoded;
+        if (value instanceof Number) {
+            encoded = value;
+        } else if (value instanceof Date) {
+            encoded = ((Date) value).getTime();
+        } else if (range) {
+            return null;
+        } else if (value instanceof String || value instanceof Boolean) {
+            encoded = value;
+        } else if (value instanceof Enum) {
+            encoded = ((Enum<?>) value).name();
+        } else if (value instanceof Character) {
+            encoded = value.toString();
+        } else {
+            return null;
+        }
+        if (encoded instanceof Number && !(Math.abs(((Number) encoded).doubleValue()) <= MAX_EXACT_NUMBER)) {
+            return null;
+        }
+        return encoded;
+    }
+
+    /**
+     * 在服务端逐批过滤实体值
+     *
+     * @param keys       实体键
+     * @param predicates 由 {@link #toPredicates(Collection)} 生成的条件
+     * @param executor   在指定键上执行脚本的方式（用于读路由）
+     * @return 可能匹配的实体，键到原始值的映射
+     */
+    Map<String, byte[]> filter(List<String> keys, List<Map<String, Object>> predicates,
+                        BiFunction<List<String>, RedisCallback<List<byte[]>>, List<byte[]>> executor) {
+        byte[] encodedPredicates = StringRedisSerializer.UTF_8.serialize(JSON.toJSONString(predicates));
+        long budget = Math.max(1, properties.getTimeBudget()) * 1_000_000L;
+        Map<String, byte[]> result = new LinkedHashMap<>();
+
+        int offset = 0;
+        while (offset < keys.size()) {
+            int size = batchSize;
+            List<String> batch = keys.subList(offset, Math.min(offset + size, keys.size()));
+            byte[][] keysAndArgs = new byte[batch.size() + 1][];
+            for (int i = 0; i < batch.size(); i++) {
+                keysAndArgs[i] = StringRedisSerializer.UTF_8.serialize(batch.get(i));
+            }
+            keysAndArgs[batch.size()] = encodedPredicates;
+
+            long start = System.nanoTime();
+            List<byte[]> values = executor.apply(batch, connection ->
+                    FILTER.execute(connection, ReturnType.MULTI, batch.size(), keysAndArgs));
+            long elapsed = System.nanoTime() - start;
+            if (values != null) {
+                for (int i = 0; i + 1 < values.size(); i += 2) {
+                    result.put(StringRedisSerializer.UTF_8.deserialize(values.get(i)), values.get(i + 1));
+                }
+            }
+            offset += batch.size();
+
+            // 耗时包含网络往返，是脚本执行时间的上界，按此调整下一批的大小
+            if (batch.size() == size) {
+                long next = elapsed > 0 ? size * budget / elapsed : properties.getMaxBatchSize();
+                batchSize = (int) Math.max(MIN_BATCH_SIZE, Math.min(properties.getMaxBatchSize(), next));
+            }
+        }
+        return result;
+    }
+}
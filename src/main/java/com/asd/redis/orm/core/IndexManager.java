@@ -0,0 +1,64 @@
+package com.asd.redis.orm.core;
+
+import com.asd.redis.orm.index.CounterField;
+import com.asd.redis.orm.index.EntityIndex;
+import org.springframework.data.redis.connection.RedisConnection;
+
+import java.util.*;
+
+/**
+ * 实体索引维护
+ * <p>
+ * 索引在调用方的管道或事务中更新。需要旧值的索引由服务端脚本原子地读取状态键中的旧值并替换成员，
+ * 不在客户端先读后写，同一ID的并发写入不会让两次写入都按同一个旧值更新、在索引中留下多余的成员。
+ */
+public class IndexManager {
+
+    /**
+     * 在管道或事务中更新索引前加载索引使用的脚本，每个脚本只加载一次
+     */
+    public void prepare(RedisConnection connection, Collection<EntityMetadata> metadata) {
+        Set<LuaScript> scripts = new LinkedHashSet<>();
+        for (EntityMetadata entityMetadata : metadata) {
+            for (EntityIndex index : entityMetadata.getIndexes()) {
+                if (index.getScript() != null) {
+                    scripts.add(index.getScript());
+                }
+            }
+        }
+        for (LuaScript script : scripts) {
+            script.load(connection);
+        }
+    }
+
+    /**
+     * 实体写入后更新所有索引
+     */
+    public void onSave(RedisConnection connection, EntityMetadata metadata, String id, Object entity) {
+        for (EntityIndex index : metadata.getIndexes()) {
+            index.onSave(connection, id, entity);
+        }
+    }
+
+    /**
+     * updateById 写入后更新所有索引，计数器保留当前值
+     */
+    public void onUpdate(RedisConnection connection, EntityMetadata metadata, String id, Object entity) {
+        for (EntityIndex index : metadata.getIndexes()) {
+            if (index instanceof CounterField) {
+                ((CounterField) index).onUpdate(connection, id, entity);
+            } else {
+                index.onSave(connection, id, entity);
+            }
+        }
+    }
+
+    /**
+     * 实体删除后清理所有索引
+     */
+    public void onRemove(RedisConnection connection, EntityMetadata metadata, String id) {
+        for (EntityIndex index : metadata.getIndexes()) {
+            index.onRemove(connection, id);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.asd.redis.orm.core;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 实体键的字节级编码
+ * <p>
+ * 把ID直接写在预编码的键前缀之后，只分配最终的键数组：整数ID在线程本地缓冲区中逐位写出，
+ * ASCII 字符串ID逐字符写入，不经过拼接的中间字符串和 String.getBytes 的临时数组。
+ * 结果与按 UTF-8 编码 {@code prefix + id} 完全相同。
+ */
+final class KeyCodec {
+
+    /**
+     * long 的最大十进制长度（含负号）
+     */
+    private static final ThreadLocal<byte[]> DIGITS = ThreadLocal.withInitial(() -> new byte[20]);
+
+    private KeyCodec() {
+    }
+
+    static byte[] encode(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 编码 prefix + id
+     */
+    static byte[] concat(byte[] prefix, Object id) {
+        if (id instanceof Long || id instanceof Integer || id instanceof Short || id instanceof Byte) {
+            return concat(prefix, ((Number) id).longValue());
+        }
+
+        String value = id instanceof String ? (String) id : String.valueOf(id);
+        int length = value.length();
+        byte[] result = new byte[prefix.length + length];
+        System.arraycopy(prefix, 0, result, 0, prefix.length);
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                // 非ASCII字符按UTF-8编码
+                byte[] encoded = encode(value);
+                result = new byte[prefix.length + encoded.length];
+                System.arraycopy(prefix, 0, result, 0, prefix.length);
+                System.arraycopy(encoded, 0, result, prefix.length, encoded.length);
+                return result;
+            }
+            result[prefix.length + i] = (byte) c;
+        }
+        return result;
+    }
+
+    static byte[] concat(byte[] prefix, long id) {
+        byte[] digits = DIGITS.get();
+        int position = digits.length;
+        boolean negative = id < 0;
+        if (id == Long.MIN_VALUE) {
+            return concat(prefix, Long.toString(id));
+        }
+        long value = negative ? -id : id;
+        do {
+            digits[--position] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        if (negative) {
+            digits[--position] = '-';
+        }
+
+        int length = digits.length - position;
+        byte[] result = new byte[prefix.length + length];
+        System.arraycopy(prefix, 0, result, 0, prefix.length);
+        System.arraycopy(digits, position, result, prefix.length, length);
+        return result;
+    }
+}
@@ -0,0 +1,347 @@
+package com.asd.redis.orm.core;
+
+import com.asd.redis.orm.config.RedisOrmProperties;
+import com.asd.redis.orm.model.EntityStatistics;
+import com.asd.redis.orm.model.KeyspaceStatistics;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.util.*;
+
+/**
+ * 按实体类型采样键空间
+ * <p>
+ * 以 SCAN 分批遍历各节点的键（不使用 KEYS），按前缀把键归到已注册的实体或其派生结构，
+ * 每批用一个脚本读取实体键的值大小（STRLEN，分桶时为 HLEN），并对每种实体的前若干个键执行 MEMORY USAGE。
+ * 每个节点最多扫描配置数量的键，未扫描完时按已扫描键占 DBSIZE 的比例估算数量和内存。
+ */
+class KeyspaceSampler {
+
+    /**
+     * 每个键的模式：首字符 s 读取 STRLEN、h 读取 HLEN、其他不读取大小；第二个字符为 m 时执行 MEMORY USAGE。
+     * 返回每个键的大小和内存，键已不存在时内存为-1
+     */
+    private static final LuaScript MEASURE = new LuaScript(
+            "local result = {}\n" +
+            "for i, key in ipairs(KEYS) do\n" +
+            "    local mode = ARGV[i]\n" +
+            "    local size = 0\n" +
+            "    local kind = string.sub(mode, 1, 1)\n" +
+            "    if kind == 's' then size = redis.pcall('STRLEN', key)\n" +
+            "    elseif kind == 'h' then size = redis.pcall('HLEN', key) end\n" +
+            "    if type(size) ~= 'number' then size = 0 end\n" +
+            "    local memory = -1\n" +
+            "    if string.sub(mode, 2, 2) == 'm' then memory = redis.call('MEMORY', 'USAGE', key) or -1 end\n" +
+            "    result[2 * i - 1] = size\n" +
+            "    result[2 * i] = memory\n" +
+            "end\n" +
+            "return result");
+
+    private final RedisOrmProperties.Stats properties;
+    private final List<Accumulator> accumulators = new ArrayList<>();
+    private long totalKeys;
+    private long scannedKeys;
+    private double otherKeys;
+    private boolean complete = true;
+
+    KeyspaceSampler(Collection<EntityMetadata> entities, RedisOrmProperties.Stats properties) {
+        this.properties = properties;
+        for (EntityMetadata metadata : entities) {
+            accumulators.add(new Accumulator(metadata));
+        }
+    }
+
+    /**
+     * 扫描一个节点
+     */
+    void sample(RedisTemplate<String, Object> template) {
+        template.execute((RedisCallback<Object>) connection -> {
+            sample(connection);
+            return null;
+        });
+    }
+
+    private void sample(RedisConnection connection) {
+        Long dbSize = connection.dbSize();
+        int batchSize = Math.max(1, properties.getScanCount());
+        ScanOptions options = ScanOptions.scanOptions().count(batchSize).build();
+        for (Accumulator accumulator : accumulators) {
+            accumulator.startNode();
+        }
+
+        long scanned = 0;
+        long other = 0;
+        boolean nodeComplete = true;
+        List<Measurement> batch = new ArrayList<>(batchSize);
+        try (Cursor<byte[]> cursor = connection.scan(options)) {
+            while (cursor.hasNext()) {
+                if (scanned >= properties.getMaxScanKeys()) {
+                    nodeComplete = false;
+                    break;
+                }
+                byte[] rawKey = cursor.next();
+                scanned++;
+                Measurement measurement = classify(rawKey);
+                if (measurement == null) {
+                    other++;
+                    continue;
+                }
+                batch.add(measurement);
+                if (batch.size() >= batchSize) {
+                    measure(connection, batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            measure(connection, batch);
+        }
+
+        // 未扫描完时按比例外推
+        long nodeKeys = dbSize != null ? dbSize : scanned;
+        double factor = nodeComplete || scanned == 0 ? 1 : (double) nodeKeys / scanned;
+        for (Accumulator accumulator : accumulators) {
+            accumulator.endNode(factor);
+        }
+        totalKeys += nodeKeys;
+        scannedKeys += scanned;
+        otherKeys += other * factor;
+        complete &= nodeComplete;
+    }
+
+    /**
+     * 把键归到实体键（前缀嵌套时取最长匹配）或实体的派生结构，都不属于时返回null
+     */
+    private Measurement classify(byte[] rawKey) {
+        String key = StringRedisSerializer.UTF_8.deserialize(rawKey);
+        Accumulator owner = null;
+        String ownerId = null;
+        Accumulator indexOwner = null;
+        int indexPrefixLength = -1;
+        for (Accumulator accumulator : accumulators) {
+            EntityMetadata metadata = accumulator.metadata;
+            String id = metadata.getIdFromKey(key);
+            if (id != null && (!metadata.isBucketed() || id.startsWith("bucket:"))
+                    && (ownerId == null || id.length() < ownerId.length())) {
+                owner = accumulator;
+                ownerId = id;
+            }
+            String indexPrefix = metadata.getIndexKey("");
+            if (key.startsWith(indexPrefix) && indexPrefix.length() > indexPrefixLength) {
+                indexOwner = accumulator;
+                indexPrefixLength = indexPrefix.length();
+            }
+        }
+
+        if (owner != null) {
+            return new Measurement(owner, key, rawKey, false, owner.takeSample(false));
+        }
+        if (indexOwner != null) {
+            return new Measurement(indexOwner, key, rawKey, true, indexOwner.takeSample(true));
+        }
+        return null;
+    }
+
+    private void measure(RedisConnection connection, List<Measurement> batch) {
+        byte[][] keysAndArgs = new byte[batch.size() * 2][];
+        for (int i = 0; i < batch.size(); i++) {
+            Measurement measurement = batch.get(i);
+            String kind = measurement.index ? "-" : measurement.accumulator.metadata.isBucketed() ? "h" : "s";
+            keysAndArgs[i] = measurement.rawKey;
+            keysAndArgs[batch.size() + i] = StringRedisSerializer.UTF_8.serialize(kind + (measurement.memory ? "m" : ""));
+        }
+
+        List<Object> result = MEASURE.execute(connection, ReturnType.MULTI, batch.size(), keysAndArgs);
+        for (int i = 0; i < batch.size(); i++) {
+            long size = toLong(result, 2 * i);
+            long memory = toLong(result, 2 * i + 1);
+            batch.get(i).record(size, memory);
+        }
+    }
+
+    private static long toLong(List<Object> result, int index) {
+        Object value = result != null && index < result.size() ? result.get(index) : null;
+        return value instanceof Number ? ((Number) value).longValue() : -1;
+    }
+
+    /**
+     * 汇总已扫描的节点
+     */
+    KeyspaceStatistics getStatistics() {
+        List<EntityStatistics> entities = new ArrayList<>();
+        for (Accumulator accumulator : accumulators) {
+            entities.add(accumulator.toStatistics());
+        }
+        entities.sort(Comparator.comparingLong(
+                (EntityStatistics statistics) -> statistics.getTotalMemory() + statistics.getIndexMemory()).reversed());
+
+        KeyspaceStatistics statistics = new KeyspaceStatistics();
+        statistics.setTotalKeys(totalKeys);
+        statistics.setScannedKeys(scannedKeys);
+        statistics.setOtherKeys(Math.round(otherKeys));
+        statistics.setComplete(complete);
+        statistics.setEntities(entities);
+        return statistics;
+    }
+
+    /**
+     * 扫描到的一个待测量的键
+     */
+    private static class Measurement {
+
+        private final Accumulator accumulator;
+        private final String key;
+        private final byte[] rawKey;
+        private final boolean index;
+        private final boolean memory;
+
+        Measurement(Accumulator accumulator, String key, byte[] rawKey, boolean index, boolean memory) {
+            this.accumulator = accumulator;
+            this.key = key;
+            this.rawKey = rawKey;
+            this.index = index;
+            this.memory = memory;
+        }
+
+        void record(long size, long memoryUsage) {
+            if (index) {
+                accumulator.recordIndex(memory ? memoryUsage : -1);
+            } else {
+                accumulator.recordEntity(key, size, memory ? memoryUsage : -1);
+            }
+        }
+    }
+
+    /**
+     * 一种实体类型的累计结果
+     */
+    private class Accumulator {
+
+        private final EntityMetadata metadata;
+        private final PriorityQueue<EntityStatistics.KeySize> largest =
+                new PriorityQueue<>(Comparator.comparingLong(EntityStatistics.KeySize::getSize));
+        private long[] sizes = new long[64];
+        private int sizeCount;
+        private long memorySum;
+        private long memorySamples;
+        private long indexMemorySum;
+        private long indexMemorySamples;
+        private double keys;
+        private double entities;
+        private double indexKeys;
+
+        // 当前节点上的计数
+        private long nodeKeys;
+        private long nodeEntities;
+        private long nodeIndexKeys;
+        private int nodeSamples;
+        private int nodeIndexSamples;
+
+        Accumulator(EntityMetadata metadata) {
+            this.metadata = metadata;
+        }
+
+        void startNode() {
+            nodeKeys = 0;
+            nodeEntities = 0;
+            nodeIndexKeys = 0;
+            nodeSamples = 0;
+            nodeIndexSamples = 0;
+        }
+
+        void endNode(double factor) {
+            keys += nodeKeys * factor;
+            entities += nodeEntities * factor;
+            indexKeys += nodeIndexKeys * factor;
+        }
+
+        /**
+         * 当前节点上的采样数量未满时采样该键
+         */
+        boolean takeSample(boolean index) {
+            if (index) {
+                return nodeIndexSamples++ < properties.getSampleSize();
+            }
+            return nodeSamples++ < properties.getSampleSize();
+        }
+
+        void recordEntity(String key, long size, long memory) {
+            if (memory < 0 && size <= 0) {
+                // 扫描后已被删除或过期
+                return;
+            }
+            nodeKeys++;
+            nodeEntities += metadata.isBucketed() ? size : 1;
+            if (memory >= 0) {
+                memorySum += memory;
+                memorySamples++;
+            }
+            if (!metadata.isBucketed()) {
+                if (sizeCount == sizes.length) {
+                    sizes = Arrays.copyOf(sizes, sizes.length * 2);
+                }
+                sizes[sizeCount++] = size;
+            }
+
+            int topKeys = properties.getTopKeys();
+            if (topKeys > 0 && (largest.size() < topKeys || size > largest.peek().getSize())) {
+                EntityStatistics.KeySize keySize = new EntityStatistics.KeySize();
+                keySize.setKey(key);
+                keySize.setSize(size);
+                keySize.setMemory(memory >= 0 ? memory : null);
+                largest.add(keySize);
+                if (largest.size() > topKeys) {
+                    largest.poll();
+                }
+            }
+        }
+
+        void recordIndex(long memory) {
+            nodeIndexKeys++;
+            if (memory >= 0) {
+                indexMemorySum += memory;
+                indexMemorySamples++;
+            }
+        }
+
+        EntityStatistics toStatistics() {
+            EntityStatistics statistics = new EntityStatistics();
+            statistics.setEntityClass(metadata.getEntityClass().getName());
+            statistics.setPrefix(metadata.getPrefix());
+            statistics.setBucketed(metadata.isBucketed());
+            statistics.setKeyCount(Math.round(keys));
+            statistics.setEntityCount(Math.round(entities));
+            statistics.setSampledKeys(memorySamples);
+            long averageMemory = memorySamples > 0 ? memorySum / memorySamples : 0;
+            statistics.setAverageMemory(averageMemory);
+            statistics.setTotalMemory(Math.round(averageMemory * keys));
+            statistics.setIndexKeyCount(Math.round(indexKeys));
+            statistics.setIndexMemory(indexMemorySamples > 0
+                    ? Math.round((double) indexMemorySum / indexMemorySamples * indexKeys) : 0);
+
+            if (sizeCount > 0) {
+                long[] sorted = Arrays.copyOf(sizes, sizeCount);
+                Arrays.sort(sorted);
+                statistics.setValueSizeP50(percentile(sorted, 50));
+                statistics.setValueSizeP90(percentile(sorted, 90));
+                statistics.setValueSizeP99(percentile(sorted, 99));
+                statistics.setValueSizeMax(sorted[sorted.length - 1]);
+            }
+
+            List<EntityStatistics.KeySize> largestKeys = new ArrayList<>(largest);
+            largestKeys.sort(Comparator.comparingLong(EntityStatistics.KeySize::getSize).reversed());
+            statistics.setLargestKeys(largestKeys);
+            return statistics;
+        }
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
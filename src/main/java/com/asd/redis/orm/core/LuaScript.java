@@ -0,0 +1,62 @@
+package com.asd.redis.orm.core;
+
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.script.DigestUtils;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+/**
+ * 服务端Lua脚本，优先使用 EVALSHA 执行，脚本未缓存时回退到 EVAL
+ */
+public class LuaScript {
+
+    private final byte[] script;
+    private final String sha1;
+
+    public LuaScript(String script) {
+        this.script = StringRedisSerializer.UTF_8.serialize(script);
+        this.sha1 = DigestUtils.sha1DigestAsHex(script);
+    }
+
+    /**
+     * 执行脚本
+     *
+     * @param connection   当前连接
+     * @param returnType   返回值类型
+     * @param numKeys      键的数量
+     * @param keysAndArgs  键和参数
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(RedisConnection connection, ReturnType returnType, int numKeys, byte[]... keysAndArgs) {
+        try {
+            return (T) connection.evalSha(sha1, returnType, numKeys, keysAndArgs);
+        } catch (DataAccessException e) {
+            if (!isNoScript(e)) {
+                throw e;
+            }
+            return (T) connection.eval(script, returnType, numKeys, keysAndArgs);
+        }
+    }
+
+    /**
+     * 加载脚本到服务端缓存
+     * <p>
+     * 在管道或事务中执行 EVALSHA 时，脚本未缓存的错误要到管道结束或 EXEC 时才返回，无法回退到 EVAL，
+     * 因此在同一个管道或事务中先加载脚本，Redis 按顺序执行，之后的 EVALSHA 一定能找到脚本。
+     */
+    public void load(RedisConnection connection) {
+        connection.scriptLoad(script);
+    }
+
+    public String getSha1() {
+        return sha1;
+    }
+
+    private static boolean isNoScript(Throwable e) {
+        Throwable root = NestedExceptionUtils.getMostSpecificCause(e);
+        return (root.getMessage() != null && root.getMessage().contains("NOSCRIPT"))
+                || (e.getMessage() != null && e.getMessage().contains("NOSCRIPT"));
+    }
+}
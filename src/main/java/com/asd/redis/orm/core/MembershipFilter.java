@@ -0,0 +1,425 @@
+package com.asd.redis.orm.core;
+
+import com.asd.redis.orm.config.RedisOrmProperties;
+import com.asd.redis.orm.index.BloomFilterIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 不存在ID的本地判断
+ * <p>
+ * 布隆过滤器在本地保存一份Redis位图的副本，定期从Redis重新加载，本实例的写入立即同步到副本。
+ * 副本判断存在的ID不需要确认；默认副本中缺少位的ID以Redis中的位图为准（其他实例的写入只在Redis位图中），
+ * 不会把存在的实体判断为不存在，但不存在的ID仍需一次往返，省下的只是读取实体本身。关闭确认后直接信任副本，
+ * 其他实例写入的实体最多在一个刷新间隔内被判断为不存在，副本超过两个刷新间隔未重新加载时恢复确认。
+ * 副本加载完成前、Redis中的位图尚未完整构建时都视为可能存在。
+ * 位图首次使用和之后每个重建间隔由集群中的一个实例在后台重建（SCAN 所有实体键），以清除删除和过期的实体。
+ * <p>
+ * 未命中缓存在本地短时间记录查询过的不存在ID，只在本实例内有效：本实例写入时清除，
+ * 其他实例写入的实体在记录过期前仍返回不存在，因此记录时间应保持在可以接受的短时间内。
+ */
+@Slf4j
+class MembershipFilter {
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisOrmProperties.Membership membership;
+    private final RedisOrmProperties.NegativeCache negativeCache;
+    private final Map<EntityMetadata, Mirror> mirrors = new ConcurrentHashMap<>();
+
+    /**
+     * 实体键 -> 过期时间（毫秒时间戳）
+     */
+    private final Map<String, Long> absent = new ConcurrentHashMap<>();
+    private volatile ScheduledExecutorService scheduler;
+    private volatile boolean closed;
+
+    MembershipFilter(RedisTemplate<String, Object> redisTemplate, RedisOrmProperties properties) {
+        this.redisTemplate = redisTemplate;
+        this.membership = properties.getMembership();
+        this.negativeCache = properties.getNegativeCache();
+    }
+
+    boolean isNegativeCacheEnabled() {
+        return negativeCache.isEnabled();
+    }
+
+    /**
+     * 是否在未命中缓存中
+     */
+    boolean isCachedAbsent(EntityMetadata metadata, Object id) {
+        if (!negativeCache.isEnabled() || absent.isEmpty()) {
+            return false;
+        }
+        String key = metadata.getKey(id);
+        Long expireAt = absent.get(key);
+        if (expireAt == null) {
+            return false;
+        }
+        if (expireAt > System.currentTimeMillis()) {
+            return true;
+        }
+        absent.remove(key, expireAt);
+        return false;
+    }
+
+    /**
+     * 记录不存在的ID
+     */
+    void markAbsent(EntityMetadata metadata, Object id) {
+        if (!negativeCache.isEnabled()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (absent.size() >= negativeCache.getMaxSize()) {
+            absent.values().removeIf(expireAt -> expireAt <= now);
+            if (absent.size() >= negativeCache.getMaxSize()) {
+                return;
+            }
+        }
+        absent.put(metadata.getKey(id), now + negativeCache.getTtl());
+    }
+
+    /**
+     * 布隆过滤器筛选可能存在的ID，实体未启用布隆过滤器或副本未就绪时全部保留
+     * <p>
+     * 本地副本判断存在的ID直接保留；副本中缺少位的ID可能是其他实例在副本加载后写入的，
+     * 在一个管道中以 GETBIT 读取Redis位图确认，确认存在的位同步到副本，之后不再需要确认。
+     * 关闭确认且副本在两个刷新间隔内重新加载过时，直接以副本为准。
+     */
+    <I> List<I> mightContain(EntityMetadata metadata, Collection<I> ids) {
+        BloomFilterIndex bloom = metadata.getBloomFilterIndex();
+        if (bloom == null) {
+            return new ArrayList<>(ids);
+        }
+        Mirror mirror = mirror(metadata, bloom);
+        AtomicLongArray bits = mirror.bits;
+        if (bits == null) {
+            return new ArrayList<>(ids);
+        }
+
+        List<I> result = new ArrayList<>(ids.size());
+        List<I> unconfirmed = new ArrayList<>();
+        List<long[]> unconfirmedOffsets = new ArrayList<>();
+        for (I id : ids) {
+            long[] offsets = bloom.offsets(String.valueOf(id));
+            if (contains(bits, offsets)) {
+                result.add(id);
+            } else {
+                unconfirmed.add(id);
+                unconfirmedOffsets.add(offsets);
+            }
+        }
+        if (unconfirmed.isEmpty() || isTrusted(mirror)) {
+            return result;
+        }
+
+        byte[] key = raw(bloom.getKey());
+        List<Object> replies = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (long[] offsets : unconfirmedOffsets) {
+                for (long offset : offsets) {
+                    connection.getBit(key, offset);
+                }
+            }
+            return null;
+        });
+        int position = 0;
+        for (int i = 0; i < unconfirmed.size(); i++) {
+            long[] offsets = unconfirmedOffsets.get(i);
+            boolean present = true;
+            for (int j = 0; j < offsets.length; j++) {
+                present &= Boolean.TRUE.equals(replies.get(position++));
+            }
+            if (present) {
+                set(bits, offsets);
+                result.add(unconfirmed.get(i));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 关闭确认时，副本在两个刷新间隔内重新加载过才直接信任
+     */
+    private boolean isTrusted(Mirror mirror) {
+        long maxStaleness = Math.max(1, membership.getRefreshInterval()) * 2000;
+        return !membership.isConfirmMisses() && System.currentTimeMillis() - mirror.loadedAt <= maxStaleness;
+    }
+
+    private static boolean contains(AtomicLongArray bits, long[] offsets) {
+        for (long offset : offsets) {
+            if ((bits.get((int) (offset >>> 6)) & (1L << (offset & 63))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 实体写入Redis后调用：同步本地副本，清除未命中缓存
+     */
+    void onSave(EntityMetadata metadata, Collection<String> ids) {
+        if (negativeCache.isEnabled() && !absent.isEmpty()) {
+            for (String id : ids) {
+                absent.remove(metadata.getKey(id));
+            }
+        }
+
+        BloomFilterIndex bloom = metadata.getBloomFilterIndex();
+        if (bloom == null) {
+            return;
+        }
+        Mirror mirror = mirror(metadata, bloom);
+        for (String id : ids) {
+            long[] offsets = bloom.offsets(id);
+            // 先记录再设置：副本重新加载时会补上加载期间的写入，不在加载时不需要记录
+            if (mirror.loading) {
+                mirror.pending.add(offsets);
+            }
+            AtomicLongArray bits = mirror.bits;
+            if (bits != null) {
+                set(bits, offsets);
+            }
+        }
+    }
+
+    /**
+     * 立即重建布隆过滤器并重新加载本地副本
+     */
+    void rebuild(EntityMetadata metadata) {
+        BloomFilterIndex bloom = metadata.getBloomFilterIndex();
+        if (bloom == null) {
+            throw new IllegalArgumentException(metadata.getEntityClass().getName()
+                    + " is not annotated with @RedisEntity(bloomFilter = true)");
+        }
+        rebuild(metadata, bloom);
+        reload(bloom, mirror(metadata, bloom));
+    }
+
+    private Mirror mirror(EntityMetadata metadata, BloomFilterIndex bloom) {
+        Mirror mirror = mirrors.get(metadata);
+        if (mirror != null) {
+            return mirror;
+        }
+        return mirrors.computeIfAbsent(metadata, m -> {
+            Mirror created = new Mirror();
+            // 关闭后不再加载副本，副本未就绪时所有ID视为可能存在
+            if (!closed) {
+                scheduler().scheduleWithFixedDelay(() -> refresh(metadata, bloom, created), 0,
+                        Math.max(1, membership.getRefreshInterval()), TimeUnit.SECONDS);
+            }
+            return created;
+        });
+    }
+
+    /**
+     * 定期任务：到期时重建，位图已完整构建时重新加载副本
+     */
+    private void refresh(EntityMetadata metadata, BloomFilterIndex bloom, Mirror mirror) {
+        try {
+            if (acquireRebuild(bloom)) {
+                try {
+                    rebuild(metadata, bloom);
+                } catch (RuntimeException e) {
+                    // 允许其他实例重试
+                    redisTemplate.delete(bloom.getLockKey());
+                    throw e;
+                }
+            }
+            if (Boolean.TRUE.equals(redisTemplate.hasKey(bloom.getReadyKey()))) {
+                reload(bloom, mirror);
+            } else {
+                mirror.bits = null;
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to refresh bloom filter of {}", metadata.getEntityClass().getName(), e);
+        }
+    }
+
+    /**
+     * 从Redis加载副本，补上加载期间本实例的写入
+     */
+    private void reload(BloomFilterIndex bloom, Mirror mirror) {
+        // 写入在Redis中完成后才同步到副本：之后完成的写入看到加载标记并记录，之前完成的写入包含在下面读取的位图里
+        mirror.loading = true;
+        try {
+            byte[] key = raw(bloom.getKey());
+            byte[] value = redisTemplate.execute((RedisCallback<byte[]>) connection -> connection.get(key));
+
+            long[] words = new long[(int) ((bloom.getBitSize() + 63) >>> 6)];
+            if (value != null) {
+                for (int i = 0; i < value.length; i++) {
+                    int b = value[i] & 0xff;
+                    while (b != 0) {
+                        // Redis 位序：字节的最高位为偏移0
+                        int bit = Integer.numberOfLeadingZeros(b) - 24;
+                        long offset = (long) i * 8 + bit;
+                        if (offset < bloom.getBitSize()) {
+                            words[(int) (offset >>> 6)] |= 1L << (offset & 63);
+                        }
+                        b &= ~(0x80 >>> bit);
+                    }
+                }
+            }
+            AtomicLongArray bits = new AtomicLongArray(words);
+            mirror.bits = bits;
+            for (long[] offsets : mirror.pending) {
+                set(bits, offsets);
+            }
+            mirror.loadedAt = System.currentTimeMillis();
+        } finally {
+            mirror.loading = false;
+            mirror.pending.clear();
+        }
+    }
+
+    /**
+     * 获取重建锁，锁在重建间隔内不释放，集群内每个间隔只重建一次
+     */
+    private boolean acquireRebuild(BloomFilterIndex bloom) {
+        byte[] lock = raw(bloom.getLockKey());
+        long interval = Math.max(1, membership.getRebuildInterval()) * 1000;
+        Boolean acquired = redisTemplate.execute((RedisCallback<Boolean>) connection -> connection.set(lock,
+                raw("1"), Expiration.milliseconds(interval), RedisStringCommands.SetOption.ifAbsent()));
+        return Boolean.TRUE.equals(acquired);
+    }
+
+    /**
+     * 扫描所有实体ID在本地构建位图，合并到 next 后替换当前位图
+     */
+    private void rebuild(EntityMetadata metadata, BloomFilterIndex bloom) {
+        byte[] key = raw(bloom.getKey());
+        byte[] nextKey = raw(bloom.getNextKey());
+        byte[] tmpKey = raw(bloom.getNextKey() + ":tmp");
+        byte[] readyKey = raw(bloom.getReadyKey());
+        byte[] bits = new byte[(int) ((bloom.getBitSize() + 7) >>> 3)];
+        long start = System.currentTimeMillis();
+
+        redisTemplate.execute((RedisCallback<Object>) connection -> {
+            // 之后的写入同时设置 next，扫描开始前已存在的实体由扫描覆盖
+            connection.del(nextKey);
+
+            ScanOptions options = ScanOptions.scanOptions()
+                    .match(metadata.isBucketed() ? metadata.getBucketPattern() : metadata.getKeyPattern())
+                    .count(1000)
+                    .build();
+            long count = 0;
+            try (Cursor<byte[]> cursor = connection.scan(options)) {
+                while (cursor.hasNext()) {
+                    byte[] entityKey = cursor.next();
+                    if (metadata.isBucketed()) {
+                        Set<byte[]> fields = connection.hKeys(entityKey);
+                        if (fields != null) {
+                            for (byte[] field : fields) {
+                                setBits(bits, bloom.offsets(StringRedisSerializer.UTF_8.deserialize(field)));
+                                count++;
+                            }
+                        }
+                        continue;
+                    }
+                    String id = metadata.getIdFromKey(StringRedisSerializer.UTF_8.deserialize(entityKey));
+                    if (id != null) {
+                        setBits(bits, bloom.offsets(id));
+                        count++;
+                    }
+                }
+            }
+
+            connection.set(tmpKey, bits);
+            connection.bitOp(RedisStringCommands.BitOperation.OR, nextKey, nextKey, tmpKey);
+            connection.del(tmpKey);
+            connection.rename(nextKey, key);
+            connection.set(readyKey, raw("1"));
+            log.info("Rebuilt bloom filter of {} with {} ids in {} ms", metadata.getEntityClass().getName(),
+                    count, System.currentTimeMillis() - start);
+            return null;
+        });
+    }
+
+    private static void setBits(byte[] bits, long[] offsets) {
+        for (long offset : offsets) {
+            bits[(int) (offset >>> 3)] |= (byte) (0x80 >>> (offset & 7));
+        }
+    }
+
+    private static void set(AtomicLongArray bits, long[] offsets) {
+        for (long offset : offsets) {
+            long mask = 1L << (offset & 63);
+            bits.accumulateAndGet((int) (offset >>> 6), mask, (current, m) -> current | m);
+        }
+    }
+
+    /**
+     * 停止副本的定期加载和重建
+     */
+    void shutdown() {
+        closed = true;
+        synchronized (this) {
+            if (scheduler != null) {
+                scheduler.shutdownNow();
+            }
+        }
+    }
+
+    private ScheduledExecutorService scheduler() {
+        ScheduledExecutorService current = scheduler;
+        if (current == null) {
+            synchronized (this) {
+                current = scheduler;
+                if (current == null) {
+                    current = Executors.newSingleThreadScheduledExecutor(r -> {
+                        Thread thread = new Thread(r, "redis-orm-membership");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    scheduler = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private static byte[] raw(String value) {
+        return StringRedisSerializer.UTF_8.serialize(value);
+    }
+
+    /**
+     * 布隆过滤器的本地副本
+     */
+    private static class Mirror {
+
+        /**
+         * 按偏移保存的位，未就绪时为null
+         */
+        private volatile AtomicLongArray bits;
+
+        /**
+         * 上次加载完成的时间（毫秒时间戳）
+         */
+        private volatile long loadedAt;
+
+        /**
+         * 是否正在从Redis加载
+         */
+        private volatile boolean loading;
+
+        /**
+         * 加载期间本实例写入的位偏移，只在加载期间记录
+         */
+        private final Queue<long[]> pending = new ConcurrentLinkedQueue<>();
+    }
+}
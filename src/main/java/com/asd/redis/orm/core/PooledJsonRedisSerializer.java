@@ -0,0 +1,131 @@
+package com.asd.redis.orm.core;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * 使用线程本地缓冲区编码值的 JSON 序列化器
+ * <p>
+ * 输出格式与默认构造的 {@link GenericJackson2JsonRedisSerializer} 完全相同（含 @class 类型信息）。
+ * 编码时 Jackson 直接写入线程本地的可复用缓冲区，每次只分配最终的值数组，不再为超过 Jackson
+ * 内部首块（约 2KB）的值逐块分配并拼接；超过 maxPooledSize 的缓冲区用完即丢弃，避免长期占用内存。
+ * 解码沿用父类，直接从响应的字节数组解析，不经过中间字符串。
+ * <p>
+ * 返回的数组不能复用：Lettuce 在管道模式下异步编码命令参数，数组必须在命令发出前保持不变。
+ */
+public class PooledJsonRedisSerializer extends GenericJackson2JsonRedisSerializer {
+
+    private static final byte[] EMPTY_ARRAY = new byte[0];
+
+    private static final int INITIAL_CAPACITY = 512;
+
+    private final ObjectMapper mapper;
+
+    private final int maxPooledSize;
+
+    private final ThreadLocal<ValueBuffer> buffers = ThreadLocal.withInitial(() -> new ValueBuffer(INITIAL_CAPACITY));
+
+    public PooledJsonRedisSerializer(int maxPooledSize) {
+        this(defaultMapper(), maxPooledSize);
+    }
+
+    public PooledJsonRedisSerializer(ObjectMapper mapper, int maxPooledSize) {
+        super(mapper);
+        if (maxPooledSize < INITIAL_CAPACITY) {
+            throw new IllegalArgumentException("maxPooledSize must be at least " + INITIAL_CAPACITY);
+        }
+        this.mapper = mapper;
+        this.maxPooledSize = maxPooledSize;
+    }
+
+    /**
+     * 与 GenericJackson2JsonRedisSerializer 默认构造相同的 ObjectMapper 配置
+     */
+    @SuppressWarnings("deprecation")
+    public static ObjectMapper defaultMapper() {
+        ObjectMapper mapper = new ObjectMapper();
+        registerNullValueSerializer(mapper, null);
+        mapper.enableDefaultTyping(ObjectMapper.DefaultTyping.NON_FINAL, JsonTypeInfo.As.PROPERTY);
+        return mapper;
+    }
+
+    @Override
+    public byte[] serialize(Object source) throws SerializationException {
+        if (source == null) {
+            return EMPTY_ARRAY;
+        }
+
+        ValueBuffer buffer = buffers.get();
+        if (buffer.inUse) {
+            // 序列化过程中重入（例如自定义序列化器再次写值），使用临时缓冲区
+            return super.serialize(source);
+        }
+        buffer.inUse = true;
+        try {
+            mapper.writeValue(buffer, source);
+            return buffer.toByteArray();
+        } catch (IOException e) {
+            throw new SerializationException("Could not write JSON: " + e.getMessage(), e);
+        } finally {
+            buffer.inUse = false;
+            if (buffer.capacity() > maxPooledSize) {
+                buffers.remove();
+            } else {
+                buffer.reset();
+            }
+        }
+    }
+
+    /**
+     * 非同步的可增长字节缓冲区
+     */
+    private static final class ValueBuffer extends OutputStream {
+
+        private byte[] bytes;
+
+        private int count;
+
+        private boolean inUse;
+
+        ValueBuffer(int capacity) {
+            this.bytes = new byte[capacity];
+        }
+
+        @Override
+        public void write(int b) {
+            ensureCapacity(count + 1);
+            bytes[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            ensureCapacity(count + len);
+            System.arraycopy(b, off, bytes, count, len);
+            count += len;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, count);
+        }
+
+        int capacity() {
+            return bytes.length;
+        }
+
+        void reset() {
+            count = 0;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(capacity, bytes.length << 1));
+            }
+        }
+    }
+}
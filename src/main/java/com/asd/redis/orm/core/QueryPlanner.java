@@ -0,0 +1,363 @@
+package com.asd.redis.orm.core;
+
+import com.asd.redis.orm.index.EntityIndex;
+import com.asd.redis.orm.index.EqualIndex;
+import com.asd.redis.orm.index.RangeIndex;
+import com.asd.redis.orm.query.Condition;
+import com.asd.redis.orm.query.QueryPlan;
+import com.asd.redis.orm.query.QueryWrapper;
+import org.springframework.data.redis.connection.RedisZSetCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * 条件查询计划器
+ * <p>
+ * 把能使用等值索引和范围索引的条件转换为索引访问，通过一次管道估算各索引的命中数量，
+ * 以命中最少的索引为驱动，在服务端脚本中用其余索引逐个过滤驱动结果，只返回交集的ID。
+ * 没有可用索引时遍历实体类型的所有键。
+ */
+class QueryPlanner {
+
+    /**
+     * 以第一个来源为驱动，用其余来源过滤
+     * <p>
+     * ARGV: 来源数量, limit, 每个来源 S 键数量 或 Z 最小分值 最大分值；KEYS 按来源顺序排列
+     */
+    private static final LuaScript INTERSECT = new LuaScript(String.join("\n",
+            "local n = tonumber(ARGV[1])",
+            "local limit = tonumber(ARGV[2])",
+            "local sources = {}",
+            "local ki, ai = 1, 3",
+            "for s = 1, n do",
+            "  if ARGV[ai] == 'S' then",
+            "    local keys = {}",
+            "    for j = 1, tonumber(ARGV[ai + 1]) do keys[j] = KEYS[ki]; ki = ki + 1 end",
+            "    sources[s] = {set = true, keys = keys}",
+            "    ai = ai + 2",
+            "  else",
+            "    sources[s] = {set = false, key = KEYS[ki], min = ARGV[ai + 1], max = ARGV[ai + 2]}",
+            "    ki = ki + 1",
+            "    ai = ai + 3",
+            "  end",
+            "end",
+            "local function bound(value)",
+            "  if value == '-inf' then return -math.huge, false end",
+            "  if value == '+inf' then return math.huge, false end",
+            "  if string.sub(value, 1, 1) == '(' then return tonumber(string.sub(value, 2)), true end",
+            "  return tonumber(value), false",
+            "end",
+            "local function inRange(score, source)",
+            "  local min, minExclusive = bound(source.min)",
+            "  local max, maxExclusive = bound(source.max)",
+            "  if score < min or (minExclusive and score == min) then return false end",
+            "  if score > max or (maxExclusive and score == max) then return false end",
+            "  return true",
+            "end",
+            "local driver = sources[1]",
+            "local ids",
+            "if driver.set then",
+            "  ids = redis.call('SUNION', unpack(driver.keys))",
+            "else",
+            "  ids = redis.call('ZRANGEBYSCORE', driver.key, driver.min, driver.max)",
+            "end",
+            "local result = {}",
+            "for _, id in ipairs(ids) do",
+            "  local matched = true",
+            "  for s = 2, n do",
+            "    local source = sources[s]",
+            "    if source.set then",
+            "      matched = false",
+            "      for _, key in ipairs(source.keys) do",
+            "        if redis.call('SISMEMBER', key, id) == 1 then matched = true; break end",
+            "      end",
+            "    else",
+            "      local score = redis.call('ZSCORE', source.key, id)",
+            "      matched = score ~= false and inRange(tonumber(score), source)",
+            "    end",
+            "    if not matched then break end",
+            "  end",
+            "  if matched then",
+            "    result[#result + 1] = id",
+            "    if limit > 0 and #result >= limit then break end",
+            "  end",
+            "end",
+            "return result"));
+
+    private QueryPlanner() {
+    }
+
+    /**
+     * 生成执行计划，会访问一次Redis估算各索引的命中数量
+     */
+    static Plan plan(RedisTemplate<String, Object> redisTemplate, EntityMetadata metadata, QueryWrapper<?> query) {
+        List<Source> sources = new ArrayList<>();
+        List<Condition> filters = new ArrayList<>();
+        for (Condition condition : query.getConditions()) {
+            Source source = toSource(metadata.findIndex(condition.getField()), condition);
+            if (source != null) {
+                sources.add(source);
+            }
+            if (source == null || !source.exact) {
+                filters.add(condition);
+            }
+        }
+
+        if (!sources.isEmpty()) {
+            List<Object> counts = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (Source source : sources) {
+                    if (source.set) {
+                        for (String key : source.keys) {
+                            connection.sCard(raw(key));
+                        }
+                    } else {
+                        connection.zCount(raw(source.keys.get(0)), source.range);
+                    }
+                }
+                return null;
+            });
+            Iterator<Object> iterator = counts.iterator();
+            for (Source source : sources) {
+                for (int i = 0; i < (source.set ? source.keys.size() : 1); i++) {
+                    Object count = iterator.next();
+                    source.estimate += count instanceof Number ? ((Number) count).longValue() : 0;
+                }
+            }
+            sources.sort(Comparator.comparingLong(source -> source.estimate));
+        }
+
+        return new Plan(sources, filters, query);
+    }
+
+    /**
+     * 按计划从索引中获取候选ID
+     *
+     * @param limit 服务端截断的数量，0表示不截断
+     */
+    static List<String> findIds(RedisTemplate<String, Object> redisTemplate, Plan plan, int limit) {
+        List<byte[]> keysAndArgs = new ArrayList<>();
+        List<byte[]> args = new ArrayList<>();
+        args.add(raw(String.valueOf(plan.sources.size())));
+        args.add(raw(String.valueOf(limit)));
+        for (Source source : plan.sources) {
+            for (String key : source.keys) {
+                keysAndArgs.add(raw(key));
+            }
+            if (source.set) {
+                args.add(raw("S"));
+                args.add(raw(String.valueOf(source.keys.size())));
+            } else {
+                args.add(raw("Z"));
+                args.add(raw(source.min));
+                args.add(raw(source.max));
+            }
+        }
+        int numKeys = keysAndArgs.size();
+        keysAndArgs.addAll(args);
+
+        List<Object> result = redisTemplate.execute((RedisCallback<List<Object>>) connection ->
+                INTERSECT.execute(connection, ReturnType.MULTI, numKeys, keysAndArgs.toArray(new byte[0][])));
+        List<String> ids = new ArrayList<>();
+        if (result != null) {
+            for (Object id : result) {
+                ids.add(StringRedisSerializer.UTF_8.deserialize((byte[]) id));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * 把条件转换为索引访问，无法使用索引时返回null
+     */
+    private static Source toSource(EntityIndex index, Condition condition) {
+        Condition.Operator operator = condition.getOperator();
+        List<Object> values = condition.getValues();
+
+        if (index instanceof EqualIndex) {
+            EqualIndex equalIndex = (EqualIndex) index;
+            switch (operator) {
+                case EQ:
+                case IN:
+                    List<String> keys = new ArrayList<>();
+                    for (Object value : values) {
+                        keys.add(equalIndex.getKey(value));
+                    }
+                    return new Source(condition, keys);
+                case IS_NULL:
+                    return new Source(condition, Collections.singletonList(equalIndex.getKey(null)));
+                default:
+                    return null;
+            }
+        }
+
+        if (index instanceof RangeIndex) {
+            String key = ((RangeIndex) index).getKey();
+            if (operator != Condition.Operator.EQ && operator != Condition.Operator.GT
+                    && operator != Condition.Operator.LT && operator != Condition.Operator.BETWEEN) {
+                return null;
+            }
+            double[] scores = new double[operator == Condition.Operator.BETWEEN ? 2 : 1];
+            boolean exact = true;
+            for (int i = 0; i < scores.length; i++) {
+                try {
+                    scores[i] = RangeIndex.score(values.get(i));
+                } catch (IllegalArgumentException e) {
+                    // 比较值不是数值或日期，只能在内存中过滤
+                    return null;
+                }
+                if (!Double.isFinite(scores[i])) {
+                    // NaN 和无穷不能作为分值区间的边界
+                    return null;
+                }
+                exact &= isExact(values.get(i), scores[i]);
+            }
+
+            // 比较值不能被分值精确表示时（如超过 2^53 的整数）放宽为闭区间，条件保留在内存中过滤
+            Source source;
+            switch (operator) {
+                case EQ:
+                    source = new Source(condition, key, scores[0], false, scores[0], false);
+                    break;
+                case GT:
+                    source = new Source(condition, key, scores[0], exact, Double.POSITIVE_INFINITY, false);
+                    break;
+                case LT:
+                    source = new Source(condition, key, Double.NEGATIVE_INFINITY, false, scores[0], exact);
+                    break;
+                default:
+                    source = new Source(condition, key, scores[0], false, scores[1], false);
+                    break;
+            }
+            source.exact = exact;
+            return source;
+        }
+        return null;
+    }
+
+    /**
+     * 比较值是否与其双精度分值相等
+     */
+    private static boolean isExact(Object value, double score) {
+        if (value instanceof Double || value instanceof Float) {
+            return true;
+        }
+        String decimal = value instanceof Date ? String.valueOf(((Date) value).getTime()) : value.toString();
+        try {
+            return new BigDecimal(score).compareTo(new BigDecimal(decimal)) == 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static byte[] raw(String value) {
+        return StringRedisSerializer.UTF_8.serialize(value);
+    }
+
+    /**
+     * 执行计划
+     */
+    static class Plan {
+
+        private final List<Source> sources;
+        private final List<Condition> filters;
+        private final QueryWrapper<?> query;
+
+        Plan(List<Source> sources, List<Condition> filters, QueryWrapper<?> query) {
+            this.sources = sources;
+            this.filters = filters;
+            this.query = query;
+        }
+
+        /**
+         * 是否需要遍历所有实体
+         */
+        boolean isScan() {
+            return sources.isEmpty();
+        }
+
+        /**
+         * 驱动索引估算为空，结果必为空
+         */
+        boolean isEmpty() {
+            return !sources.isEmpty() && sources.get(0).estimate == 0;
+        }
+
+        /**
+         * 需要在内存中过滤的条件
+         */
+        List<Condition> getFilters() {
+            return filters;
+        }
+
+        /**
+         * 没有内存过滤和排序时，limit可以在服务端截断
+         */
+        boolean canPushDownLimit() {
+            return !isScan() && filters.isEmpty() && query.getOrders().isEmpty() && query.getLimit() > 0;
+        }
+
+        QueryPlan explain() {
+            QueryPlan.Access access = isScan() ? QueryPlan.Access.SCAN
+                    : isEmpty() ? QueryPlan.Access.EMPTY : QueryPlan.Access.INDEX;
+            List<String> steps = new ArrayList<>();
+            for (int i = 0; i < sources.size(); i++) {
+                Source source = sources.get(i);
+                steps.add((i == 0 ? "DRIVE " : "INTERSECT ") + source.condition
+                        + (source.set ? " via EQUAL index " : " via RANGE index ")
+                        + (source.keys.size() == 1 ? source.keys.get(0) : source.keys.size() + " keys")
+                        + " (estimate " + source.estimate + ")");
+            }
+            return new QueryPlan(access, steps, filters, query.getOrders(), query.getLimit(), canPushDownLimit());
+        }
+    }
+
+    /**
+     * 索引访问：等值索引的一个或多个ID集合（取并集），或范围索引的分值区间
+     */
+    private static class Source {
+
+        private final Condition condition;
+        private final boolean set;
+        private final List<String> keys;
+        private RedisZSetCommands.Range range;
+        private String min;
+        private String max;
+        private long estimate;
+        private boolean exact = true;
+
+        Source(Condition condition, List<String> keys) {
+            this.condition = condition;
+            this.set = true;
+            this.keys = keys;
+        }
+
+        Source(Condition condition, String key, double min, boolean minExclusive, double max, boolean maxExclusive) {
+            this.condition = condition;
+            this.set = false;
+            this.keys = Collections.singletonList(key);
+            this.min = bound(min, minExclusive);
+            this.max = bound(max, maxExclusive);
+
+            RedisZSetCommands.Range range = RedisZSetCommands.Range.range();
+            if (!Double.isInfinite(min)) {
+                range = minExclusive ? range.gt(min) : range.gte(min);
+            }
+            if (!Double.isInfinite(max)) {
+                range = maxExclusive ? range.lt(max) : range.lte(max);
+            }
+            this.range = range;
+        }
+
+        private static String bound(double value, boolean exclusive) {
+            if (Double.isInfinite(value)) {
+                return value > 0 ? "+inf" : "-inf";
+            }
+            return (exclusive ? "(" : "") + value;
+        }
+    }
+}
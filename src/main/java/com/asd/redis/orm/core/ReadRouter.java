@@ -0,0 +1,198 @@
+package com.asd.redis.orm.core;
+
+import com.asd.redis.orm.annotation.RedisEntity;
+import com.asd.redis.orm.config.RedisOrmProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 读路由器，将只读操作按策略分发到主节点或从节点
+ * <p>
+ * 开启读己之写窗口后，本地写入过的键（以及该实体类型的扫描类查询）在窗口内始终访问主节点。
+ * 逐键记录的数量不超过 trackingSize（另加每个实体类型至多两个标记），达到上限后改为按类型记录。
+ * 按类型记录期间的写入只延长类型标记，清理过期记录的全量遍历每个窗口至多执行一次。
+ */
+@Slf4j
+public class ReadRouter implements DisposableBean {
+
+    private final RedisTemplate<String, Object> primary;
+    private final List<RedisTemplate<String, Object>> replicas;
+    private final RedisEntity.ReadPolicy defaultPolicy;
+    private final long windowNanos;
+    private final int trackingSize;
+    private final Map<Class<?>, RedisEntity.ReadPolicy> policies = new ConcurrentHashMap<>();
+    private final Map<String, Long> recentWrites = new ConcurrentHashMap<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicLong nextEviction = new AtomicLong(System.nanoTime());
+
+    public ReadRouter(RedisTemplate<String, Object> primary, List<RedisTemplate<String, Object>> replicas,
+                      RedisOrmProperties.Read properties) {
+        this.primary = primary;
+        this.replicas = new ArrayList<>(replicas);
+        this.defaultPolicy = properties.getPolicy() != null && properties.getPolicy() != RedisEntity.ReadPolicy.DEFAULT
+                ? properties.getPolicy() : RedisEntity.ReadPolicy.PRIMARY;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, properties.getReadYourWritesWindow()));
+        this.trackingSize = properties.getReadYourWritesTrackingSize();
+    }
+
+    /**
+     * 执行只读操作
+     *
+     * @param entityClass 实体类型
+     * @param keys        读取的键，为空表示扫描整个实体类型
+     * @param operation   读操作
+     */
+    public <R> R read(Class<?> entityClass, Collection<String> keys,
+                      Function<RedisTemplate<String, Object>, R> operation) {
+        return read(Collections.singletonList(entityClass), keys, operation);
+    }
+
+    /**
+     * 执行涉及多种实体类型的只读操作，任一类型要求访问主节点时访问主节点
+     *
+     * @param entityClasses 实体类型
+     * @param keys          读取的键
+     * @param operation     读操作
+     */
+    public <R> R read(Collection<Class<?>> entityClasses, Collection<String> keys,
+                      Function<RedisTemplate<String, Object>, R> operation) {
+        if (replicas.isEmpty() || requiresPrimary(entityClasses, keys)) {
+            return operation.apply(primary);
+        }
+
+        RedisTemplate<String, Object> replica = replicas.get(Math.abs(next.getAndIncrement() % replicas.size()));
+        try {
+            return operation.apply(replica);
+        } catch (DataAccessResourceFailureException | QueryTimeoutException e) {
+            log.warn("Replica read failed, falling back to primary: {}", e.getMessage());
+            return operation.apply(primary);
+        }
+    }
+
+    /**
+     * 记录本地写入
+     */
+    public void recordWrite(Class<?> entityClass, Collection<String> keys) {
+        if (windowNanos <= 0 || replicas.isEmpty()) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        long deadline = now + windowNanos;
+        if (isActive(saturatedMarker(entityClass), now)) {
+            // 已按类型记录：延长标记，不再逐键记录，也不遍历清理
+            recentWrites.put(saturatedMarker(entityClass), deadline);
+            recentWrites.put(typeMarker(entityClass), deadline);
+            return;
+        }
+        if (recentWrites.size() + keys.size() > trackingSize) {
+            evictExpired(now);
+            if (recentWrites.size() + keys.size() > trackingSize) {
+                // 清理过期记录后仍超过上限：不再逐键记录，窗口内该类型的所有读取都访问主节点
+                recentWrites.put(saturatedMarker(entityClass), deadline);
+                recentWrites.put(typeMarker(entityClass), deadline);
+                return;
+            }
+        }
+        recentWrites.put(typeMarker(entityClass), deadline);
+        for (String key : keys) {
+            recentWrites.put(key, deadline);
+        }
+    }
+
+    private boolean requiresPrimary(Collection<Class<?>> entityClasses, Collection<String> keys) {
+        for (Class<?> entityClass : entityClasses) {
+            if (getPolicy(entityClass) == RedisEntity.ReadPolicy.PRIMARY || isRecentlyWritten(entityClass, keys)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isRecentlyWritten(Class<?> entityClass, Collection<String> keys) {
+        if (windowNanos <= 0 || recentWrites.isEmpty()) {
+            return false;
+        }
+
+        long now = System.nanoTime();
+        if (isActive(saturatedMarker(entityClass), now)) {
+            return true;
+        }
+        if (keys == null || keys.isEmpty()) {
+            return isActive(typeMarker(entityClass), now);
+        }
+        for (String key : keys) {
+            if (isActive(key, now)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isActive(String key, long now) {
+        Long deadline = recentWrites.get(key);
+        if (deadline == null) {
+            return false;
+        }
+        if (deadline - now > 0) {
+            return true;
+        }
+        recentWrites.remove(key, deadline);
+        return false;
+    }
+
+    /**
+     * 清理过期记录，每个窗口至多遍历一次
+     */
+    private void evictExpired(long now) {
+        long scheduled = nextEviction.get();
+        if (now - scheduled < 0 || !nextEviction.compareAndSet(scheduled, now + windowNanos)) {
+            return;
+        }
+        recentWrites.entrySet().removeIf(entry -> entry.getValue() - now <= 0);
+    }
+
+    private RedisEntity.ReadPolicy getPolicy(Class<?> entityClass) {
+        return policies.computeIfAbsent(entityClass, clazz -> {
+            RedisEntity annotation = clazz.getAnnotation(RedisEntity.class);
+            return annotation != null && annotation.readPolicy() != RedisEntity.ReadPolicy.DEFAULT
+                    ? annotation.readPolicy() : defaultPolicy;
+        });
+    }
+
+    private String typeMarker(Class<?> entityClass) {
+        return "@" + entityClass.getName();
+    }
+
+    /**
+     * 逐键记录超过上限时的类型标记，窗口内该类型的所有读取访问主节点
+     */
+    private String saturatedMarker(Class<?> entityClass) {
+        return "!" + entityClass.getName();
+    }
+
+    @Override
+    public void destroy() {
+        for (RedisTemplate<String, Object> replica : replicas) {
+            RedisConnectionFactory connectionFactory = replica.getConnectionFactory();
+            if (connectionFactory instanceof DisposableBean) {
+                try {
+                    ((DisposableBean) connectionFactory).destroy();
+                } catch (Exception e) {
+                    log.warn("Failed to destroy replica connection factory", e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.asd.redis.orm.core;
+
+import com.asd.redis.orm.config.RedisOrmProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 读穿透加载
+ * <p>
+ * 未命中时按键单飞加载：本地同一个键只有一个线程执行加载，其他线程等待；开启分布式锁时再用一个短期的 SET NX PX 锁
+ * 保证多个实例中只有一个执行加载，未抢到锁的实例轮询等待写回的结果，超时后自行加载。
+ * 命中时按 XFetch 算法（剩余TTL 小于 加载耗时 * beta * -ln(random) 时）提前异步刷新，加载耗时越长、越接近过期，刷新概率越大。
+ */
+@Slf4j
+class ReadThrough {
+
+    private static final LuaScript RELEASE = new LuaScript(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end return 0");
+
+    private static final long POLL_INTERVAL = 20;
+
+    private final RedisOrmProperties.Loader properties;
+    private final Map<Class<?>, EntityLoader<?>> loaders = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Boolean>> inFlight = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Double> loadMillis = new ConcurrentHashMap<>();
+    private volatile ExecutorService refreshExecutor;
+    private volatile boolean closed;
+
+    ReadThrough(RedisOrmProperties.Loader properties) {
+        this.properties = properties;
+    }
+
+    void register(EntityLoader<?> loader) {
+        loaders.put(loader.getEntityClass(), loader);
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> EntityLoader<T> getLoader(Class<T> entityClass) {
+        return (EntityLoader<T>) loaders.get(entityClass);
+    }
+
+    /**
+     * 单飞加载
+     *
+     * @param key    实体键
+     * @param lock   分布式锁的键
+     * @param load   加载并写回，返回是否加载到实体
+     * @param cached 等待其他实例写回时读取缓存，返回是否已写回
+     * @return 是否加载到实体（加载到后调用方重新读取）
+     */
+    boolean load(Class<?> entityClass, RedisTemplate<String, Object> redisTemplate, String key, String lock,
+                 BooleanSupplier load, BooleanSupplier cached) {
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        CompletableFuture<Boolean> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return await(existing, key);
+        }
+
+        try {
+            future.complete(loadOnce(entityClass, redisTemplate, lock, load, cached));
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+        return future.join();
+    }
+
+    private boolean loadOnce(Class<?> entityClass, RedisTemplate<String, Object> redisTemplate, String lock,
+                             BooleanSupplier load, BooleanSupplier cached) {
+        if (!properties.isLockEnabled()) {
+            return timed(entityClass, load);
+        }
+
+        String token = UUID.randomUUID().toString();
+        if (acquire(redisTemplate, lock, token)) {
+            try {
+                return timed(entityClass, load);
+            } finally {
+                release(redisTemplate, lock, token);
+            }
+        }
+
+        // 其他实例正在加载，等待其写回
+        long deadline = System.currentTimeMillis() + properties.getLockTimeout();
+        while (System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(POLL_INTERVAL);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for " + lock, e);
+            }
+            if (cached.getAsBoolean()) {
+                return true;
+            }
+            if (!Boolean.TRUE.equals(redisTemplate.hasKey(lock))) {
+                // 锁已释放但没有写回，说明数据源中不存在
+                return cached.getAsBoolean();
+            }
+        }
+        return timed(entityClass, load);
+    }
+
+    /**
+     * 命中时是否提前刷新
+     *
+     * @param ttl 剩余的过期时间（毫秒）
+     */
+    boolean shouldRefresh(Class<?> entityClass, long ttl) {
+        if (!properties.isEarlyRefresh() || ttl <= 0) {
+            return false;
+        }
+        Double delta = loadMillis.get(entityClass);
+        if (delta == null) {
+            return false;
+        }
+        double random = ThreadLocalRandom.current().nextDouble();
+        return -delta * properties.getBeta() * Math.log(random) >= ttl;
+    }
+
+    /**
+     * 异步刷新，同一个键已在加载中时跳过
+     */
+    void refreshAsync(Class<?> entityClass, String key, BooleanSupplier load) {
+        if (closed) {
+            return;
+        }
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(key, future) != null) {
+            return;
+        }
+        try {
+            refreshExecutor().execute(() -> {
+                try {
+                    future.complete(timed(entityClass, load));
+                } catch (RuntimeException e) {
+                    log.warn("Failed to refresh {}", key, e);
+                    future.completeExceptionally(e);
+                } finally {
+                    inFlight.remove(key, future);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key, future);
+            future.complete(false);
+        }
+    }
+
+    /**
+     * 执行加载并记录耗时（指数移动平均），作为提前刷新的依据
+     */
+    private boolean timed(Class<?> entityClass, BooleanSupplier load) {
+        long start = System.nanoTime();
+        boolean found = load.getAsBoolean();
+        double millis = (System.nanoTime() - start) / 1_000_000d;
+        loadMillis.merge(entityClass, millis, (old, current) -> old * 0.8 + current * 0.2);
+        return found;
+    }
+
+    private boolean acquire(RedisTemplate<String, Object> redisTemplate, String lock, String token) {
+        Boolean acquired = redisTemplate.execute((RedisCallback<Boolean>) connection -> connection.set(raw(lock),
+                raw(token), Expiration.milliseconds(properties.getLockTimeout()),
+                RedisStringCommands.SetOption.ifAbsent()));
+        return Boolean.TRUE.equals(acquired);
+    }
+
+    private void release(RedisTemplate<String, Object> redisTemplate, String lock, String token) {
+        try {
+            redisTemplate.execute((RedisCallback<Long>) connection ->
+                    RELEASE.execute(connection, ReturnType.INTEGER, 1, raw(lock), raw(token)));
+        } catch (RuntimeException e) {
+            // 锁会自动过期
+            log.warn("Failed to release loader lock {}", lock, e);
+        }
+    }
+
+    private static boolean await(CompletableFuture<Boolean> future, String key) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading " + key, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException("Failed to load " + key, e.getCause());
+        }
+    }
+
+    /**
+     * 关闭提前刷新的线程池，之后不再提前刷新
+     */
+    void shutdown() {
+        closed = true;
+        synchronized (this) {
+            if (refreshExecutor != null) {
+                refreshExecutor.shutdown();
+            }
+        }
+    }
+
+    private ExecutorService refreshExecutor() {
+        ExecutorService current = refreshExecutor;
+        if (current == null) {
+            synchronized (this) {
+                current = refreshExecutor;
+                if (current == null) {
+                    int threads = Math.max(1, properties.getRefreshThreads());
+                    AtomicInteger threadIndex = new AtomicInteger();
+                    ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                            new LinkedBlockingQueue<>(properties.getRefreshQueueCapacity()), r -> {
+                        Thread thread = new Thread(r, "redis-orm-refresh-" + threadIndex.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    executor.allowCoreThreadTimeOut(true);
+                    current = executor;
+                    refreshExecutor = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private static byte[] raw(String value) {
+        return StringRedisSerializer.UTF_8.serialize(value);
+    }
+}
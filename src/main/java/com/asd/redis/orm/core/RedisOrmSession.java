@@ -0,0 +1,215 @@
+package com.asd.redis.orm.core;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 工作单元会话
+ * <p>
+ * 会话打开期间，当前线程上通过 RedisOrmTemplate 和 Mapper 执行的写操作（保存、更新、删除）只记录在会话中，
+ * 提交时按节点合并为一个 MULTI/EXEC 管道发送：同一实体的多次写入只保留最后一次，一个业务操作只需一次写往返，
+ * 同一节点上的写入其他客户端要么看到全部，要么一个也看不到（跨分片的会话见 {@link #commit()}）。
+ * 读操作不受会话影响，读不到会话中尚未提交的写入。
+ * <pre>
+ * try (RedisOrmSession session = RedisOrmSession.open()) {
+ *     userMapper.insert(user);
+ *     orderMapper.deleteById(orderId);
+ *     session.commit();
+ * }
+ * </pre>
+ * 会话中的 updateById 总是返回true（会话中已删除的实体除外），提交时实体已不存在则跳过该更新；
+ * deleteById 返回true，不反映实体是否存在。未提交就关闭的会话丢弃所有写操作。
+ */
+public class RedisOrmSession implements AutoCloseable {
+
+    private static final ThreadLocal<RedisOrmSession> CURRENT = new ThreadLocal<>();
+
+    /**
+     * 节点模板 -> 实体类型 -> ID -> 写操作
+     */
+    private final Map<RedisOrmTemplate, Map<EntityMetadata, Map<String, Write>>> writes = new LinkedHashMap<>();
+
+    private RedisOrmSession() {
+    }
+
+    /**
+     * 在当前线程上打开会话
+     *
+     * @throws IllegalStateException 当前线程已有打开的会话
+     */
+    public static RedisOrmSession open() {
+        if (CURRENT.get() != null) {
+            throw new IllegalStateException("A RedisOrmSession is already open on this thread");
+        }
+        RedisOrmSession session = new RedisOrmSession();
+        CURRENT.set(session);
+        return session;
+    }
+
+    /**
+     * 获取当前线程上打开的会话，没有时返回null
+     */
+    public static RedisOrmSession current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 当前线程处于Spring事务中时打开会话，事务提交后提交会话，事务结束后关闭会话
+     *
+     * @return 打开的会话，不在事务中时返回null
+     */
+    static RedisOrmSession bindToTransaction() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+
+        RedisOrmSession session = open();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                session.commit();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                session.close();
+            }
+        });
+        return session;
+    }
+
+    /**
+     * 记录保存操作
+     */
+    void save(RedisOrmTemplate template, EntityMetadata metadata, Map<String, ?> entitiesById) {
+        Map<String, Write> entityWrites = entityWrites(template, metadata);
+        for (Map.Entry<String, ?> entry : entitiesById.entrySet()) {
+            entityWrites.remove(entry.getKey());
+            entityWrites.put(entry.getKey(), new Write(entry.getValue(), false));
+        }
+    }
+
+    /**
+     * 记录更新操作
+     *
+     * @return 实体在会话中已被删除时返回false
+     */
+    boolean update(RedisOrmTemplate template, EntityMetadata metadata, String id, Object entity) {
+        Map<String, Write> entityWrites = entityWrites(template, metadata);
+        Write previous = entityWrites.remove(id);
+        if (previous != null && previous.isDelete()) {
+            entityWrites.put(id, previous);
+            return false;
+        }
+        // 会话中已保存过的实体一定存在，不需要在提交时检查
+        entityWrites.put(id, new Write(entity, previous == null || previous.requireExisting));
+        return true;
+    }
+
+    /**
+     * 记录删除操作
+     */
+    void delete(RedisOrmTemplate template, EntityMetadata metadata, Iterable<String> ids) {
+        Map<String, Write> entityWrites = entityWrites(template, metadata);
+        for (String id : ids) {
+            entityWrites.remove(id);
+            entityWrites.put(id, new Write(null, false));
+        }
+    }
+
+    private Map<String, Write> entityWrites(RedisOrmTemplate template, EntityMetadata metadata) {
+        return writes.computeIfAbsent(template, k -> new LinkedHashMap<>())
+                .computeIfAbsent(metadata, k -> new LinkedHashMap<>());
+    }
+
+    /**
+     * 待提交的写操作数量（去重后）
+     */
+    public int size() {
+        int size = 0;
+        for (Map<EntityMetadata, Map<String, Write>> byType : writes.values()) {
+            for (Map<String, Write> byId : byType.values()) {
+                size += byId.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * 提交所有写操作，每个节点一个 MULTI/EXEC，会话可以继续使用
+     * <p>
+     * 每个节点内的写入是原子的，但分片时各节点依次提交，节点之间没有两阶段提交：
+     * 第一个节点提交失败时没有任何写入生效，抛出原异常；之后的节点失败时已提交的节点无法回滚，
+     * 抛出 IllegalStateException，消息中给出已提交和未提交的节点数量，原异常为其 cause。
+     */
+    public void commit() {
+        int committed = 0;
+        try {
+            for (Map.Entry<RedisOrmTemplate, Map<EntityMetadata, Map<String, Write>>> entry : writes.entrySet()) {
+                try {
+                    entry.getKey().flush(entry.getValue());
+                } catch (RuntimeException e) {
+                    if (committed == 0) {
+                        throw e;
+                    }
+                    throw new IllegalStateException("RedisOrmSession partially committed: " + committed
+                            + " node(s) committed and cannot be rolled back, "
+                            + (writes.size() - committed) + " node(s) not committed", e);
+                }
+                committed++;
+            }
+        } finally {
+            writes.clear();
+        }
+    }
+
+    /**
+     * 丢弃所有未提交的写操作
+     */
+    public void rollback() {
+        writes.clear();
+    }
+
+    /**
+     * 关闭会话，未提交的写操作被丢弃
+     */
+    @Override
+    public void close() {
+        writes.clear();
+        if (CURRENT.get() == this) {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * 一次写操作，entity为null表示删除
+     */
+    static class Write {
+
+        private final Object entity;
+        private final boolean requireExisting;
+
+        Write(Object entity, boolean requireExisting) {
+            this.entity = entity;
+            this.requireExisting = requireExisting;
+        }
+
+        Object getEntity() {
+            return entity;
+        }
+
+        boolean isDelete() {
+            return entity == null;
+        }
+
+        /**
+         * 是否只在实体已存在时写入（updateById）
+         */
+        boolean isRequireExisting() {
+            return requireExisting;
+        }
+    }
+}
@@ -1,61 +1,264 @@
 package com.asd.redis.orm.core;
 
 import com.alibaba.fastjson.JSON;
-import com.asd.redis.orm.annotation.RedisEntity;
 import com.asd.redis.orm.annotation.RedisId;
 import com.asd.redis.orm.config.RedisOrmProperties;
+import com.asd.redis.orm.index.CounterField;
+import com.asd.redis.orm.index.EntityIndex;
+import com.asd.redis.orm.index.GeoIndex;
+import com.asd.redis.orm.index.PrefixIndex;
+import com.asd.redis.orm.index.TimeSeriesIndex;
+import com.asd.redis.orm.model.FetchRequest;
+import com.asd.redis.orm.model.FetchResult;
+import com.asd.redis.orm.model.KeyspaceStatistics;
 import com.asd.redis.orm.model.Page;
-import com.asd.redis.orm.utils.ReflectionUtils;
+import com.asd.redis.orm.model.TimeSeriesPoint;
+import com.asd.redis.orm.model.TransferOptions;
+import com.asd.redis.orm.query.Condition;
+import com.asd.redis.orm.query.QueryPlan;
+import com.asd.redis.orm.query.QueryWrapper;
+import com.asd.redis.orm.utils.RateLimiter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.GeoResult;
+import org.springframework.data.geo.Metric;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.RedisZSetCommands;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 
 import java.lang.reflect.Field;
+import java.nio.file.Path;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
  * Redis ORM 核心模板类
  */
 @Slf4j
-public class RedisOrmTemplate {
+public class RedisOrmTemplate implements DisposableBean {
+
+    /**
+     * 一次降采样最多返回的窗口数量
+     */
+    private static final int MAX_TIME_WINDOWS = 100_000;
+
+    /**
+     * 遍历实体键时每次 SCAN 的 COUNT
+     */
+    private static final int SCAN_COUNT = 1000;
+
     private final RedisTemplate<String, Object> redisTemplate;
     private final RedisOrmProperties properties;
+    private final IndexManager indexManager;
+    private final Map<Class<?>, EntityMetadata> metadataCache = new ConcurrentHashMap<>();
+    private ReadRouter readRouter;
+    private ExpireRefresher expireRefresher;
+    private final FilterPushdown filterPushdown;
+    private final ChunkedMultiGet chunkedMultiGet;
+    private final BatchingLoader batchingLoader;
+    private final ReadThrough readThrough;
+    private final MembershipFilter membershipFilter;
+    private final boolean utf8Keys;
 
     public RedisOrmTemplate(RedisTemplate<String, Object> redisTemplate, RedisOrmProperties properties) {
         this.redisTemplate = redisTemplate;
         this.properties = properties;
+        this.indexManager = new IndexManager();
+        this.filterPushdown = new FilterPushdown(properties.getPushdown());
+        this.chunkedMultiGet = new ChunkedMultiGet(properties.getMultiGet());
+        this.utf8Keys = isUtf8StringSerializer(redisTemplate.getKeySerializer());
+        this.batchingLoader = new BatchingLoader(properties.getCoalescing(), (entityClass, keys) ->
+                read(entityClass, keys, template -> template.execute((RedisCallback<List<byte[]>>) connection ->
+                        connection.mGet(keys.stream().map(this::rawKey).toArray(byte[][]::new)))));
+        this.readThrough = new ReadThrough(properties.getLoader());
+        this.membershipFilter = new MembershipFilter(redisTemplate, properties);
+    }
+
+    /**
+     * 关闭合并读取、分块读取、提前刷新和布隆过滤器副本使用的后台线程
+     */
+    @Override
+    public void destroy() {
+        batchingLoader.shutdown();
+        chunkedMultiGet.shutdown();
+        readThrough.shutdown();
+        membershipFilter.shutdown();
+    }
+
+    /**
+     * 获取实体元数据
+     */
+    public EntityMetadata getMetadata(Class<?> entityClass) {
+        return metadataCache.computeIfAbsent(entityClass, clazz -> new EntityMetadata(clazz, properties));
+    }
+
+    /**
+     * 获取底层的RedisTemplate（主节点）
+     */
+    public RedisTemplate<String, Object> getRedisTemplate() {
+        return redisTemplate;
+    }
+
+    /**
+     * 获取已注册的实体元数据，Mapper创建时注册其实体
+     */
+    public Collection<EntityMetadata> getRegisteredEntities() {
+        return Collections.unmodifiableCollection(metadataCache.values());
+    }
+
+    /**
+     * 根据键解析所属的已注册实体，前缀嵌套时取最长匹配，不属于任何实体时返回null
+     */
+    public EntityMetadata resolveMetadata(String key) {
+        EntityMetadata result = null;
+        String resultId = null;
+        for (EntityMetadata metadata : metadataCache.values()) {
+            String id = metadata.getIdFromKey(key);
+            if (id != null && (resultId == null || id.length() < resultId.length())) {
+                result = metadata;
+                resultId = id;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 设置读路由器，未设置时所有读操作访问主节点
+     */
+    public void setReadRouter(ReadRouter readRouter) {
+        this.readRouter = readRouter;
+    }
+
+    /**
+     * 设置滑动过期续期器，未设置时 @RedisEntity(slidingExpire = true) 不生效
+     */
+    public void setExpireRefresher(ExpireRefresher expireRefresher) {
+        this.expireRefresher = expireRefresher;
+    }
+
+    /**
+     * 注册实体加载器，selectById 未命中时从加载器读取并写回
+     */
+    public void registerLoader(EntityLoader<?> loader) {
+        readThrough.register(loader);
+    }
+
+    /**
+     * 立即重建实体的布隆过滤器，清除已删除和过期的实体
+     *
+     * @throws IllegalArgumentException 实体未声明 @RedisEntity(bloomFilter = true)
+     */
+    public void rebuildBloomFilter(Class<?> entityClass) {
+        membershipFilter.rebuild(getMetadata(entityClass));
+    }
+
+    /**
+     * 以 SCAN 采样键空间，统计各已注册实体的键数量、内存、值大小分布和最大的键
+     */
+    public KeyspaceStatistics sampleStatistics() {
+        KeyspaceSampler sampler = newKeyspaceSampler();
+        sampler.sample(redisTemplate);
+        return sampler.getStatistics();
+    }
+
+    KeyspaceSampler newKeyspaceSampler() {
+        return new KeyspaceSampler(getRegisteredEntities(), properties.getStats());
+    }
+
+    /**
+     * 执行只读操作，按读路由策略选择节点
+     *
+     * @param keys 读取的键，为空表示扫描整个实体类型
+     */
+    protected <R> R read(Class<?> entityClass, Collection<String> keys,
+                         Function<RedisTemplate<String, Object>, R> operation) {
+        if (readRouter == null) {
+            return operation.apply(redisTemplate);
+        }
+        return readRouter.read(entityClass, keys, operation);
+    }
+
+    /**
+     * 执行涉及多种实体类型的只读操作，任一类型要求访问主节点时访问主节点
+     */
+    protected <R> R read(Collection<Class<?>> entityClasses, Collection<String> keys,
+                         Function<RedisTemplate<String, Object>, R> operation) {
+        if (readRouter == null) {
+            return operation.apply(redisTemplate);
+        }
+        return readRouter.read(entityClasses, keys, operation);
+    }
+
+    /**
+     * 记录被读取的键，启用滑动过期的实体异步续期
+     */
+    private void touch(Class<?> entityClass, Collection<String> keys) {
+        if (expireRefresher == null) {
+            return;
+        }
+        EntityMetadata metadata = getMetadata(entityClass);
+        if (metadata.isSlidingExpire()) {
+            expireRefresher.touch(redisTemplate, keys, metadata.getExpire());
+        }
+    }
+
+    /**
+     * 获取当前线程上的工作单元会话，开启事务同步时在Spring事务中自动打开，没有会话时返回null
+     */
+    protected RedisOrmSession currentSession() {
+        RedisOrmSession session = RedisOrmSession.current();
+        if (session == null && properties.getSession().isTransactionSynchronization()) {
+            session = RedisOrmSession.bindToTransaction();
+        }
+        return session;
+    }
+
+    /**
+     * 记录写操作，用于读己之写
+     */
+    private void recordWrite(Class<?> entityClass, Collection<String> keys) {
+        if (readRouter != null) {
+            readRouter.recordWrite(entityClass, keys);
+        }
     }
 
     /**
      * 获取实体的键
      */
     public <T> String getKey(Class<T> entityClass, Object id) {
-        RedisEntity annotation = entityClass.getAnnotation(RedisEntity.class);
-        String prefix = annotation != null && !StringUtils.isEmpty(annotation.prefix())
-                ? annotation.prefix() : entityClass.getSimpleName().toLowerCase();
-        return properties.getKeyPrefix() + prefix + ":" + id;
+        return getMetadata(entityClass).getKey(id);
     }
 
     /**
      * 获取实体的过期时间
      */
     public <T> long getExpire(Class<T> entityClass) {
-        RedisEntity annotation = entityClass.getAnnotation(RedisEntity.class);
-        return annotation != null && annotation.expire() > 0
-                ? annotation.expire() : properties.getDefaultExpireTime();
+        return getMetadata(entityClass).getExpire();
     }
 
     /**
      * 生成ID
      */
-    private <T> Object generateId(T entity, Field idField) throws IllegalAccessException {
+    protected <T> Object generateId(T entity, Field idField) throws IllegalAccessException {
         RedisId redisId = idField.getAnnotation(RedisId.class);
         RedisId.IdType idType = redisId.type();
 
-        Object id = ReflectionUtils.getFieldValue(entity, idField);
+        EntityMetadata metadata = getMetadata(entity.getClass());
+        Object id = metadata.getId(entity);
         if (id != null && !StringUtils.isEmpty(id.toString())) {
             return id;
         }
@@ -74,7 +277,7 @@ public class RedisOrmTemplate {
                 throw new IllegalArgumentException("Unsupported ID type: " + idType);
         }
 
-        ReflectionUtils.setFieldValue(entity, idField, id);
+        metadata.setId(entity, id);
         return id;
     }
 
@@ -83,21 +286,11 @@ public class RedisOrmTemplate {
      */
     public <T> T save(T entity) {
         Class<?> entityClass = entity.getClass();
-        Field idField = ReflectionUtils.findFieldWithAnnotation(entityClass, RedisId.class);
-        if (idField == null) {
-            throw new IllegalArgumentException("No @RedisId field found in " + entityClass.getName());
-        }
+        Field idField = getMetadata(entityClass).getIdField();
 
         try {
             Object id = generateId(entity, idField);
-            String key = getKey(entityClass, id);
-            redisTemplate.opsForValue().set(key, entity);
-
-            long expire = getExpire(entityClass);
-            if (expire > 0) {
-                redisTemplate.expire(key, expire, TimeUnit.SECONDS);
-            }
-
+            store(getMetadata(entityClass), Collections.singletonMap(id.toString(), entity));
             return entity;
         } catch (Exception e) {
             log.error("Failed to save entity: {}", entity, e);
@@ -113,31 +306,240 @@ public class RedisOrmTemplate {
             return new ArrayList<>();
         }
 
-        List<T> result = new ArrayList<>();
-        for (T entity : entities) {
-            result.add(save(entity));
+        // 按实体类型分组后每组一次管道写入
+        Map<Class<?>, Map<String, Object>> entitiesByType = new LinkedHashMap<>();
+        try {
+            for (T entity : entities) {
+                EntityMetadata metadata = getMetadata(entity.getClass());
+                Object id = generateId(entity, metadata.getIdField());
+                entitiesByType.computeIfAbsent(entity.getClass(), k -> new LinkedHashMap<>())
+                        .put(id.toString(), entity);
+            }
+            for (Map.Entry<Class<?>, Map<String, Object>> entry : entitiesByType.entrySet()) {
+                store(getMetadata(entry.getKey()), entry.getValue());
+            }
+        } catch (Exception e) {
+            log.error("Failed to save {} entities", entities.size(), e);
+            throw new RuntimeException("Failed to save entities", e);
         }
-        return result;
+        return new ArrayList<>(entities);
+    }
+
+    /**
+     * 将实体类型的所有实体流式导出到文件
+     *
+     * @return 导出的实体数量
+     */
+    public <T> long exportEntities(Class<T> entityClass, Path file, TransferOptions options) {
+        return EntityTransfer.export(this, Collections.singletonList(redisTemplate), getMetadata(entityClass), file,
+                options);
+    }
+
+    /**
+     * 从导出文件流式导入实体，同ID的实体会被覆盖
+     *
+     * @return 导入的实体数量
+     */
+    public <T> long importEntities(Class<T> entityClass, Path file, TransferOptions options) {
+        return EntityTransfer.importFile(this, entityClass, file, options);
     }
 
     /**
      * 根据ID获取实体
      */
     public <T> T getById(Class<T> entityClass, Object id) {
-        String key = getKey(entityClass, id);
-        Object obj = redisTemplate.opsForValue().get(key);
-        if (obj == null) {
+        EntityMetadata metadata = getMetadata(entityClass);
+        if (membershipFilter.isCachedAbsent(metadata, id)) {
+            return null;
+        }
+        EntityLoader<T> loader = readThrough.getLoader(entityClass);
+        if (loader != null) {
+            return getThrough(metadata, entityClass, id, loader);
+        }
+        if (membershipFilter.mightContain(metadata, Collections.singletonList(id)).isEmpty()) {
             return null;
         }
 
-        if (obj instanceof String) {
-            return JSON.parseObject((String) obj, entityClass);
-        } else if (entityClass.isInstance(obj)) {
-            return entityClass.cast(obj);
+        T entity = materialize(metadata, entityClass, id, readValue(metadata, entityClass, id));
+        if (entity == null) {
+            membershipFilter.markAbsent(metadata, id);
+        }
+        return entity;
+    }
+
+    private byte[] readValue(EntityMetadata metadata, Class<?> entityClass, Object id) {
+        byte[] value;
+        if (metadata.isBucketed()) {
+            byte[] bucket = rawBucketKey(metadata, id);
+            byte[] field = KeyCodec.encode(String.valueOf(id));
+            value = read(entityClass, routingKeys(metadata, Collections.singletonList(id)), template ->
+                    template.execute((RedisCallback<byte[]>) connection -> connection.hGet(bucket, field)));
+        } else if (batchingLoader.isEnabled()) {
+            value = batchingLoader.load(entityClass, metadata.getKey(id));
         } else {
-            String json = JSON.toJSONString(obj);
-            return JSON.parseObject(json, entityClass);
+            byte[] key = rawKey(metadata, id);
+            value = read(entityClass, routingKeys(metadata, Collections.singletonList(id)), template ->
+                    template.execute((RedisCallback<byte[]>) connection -> connection.get(key)));
+        }
+        return value;
+    }
+
+    /**
+     * 直接从主节点读取实体值，不经过读路由和合并加载；用于刚写入主节点的值，从节点可能尚未同步
+     */
+    private byte[] readPrimaryValue(EntityMetadata metadata, Object id) {
+        if (metadata.isBucketed()) {
+            byte[] bucket = rawBucketKey(metadata, id);
+            byte[] field = KeyCodec.encode(String.valueOf(id));
+            return redisTemplate.execute((RedisCallback<byte[]>) connection -> connection.hGet(bucket, field));
+        }
+        byte[] key = rawKey(metadata, id);
+        return redisTemplate.execute((RedisCallback<byte[]>) connection -> connection.get(key));
+    }
+
+    /**
+     * 读穿透：命中时按概率提前刷新，未命中时单飞加载并写回后从主节点重新读取
+     */
+    private <T> T getThrough(EntityMetadata metadata, Class<T> entityClass, Object id, EntityLoader<T> loader) {
+        String key = metadata.getKey(id);
+        byte[] value;
+        if (metadata.getExpire() > 0 && !metadata.isBucketed()) {
+            // 同一次往返读取剩余过期时间，用于判断是否提前刷新
+            byte[] rawKey = rawKey(metadata, id);
+            List<Object> results = read(entityClass, routingKeys(metadata, Collections.singletonList(id)),
+                    template -> template.executePipelined((RedisCallback<Object>) connection -> {
+                        connection.get(rawKey);
+                        connection.pTtl(rawKey);
+                        return null;
+                    }, null));
+            value = (byte[]) results.get(0);
+            Long ttl = (Long) results.get(1);
+            if (value != null && ttl != null && readThrough.shouldRefresh(entityClass, ttl)) {
+                readThrough.refreshAsync(entityClass, key, () -> loadAndStore(metadata, id, loader));
+            }
+        } else {
+            value = readValue(metadata, entityClass, id);
+        }
+        if (value != null) {
+            return materialize(metadata, entityClass, id, value);
+        }
+
+        boolean found = readThrough.load(entityClass, redisTemplate, key, metadata.getIndexKey("lock:" + id),
+                () -> loadAndStore(metadata, id, loader),
+                () -> readPrimaryValue(metadata, id) != null);
+        if (!found) {
+            membershipFilter.markAbsent(metadata, id);
+            return null;
+        }
+        // 加载方和等待方都从主节点重新读取（值刚写入主节点，从节点可能尚未同步），各自得到独立的实体对象
+        return materialize(metadata, entityClass, id, readPrimaryValue(metadata, id));
+    }
+
+    /**
+     * 调用加载器并立即写回（不受工作单元会话影响），开启未命中缓存时数据源中不存在的ID在Redis中短时间记录，
+     * 所有实例在这段时间内不再访问数据源
+     */
+    private <T> boolean loadAndStore(EntityMetadata metadata, Object id, EntityLoader<T> loader) {
+        byte[] absentKey = rawKey(absentKey(metadata, String.valueOf(id)));
+        if (membershipFilter.isNegativeCacheEnabled()
+                && Boolean.TRUE.equals(redisTemplate.execute((RedisCallback<Boolean>) connection ->
+                connection.exists(absentKey)))) {
+            return false;
+        }
+
+        T entity = loader.load(id);
+        if (entity == null) {
+            if (membershipFilter.isNegativeCacheEnabled()) {
+                long ttl = Math.max(1, properties.getNegativeCache().getTtl());
+                redisTemplate.execute((RedisCallback<Boolean>) connection -> connection.set(absentKey,
+                        KeyCodec.encode("1"), Expiration.milliseconds(ttl), RedisStringCommands.SetOption.upsert()));
+            }
+            return false;
+        }
+        if (metadata.getId(entity) == null) {
+            metadata.setId(entity, id);
+        }
+        storeNow(metadata, Collections.singletonMap(String.valueOf(id), entity), false);
+        return true;
+    }
+
+    /**
+     * 批量读穿透：一次调用加载器加载所有未命中的ID，在一个管道中写回，数据源中不存在的ID记录未命中
+     * <p>
+     * 不使用单个ID加载时的分布式锁，多个调用方同时批量获取同一批未命中的ID时可能各自访问数据源；
+     * 返回加载器返回的实体对象，不从Redis重新读取。
+     *
+     * @return ID到加载到的实体的映射
+     */
+    private <T> Map<String, Object> loadAllAndStore(EntityMetadata metadata, List<Object> ids, EntityLoader<T> loader) {
+        List<Object> candidates = ids;
+        if (membershipFilter.isNegativeCacheEnabled()) {
+            List<Object> absent = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (Object id : ids) {
+                    connection.exists(rawKey(absentKey(metadata, String.valueOf(id))));
+                }
+                return null;
+            });
+            candidates = new ArrayList<>();
+            for (int i = 0; i < ids.size(); i++) {
+                if (Boolean.TRUE.equals(absent.get(i))) {
+                    membershipFilter.markAbsent(metadata, ids.get(i));
+                } else {
+                    candidates.add(ids.get(i));
+                }
+            }
+            if (candidates.isEmpty()) {
+                return Collections.emptyMap();
+            }
+        }
+
+        Map<Object, T> loaded = loader.loadAll(new ArrayList<>(candidates));
+        Map<String, Object> entitiesById = new LinkedHashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (Object id : candidates) {
+            T entity = loaded != null ? loaded.get(id) : null;
+            if (entity == null) {
+                missing.add(String.valueOf(id));
+                membershipFilter.markAbsent(metadata, id);
+                continue;
+            }
+            if (metadata.getId(entity) == null) {
+                metadata.setId(entity, id);
+            }
+            entitiesById.put(String.valueOf(id), entity);
+        }
+
+        if (!entitiesById.isEmpty()) {
+            storeNow(metadata, entitiesById, false);
+        }
+        if (!missing.isEmpty() && membershipFilter.isNegativeCacheEnabled()) {
+            long ttl = Math.max(1, properties.getNegativeCache().getTtl());
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (String id : missing) {
+                    connection.set(rawKey(absentKey(metadata, id)), KeyCodec.encode("1"),
+                            Expiration.milliseconds(ttl), RedisStringCommands.SetOption.upsert());
+                }
+                return null;
+            });
+        }
+        return entitiesById;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T materialize(EntityMetadata metadata, Class<T> entityClass, Object id, byte[] value) {
+        if (value == null) {
+            return null;
+        }
+
+        Object obj = ((RedisSerializer<Object>) redisTemplate.getValueSerializer()).deserialize(value);
+        if (obj != null && metadata.isSlidingExpire()) {
+            touch(entityClass, Collections.singletonList(metadata.getKey(id)));
+        }
+        T entity = convert(obj, entityClass);
+        if (entity != null) {
+            loadCounters(metadata, Collections.singletonList(entity));
         }
+        return entity;
     }
 
     /**
@@ -148,170 +550,1352 @@ public class RedisOrmTemplate {
             return new ArrayList<>();
         }
 
-        List<String> keys = ids.stream()
-                .map(id -> getKey(entityClass, id))
-                .collect(Collectors.toList());
-
-        List<Object> objects = redisTemplate.opsForValue().multiGet(keys);
-        if (CollectionUtils.isEmpty(objects)) {
+        EntityMetadata metadata = getMetadata(entityClass);
+        Collection<?> candidates = filterAbsent(metadata, ids);
+        if (candidates.isEmpty()) {
             return new ArrayList<>();
         }
+        if (chunkedMultiGet.isChunked(candidates.size()) || metadata.isSlidingExpire() || metadata.isBucketed()) {
+            List<String> keys = candidates.stream()
+                    .map(metadata::getKey)
+                    .collect(Collectors.toList());
+            return getEntitiesByKeys(entityClass, keys);
+        }
 
-        List<T> result = new ArrayList<>();
-        for (Object obj : objects) {
-            if (obj != null) {
-                if (obj instanceof String) {
-                    result.add(JSON.parseObject((String) obj, entityClass));
-                } else if (entityClass.isInstance(obj)) {
-                    result.add(entityClass.cast(obj));
-                } else {
-                    String json = JSON.toJSONString(obj);
-                    result.add(JSON.parseObject(json, entityClass));
-                }
+        // 字节级路径：直接编码键，从响应的字节数组反序列化
+        byte[][] keys = candidates.stream().map(id -> rawKey(metadata, id)).toArray(byte[][]::new);
+        List<byte[]> values = read(entityClass, routingKeys(metadata, candidates), template ->
+                template.execute((RedisCallback<List<byte[]>>) connection -> connection.mGet(keys)));
+
+        @SuppressWarnings("unchecked")
+        RedisSerializer<Object> valueSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        List<T> result = new ArrayList<>(candidates.size());
+        for (byte[] value : values != null ? values : Collections.<byte[]>emptyList()) {
+            T entity = value != null ? convert(valueSerializer.deserialize(value), entityClass) : null;
+            if (entity != null) {
+                result.add(entity);
+            }
+        }
+        loadCounters(metadata, result);
+        return result;
+    }
+
+    /**
+     * 去掉未命中缓存和布隆过滤器判断为一定不存在的ID，注册了加载器的实体不使用布隆过滤器
+     */
+    private Collection<?> filterAbsent(EntityMetadata metadata, Collection<?> ids) {
+        boolean bloom = metadata.getBloomFilterIndex() != null
+                && readThrough.getLoader(metadata.getEntityClass()) == null;
+        if (!bloom && !membershipFilter.isNegativeCacheEnabled()) {
+            return ids;
+        }
+        List<Object> candidates = new ArrayList<>(ids.size());
+        for (Object id : ids) {
+            if (!membershipFilter.isCachedAbsent(metadata, id)) {
+                candidates.add(id);
+            }
+        }
+        return bloom && !candidates.isEmpty() ? membershipFilter.mightContain(metadata, candidates) : candidates;
+    }
+
+    /**
+     * 更新实体
+     */
+    public <T> boolean updateById(T entity) {
+        Class<?> entityClass = entity.getClass();
+        EntityMetadata metadata = getMetadata(entityClass);
+
+        try {
+            Object id = metadata.getId(entity);
+            if (id == null || StringUtils.isEmpty(id.toString())) {
+                throw new IllegalArgumentException("ID cannot be null or empty for update");
             }
+
+            RedisOrmSession session = currentSession();
+            if (session != null) {
+                return session.update(this, metadata, id.toString(), entity);
+            }
+
+            Boolean exists = redisTemplate.execute((RedisCallback<Boolean>) connection ->
+                    exists(connection, metadata, id.toString()));
+            if (!Boolean.TRUE.equals(exists)) {
+                return false;
+            }
+
+            storeNow(metadata, Collections.singletonMap(id.toString(), entity), true);
+            return true;
+        } catch (Exception e) {
+            log.error("Failed to update entity: {}", entity, e);
+            throw new RuntimeException("Failed to update entity", e);
+        }
+    }
+
+    /**
+     * 批量更新实体
+     */
+    public <T> boolean updateBatchById(Collection<T> entities) {
+        if (CollectionUtils.isEmpty(entities)) {
+            return false;
+        }
+
+        boolean result = true;
+        for (T entity : entities) {
+            result = result && updateById(entity);
         }
+        return result;
+    }
+
+    /**
+     * 根据ID删除实体
+     */
+    public <T> boolean removeById(Class<T> entityClass, Object id) {
+        return delete(getMetadata(entityClass), Collections.singletonList(id.toString())) > 0;
+    }
+
+    /**
+     * 批量删除实体
+     */
+    public <T> boolean removeByIds(Class<T> entityClass, Collection<?> ids) {
+        if (CollectionUtils.isEmpty(ids)) {
+            return false;
+        }
+
+        List<String> idList = ids.stream()
+                .map(Object::toString)
+                .collect(Collectors.toList());
+
+        return delete(getMetadata(entityClass), idList) > 0;
+    }
+
+    /**
+     * 原子递增整数计数器字段
+     *
+     * @param field 声明了 @RedisCounter 的整数字段
+     * @return 递增后的值，实体不存在时返回null
+     */
+    public <T> Long increment(Class<T> entityClass, Object id, String field, long delta) {
+        CounterField counter = getMetadata(entityClass).getIndex(field, CounterField.class);
+        if (counter.isFloating()) {
+            throw new IllegalArgumentException("Counter '" + field + "' is floating-point, use a double delta");
+        }
+        Number value = incrementCounter(entityClass, id, counter, delta);
+        return value != null ? value.longValue() : null;
+    }
+
+    /**
+     * 原子递增浮点计数器字段
+     *
+     * @param field 声明了 @RedisCounter 的浮点字段
+     * @return 递增后的值，实体不存在时返回null
+     */
+    public <T> Double increment(Class<T> entityClass, Object id, String field, double delta) {
+        CounterField counter = getMetadata(entityClass).getIndex(field, CounterField.class);
+        if (!counter.isFloating()) {
+            throw new IllegalArgumentException("Counter '" + field + "' is integral, use a long delta");
+        }
+        Number value = incrementCounter(entityClass, id, counter, delta);
+        return value != null ? value.doubleValue() : null;
+    }
 
+    private Number incrementCounter(Class<?> entityClass, Object id, CounterField counter, Number delta) {
+        EntityMetadata metadata = getMetadata(entityClass);
+        byte[] entityKey = metadata.isBucketed() ? rawBucketKey(metadata, id) : rawKey(metadata, id);
+        Number value = redisTemplate.execute((RedisCallback<Number>) connection ->
+                counter.increment(connection, entityKey, String.valueOf(id), delta));
+        if (value != null) {
+            recordWrite(entityClass, Collections.singletonList(metadata.getKey(id)));
+        }
+        return value;
+    }
+
+    /**
+     * 用计数器的当前值覆盖实体中的计数器字段，所有字段在一个管道中读取
+     */
+    private void loadCounters(EntityMetadata metadata, List<?> entities) {
+        List<CounterField> counters = metadata.getCounters();
+        if (counters.isEmpty() || entities.isEmpty()) {
+            return;
+        }
+
+        List<Object> present = new ArrayList<>();
+        List<byte[]> ids = new ArrayList<>();
+        for (Object entity : entities) {
+            if (entity != null) {
+                present.add(entity);
+                ids.add(KeyCodec.encode(String.valueOf(metadata.getId(entity))));
+            }
+        }
+        if (present.isEmpty()) {
+            return;
+        }
+
+        byte[][] fields = ids.toArray(new byte[0][]);
+        List<Object> values = read(metadata.getEntityClass(), null, template -> template.executePipelined(
+                (RedisCallback<Object>) connection -> {
+                    for (CounterField counter : counters) {
+                        connection.hMGet(rawKey(counter.getKey()), fields);
+                    }
+                    return null;
+                }, StringRedisSerializer.UTF_8));
+
+        for (int i = 0; i < counters.size(); i++) {
+            List<?> counterValues = (List<?>) values.get(i);
+            for (int j = 0; j < present.size(); j++) {
+                Object value = counterValues.get(j);
+                if (value != null) {
+                    counters.get(i).apply(present.get(j), (String) value);
+                }
+            }
+        }
+    }
+
+    /**
+     * 在一个管道中写入实体（含过期时间）并更新索引
+     */
+    private void store(EntityMetadata metadata, Map<String, ?> entitiesById) {
+        RedisOrmSession session = currentSession();
+        if (session != null) {
+            session.save(this, metadata, entitiesById);
+            return;
+        }
+        storeNow(metadata, entitiesById, false);
+    }
+
+    /**
+     * @param update 是否为 updateById，更新时保留计数器的当前值
+     */
+    @SuppressWarnings("unchecked")
+    private void storeNow(EntityMetadata metadata, Map<String, ?> entitiesById, boolean update) {
+        RedisSerializer<Object> valueSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            indexManager.prepare(connection, Collections.singleton(metadata));
+            for (Map.Entry<String, ?> entry : entitiesById.entrySet()) {
+                write(connection, metadata, entry.getKey(), entry.getValue(), valueSerializer, update);
+            }
+            return null;
+        });
+
+        membershipFilter.onSave(metadata, entitiesById.keySet());
+        recordWrite(metadata.getEntityClass(), entitiesById.keySet().stream()
+                .map(metadata::getKey)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * 写入单个实体（含过期时间）并更新索引，调用方已在同一个管道或事务中加载索引脚本
+     */
+    private void write(RedisConnection connection, EntityMetadata metadata, String id, Object entity,
+                       RedisSerializer<Object> valueSerializer, boolean update) {
+        byte[] value = valueSerializer.serialize(entity);
+        if (membershipFilter.isNegativeCacheEnabled() && readThrough.getLoader(metadata.getEntityClass()) != null) {
+            connection.del(rawKey(absentKey(metadata, id)));
+        }
+        if (metadata.isBucketed()) {
+            connection.hSet(rawBucketKey(metadata, id), KeyCodec.encode(id), value);
+            updateIndexes(connection, metadata, id, entity, update);
+            return;
+        }
+
+        byte[] key = rawKey(metadata, id);
+        long expire = metadata.getExpire();
+        if (expire > 0) {
+            connection.set(key, value, Expiration.seconds(expire), RedisStringCommands.SetOption.upsert());
+        } else {
+            connection.set(key, value);
+        }
+        updateIndexes(connection, metadata, id, entity, update);
+    }
+
+    private void updateIndexes(RedisConnection connection, EntityMetadata metadata, String id, Object entity,
+                               boolean update) {
+        if (update) {
+            indexManager.onUpdate(connection, metadata, id, entity);
+        } else {
+            indexManager.onSave(connection, metadata, id, entity);
+        }
+    }
+
+    /**
+     * 数据源中不存在的ID在Redis中的未命中记录
+     */
+    private static String absentKey(EntityMetadata metadata, String id) {
+        return metadata.getIndexKey("absent:" + id);
+    }
+
+    /**
+     * 提交会话中的写操作：先 WATCH 更新检查的实体键，再检查更新的实体是否存在，最后在一个 MULTI/EXEC 中写入。
+     * 检查之后这些实体被其他客户端修改时 EXEC 被放弃，重新检查并写入，超过 redis.orm.session.max-retries 次后抛出异常，
+     * 不会按过期的检查结果写入。索引由脚本原子地替换，不依赖提交前读取的状态，索引状态键不需要 WATCH。
+     *
+     * @throws IllegalStateException 重试次数用尽
+     */
+    void flush(Map<EntityMetadata, Map<String, RedisOrmSession.Write>> writes) {
+        int attempts = Math.max(0, properties.getSession().getMaxRetries()) + 1;
+        for (int attempt = 1; attempt <= attempts; attempt++) {
+            Map<EntityMetadata, Map<String, RedisOrmSession.Write>> effective =
+                    redisTemplate.execute((RedisCallback<Map<EntityMetadata, Map<String, RedisOrmSession.Write>>>)
+                            connection -> flush(connection, writes));
+            if (effective != null) {
+                effective.forEach((metadata, byId) -> membershipFilter.onSave(metadata, byId.entrySet().stream()
+                        .filter(write -> !write.getValue().isDelete())
+                        .map(Map.Entry::getKey)
+                        .collect(Collectors.toList())));
+                effective.forEach((metadata, byId) -> recordWrite(metadata.getEntityClass(), byId.keySet().stream()
+                        .map(metadata::getKey)
+                        .collect(Collectors.toList())));
+                return;
+            }
+            log.debug("Session commit aborted by a concurrent modification, attempt {}/{}", attempt, attempts);
+        }
+        throw new IllegalStateException("Session commit aborted after " + attempts
+                + " attempts: watched entity keys were modified concurrently");
+    }
+
+    /**
+     * 在同一个连接上执行一次 WATCH、检查和 MULTI/EXEC
+     *
+     * @return 实际写入的操作，EXEC 被放弃时返回null
+     */
+    @SuppressWarnings("unchecked")
+    private Map<EntityMetadata, Map<String, RedisOrmSession.Write>> flush(
+            RedisConnection connection, Map<EntityMetadata, Map<String, RedisOrmSession.Write>> writes) {
+        // 仅在实体存在时生效的更新
+        List<EntityMetadata> updateTypes = new ArrayList<>();
+        List<String> updateIds = new ArrayList<>();
+        Set<String> watchKeys = new LinkedHashSet<>();
+        for (Map.Entry<EntityMetadata, Map<String, RedisOrmSession.Write>> entry : writes.entrySet()) {
+            EntityMetadata metadata = entry.getKey();
+            entry.getValue().forEach((id, write) -> {
+                if (write.isRequireExisting()) {
+                    updateTypes.add(metadata);
+                    updateIds.add(id);
+                    watchKeys.add(metadata.isBucketed() ? metadata.getBucketKey(id) : metadata.getKey(id));
+                }
+            });
+        }
+        if (!watchKeys.isEmpty()) {
+            connection.watch(watchKeys.stream().map(this::rawKey).toArray(byte[][]::new));
+        }
+
+        Set<String> missingKeys = new HashSet<>();
+        if (!updateIds.isEmpty()) {
+            List<Object> exists = redisTemplate.executePipelined((RedisCallback<Object>) pipeline -> {
+                for (int i = 0; i < updateIds.size(); i++) {
+                    exists(pipeline, updateTypes.get(i), updateIds.get(i));
+                }
+                return null;
+            });
+            for (int i = 0; i < updateIds.size(); i++) {
+                if (!Boolean.TRUE.equals(exists.get(i))) {
+                    missingKeys.add(updateTypes.get(i).getKey(updateIds.get(i)));
+                }
+            }
+        }
+
+        Map<EntityMetadata, Map<String, RedisOrmSession.Write>> effective = new LinkedHashMap<>();
+        for (Map.Entry<EntityMetadata, Map<String, RedisOrmSession.Write>> entry : writes.entrySet()) {
+            EntityMetadata metadata = entry.getKey();
+            Map<String, RedisOrmSession.Write> byId = new LinkedHashMap<>(entry.getValue());
+            byId.keySet().removeIf(id -> missingKeys.contains(metadata.getKey(id)));
+            if (!byId.isEmpty()) {
+                effective.put(metadata, byId);
+            }
+        }
+        if (effective.isEmpty()) {
+            if (!watchKeys.isEmpty()) {
+                connection.unwatch();
+            }
+            return effective;
+        }
+
+        RedisSerializer<Object> valueSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        connection.multi();
+        indexManager.prepare(connection, effective.keySet());
+        for (Map.Entry<EntityMetadata, Map<String, RedisOrmSession.Write>> entry : effective.entrySet()) {
+            EntityMetadata metadata = entry.getKey();
+            for (Map.Entry<String, RedisOrmSession.Write> write : entry.getValue().entrySet()) {
+                if (write.getValue().isDelete()) {
+                    remove(connection, metadata, write.getKey());
+                    indexManager.onRemove(connection, metadata, write.getKey());
+                } else {
+                    write(connection, metadata, write.getKey(), write.getValue().getEntity(), valueSerializer,
+                            write.getValue().isRequireExisting());
+                }
+            }
+        }
+        return connection.exec() != null ? effective : null;
+    }
+
+    /**
+     * 删除实体并清理索引
+     *
+     * @return 删除的键数量
+     */
+    private long delete(EntityMetadata metadata, List<String> ids) {
+        RedisOrmSession session = currentSession();
+        if (session != null) {
+            session.delete(this, metadata, ids);
+            return ids.size();
+        }
+
+        return removeBatch(metadata, ids, false);
+    }
+
+    /**
+     * 删除一批实体并清理索引，在一个管道中执行
+     *
+     * @param unlink 是否使用 UNLINK 在后台释放内存
+     * @return 删除的实体数量
+     */
+    private long removeBatch(EntityMetadata metadata, List<String> ids, boolean unlink) {
+        List<String> keys = ids.stream()
+                .map(metadata::getKey)
+                .collect(Collectors.toList());
+        recordWrite(metadata.getEntityClass(), keys);
+
+        if (!metadata.hasIndexes() && !metadata.isBucketed()) {
+            Long count = unlink ? redisTemplate.unlink(keys) : redisTemplate.delete(keys);
+            return count != null ? count : 0;
+        }
+
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            if (metadata.isBucketed()) {
+                for (String id : ids) {
+                    remove(connection, metadata, id);
+                }
+            } else {
+                byte[][] rawKeys = ids.stream().map(id -> rawKey(metadata, id)).toArray(byte[][]::new);
+                if (unlink) {
+                    connection.unlink(rawKeys);
+                } else {
+                    connection.del(rawKeys);
+                }
+            }
+            // 在删除命令之后加载脚本，删除命令的结果仍在管道结果的开头
+            indexManager.prepare(connection, Collections.singleton(metadata));
+            for (String id : ids) {
+                indexManager.onRemove(connection, metadata, id);
+            }
+            return null;
+        }, StringRedisSerializer.UTF_8);
+
+        // 分桶存储每个ID一个 HDEL，否则一个 DEL/UNLINK
+        long count = 0;
+        int commands = metadata.isBucketed() ? ids.size() : 1;
+        for (int i = 0; i < Math.min(commands, results.size()); i++) {
+            Object result = results.get(i);
+            count += result instanceof Number ? ((Number) result).longValue() : Boolean.TRUE.equals(result) ? 1 : 0;
+        }
+        return count;
+    }
+
+    /**
+     * 删除所有满足条件的实体，条件对象的非空字段作为等值条件
+     *
+     * @return 删除的实体数量
+     * @throws IllegalArgumentException 条件为空或没有非空字段，删除所有实体需显式调用 {@link #deleteAll}
+     */
+    public <T> long deleteByCondition(Class<T> entityClass, T condition) {
+        Map<String, Object> conditions = condition != null
+                ? getMetadata(entityClass).getNonNullFields(condition) : Collections.emptyMap();
+        QueryWrapper<T> query = new QueryWrapper<>();
+        conditions.forEach(query::eq);
+        return deleteByQuery(entityClass, query);
+    }
+
+    /**
+     * 删除所有满足查询构造器条件的实体，忽略排序和limit
+     * <p>
+     * 条件字段有索引时从索引求交得到候选ID，否则 SCAN 实体键；候选实体分批读取、按条件过滤后
+     * 以 UNLINK 分批删除并清理索引，每批一个管道，不会用一个大命令阻塞Redis。
+     *
+     * @return 删除的实体数量
+     * @throws IllegalArgumentException 没有任何条件，删除所有实体需显式调用 {@link #deleteAll}
+     */
+    public <T> long deleteByQuery(Class<T> entityClass, QueryWrapper<T> query) {
+        checkDeleteConditions(entityClass, query);
+        EntityMetadata metadata = getMetadata(entityClass);
+        List<Condition> conditions = query.getConditions();
+        RateLimiter rateLimiter = RateLimiter.of(properties.getBulkDelete().getRateLimit());
+        Function<List<String>, Long> deleteMatched = ids -> {
+            List<String> matched = new ArrayList<>();
+            for (T entity : listByIds(entityClass, ids)) {
+                if (conditions.stream().allMatch(condition ->
+                        condition.matches(metadata.getFieldValue(entity, condition.getField())))) {
+                    matched.add(String.valueOf(metadata.getId(entity)));
+                }
+            }
+            return unlinkBatch(metadata, matched, rateLimiter);
+        };
+
+        QueryPlanner.Plan plan = QueryPlanner.plan(redisTemplate, metadata, query);
+        if (plan.isEmpty()) {
+            return 0;
+        }
+        if (plan.isScan()) {
+            return scanIds(metadata, deleteMatched);
+        }
+
+        List<String> ids = QueryPlanner.findIds(redisTemplate, plan, 0);
+        int batchSize = Math.max(1, properties.getBulkDelete().getBatchSize());
+        long count = 0;
+        for (int offset = 0; offset < ids.size(); offset += batchSize) {
+            count += deleteMatched.apply(ids.subList(offset, Math.min(offset + batchSize, ids.size())));
+        }
+        return count;
+    }
+
+    /**
+     * 批量删除必须带条件，避免空条件误删所有实体
+     */
+    protected static void checkDeleteConditions(Class<?> entityClass, QueryWrapper<?> query) {
+        if (query == null || query.getConditions().isEmpty()) {
+            throw new IllegalArgumentException("Delete condition is empty for " + entityClass.getName()
+                    + ", use deleteAll to delete all entities");
+        }
+    }
+
+    /**
+     * 删除实体类型的所有实体
+     * <p>
+     * SCAN 实体键，以 UNLINK 分批删除并清理索引，最后对账清理已过期实体的残留索引。删除期间新写入的实体可能被保留。
+     *
+     * @return 删除的实体数量
+     */
+    public long deleteAll(Class<?> entityClass) {
+        EntityMetadata metadata = getMetadata(entityClass);
+        RateLimiter rateLimiter = RateLimiter.of(properties.getBulkDelete().getRateLimit());
+        long count = scanIds(metadata, ids -> unlinkBatch(metadata, ids, rateLimiter));
+        if (metadata.hasIndexes() && currentSession() == null) {
+            reconcile(entityClass, Math.max(1, properties.getBulkDelete().getBatchSize()), rateLimiter);
+        }
+        return count;
+    }
+
+    /**
+     * 分批遍历实体类型的所有ID（SCAN），跳过前缀嵌套的其他已注册实体的键
+     *
+     * @param handler 处理一批ID，返回删除的数量
+     * @return 删除的总数量
+     */
+    private long scanIds(EntityMetadata metadata, Function<List<String>, Long> handler) {
+        int batchSize = Math.max(1, properties.getBulkDelete().getBatchSize());
+        ScanOptions options = ScanOptions.scanOptions()
+                .match(metadata.isBucketed() ? metadata.getBucketPattern() : metadata.getKeyPattern())
+                .count(batchSize)
+                .build();
+        Long total = redisTemplate.execute((RedisCallback<Long>) connection -> {
+            long count = 0;
+            List<String> batch = new ArrayList<>(batchSize);
+            try (Cursor<byte[]> cursor = connection.scan(options)) {
+                while (cursor.hasNext()) {
+                    String key = StringRedisSerializer.UTF_8.deserialize(cursor.next());
+                    EntityMetadata owner = metadata.isBucketed() ? metadata : resolveMetadata(key);
+                    if (metadata.isBucketed()) {
+                        batch.add(key);
+                    } else if (owner == null || owner == metadata) {
+                        batch.add(metadata.getIdFromKey(key));
+                    }
+                    if (batch.size() >= batchSize) {
+                        count += handleScanBatch(metadata, batch, handler);
+                        batch = new ArrayList<>(batchSize);
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                count += handleScanBatch(metadata, batch, handler);
+            }
+            return count;
+        });
+        return total != null ? total : 0;
+    }
+
+    /**
+     * 处理一批扫描结果，分桶存储时先读取桶中的ID
+     */
+    private long handleScanBatch(EntityMetadata metadata, List<String> batch, Function<List<String>, Long> handler) {
+        if (!metadata.isBucketed()) {
+            return handler.apply(batch);
+        }
+
+        List<Object> fields = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String bucket : batch) {
+                connection.hKeys(rawKey(bucket));
+            }
+            return null;
+        }, StringRedisSerializer.UTF_8);
+        List<String> ids = new ArrayList<>();
+        for (Object bucketIds : fields) {
+            if (bucketIds instanceof Collection) {
+                for (Object id : (Collection<?>) bucketIds) {
+                    ids.add(String.valueOf(id));
+                }
+            }
+        }
+        return ids.isEmpty() ? 0 : handler.apply(ids);
+    }
+
+    /**
+     * 以 UNLINK 删除一批实体，按限流器限制速率；会话中记录为会话的删除操作
+     */
+    private long unlinkBatch(EntityMetadata metadata, List<String> ids, RateLimiter rateLimiter) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        if (rateLimiter != null) {
+            try {
+                rateLimiter.acquire(ids.size());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while deleting " + metadata.getEntityClass().getName(), e);
+            }
+        }
+
+        RedisOrmSession session = currentSession();
+        if (session != null) {
+            session.delete(this, metadata, ids);
+            return ids.size();
+        }
+        return removeBatch(metadata, ids, true);
+    }
+
+    /**
+     * 在当前连接上检查实体是否存在
+     */
+    private Boolean exists(RedisConnection connection, EntityMetadata metadata, String id) {
+        if (metadata.isBucketed()) {
+            return connection.hExists(rawBucketKey(metadata, id), KeyCodec.encode(id));
+        }
+        return connection.exists(rawKey(metadata, id));
+    }
+
+    /**
+     * 在当前连接上删除实体（不含索引）
+     */
+    private void remove(RedisConnection connection, EntityMetadata metadata, String id) {
+        if (metadata.isBucketed()) {
+            connection.hDel(rawBucketKey(metadata, id), KeyCodec.encode(id));
+        } else {
+            connection.del(rawKey(metadata, id));
+        }
+    }
+
+    /**
+     * 分桶存储时实体所在桶的键
+     */
+    private byte[] rawBucketKey(EntityMetadata metadata, Object id) {
+        return utf8Keys ? metadata.getRawBucketKey(id) : rawKey(metadata.getBucketKey(id));
+    }
+
+    /**
+     * 实体的键，键序列化器为UTF-8字符串序列化器时走字节级编码
+     */
+    private byte[] rawKey(EntityMetadata metadata, Object id) {
+        return utf8Keys ? metadata.getRawKey(id) : rawKey(metadata.getKey(id));
+    }
+
+    /**
+     * 读路由需要的键，未设置读路由器时不构造
+     */
+    private List<String> routingKeys(EntityMetadata metadata, Collection<?> ids) {
+        if (readRouter == null) {
+            return null;
+        }
+        return ids.stream().map(metadata::getKey).collect(Collectors.toList());
+    }
+
+    private static boolean isUtf8StringSerializer(RedisSerializer<?> serializer) {
+        if (!(serializer instanceof StringRedisSerializer)) {
+            return false;
+        }
+        String probe = "id:\u00e9\u4e2d";
+        return Arrays.equals(((StringRedisSerializer) serializer).serialize(probe), KeyCodec.encode(probe));
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] rawKey(String key) {
+        return ((RedisSerializer<String>) redisTemplate.getKeySerializer()).serialize(key);
+    }
+
+    /**
+     * 分页查询
+     */
+    public <T> Page<T> page(Class<T> entityClass, long current, long size) {
+        List<String> keys = keys(entityClass);
+        if (CollectionUtils.isEmpty(keys)) {
+            return new Page<>(current, size);
+        }
+
+        long total = keys.size();
+        long pages = (total + size - 1) / size;
+
+        if (current > pages) {
+            current = pages;
+        }
+
+        long start = (current - 1) * size;
+        long end = Math.min(start + size, total);
+
+        List<String> pageKeys = keys.subList((int) start, (int) end);
+        List<T> records = getEntitiesByKeys(entityClass, pageKeys);
+
+        Page<T> page = new Page<>(current, size);
+        page.setTotal(total);
+        page.setPages(pages);
+        page.setRecords(records);
+
+        return page;
+    }
+
+    /**
+     * 游标分页，按ID的字典序从游标位置继续读取，每页只访问本页的数据，翻页期间新增的实体不会导致重复或遗漏
+     *
+     * @param cursor 上一页返回的 {@link Page#getNextCursor()}，为null表示第一页
+     */
+    public <T> Page<T> pageAfter(Class<T> entityClass, String cursor, long size) {
+        return pageAfter(entityClass, cursor, size, entity -> true);
+    }
+
+    /**
+     * 根据条件游标分页，逐批读取ID并过滤，直到凑满一页；检查的ID达到 redis.orm.keyset.max-scanned 时
+     * 返回不满一页的结果和游标，由调用方继续翻页
+     *
+     * @param cursor 上一页返回的 {@link Page#getNextCursor()}，为null表示第一页
+     */
+    public <T> Page<T> pageByConditionAfter(Class<T> entityClass, T condition, String cursor, long size) {
+        Map<String, Object> conditions = condition != null
+                ? getMetadata(entityClass).getNonNullFields(condition) : Collections.emptyMap();
+        return pageAfter(entityClass, cursor, size, entity -> matchCondition(entity, conditions));
+    }
+
+    private <T> Page<T> pageAfter(Class<T> entityClass, String cursor, long size, Predicate<T> filter) {
+        EntityMetadata metadata = getMetadata(entityClass);
+        Page<T> page = new Page<>(1, size);
+        size = page.getSize();
+        long maxScanned = Math.max(size, properties.getKeyset().getMaxScanned());
+
+        String position = decodeCursor(cursor);
+        List<T> records = new ArrayList<>();
+        long scanned = 0;
+        boolean end = false;
+        while (records.size() < size && !end && scanned < maxScanned) {
+            // 多取一个ID判断之后是否还有数据，最后一页不返回游标
+            List<String> ids = idsAfter(entityClass, position, size + 1);
+            List<String> batch = ids.size() > size ? ids.subList(0, (int) size) : ids;
+            Map<String, T> entitiesById = new HashMap<>();
+            for (T entity : listByIds(entityClass, batch)) {
+                entitiesById.put(String.valueOf(metadata.getId(entity)), entity);
+            }
+
+            // 已过期但仍在索引中的ID被跳过
+            int consumed = 0;
+            while (consumed < batch.size() && records.size() < size && scanned < maxScanned) {
+                position = batch.get(consumed++);
+                scanned++;
+                T entity = entitiesById.get(position);
+                if (entity != null && filter.test(entity)) {
+                    records.add(entity);
+                }
+            }
+            end = consumed == ids.size();
+        }
+
+        page.setRecords(records);
+        page.setNextCursor(end ? null : encodeCursor(position));
+        return page;
+    }
+
+    /**
+     * 按ID的字典序读取指定ID之后的ID
+     *
+     * @param afterId 起始位置（不含），为null表示从头开始
+     */
+    protected <T> List<String> idsAfter(Class<T> entityClass, String afterId, long limit) {
+        byte[] key = rawKey(getMetadata(entityClass).getKeysetIndex().getKey());
+        RedisZSetCommands.Range range = afterId != null
+                ? RedisZSetCommands.Range.range().gt(afterId) : RedisZSetCommands.Range.unbounded();
+        RedisZSetCommands.Limit count = RedisZSetCommands.Limit.limit().count((int) limit);
+
+        Set<byte[]> members = read(entityClass, null, template -> template.execute(
+                (RedisCallback<Set<byte[]>>) connection -> connection.zRangeByLex(key, range, count)));
+        List<String> ids = new ArrayList<>();
+        if (members != null) {
+            for (byte[] member : members) {
+                ids.add(StringRedisSerializer.UTF_8.deserialize(member));
+            }
+        }
+        return ids;
+    }
+
+    private static String encodeCursor(String id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(StringRedisSerializer.UTF_8.serialize(id));
+    }
+
+    private static String decodeCursor(String cursor) {
+        if (StringUtils.isEmpty(cursor)) {
+            return null;
+        }
+        try {
+            return StringRedisSerializer.UTF_8.deserialize(Base64.getUrlDecoder().decode(cursor));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid page cursor: " + cursor, e);
+        }
+    }
+
+    /**
+     * 计数
+     */
+    public <T> long count(Class<T> entityClass) {
+        return keys(entityClass).size();
+    }
+
+    /**
+     * 前缀查询，结果按字段值排序
+     *
+     * @param field  建立了前缀索引的字段
+     * @param prefix 前缀
+     * @param limit  最大返回数量，小于等于0表示不限制
+     */
+    public <T> List<T> listByPrefix(Class<T> entityClass, String field, String prefix, int limit) {
+        PrefixIndex index = getMetadata(entityClass).getIndex(field, PrefixIndex.class);
+        List<String> ids = read(entityClass, null, template -> template.execute(
+                (RedisCallback<List<String>>) connection -> index.startsWith(connection, prefix, false, limit)));
+        return listByIds(entityClass, ids);
+    }
+
+    /**
+     * 忽略大小写的前缀查询，结果按小写化后的字段值排序
+     */
+    public <T> List<T> listByPrefixIgnoreCase(Class<T> entityClass, String field, String prefix, int limit) {
+        PrefixIndex index = getMetadata(entityClass).getIndex(field, PrefixIndex.class);
+        List<String> ids = read(entityClass, null, template -> template.execute(
+                (RedisCallback<List<String>>) connection -> index.startsWith(connection, prefix, true, limit)));
+        return listByIds(entityClass, ids);
+    }
+
+    /**
+     * 字符串范围查询，查询字段值在 [from, to) 之间的实体，结果按字段值排序
+     *
+     * @param from 下界（包含），为null表示无下界
+     * @param to   上界（不包含），为null表示无上界
+     */
+    public <T> List<T> listByRange(Class<T> entityClass, String field, String from, String to, int limit) {
+        PrefixIndex index = getMetadata(entityClass).getIndex(field, PrefixIndex.class);
+        List<String> ids = read(entityClass, null, template -> template.execute(
+                (RedisCallback<List<String>>) connection -> index.between(connection, from, to, limit)));
+        return listByIds(entityClass, ids);
+    }
+
+    /**
+     * 时间范围查询，只读取与 [from, to] 重叠的时间桶，结果按时间升序
+     *
+     * @param from 起始时间（毫秒时间戳，包含）
+     * @param to   结束时间（毫秒时间戳，包含）
+     */
+    public <T> List<T> listByTimeRange(Class<T> entityClass, long from, long to) {
+        EntityMetadata metadata = getMetadata(entityClass);
+        TimeSeriesIndex index = metadata.getTimeSeriesIndex();
+        List<String> buckets = index.getBucketKeys(from, to);
+        if (buckets.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Object> members = read(entityClass, null, template -> template.executePipelined(
+                (RedisCallback<Object>) connection -> {
+                    for (String bucket : buckets) {
+                        connection.zRangeByScore(rawKey(bucket), from, to);
+                    }
+                    return null;
+                }, StringRedisSerializer.UTF_8));
+        Set<String> ids = new LinkedHashSet<>();
+        for (Object bucketIds : members) {
+            if (bucketIds instanceof Collection) {
+                for (Object id : (Collection<?>) bucketIds) {
+                    ids.add(String.valueOf(id));
+                }
+            }
+        }
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<T> entities = new ArrayList<>();
+        for (T entity : listByIds(entityClass, ids)) {
+            Long timestamp = index.getTimestamp(entity);
+            if (timestamp != null && timestamp >= from && timestamp <= to) {
+                entities.add(entity);
+            }
+        }
+        entities.sort(Comparator.comparing(index::getTimestamp));
+        return entities;
+    }
+
+    /**
+     * 时间范围降采样：按固定跨度划分窗口并聚合，只读取与 [from, to] 重叠的时间桶
+     * <p>
+     * COUNT 读取时间桶中的ID和时间并确认实体仍然存在，不读取实体内容；其他聚合读取范围内的实体后按窗口计算。
+     *
+     * @param interval    窗口跨度（毫秒），窗口起始时间按跨度对齐
+     * @param field       聚合的数值字段，COUNT 时忽略
+     * @param aggregation 聚合方式
+     * @return 与范围重叠的所有窗口，按时间升序
+     */
+    public <T> List<TimeSeriesPoint> aggregateByTimeRange(Class<T> entityClass, long from, long to, long interval,
+                                                         String field, TimeSeriesPoint.Aggregation aggregation) {
+        EntityMetadata metadata = getMetadata(entityClass);
+        TimeSeriesIndex index = metadata.getTimeSeriesIndex();
+        List<TimeSeriesPoint> points = timeWindows(from, to, interval);
+        if (points.isEmpty()) {
+            return points;
+        }
+        long first = points.get(0).getTimestamp();
+
+        if (aggregation == TimeSeriesPoint.Aggregation.COUNT) {
+            // 读取桶中的ID和时间，只统计实体仍然存在的ID，与 listByTimeRange 的结果一致
+            List<String> buckets = index.getBucketKeys(from, to);
+            Map<String, Long> timestamps = new LinkedHashMap<>();
+            List<Object> members = read(entityClass, null, template -> template.executePipelined(
+                    (RedisCallback<Object>) connection -> {
+                        for (String bucket : buckets) {
+                            connection.zRangeByScoreWithScores(rawKey(bucket), from, to);
+                        }
+                        return null;
+                    }, StringRedisSerializer.UTF_8));
+            for (Object bucketMembers : members) {
+                if (bucketMembers instanceof Collection) {
+                    for (Object member : (Collection<?>) bucketMembers) {
+                        ZSetOperations.TypedTuple<?> tuple = (ZSetOperations.TypedTuple<?>) member;
+                        timestamps.put(String.valueOf(tuple.getValue()), tuple.getScore().longValue());
+                    }
+                }
+            }
+            if (timestamps.isEmpty()) {
+                points.forEach(point -> point.setValue(0d));
+                return points;
+            }
+
+            List<String> ids = new ArrayList<>(timestamps.keySet());
+            List<Object> exists = read(entityClass, null, template -> template.executePipelined(
+                    (RedisCallback<Object>) connection -> {
+                        for (String id : ids) {
+                            exists(connection, metadata, id);
+                        }
+                        return null;
+                    }));
+            for (int i = 0; i < ids.size(); i++) {
+                if (Boolean.TRUE.equals(exists.get(i))) {
+                    long timestamp = timestamps.get(ids.get(i));
+                    int window = (int) ((Math.floorDiv(timestamp, interval) * interval - first) / interval);
+                    TimeSeriesPoint point = points.get(window);
+                    point.setCount(point.getCount() + 1);
+                }
+            }
+            points.forEach(point -> point.setValue((double) point.getCount()));
+            return points;
+        }
+
+        if (StringUtils.isEmpty(field)) {
+            throw new IllegalArgumentException("Field is required for " + aggregation + " aggregation");
+        }
+        double[] sums = new double[points.size()];
+        for (T entity : listByTimeRange(entityClass, from, to)) {
+            Object value = metadata.getFieldValue(entity, field);
+            if (value == null) {
+                continue;
+            }
+            if (!(value instanceof Number)) {
+                throw new IllegalArgumentException("Aggregated field must be numeric: " + field);
+            }
+            double number = ((Number) value).doubleValue();
+            int i = (int) ((Math.floorDiv(index.getTimestamp(entity), interval) * interval - first) / interval);
+            TimeSeriesPoint point = points.get(i);
+            point.setCount(point.getCount() + 1);
+            sums[i] += number;
+            if (aggregation == TimeSeriesPoint.Aggregation.MIN) {
+                point.setValue(point.getValue() == null ? number : Math.min(point.getValue(), number));
+            } else if (aggregation == TimeSeriesPoint.Aggregation.MAX) {
+                point.setValue(point.getValue() == null ? number : Math.max(point.getValue(), number));
+            }
+        }
+        for (int i = 0; i < points.size(); i++) {
+            TimeSeriesPoint point = points.get(i);
+            if (point.getCount() == 0) {
+                continue;
+            }
+            if (aggregation == TimeSeriesPoint.Aggregation.SUM) {
+                point.setValue(sums[i]);
+            } else if (aggregation == TimeSeriesPoint.Aggregation.AVG) {
+                point.setValue(sums[i] / point.getCount());
+            }
+        }
+        return points;
+    }
+
+    /**
+     * 与 [from, to] 重叠的空窗口
+     */
+    private static List<TimeSeriesPoint> timeWindows(long from, long to, long interval) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("Interval must be positive");
+        }
+        List<TimeSeriesPoint> points = new ArrayList<>();
+        if (from > to) {
+            return points;
+        }
+        long first = Math.floorDiv(from, interval) * interval;
+        if ((Math.floorDiv(to, interval) * interval - first) / interval >= MAX_TIME_WINDOWS) {
+            throw new IllegalArgumentException("Time range covers more than " + MAX_TIME_WINDOWS + " windows");
+        }
+        for (long start = first; start <= to; start += interval) {
+            TimeSeriesPoint point = new TimeSeriesPoint();
+            point.setTimestamp(start);
+            points.add(point);
+        }
+        return points;
+    }
+
+    /**
+     * 圆形范围检索，按距离由近到远返回实体
+     *
+     * @param longitude 中心点经度
+     * @param latitude  中心点纬度
+     * @param radius    半径
+     * @param limit     最大返回数量，小于等于0表示不限制
+     */
+    public <T> List<GeoResult<T>> listByRadius(Class<T> entityClass, double longitude, double latitude,
+                                               Distance radius, int limit) {
+        GeoIndex index = getMetadata(entityClass).getGeoIndex();
+        List<GeoResult<String>> hits = read(entityClass, null, template -> template.execute(
+                (RedisCallback<List<GeoResult<String>>>) connection ->
+                        index.radius(connection, longitude, latitude, radius, limit)));
+        return attachEntities(entityClass, hits);
+    }
+
+    /**
+     * 矩形范围检索（需要 Redis 6.2+），按距离由近到远返回实体
+     *
+     * @param longitude 中心点经度
+     * @param latitude  中心点纬度
+     * @param width     矩形宽度（东西方向）
+     * @param height    矩形高度（南北方向）
+     * @param metric    宽高及返回距离的单位
+     * @param limit     最大返回数量，小于等于0表示不限制
+     */
+    public <T> List<GeoResult<T>> listByBox(Class<T> entityClass, double longitude, double latitude,
+                                            double width, double height, Metric metric, int limit) {
+        GeoIndex index = getMetadata(entityClass).getGeoIndex();
+        List<GeoResult<String>> hits = read(entityClass, null, template -> template.execute(
+                (RedisCallback<List<GeoResult<String>>>) connection ->
+                        index.box(connection, longitude, latitude, width, height, metric, limit)));
+        return attachEntities(entityClass, hits);
+    }
+
+    /**
+     * 批量获取命中的实体，保留距离和顺序
+     */
+    private <T> List<GeoResult<T>> attachEntities(Class<T> entityClass, List<GeoResult<String>> hits) {
+        List<String> keys = hits.stream()
+                .map(hit -> getKey(entityClass, hit.getContent()))
+                .collect(Collectors.toList());
+        List<T> entities = multiGet(entityClass, keys);
+
+        List<GeoResult<T>> result = new ArrayList<>();
+        for (int i = 0; i < hits.size(); i++) {
+            if (entities.get(i) != null) {
+                result.add(new GeoResult<>(entities.get(i), hits.get(i).getDistance()));
+            }
+        }
         return result;
     }
 
     /**
-     * 更新实体
+     * 批量加载关联实体
+     * <p>
+     * 收集所有记录引用的ID，每种关联实体类型一次MGET，所有MGET在同一个管道中发送。
+     *
+     * @param records 需要加载关联的记录
+     * @param refs    @RedisRef 字段名
+     * @return 传入的记录
      */
-    public <T> boolean updateById(T entity) {
-        Class<?> entityClass = entity.getClass();
-        Field idField = ReflectionUtils.findFieldWithAnnotation(entityClass, RedisId.class);
-        if (idField == null) {
-            throw new IllegalArgumentException("No @RedisId field found in " + entityClass.getName());
+    public <T> List<T> fetchRefs(Class<T> entityClass, List<T> records, String... refs) {
+        if (CollectionUtils.isEmpty(records) || refs == null || refs.length == 0) {
+            return records;
         }
 
-        try {
-            Object id = ReflectionUtils.getFieldValue(entity, idField);
-            if (id == null || StringUtils.isEmpty(id.toString())) {
-                throw new IllegalArgumentException("ID cannot be null or empty for update");
-            }
-
-            String key = getKey(entityClass, id);
-            if (!redisTemplate.hasKey(key)) {
-                return false;
+        EntityMetadata metadata = getMetadata(entityClass);
+        List<EntityMetadata.RefField> refFields = new ArrayList<>();
+        Map<Class<?>, Set<String>> idsByType = new LinkedHashMap<>();
+        for (String ref : refs) {
+            EntityMetadata.RefField refField = metadata.getRef(ref);
+            refFields.add(refField);
+            Set<String> ids = idsByType.computeIfAbsent(refField.getTarget(), k -> new LinkedHashSet<>());
+            for (T record : records) {
+                for (Object id : refField.getIds(record)) {
+                    ids.add(id.toString());
+                }
             }
+        }
 
-            redisTemplate.opsForValue().set(key, entity);
-
-            long expire = getExpire(entityClass);
-            if (expire > 0) {
-                redisTemplate.expire(key, expire, TimeUnit.SECONDS);
+        Map<Class<?>, Map<String, Object>> loaded = loadRefs(entityClass, idsByType);
+        for (EntityMetadata.RefField refField : refFields) {
+            Map<String, Object> entitiesById = loaded.getOrDefault(refField.getTarget(), Collections.emptyMap());
+            for (T record : records) {
+                refField.attach(record, entitiesById);
             }
-
-            return true;
-        } catch (Exception e) {
-            log.error("Failed to update entity: {}", entity, e);
-            throw new RuntimeException("Failed to update entity", e);
         }
+        return records;
     }
 
     /**
-     * 批量更新实体
+     * 按类型批量加载实体
+     *
+     * @return 实体类型到（ID到实体）的映射，不存在的实体不包含在结果中
      */
-    public <T> boolean updateBatchById(Collection<T> entities) {
-        if (CollectionUtils.isEmpty(entities)) {
-            return false;
-        }
-
-        boolean result = true;
-        for (T entity : entities) {
-            result = result && updateById(entity);
-        }
-        return result;
+    protected Map<Class<?>, Map<String, Object>> loadRefs(Class<?> entityClass, Map<Class<?>, Set<String>> idsByType) {
+        return loadByType(Collections.singletonList(entityClass), idsByType);
     }
 
     /**
-     * 根据ID删除实体
+     * 一次往返获取多种类型的实体
+     * <p>
+     * 所有请求在同一个管道中发送（每种类型一个 MGET，分桶存储时每个ID一个 HGET），每个值按所属类型解码。
+     * 未命中缓存和布隆过滤器判断为不存在的ID不会发送；注册了加载器的实体，未命中的ID按类型一次调用
+     * {@link EntityLoader#loadAll} 加载并在一个管道中写回，不使用 getById 的单飞和分布式锁。
      */
-    public <T> boolean removeById(Class<T> entityClass, Object id) {
-        String key = getKey(entityClass, id);
-        return Boolean.TRUE.equals(redisTemplate.delete(key));
+    public FetchResult fetchAll(FetchRequest request) {
+        // 保留调用方传入的原始ID，加载器按原始类型接收
+        Map<Class<?>, Map<String, Object>> requestedIds = new LinkedHashMap<>();
+        Map<Class<?>, Set<String>> idsByType = new LinkedHashMap<>();
+        request.getIds().forEach((entityClass, ids) -> {
+            Map<String, Object> candidates = new LinkedHashMap<>();
+            for (Object id : filterAbsent(getMetadata(entityClass), ids)) {
+                candidates.put(String.valueOf(id), id);
+            }
+            requestedIds.put(entityClass, candidates);
+            idsByType.put(entityClass, candidates.keySet());
+        });
+
+        Map<Class<?>, Map<String, Object>> entities = loadByType(idsByType.keySet(), idsByType);
+        for (Map.Entry<Class<?>, Map<String, Object>> entry : requestedIds.entrySet()) {
+            Class<?> entityClass = entry.getKey();
+            EntityMetadata metadata = getMetadata(entityClass);
+            EntityLoader<?> loader = readThrough.getLoader(entityClass);
+            Map<String, Object> entitiesById = entities.computeIfAbsent(entityClass, k -> new HashMap<>());
+            List<String> hitKeys = new ArrayList<>();
+            List<Object> misses = new ArrayList<>();
+            entry.getValue().forEach((id, requestedId) -> {
+                if (entitiesById.containsKey(id)) {
+                    hitKeys.add(metadata.getKey(id));
+                } else if (loader != null) {
+                    misses.add(requestedId);
+                } else {
+                    membershipFilter.markAbsent(metadata, id);
+                }
+            });
+            if (!misses.isEmpty()) {
+                entitiesById.putAll(loadAllAndStore(metadata, misses, loader));
+            }
+            if (!metadata.isBucketed()) {
+                touch(entityClass, hitKeys);
+            }
+        }
+
+        FetchResult result = new FetchResult();
+        result.setEntities(entities);
+        return result;
     }
 
     /**
-     * 批量删除实体
+     * 在一个管道中按类型批量加载实体
+     *
+     * @param routingClasses 决定读路由的实体类型
      */
-    public <T> boolean removeByIds(Class<T> entityClass, Collection<?> ids) {
-        if (CollectionUtils.isEmpty(ids)) {
-            return false;
+    private Map<Class<?>, Map<String, Object>> loadByType(Collection<Class<?>> routingClasses,
+                                                          Map<Class<?>, Set<String>> idsByType) {
+        List<Class<?>> types = new ArrayList<>();
+        List<List<String>> idLists = new ArrayList<>();
+        List<String> allKeys = new ArrayList<>();
+        for (Map.Entry<Class<?>, Set<String>> entry : idsByType.entrySet()) {
+            if (entry.getValue().isEmpty()) {
+                continue;
+            }
+            EntityMetadata target = getMetadata(entry.getKey());
+            List<String> ids = new ArrayList<>(entry.getValue());
+            types.add(entry.getKey());
+            idLists.add(ids);
+            ids.forEach(id -> allKeys.add(target.getKey(id)));
         }
 
-        List<String> keys = ids.stream()
-                .map(id -> getKey(entityClass, id))
-                .collect(Collectors.toList());
+        Map<Class<?>, Map<String, Object>> result = new HashMap<>();
+        if (types.isEmpty()) {
+            return result;
+        }
 
-        Long count = redisTemplate.delete(keys);
-        return count != null && count > 0;
+        List<Object> responses = read(routingClasses, allKeys, template -> template.executePipelined(
+                (RedisCallback<Object>) connection -> {
+                    for (int i = 0; i < types.size(); i++) {
+                        EntityMetadata target = getMetadata(types.get(i));
+                        if (target.isBucketed()) {
+                            for (String id : idLists.get(i)) {
+                                connection.hGet(rawBucketKey(target, id), KeyCodec.encode(id));
+                            }
+                            continue;
+                        }
+                        connection.mGet(idLists.get(i).stream()
+                                .map(id -> rawKey(target.getKey(id)))
+                                .toArray(byte[][]::new));
+                    }
+                    return null;
+                }));
+
+        // 分桶存储的类型每个ID一个响应，否则每个类型一个 MGET 响应
+        int position = 0;
+        for (int i = 0; i < types.size(); i++) {
+            List<String> ids = idLists.get(i);
+            List<?> values;
+            if (getMetadata(types.get(i)).isBucketed()) {
+                values = responses.subList(position, position + ids.size());
+                position += ids.size();
+            } else {
+                values = (List<?>) responses.get(position++);
+            }
+            Map<String, Object> entitiesById = new HashMap<>();
+            for (int j = 0; j < ids.size(); j++) {
+                Object entity = convert(values.get(j), types.get(i));
+                if (entity != null) {
+                    entitiesById.put(ids.get(j), entity);
+                }
+            }
+            loadCounters(getMetadata(types.get(i)), new ArrayList<>(entitiesById.values()));
+            result.put(types.get(i), entitiesById);
+        }
+        return result;
     }
 
     /**
-     * 分页查询
+     * 清理已不存在的实体残留在索引等派生结构中的数据
+     * <p>
+     * 用于实体过期或被淘汰后的清理，清理前会确认实体键确实不存在，已重新写入的实体不受影响。
+     *
+     * @return 清理的实体数量
      */
-    public <T> Page<T> page(Class<T> entityClass, long current, long size) {
-        String pattern = properties.getKeyPrefix() +
-                (entityClass.getAnnotation(RedisEntity.class) != null &&
-                        !StringUtils.isEmpty(entityClass.getAnnotation(RedisEntity.class).prefix()) ?
-                        entityClass.getAnnotation(RedisEntity.class).prefix() :
-                        entityClass.getSimpleName().toLowerCase()) + ":*";
-
-        Set<String> keys = redisTemplate.keys(pattern);
-        if (CollectionUtils.isEmpty(keys)) {
-            return new Page<>(current, size);
+    public long cleanupDerived(Class<?> entityClass, Collection<String> ids) {
+        EntityMetadata metadata = getMetadata(entityClass);
+        if (!metadata.hasIndexes() || ids.isEmpty()) {
+            return 0;
         }
 
-        long total = keys.size();
-        long pages = (total + size - 1) / size;
+        List<String> idList = new ArrayList<>(ids);
+        List<Object> exists = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String id : idList) {
+                exists(connection, metadata, id);
+            }
+            return null;
+        });
 
-        if (current > pages) {
-            current = pages;
+        List<String> missing = new ArrayList<>();
+        for (int i = 0; i < idList.size(); i++) {
+            if (!Boolean.TRUE.equals(exists.get(i))) {
+                missing.add(idList.get(i));
+            }
+        }
+        if (missing.isEmpty()) {
+            return 0;
         }
 
-        long start = (current - 1) * size;
-        long end = Math.min(start + size, total);
-
-        List<String> pageKeys = new ArrayList<>(keys).subList((int) start, (int) end);
-        List<Object> objects = redisTemplate.opsForValue().multiGet(pageKeys);
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            indexManager.prepare(connection, Collections.singleton(metadata));
+            for (String id : missing) {
+                indexManager.onRemove(connection, metadata, id);
+            }
+            return null;
+        });
+        return missing.size();
+    }
 
-        List<T> records = new ArrayList<>();
-        if (!CollectionUtils.isEmpty(objects)) {
-            for (Object obj : objects) {
-                if (obj != null) {
-                    if (obj instanceof String) {
-                        records.add(JSON.parseObject((String) obj, entityClass));
-                    } else if (entityClass.isInstance(obj)) {
-                        records.add(entityClass.cast(obj));
-                    } else {
-                        String json = JSON.toJSONString(obj);
-                        records.add(JSON.parseObject(json, entityClass));
-                    }
+    /**
+     * 对账：遍历实体派生结构中的所有ID，清理实体已不存在的残留数据
+     *
+     * @param batchSize   每批检查的ID数量
+     * @param rateLimiter 每秒检查的ID数量限制，为null表示不限流
+     * @return 清理的实体数量
+     */
+    public long reconcile(Class<?> entityClass, int batchSize, RateLimiter rateLimiter) {
+        EntityMetadata metadata = getMetadata(entityClass);
+        long cleaned = 0;
+        for (EntityIndex index : metadata.getIndexes()) {
+            if (index.getStateKey() != null) {
+                cleaned += reconcile(entityClass, index.getStateKey(), true, batchSize, rateLimiter);
+            }
+            if (index.getIdSetKey() != null) {
+                cleaned += reconcile(entityClass, index.getIdSetKey(), false, batchSize, rateLimiter);
+            }
+            if (index instanceof TimeSeriesIndex) {
+                for (String bucket : scanKeys(((TimeSeriesIndex) index).getBucketPattern(), batchSize)) {
+                    cleaned += reconcile(entityClass, bucket, false, batchSize, rateLimiter);
                 }
             }
         }
-
-        Page<T> page = new Page<>(current, size);
-        page.setTotal(total);
-        page.setPages(pages);
-        page.setRecords(records);
-
-        return page;
+        return cleaned;
     }
 
     /**
-     * 计数
+     * 在主节点上以 SCAN 读取匹配的键
      */
-    public <T> long count(Class<T> entityClass) {
-        String pattern = properties.getKeyPrefix() +
-                (entityClass.getAnnotation(RedisEntity.class) != null &&
-                        !StringUtils.isEmpty(entityClass.getAnnotation(RedisEntity.class).prefix()) ?
-                        entityClass.getAnnotation(RedisEntity.class).prefix() :
-                        entityClass.getSimpleName().toLowerCase()) + ":*";
+    private Set<String> scanKeys(String pattern, int count) {
+        ScanOptions options = ScanOptions.scanOptions().match(pattern).count(count).build();
+        Set<String> keys = redisTemplate.execute((RedisCallback<Set<String>>) connection -> {
+            Set<String> result = new LinkedHashSet<>();
+            try (Cursor<byte[]> cursor = connection.scan(options)) {
+                while (cursor.hasNext()) {
+                    result.add(StringRedisSerializer.UTF_8.deserialize(cursor.next()));
+                }
+            }
+            return result;
+        });
+        return keys != null ? keys : Collections.emptySet();
+    }
+
+    @SuppressWarnings("unchecked")
+    private long reconcile(Class<?> entityClass, String sourceKey, boolean hash, int batchSize,
+                           RateLimiter rateLimiter) {
+        Long cleaned = redisTemplate.execute((RedisCallback<Long>) connection -> {
+            long count = 0;
+            List<String> batch = new ArrayList<>(batchSize);
+            ScanOptions options = ScanOptions.scanOptions().count(batchSize).build();
+            try (Cursor<?> cursor = hash
+                    ? connection.hScan(rawKey(sourceKey), options)
+                    : connection.zScan(rawKey(sourceKey), options)) {
+                while (cursor.hasNext()) {
+                    Object item = cursor.next();
+                    byte[] id = hash ? ((Map.Entry<byte[], byte[]>) item).getKey()
+                            : ((RedisZSetCommands.Tuple) item).getValue();
+                    batch.add(StringRedisSerializer.UTF_8.deserialize(id));
+                    if (batch.size() >= batchSize) {
+                        count += reconcileBatch(entityClass, batch, rateLimiter);
+                        batch.clear();
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                count += reconcileBatch(entityClass, batch, rateLimiter);
+            }
+            return count;
+        });
+        return cleaned != null ? cleaned : 0;
+    }
 
-        Set<String> keys = redisTemplate.keys(pattern);
-        return keys != null ? keys.size() : 0;
+    private long reconcileBatch(Class<?> entityClass, List<String> ids, RateLimiter rateLimiter) {
+        if (rateLimiter != null) {
+            try {
+                rateLimiter.acquire(ids.size());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while reconciling " + entityClass.getName(), e);
+            }
+        }
+        return cleanupDerived(entityClass, ids);
     }
 
     /**
@@ -320,24 +1904,27 @@ public class RedisOrmTemplate {
     public <T> List<T> listByCondition(Class<T> entityClass, T condition) {
         if (condition == null) {
             // 如果条件为空，返回所有实体
-            String pattern = getKeyPattern(entityClass);
-            Set<String> keys = redisTemplate.keys(pattern);
+            List<String> keys = keys(entityClass);
             if (CollectionUtils.isEmpty(keys)) {
                 return new ArrayList<>();
             }
             return getEntitiesByKeys(entityClass, keys);
         }
 
-        // 获取所有实体
-        List<T> allEntities = listAll(entityClass);
-        if (CollectionUtils.isEmpty(allEntities)) {
-            return new ArrayList<>();
-        }
-
         // 通过反射获取条件对象的非空字段
-        Map<String, Object> conditions = ReflectionUtils.getNonNullFields(condition);
+        Map<String, Object> conditions = getMetadata(entityClass).getNonNullFields(condition);
         if (conditions.isEmpty()) {
-            return allEntities;
+            return listAll(entityClass);
+        }
+
+        // 获取可能符合条件的实体
+        List<Condition> equalities = new ArrayList<>();
+        for (Map.Entry<String, Object> entry : conditions.entrySet()) {
+            equalities.add(new Condition(entry.getKey(), Condition.Operator.EQ, entry.getValue()));
+        }
+        List<T> allEntities = listCandidates(entityClass, equalities);
+        if (CollectionUtils.isEmpty(allEntities)) {
+            return new ArrayList<>();
         }
 
         // 过滤符合条件的实体
@@ -386,8 +1973,7 @@ public class RedisOrmTemplate {
      * 获取所有实体
      */
     private <T> List<T> listAll(Class<T> entityClass) {
-        String pattern = getKeyPattern(entityClass);
-        Set<String> keys = redisTemplate.keys(pattern);
+        List<String> keys = keys(entityClass);
         if (CollectionUtils.isEmpty(keys)) {
             return new ArrayList<>();
         }
@@ -395,39 +1981,221 @@ public class RedisOrmTemplate {
     }
 
     /**
-     * 根据键集合获取实体列表
+     * 获取可能满足条件的实体，开启过滤下推时在服务端预先过滤，返回的实体仍需按条件过滤
      */
-    private <T> List<T> getEntitiesByKeys(Class<T> entityClass, Set<String> keys) {
-        List<Object> objects = redisTemplate.opsForValue().multiGet(new ArrayList<>(keys));
-        if (CollectionUtils.isEmpty(objects)) {
+    @SuppressWarnings("unchecked")
+    private <T> List<T> listCandidates(Class<T> entityClass, List<Condition> conditions) {
+        // 实体值中的计数器字段可能已过时，不下推
+        EntityMetadata metadata = getMetadata(entityClass);
+        List<Condition> pushable = conditions.stream()
+                .filter(condition -> !(metadata.findIndex(condition.getField()) instanceof CounterField))
+                .collect(Collectors.toList());
+        List<Map<String, Object>> predicates = filterPushdown.isEnabled() && !metadata.isBucketed()
+                ? FilterPushdown.toPredicates(pushable) : Collections.emptyList();
+        if (predicates.isEmpty()) {
+            return listAll(entityClass);
+        }
+
+        List<String> keys = keys(entityClass);
+        if (keys.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<String, byte[]> values = filterPushdown.filter(keys, predicates,
+                (batch, callback) -> read(entityClass, batch, template -> template.execute(callback)));
+
+        RedisSerializer<Object> valueSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        List<T> result = new ArrayList<>(values.size());
+        for (byte[] value : values.values()) {
+            T entity = convert(valueSerializer.deserialize(value), entityClass);
+            if (entity != null) {
+                result.add(entity);
+            }
+        }
+        touch(entityClass, values.keySet());
+        loadCounters(getMetadata(entityClass), result);
+        return result;
+    }
+
+    /**
+     * 获取实体类型的所有键
+     */
+    protected <T> List<String> keys(Class<T> entityClass) {
+        EntityMetadata metadata = getMetadata(entityClass);
+        if (metadata.isBucketed()) {
+            return bucketedKeys(metadata);
+        }
+
+        return new ArrayList<>(scanKeys(entityClass, getKeyPattern(entityClass)));
+    }
+
+    /**
+     * 以 SCAN 分批读取匹配的键，不使用阻塞 Redis 的 KEYS；遍历期间 SCAN 可能返回重复的键，结果已去重
+     */
+    private Set<String> scanKeys(Class<?> entityClass, String pattern) {
+        ScanOptions options = ScanOptions.scanOptions().match(pattern).count(SCAN_COUNT).build();
+        Set<String> keys = read(entityClass, null, template -> template.execute((RedisCallback<Set<String>>) connection -> {
+            Set<String> result = new LinkedHashSet<>();
+            try (Cursor<byte[]> cursor = connection.scan(options)) {
+                while (cursor.hasNext()) {
+                    result.add(StringRedisSerializer.UTF_8.deserialize(cursor.next()));
+                }
+            }
+            return result;
+        }));
+        return keys != null ? keys : Collections.emptySet();
+    }
+
+    /**
+     * 分桶存储时所有实体的键（由桶中的ID还原）
+     */
+    private List<String> bucketedKeys(EntityMetadata metadata) {
+        Class<?> entityClass = metadata.getEntityClass();
+        String pattern = metadata.getBucketPattern();
+        Set<String> buckets = scanKeys(entityClass, pattern);
+        if (buckets.isEmpty()) {
             return new ArrayList<>();
         }
 
+        List<String> bucketList = new ArrayList<>(buckets);
+        List<Object> fields = read(entityClass, null, template -> template.executePipelined(
+                (RedisCallback<Object>) connection -> {
+                    for (String bucket : bucketList) {
+                        connection.hKeys(rawKey(bucket));
+                    }
+                    return null;
+                }, StringRedisSerializer.UTF_8));
+
+        List<String> keys = new ArrayList<>();
+        for (Object ids : fields) {
+            if (ids instanceof Collection) {
+                for (Object id : (Collection<?>) ids) {
+                    keys.add(metadata.getKey(id));
+                }
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * 根据键集合获取实体列表
+     */
+    protected <T> List<T> getEntitiesByKeys(Class<T> entityClass, Collection<String> keys) {
         List<T> result = new ArrayList<>();
+        for (T entity : multiGet(entityClass, keys)) {
+            if (entity != null) {
+                result.add(entity);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 批量获取实体，结果与键一一对应，不存在的键对应null
+     */
+    protected <T> List<T> multiGet(Class<T> entityClass, Collection<String> keys) {
+        List<T> result = fetch(entityClass, keys);
+        loadCounters(getMetadata(entityClass), result);
+        return result;
+    }
+
+    private <T> List<T> fetch(Class<T> entityClass, Collection<String> keys) {
+        List<T> result = new ArrayList<>(keys.size());
+        if (keys.isEmpty()) {
+            return result;
+        }
+
+        EntityMetadata metadata = getMetadata(entityClass);
+        if (metadata.isBucketed()) {
+            return bucketedMultiGet(metadata, entityClass, new ArrayList<>(keys));
+        }
+        if (chunkedMultiGet.isChunked(keys.size())) {
+            return chunkedMultiGet(entityClass, new ArrayList<>(keys));
+        }
+
+        List<Object> objects = read(entityClass, keys, template -> template.opsForValue().multiGet(keys));
+        if (CollectionUtils.isEmpty(objects)) {
+            return new ArrayList<>(Collections.nCopies(keys.size(), null));
+        }
+
+        List<String> hitKeys = new ArrayList<>();
+        Iterator<String> keyIterator = keys.iterator();
         for (Object obj : objects) {
+            String key = keyIterator.next();
             if (obj != null) {
-                if (obj instanceof String) {
-                    result.add(JSON.parseObject((String) obj, entityClass));
-                } else if (entityClass.isInstance(obj)) {
-                    result.add(entityClass.cast(obj));
-                } else {
-                    String json = JSON.toJSONString(obj);
-                    result.add(JSON.parseObject(json, entityClass));
-                }
+                hitKeys.add(key);
             }
+            result.add(convert(obj, entityClass));
+        }
+        touch(entityClass, hitKeys);
+        return result;
+    }
+
+    /**
+     * 分桶存储时批量获取实体，每个键一个 HGET，在一个管道中发送
+     */
+    private <T> List<T> bucketedMultiGet(EntityMetadata metadata, Class<T> entityClass, List<String> keys) {
+        List<Object> values = read(entityClass, keys, template -> template.executePipelined(
+                (RedisCallback<Object>) connection -> {
+                    for (String key : keys) {
+                        String id = metadata.getIdFromKey(key);
+                        connection.hGet(rawBucketKey(metadata, id), KeyCodec.encode(id));
+                    }
+                    return null;
+                }));
+
+        List<T> result = new ArrayList<>(keys.size());
+        for (Object value : values) {
+            result.add(convert(value, entityClass));
         }
+        return result;
+    }
 
+    /**
+     * 分块并行获取实体，结果与键一一对应
+     */
+    @SuppressWarnings("unchecked")
+    private <T> List<T> chunkedMultiGet(Class<T> entityClass, List<String> keys) {
+        RedisSerializer<Object> valueSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        List<T> result = chunkedMultiGet.get(keys,
+                (chunk, callback) -> read(entityClass, chunk, template -> template.execute(callback)),
+                value -> value != null ? convert(valueSerializer.deserialize(value), entityClass) : null);
+
+        List<String> hitKeys = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            if (result.get(i) != null) {
+                hitKeys.add(keys.get(i));
+            }
+        }
+        touch(entityClass, hitKeys);
         return result;
     }
 
+    /**
+     * 将反序列化得到的值转换为实体类型
+     */
+    @SuppressWarnings("unchecked")
+    protected <T> T convert(Object obj, Class<T> entityClass) {
+        if (obj == null) {
+            return null;
+        }
+
+        if (obj instanceof String) {
+            return JSON.parseObject((String) obj, entityClass);
+        } else if (entityClass.isInstance(obj)) {
+            return entityClass.cast(obj);
+        } else if (obj instanceof Map && getMetadata(entityClass).getAccessor() != null) {
+            return entityClass.cast(getMetadata(entityClass).getAccessor().fromMap((Map<String, ?>) obj));
+        } else {
+            String json = JSON.toJSONString(obj);
+            return JSON.parseObject(json, entityClass);
+        }
+    }
+
     /**
      * 获取实体的键模式
      */
     private <T> String getKeyPattern(Class<T> entityClass) {
-        RedisEntity annotation = entityClass.getAnnotation(RedisEntity.class);
-        String prefix = annotation != null && !StringUtils.isEmpty(annotation.prefix())
-                ? annotation.prefix() : entityClass.getSimpleName().toLowerCase();
-        return properties.getKeyPrefix() + prefix + ":*";
+        return getMetadata(entityClass).getKeyPattern();
     }
 
     /**
@@ -439,7 +2207,7 @@ public class RedisOrmTemplate {
             Object expectedValue = entry.getValue();
 
             try {
-                Object actualValue = ReflectionUtils.getFieldValue(entity, fieldName);
+                Object actualValue = getMetadata(entity.getClass()).getFieldValue(entity, fieldName);
                 if (actualValue == null || !actualValue.equals(expectedValue)) {
                     return false;
                 }
@@ -472,10 +2240,11 @@ public class RedisOrmTemplate {
             return list;
         }
 
+        EntityMetadata metadata = getMetadata(list.get(0).getClass());
         list.sort((a, b) -> {
             try {
-                Object valueA = ReflectionUtils.getFieldValue(a, orderBy);
-                Object valueB = ReflectionUtils.getFieldValue(b, orderBy);
+                Object valueA = metadata.getFieldValue(a, orderBy);
+                Object valueB = metadata.getFieldValue(b, orderBy);
 
                 if (valueA == null && valueB == null) {
                     return 0;
@@ -508,7 +2277,7 @@ public class RedisOrmTemplate {
      * 分页查询（带排序）
      */
     public <T> Page<T> page(Class<T> entityClass, long current, long size, String orderBy, boolean isAsc) {
-        List<T> list = listAll(entityClass);
+        List<T> list = list(entityClass);
         if (orderBy != null && !orderBy.isEmpty()) {
             list = sort(list, orderBy, isAsc);
         }
@@ -567,4 +2336,105 @@ public class RedisOrmTemplate {
 
         return page;
     }
+
+    /**
+     * 按查询构造器查询实体列表
+     */
+    public <T> List<T> listByQuery(Class<T> entityClass, QueryWrapper<T> query) {
+        return queryList(entityClass, query, true);
+    }
+
+    /**
+     * 按查询构造器统计实体数量，忽略排序和limit
+     * <p>
+     * 所有条件都能使用索引时只统计索引求交后的ID数量，不获取实体。
+     */
+    public <T> long countByQuery(Class<T> entityClass, QueryWrapper<T> query) {
+        QueryPlanner.Plan plan = plan(entityClass, query);
+        if (plan.isEmpty()) {
+            return 0;
+        }
+        if (!plan.isScan() && plan.getFilters().isEmpty()) {
+            return read(entityClass, null, template -> QueryPlanner.findIds(template, plan, 0)).size();
+        }
+        return query(entityClass, query, plan, false).size();
+    }
+
+    /**
+     * 按查询构造器分页查询，忽略limit
+     */
+    public <T> Page<T> pageByQuery(Class<T> entityClass, QueryWrapper<T> query, long current, long size) {
+        List<T> list = queryList(entityClass, query, false);
+
+        long total = list.size();
+        long pages = (total + size - 1) / size;
+        if (current > pages && pages > 0) {
+            current = pages;
+        }
+
+        long start = (current - 1) * size;
+        long end = Math.min(start + size, total);
+
+        Page<T> page = new Page<>(current, size);
+        page.setTotal(total);
+        page.setPages(pages);
+        page.setRecords(start < total ? new ArrayList<>(list.subList((int) start, (int) end)) : new ArrayList<>());
+        return page;
+    }
+
+    /**
+     * 查看查询构造器的执行计划，会访问Redis估算索引命中数量，但不获取实体
+     */
+    public <T> QueryPlan explain(Class<T> entityClass, QueryWrapper<T> query) {
+        return plan(entityClass, query).explain();
+    }
+
+    /**
+     * 执行查询
+     *
+     * @param applyLimit 是否应用查询构造器的limit
+     */
+    protected <T> List<T> queryList(Class<T> entityClass, QueryWrapper<T> query, boolean applyLimit) {
+        return query(entityClass, query, plan(entityClass, query), applyLimit);
+    }
+
+    private <T> QueryPlanner.Plan plan(Class<T> entityClass, QueryWrapper<T> query) {
+        EntityMetadata metadata = getMetadata(entityClass);
+        return read(entityClass, null, template -> QueryPlanner.plan(template, metadata, query));
+    }
+
+    private <T> List<T> query(Class<T> entityClass, QueryWrapper<T> query, QueryPlanner.Plan plan,
+                              boolean applyLimit) {
+        if (plan.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<T> entities;
+        if (plan.isScan()) {
+            entities = listCandidates(entityClass, plan.getFilters());
+        } else {
+            int limit = applyLimit && plan.canPushDownLimit() ? query.getLimit() : 0;
+            List<String> ids = read(entityClass, null, template -> QueryPlanner.findIds(template, plan, limit));
+            entities = listByIds(entityClass, ids);
+        }
+
+        if (!plan.getFilters().isEmpty()) {
+            EntityMetadata metadata = getMetadata(entityClass);
+            entities = entities.stream()
+                    .filter(entity -> plan.getFilters().stream().allMatch(condition ->
+                            condition.matches(metadata.getFieldValue(entity, condition.getField()))))
+                    .collect(Collectors.toList());
+        }
+
+        // 稳定排序，从最后一个排序字段开始依次排序
+        List<QueryWrapper.Order> orders = query.getOrders();
+        for (int i = orders.size() - 1; i >= 0; i--) {
+            sort(entities, orders.get(i).getField(), orders.get(i).isAsc());
+        }
+
+        if (applyLimit && query.getLimit() > 0 && entities.size() > query.getLimit()) {
+            entities = new ArrayList<>(entities.subList(0, query.getLimit()));
+        }
+        return entities;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,714 @@
+package com.asd.redis.orm.core;
+
+import com.asd.redis.orm.config.RedisOrmProperties;
+import com.asd.redis.orm.index.TimeSeriesIndex;
+import com.asd.redis.orm.model.FetchRequest;
+import com.asd.redis.orm.model.FetchResult;
+import com.asd.redis.orm.model.KeyspaceStatistics;
+import com.asd.redis.orm.model.Page;
+import com.asd.redis.orm.model.TimeSeriesPoint;
+import com.asd.redis.orm.model.TransferOptions;
+import com.asd.redis.orm.query.QueryPlan;
+import com.asd.redis.orm.query.QueryWrapper;
+import com.asd.redis.orm.utils.ConsistentHash;
+import com.asd.redis.orm.utils.RateLimiter;
+import com.asd.redis.orm.utils.ReflectionUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.GeoResult;
+import org.springframework.data.geo.Metric;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
+
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 客户端分片的 Redis ORM 模板类
+ * <p>
+ * 按实体ID的一致性哈希将键路由到各分片，多键操作按分片分组后并行执行，跨分片的分页和计数在客户端合并。
+ * 自增ID的序列统一保存在第一个分片上。
+ */
+@Slf4j
+public class ShardedRedisOrmTemplate extends RedisOrmTemplate {
+
+    private final List<RedisTemplate<String, Object>> shardTemplates;
+    private final List<RedisOrmTemplate> shards;
+    private final ConsistentHash<Integer> ring;
+    private final ExecutorService executor;
+    private List<ReadRouter> readRouters = Collections.emptyList();
+
+    /**
+     * @param shardTemplates 分片名称到分片RedisTemplate的映射，分片名称决定其在哈希环上的位置
+     * @param properties     配置属性
+     */
+    public ShardedRedisOrmTemplate(LinkedHashMap<String, RedisTemplate<String, Object>> shardTemplates,
+                                   RedisOrmProperties properties) {
+        super(firstShard(shardTemplates), properties);
+        this.shardTemplates = new ArrayList<>(shardTemplates.values());
+        this.shards = new ArrayList<>();
+        Map<String, Integer> nodes = new LinkedHashMap<>();
+        for (String name : shardTemplates.keySet()) {
+            nodes.put(name, nodes.size());
+        }
+        for (RedisTemplate<String, Object> template : this.shardTemplates) {
+            this.shards.add(new RedisOrmTemplate(template, properties));
+        }
+        this.ring = new ConsistentHash<>(nodes, properties.getSharding().getVirtualNodes());
+
+        int parallelism = properties.getSharding().getParallelism() > 0
+                ? properties.getSharding().getParallelism() : this.shards.size();
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread thread = new Thread(r, "redis-orm-shard-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static RedisTemplate<String, Object> firstShard(Map<String, RedisTemplate<String, Object>> shardTemplates) {
+        if (CollectionUtils.isEmpty(shardTemplates)) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        return shardTemplates.values().iterator().next();
+    }
+
+    /**
+     * 获取ID所在的分片
+     */
+    public RedisOrmTemplate getShard(Object id) {
+        return shards.get(ring.get(String.valueOf(id)));
+    }
+
+    /**
+     * 获取所有分片
+     */
+    public List<RedisOrmTemplate> getShards() {
+        return Collections.unmodifiableList(shards);
+    }
+
+    /**
+     * 设置各分片的读路由器，顺序与分片顺序一致；第一个分片的路由器同时用于序列分片上的读取。
+     * 路由器由模板持有，销毁模板时一并关闭其副本连接
+     */
+    public void setReadRouters(List<ReadRouter> readRouters) {
+        if (readRouters.size() != shards.size()) {
+            throw new IllegalArgumentException("Expected " + shards.size() + " read routers, got " + readRouters.size());
+        }
+        super.setReadRouter(readRouters.get(0));
+        for (int i = 0; i < shards.size(); i++) {
+            shards.get(i).setReadRouter(readRouters.get(i));
+        }
+        this.readRouters = new ArrayList<>(readRouters);
+    }
+
+    /**
+     * 等同于只有一个路由器的 {@link #setReadRouters(List)}，仅适用于单分片
+     */
+    @Override
+    public void setReadRouter(ReadRouter readRouter) {
+        setReadRouters(Collections.singletonList(readRouter));
+    }
+
+    @Override
+    public void setExpireRefresher(ExpireRefresher expireRefresher) {
+        super.setExpireRefresher(expireRefresher);
+        for (RedisOrmTemplate shard : shards) {
+            shard.setExpireRefresher(expireRefresher);
+        }
+    }
+
+    @Override
+    public void registerLoader(EntityLoader<?> loader) {
+        super.registerLoader(loader);
+        for (RedisOrmTemplate shard : shards) {
+            shard.registerLoader(loader);
+        }
+    }
+
+    @Override
+    public void rebuildBloomFilter(Class<?> entityClass) {
+        List<Callable<Object>> tasks = new ArrayList<>();
+        for (RedisOrmTemplate shard : shards) {
+            tasks.add(() -> {
+                shard.rebuildBloomFilter(entityClass);
+                return null;
+            });
+        }
+        fanOut(tasks);
+    }
+
+    /**
+     * 依次扫描各分片，避免同时给所有节点增加负载
+     */
+    @Override
+    public KeyspaceStatistics sampleStatistics() {
+        KeyspaceSampler sampler = newKeyspaceSampler();
+        for (RedisTemplate<String, Object> shardTemplate : shardTemplates) {
+            sampler.sample(shardTemplate);
+        }
+        return sampler.getStatistics();
+    }
+
+    @Override
+    public <T> T save(T entity) {
+        Field idField = getMetadata(entity.getClass()).getIdField();
+        try {
+            // 先在序列分片上生成ID，再按ID路由
+            Object id = generateId(entity, idField);
+            return getShard(id).save(entity);
+        } catch (IllegalAccessException e) {
+            log.error("Failed to generate id for entity: {}", entity, e);
+            throw new RuntimeException("Failed to save entity", e);
+        }
+    }
+
+    @Override
+    public <T> List<T> saveBatch(Collection<T> entities) {
+        if (CollectionUtils.isEmpty(entities)) {
+            return new ArrayList<>();
+        }
+
+        Map<Integer, List<T>> entitiesByShard = new LinkedHashMap<>();
+        for (T entity : entities) {
+            try {
+                Object id = generateId(entity, getMetadata(entity.getClass()).getIdField());
+                entitiesByShard.computeIfAbsent(ring.get(String.valueOf(id)), k -> new ArrayList<>()).add(entity);
+            } catch (IllegalAccessException e) {
+                log.error("Failed to generate id for entity: {}", entity, e);
+                throw new RuntimeException("Failed to save entities", e);
+            }
+        }
+
+        List<Callable<List<T>>> tasks = new ArrayList<>();
+        for (Map.Entry<Integer, List<T>> entry : entitiesByShard.entrySet()) {
+            RedisOrmTemplate shard = shards.get(entry.getKey());
+            tasks.add(() -> shard.saveBatch(entry.getValue()));
+        }
+        fanOut(tasks);
+        return new ArrayList<>(entities);
+    }
+
+    @Override
+    public <T> long exportEntities(Class<T> entityClass, Path file, TransferOptions options) {
+        return EntityTransfer.export(this, shardTemplates, getMetadata(entityClass), file, options);
+    }
+
+    @Override
+    public <T> T getById(Class<T> entityClass, Object id) {
+        return getShard(id).getById(entityClass, id);
+    }
+
+    @Override
+    public <T> List<T> listByIds(Class<T> entityClass, Collection<?> ids) {
+        if (CollectionUtils.isEmpty(ids)) {
+            return new ArrayList<>();
+        }
+
+        Map<Integer, List<Object>> idsByShard = groupByShard(ids);
+        List<Callable<List<T>>> tasks = new ArrayList<>();
+        for (Map.Entry<Integer, List<Object>> entry : idsByShard.entrySet()) {
+            RedisOrmTemplate shard = shards.get(entry.getKey());
+            tasks.add(() -> shard.listByIds(entityClass, entry.getValue()));
+        }
+
+        // 按ID还原调用方传入的顺序
+        EntityMetadata metadata = getMetadata(entityClass);
+        Map<String, T> entitiesById = new HashMap<>();
+        for (List<T> entities : fanOut(tasks)) {
+            for (T entity : entities) {
+                entitiesById.put(String.valueOf(metadata.getId(entity)), entity);
+            }
+        }
+
+        List<T> result = new ArrayList<>();
+        for (Object id : ids) {
+            T entity = entitiesById.get(String.valueOf(id));
+            if (entity != null) {
+                result.add(entity);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public <T> boolean updateById(T entity) {
+        Object id = getMetadata(entity.getClass()).getId(entity);
+        if (id == null || StringUtils.isEmpty(id.toString())) {
+            throw new IllegalArgumentException("ID cannot be null or empty for update");
+        }
+        return getShard(id).updateById(entity);
+    }
+
+    @Override
+    public <T> Long increment(Class<T> entityClass, Object id, String field, long delta) {
+        return getShard(id).increment(entityClass, id, field, delta);
+    }
+
+    @Override
+    public <T> Double increment(Class<T> entityClass, Object id, String field, double delta) {
+        return getShard(id).increment(entityClass, id, field, delta);
+    }
+
+    @Override
+    public <T> boolean removeById(Class<T> entityClass, Object id) {
+        return getShard(id).removeById(entityClass, id);
+    }
+
+    @Override
+    public <T> boolean removeByIds(Class<T> entityClass, Collection<?> ids) {
+        if (CollectionUtils.isEmpty(ids)) {
+            return false;
+        }
+
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (Map.Entry<Integer, List<Object>> entry : groupByShard(ids).entrySet()) {
+            RedisOrmTemplate shard = shards.get(entry.getKey());
+            tasks.add(() -> shard.removeByIds(entityClass, entry.getValue()));
+        }
+        return fanOut(tasks).contains(Boolean.TRUE);
+    }
+
+    @Override
+    public <T> long deleteByQuery(Class<T> entityClass, QueryWrapper<T> query) {
+        checkDeleteConditions(entityClass, query);
+        long total = 0;
+        for (Long count : fanOutAll(shard -> shard.deleteByQuery(entityClass, query))) {
+            total += count;
+        }
+        return total;
+    }
+
+    @Override
+    public long deleteAll(Class<?> entityClass) {
+        long total = 0;
+        for (Long count : fanOutAll(shard -> shard.deleteAll(entityClass))) {
+            total += count;
+        }
+        return total;
+    }
+
+    @Override
+    public long cleanupDerived(Class<?> entityClass, Collection<String> ids) {
+        List<Callable<Long>> tasks = new ArrayList<>();
+        for (Map.Entry<Integer, List<Object>> entry : groupByShard(ids).entrySet()) {
+            RedisOrmTemplate shard = shards.get(entry.getKey());
+            List<String> shardIds = new ArrayList<>();
+            for (Object id : entry.getValue()) {
+                shardIds.add((String) id);
+            }
+            tasks.add(() -> shard.cleanupDerived(entityClass, shardIds));
+        }
+        long total = 0;
+        for (Long count : fanOut(tasks)) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * 各分片并行对账，共用同一个限流器，总检查速率不超过限制
+     */
+    @Override
+    public long reconcile(Class<?> entityClass, int batchSize, RateLimiter rateLimiter) {
+        long total = 0;
+        for (Long count : fanOutAll(shard -> shard.reconcile(entityClass, batchSize, rateLimiter))) {
+            total += count;
+        }
+        return total;
+    }
+
+    @Override
+    public <T> Page<T> page(Class<T> entityClass, long current, long size) {
+        List<List<String>> shardKeys = fanOutAll(shard -> shard.keys(entityClass));
+
+        long total = 0;
+        for (List<String> keys : shardKeys) {
+            total += keys.size();
+        }
+        if (total == 0) {
+            return new Page<>(current, size);
+        }
+
+        long pages = (total + size - 1) / size;
+        if (current > pages) {
+            current = pages;
+        }
+
+        long start = (current - 1) * size;
+        long end = Math.min(start + size, total);
+
+        // 按分片顺序拼接键列表，截取当前页落在各分片上的部分
+        Map<Integer, List<String>> pageKeysByShard = new LinkedHashMap<>();
+        long offset = 0;
+        for (int i = 0; i < shardKeys.size() && offset < end; i++) {
+            List<String> keys = shardKeys.get(i);
+            long from = Math.max(start, offset) - offset;
+            long to = Math.min(end, offset + keys.size()) - offset;
+            if (from < to) {
+                pageKeysByShard.put(i, keys.subList((int) from, (int) to));
+            }
+            offset += keys.size();
+        }
+
+        List<Callable<List<T>>> tasks = new ArrayList<>();
+        for (Map.Entry<Integer, List<String>> entry : pageKeysByShard.entrySet()) {
+            RedisOrmTemplate shard = shards.get(entry.getKey());
+            tasks.add(() -> shard.getEntitiesByKeys(entityClass, entry.getValue()));
+        }
+
+        List<T> records = new ArrayList<>();
+        for (List<T> entities : fanOut(tasks)) {
+            records.addAll(entities);
+        }
+
+        Page<T> page = new Page<>(current, size);
+        page.setTotal(total);
+        page.setPages(pages);
+        page.setRecords(records);
+
+        return page;
+    }
+
+    @Override
+    public <T> long count(Class<T> entityClass) {
+        long total = 0;
+        for (Long count : fanOutAll(shard -> shard.count(entityClass))) {
+            total += count;
+        }
+        return total;
+    }
+
+    @Override
+    public <T> List<T> listByCondition(Class<T> entityClass, T condition) {
+        List<T> result = new ArrayList<>();
+        for (List<T> entities : fanOutAll(shard -> shard.listByCondition(entityClass, condition))) {
+            result.addAll(entities);
+        }
+        return result;
+    }
+
+    @Override
+    public <T> List<T> listByPrefix(Class<T> entityClass, String field, String prefix, int limit) {
+        return mergeSorted(fanOutAll(shard -> shard.listByPrefix(entityClass, field, prefix, limit)),
+                field, false, limit);
+    }
+
+    @Override
+    public <T> List<T> listByTimeRange(Class<T> entityClass, long from, long to) {
+        TimeSeriesIndex index = getMetadata(entityClass).getTimeSeriesIndex();
+        List<T> result = new ArrayList<>();
+        for (List<T> entities : fanOutAll(shard -> shard.listByTimeRange(entityClass, from, to))) {
+            result.addAll(entities);
+        }
+        result.sort(Comparator.comparing(index::getTimestamp));
+        return result;
+    }
+
+    @Override
+    public <T> List<TimeSeriesPoint> aggregateByTimeRange(Class<T> entityClass, long from, long to, long interval,
+                                                         String field, TimeSeriesPoint.Aggregation aggregation) {
+        List<List<TimeSeriesPoint>> shardPoints = fanOutAll(shard ->
+                shard.aggregateByTimeRange(entityClass, from, to, interval, field, aggregation));
+
+        // 各分片的窗口相同，按位置合并；平均值按数量加权
+        List<TimeSeriesPoint> result = shardPoints.get(0);
+        for (int s = 1; s < shardPoints.size(); s++) {
+            List<TimeSeriesPoint> points = shardPoints.get(s);
+            for (int i = 0; i < result.size(); i++) {
+                TimeSeriesPoint merged = result.get(i);
+                TimeSeriesPoint point = points.get(i);
+                long count = merged.getCount() + point.getCount();
+                if (point.getValue() != null) {
+                    Double value = merged.getValue();
+                    if (value == null) {
+                        value = point.getValue();
+                    } else if (aggregation == TimeSeriesPoint.Aggregation.MIN) {
+                        value = Math.min(value, point.getValue());
+                    } else if (aggregation == TimeSeriesPoint.Aggregation.MAX) {
+                        value = Math.max(value, point.getValue());
+                    } else if (aggregation == TimeSeriesPoint.Aggregation.AVG) {
+                        value = (value * merged.getCount() + point.getValue() * point.getCount()) / count;
+                    } else {
+                        value = value + point.getValue();
+                    }
+                    merged.setValue(value);
+                }
+                merged.setCount(count);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public <T> List<T> listByPrefixIgnoreCase(Class<T> entityClass, String field, String prefix, int limit) {
+        return mergeSorted(fanOutAll(shard -> shard.listByPrefixIgnoreCase(entityClass, field, prefix, limit)),
+                field, true, limit);
+    }
+
+    @Override
+    public <T> List<T> listByRange(Class<T> entityClass, String field, String from, String to, int limit) {
+        return mergeSorted(fanOutAll(shard -> shard.listByRange(entityClass, field, from, to, limit)),
+                field, false, limit);
+    }
+
+    @Override
+    public <T> List<GeoResult<T>> listByRadius(Class<T> entityClass, double longitude, double latitude,
+                                               Distance radius, int limit) {
+        return mergeNearest(fanOutAll(shard -> shard.listByRadius(entityClass, longitude, latitude, radius, limit)),
+                limit);
+    }
+
+    @Override
+    public <T> List<GeoResult<T>> listByBox(Class<T> entityClass, double longitude, double latitude,
+                                            double width, double height, Metric metric, int limit) {
+        return mergeNearest(fanOutAll(shard ->
+                shard.listByBox(entityClass, longitude, latitude, width, height, metric, limit)), limit);
+    }
+
+    @Override
+    protected Map<Class<?>, Map<String, Object>> loadRefs(Class<?> entityClass,
+                                                         Map<Class<?>, Set<String>> idsByType) {
+        // 关联实体可能分布在任意分片上，按ID路由后并行批量获取
+        Map<Class<?>, Map<String, Object>> result = new HashMap<>();
+        for (Map.Entry<Class<?>, Set<String>> entry : idsByType.entrySet()) {
+            EntityMetadata target = getMetadata(entry.getKey());
+            Map<String, Object> entitiesById = new HashMap<>();
+            for (Object entity : listByIds(entry.getKey(), entry.getValue())) {
+                entitiesById.put(String.valueOf(target.getId(entity)), entity);
+            }
+            result.put(entry.getKey(), entitiesById);
+        }
+        return result;
+    }
+
+    /**
+     * 按ID所在分片拆分请求，各分片并行执行一次往返
+     */
+    @Override
+    public FetchResult fetchAll(FetchRequest request) {
+        Map<RedisOrmTemplate, FetchRequest> requests = new LinkedHashMap<>();
+        request.getIds().forEach((entityClass, ids) -> {
+            for (Object id : ids) {
+                requests.computeIfAbsent(getShard(id), k -> new FetchRequest()).add(entityClass, id);
+            }
+        });
+
+        List<Callable<FetchResult>> tasks = new ArrayList<>();
+        requests.forEach((shard, shardRequest) -> tasks.add(() -> shard.fetchAll(shardRequest)));
+        FetchResult result = new FetchResult();
+        for (FetchResult shardResult : fanOut(tasks)) {
+            shardResult.getEntities().forEach((entityClass, entitiesById) ->
+                    result.getEntities().computeIfAbsent(entityClass, k -> new HashMap<>()).putAll(entitiesById));
+        }
+        return result;
+    }
+
+    @Override
+    public <T> List<T> list(Class<T> entityClass) {
+        List<T> result = new ArrayList<>();
+        for (List<T> entities : fanOutAll(shard -> shard.list(entityClass))) {
+            result.addAll(entities);
+        }
+        return result;
+    }
+
+    @Override
+    protected <T> List<String> keys(Class<T> entityClass) {
+        List<String> result = new ArrayList<>();
+        for (List<String> keys : fanOutAll(shard -> shard.keys(entityClass))) {
+            result.addAll(keys);
+        }
+        return result;
+    }
+
+    @Override
+    protected <T> List<T> queryList(Class<T> entityClass, QueryWrapper<T> query, boolean applyLimit) {
+        List<T> result = new ArrayList<>();
+        for (List<T> entities : fanOutAll(shard -> shard.queryList(entityClass, query, applyLimit))) {
+            result.addAll(entities);
+        }
+
+        List<QueryWrapper.Order> orders = query.getOrders();
+        for (int i = orders.size() - 1; i >= 0; i--) {
+            sort(result, orders.get(i).getField(), orders.get(i).isAsc());
+        }
+        if (applyLimit && query.getLimit() > 0 && result.size() > query.getLimit()) {
+            result = new ArrayList<>(result.subList(0, query.getLimit()));
+        }
+        return result;
+    }
+
+    @Override
+    public <T> long countByQuery(Class<T> entityClass, QueryWrapper<T> query) {
+        long count = 0;
+        for (Long shardCount : fanOutAll(shard -> shard.countByQuery(entityClass, query))) {
+            count += shardCount;
+        }
+        return count;
+    }
+
+    @Override
+    public <T> QueryPlan explain(Class<T> entityClass, QueryWrapper<T> query) {
+        List<QueryPlan> plans = fanOutAll(shard -> shard.explain(entityClass, query));
+        Map<String, QueryPlan> shardPlans = new LinkedHashMap<>();
+        for (int i = 0; i < plans.size(); i++) {
+            shardPlans.put(String.valueOf(i), plans.get(i));
+        }
+        return new QueryPlan(shardPlans);
+    }
+
+    @Override
+    public void destroy() {
+        super.destroy();
+        for (RedisOrmTemplate shard : shards) {
+            shard.destroy();
+        }
+        executor.shutdown();
+        for (ReadRouter readRouter : readRouters) {
+            readRouter.destroy();
+        }
+        for (RedisTemplate<String, Object> template : shardTemplates) {
+            RedisConnectionFactory connectionFactory = template.getConnectionFactory();
+            if (connectionFactory instanceof DisposableBean) {
+                try {
+                    ((DisposableBean) connectionFactory).destroy();
+                } catch (Exception e) {
+                    log.warn("Failed to destroy shard connection factory", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * 合并各分片按字符串字段排好序的结果并截取前limit条，顺序与前缀索引一致：
+     * 忽略大小写时比较 {@code toLowerCase(Locale.ROOT)} 后的值，均按UTF-8字节比较
+     */
+    private <T> List<T> mergeSorted(List<List<T>> shardResults, String field, boolean ignoreCase, int limit) {
+        List<T> result = new ArrayList<>();
+        for (List<T> entities : shardResults) {
+            result.addAll(entities);
+        }
+
+        result.sort(Comparator.comparing(entity -> {
+            String value;
+            try {
+                value = (String) ReflectionUtils.getFieldValue(entity, field);
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to read field: " + field, e);
+            }
+            return value != null && ignoreCase ? value.toLowerCase(Locale.ROOT) : value;
+        }, Comparator.nullsLast(ShardedRedisOrmTemplate::compareLex)));
+        return limit > 0 && result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    @Override
+    protected <T> List<String> idsAfter(Class<T> entityClass, String afterId, long limit) {
+        // 各分片按相同的字典序返回，合并后取前limit个
+        List<String> ids = new ArrayList<>();
+        for (List<String> shardIds : fanOutAll(shard -> shard.idsAfter(entityClass, afterId, limit))) {
+            ids.addAll(shardIds);
+        }
+        ids.sort(ShardedRedisOrmTemplate::compareLex);
+        return ids.size() > limit ? new ArrayList<>(ids.subList(0, (int) limit)) : ids;
+    }
+
+    /**
+     * 与Redis相同的字典序：按UTF-8字节无符号比较
+     */
+    private static int compareLex(String a, String b) {
+        byte[] x = a.getBytes(StandardCharsets.UTF_8);
+        byte[] y = b.getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < Math.min(x.length, y.length); i++) {
+            int diff = (x[i] & 0xff) - (y[i] & 0xff);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return x.length - y.length;
+    }
+
+    /**
+     * 合并各分片按距离排好序的检索结果并截取前limit条
+     */
+    private <T> List<GeoResult<T>> mergeNearest(List<List<GeoResult<T>>> shardResults, int limit) {
+        List<GeoResult<T>> result = new ArrayList<>();
+        for (List<GeoResult<T>> results : shardResults) {
+            result.addAll(results);
+        }
+        result.sort(Comparator.comparingDouble(geoResult -> geoResult.getDistance().getNormalizedValue()));
+        return limit > 0 && result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    /**
+     * 按分片对ID分组，保持ID的原始顺序
+     */
+    private Map<Integer, List<Object>> groupByShard(Collection<?> ids) {
+        Map<Integer, List<Object>> result = new LinkedHashMap<>();
+        for (Object id : ids) {
+            result.computeIfAbsent(ring.get(String.valueOf(id)), k -> new ArrayList<>()).add(id);
+        }
+        return result;
+    }
+
+    /**
+     * 在所有分片上并行执行操作，结果顺序与分片顺序一致
+     */
+    private <R> List<R> fanOutAll(ShardCallback<R> callback) {
+        List<Callable<R>> tasks = new ArrayList<>();
+        for (RedisOrmTemplate shard : shards) {
+            tasks.add(() -> callback.doInShard(shard));
+        }
+        return fanOut(tasks);
+    }
+
+    /**
+     * 并行执行任务，结果顺序与任务顺序一致；打开了会话时在当前线程中依次执行，使写操作记录到会话中
+     */
+    private <R> List<R> fanOut(List<Callable<R>> tasks) {
+        if (tasks.size() == 1 || currentSession() != null) {
+            try {
+                List<R> results = new ArrayList<>();
+                for (Callable<R> task : tasks) {
+                    results.add(task.call());
+                }
+                return results;
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException("Shard operation failed", e);
+            }
+        }
+
+        try {
+            List<R> results = new ArrayList<>();
+            for (Future<R> future : executor.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for shard operations", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException("Shard operation failed", e.getCause());
+        }
+    }
+
+    /**
+     * 单个分片上的操作
+     */
+    @FunctionalInterface
+    private interface ShardCallback<R> {
+        R doInShard(RedisOrmTemplate shard) throws Exception;
+    }
+}
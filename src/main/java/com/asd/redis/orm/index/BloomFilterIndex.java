@@ -0,0 +1,136 @@
+package com.asd.redis.orm.index;
+
+import com.asd.redis.orm.core.EntityMetadata;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+/**
+ * 实体ID的布隆过滤器
+ * <p>
+ * 保存在Redis位图中，实体写入时设置ID对应的位。布隆过滤器不支持删除，删除和过期的实体由后台重建清除：
+ * 写入同时设置正在重建的位图（next），重建完成后用 RENAME 替换，重建期间的写入不会丢失。
+ * 位的偏移按 Redis 的位序（每个字节的最高位为偏移0），与 GETBIT/SETBIT 一致。
+ */
+public class BloomFilterIndex implements EntityIndex {
+
+    /**
+     * Redis位图的最大长度（512MB）
+     */
+    private static final long MAX_BITS = 1L << 32;
+
+    private final String keyName;
+    private final byte[] key;
+    private final String nextKeyName;
+    private final byte[] nextKey;
+    private final String readyKey;
+    private final String lockKey;
+    private final long bitSize;
+    private final int hashCount;
+
+    /**
+     * @param expectedInsertions 预计的实体数量
+     * @param falsePositiveRate  期望的误判率
+     */
+    public BloomFilterIndex(EntityMetadata metadata, long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Invalid bloom filter size of " + metadata.getEntityClass().getName()
+                    + ": expectedInsertions=" + expectedInsertions + ", falsePositiveRate=" + falsePositiveRate);
+        }
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bitSize = Math.min(MAX_BITS, Math.max(64, bits));
+        this.hashCount = Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * Math.log(2)));
+        this.keyName = metadata.getIndexKey("bloom");
+        this.key = raw(keyName);
+        this.nextKeyName = metadata.getIndexKey("bloom:next");
+        this.nextKey = raw(nextKeyName);
+        this.readyKey = metadata.getIndexKey("bloom:ready");
+        this.lockKey = metadata.getIndexKey("bloom:lock");
+    }
+
+    @Override
+    public String getStateKey() {
+        return null;
+    }
+
+    @Override
+    public void onSave(RedisConnection connection, String id, Object entity) {
+        for (long offset : offsets(id)) {
+            connection.setBit(key, offset, true);
+            connection.setBit(nextKey, offset, true);
+        }
+    }
+
+    @Override
+    public void onRemove(RedisConnection connection, String id) {
+        // 布隆过滤器不支持删除，由后台重建清除
+    }
+
+    /**
+     * ID对应的位偏移（双重哈希）
+     */
+    public long[] offsets(String id) {
+        long hash = hash(raw(id));
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32);
+        long[] offsets = new long[hashCount];
+        for (int i = 0; i < hashCount; i++) {
+            long combined = hash1 + (long) (i + 1) * hash2;
+            offsets[i] = (combined < 0 ? ~combined : combined) % bitSize;
+        }
+        return offsets;
+    }
+
+    /**
+     * FNV-1a 后做 MurmurHash3 的 fmix64 混淆
+     */
+    private static long hash(byte[] bytes) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    public String getKey() {
+        return keyName;
+    }
+
+    /**
+     * 正在重建的位图
+     */
+    public String getNextKey() {
+        return nextKeyName;
+    }
+
+    /**
+     * 位图已完整构建的标记，不存在时位图可能缺少已有实体，不能用于判断
+     */
+    public String getReadyKey() {
+        return readyKey;
+    }
+
+    /**
+     * 重建锁，同时限制集群内的重建频率
+     */
+    public String getLockKey() {
+        return lockKey;
+    }
+
+    public long getBitSize() {
+        return bitSize;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    private static byte[] raw(String value) {
+        return StringRedisSerializer.UTF_8.serialize(value);
+    }
+}
@@ -0,0 +1,145 @@
+package com.asd.redis.orm.index;
+
+import com.alibaba.fastjson.parser.ParserConfig;
+import com.alibaba.fastjson.util.TypeUtils;
+import com.asd.redis.orm.core.EntityAccessor;
+import com.asd.redis.orm.core.EntityMetadata;
+import com.asd.redis.orm.core.LuaScript;
+import com.asd.redis.orm.utils.ReflectionUtils;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+
+/**
+ * 计数器字段
+ * <p>
+ * 以实体ID为字段、计数值为值的哈希。保存实体时用字段值覆盖计数器，updateById 时用 {@link #onUpdate} 只在不存在时初始化，
+ * 递增时在脚本中先确认实体存在再 HINCRBY/HINCRBYFLOAT。哈希字段不能单独过期，声明计数器的实体不能过期。
+ */
+public class CounterField implements EntityIndex {
+
+    /**
+     * KEYS: 实体键（分桶存储时为桶键）, 计数器哈希；ARGV: ID, 增量, 是否浮点, 是否分桶存储
+     */
+    private static final LuaScript INCREMENT = new LuaScript(String.join("\n",
+            "local exists",
+            "if ARGV[4] == '1' then",
+            "  exists = redis.call('HEXISTS', KEYS[1], ARGV[1])",
+            "else",
+            "  exists = redis.call('EXISTS', KEYS[1])",
+            "end",
+            "if exists == 0 then return false end",
+            "if ARGV[3] == '1' then return redis.call('HINCRBYFLOAT', KEYS[2], ARGV[1], ARGV[2]) end",
+            "return redis.call('HINCRBY', KEYS[2], ARGV[1], ARGV[2])"));
+
+    private final EntityMetadata metadata;
+    private final Field field;
+    private final boolean floating;
+    private final String keyName;
+    private final byte[] key;
+
+    public CounterField(EntityMetadata metadata, Field field) {
+        Class<?> type = field.getType();
+        boolean integral = type == long.class || type == Long.class || type == int.class || type == Integer.class
+                || type == short.class || type == Short.class;
+        this.floating = type == double.class || type == Double.class || type == float.class || type == Float.class
+                || type == BigDecimal.class;
+        if (!integral && !floating) {
+            throw new IllegalStateException("@RedisCounter only supports numeric fields: "
+                    + metadata.getEntityClass().getName() + "." + field.getName());
+        }
+        this.metadata = metadata;
+        this.field = field;
+        this.keyName = metadata.getIndexKey("counter:" + field.getName());
+        this.key = raw(keyName);
+    }
+
+    @Override
+    public String getStateKey() {
+        return null;
+    }
+
+    @Override
+    public void onSave(RedisConnection connection, String id, Object entity) {
+        Object value = metadata.getFieldValue(entity, field.getName());
+        connection.hSet(key, raw(id), raw(format(value)));
+    }
+
+    /**
+     * 更新已存在的实体：计数器不存在时才用字段值初始化，保留并发递增的结果
+     */
+    public void onUpdate(RedisConnection connection, String id, Object entity) {
+        Object value = metadata.getFieldValue(entity, field.getName());
+        connection.hSetNX(key, raw(id), raw(format(value)));
+    }
+
+    @Override
+    public void onRemove(RedisConnection connection, String id) {
+        connection.hDel(key, raw(id));
+    }
+
+    /**
+     * 实体存在时原子递增
+     *
+     * @param entityKey 实体键，分桶存储时为桶键
+     * @return 递增后的值（Long 或 Double），实体不存在时返回null
+     */
+    public Number increment(RedisConnection connection, byte[] entityKey, String id, Number delta) {
+        byte[][] keysAndArgs = {entityKey, key, raw(id), raw(format(delta)), raw(floating ? "1" : "0"),
+                raw(metadata.isBucketed() ? "1" : "0")};
+        if (!floating) {
+            return INCREMENT.execute(connection, ReturnType.INTEGER, 2, keysAndArgs);
+        }
+        byte[] value = INCREMENT.execute(connection, ReturnType.VALUE, 2, keysAndArgs);
+        return value != null ? Double.valueOf(StringRedisSerializer.UTF_8.deserialize(value)) : null;
+    }
+
+    /**
+     * 把计数器的值写回实体字段
+     */
+    public void apply(Object entity, String value) {
+        Object converted = TypeUtils.cast(value, field.getType(), ParserConfig.getGlobalInstance());
+        EntityAccessor<Object> accessor = metadata.getAccessor();
+        if (accessor != null) {
+            accessor.setFieldValue(entity, field.getName(), converted);
+            return;
+        }
+        try {
+            ReflectionUtils.setFieldValue(entity, field, converted);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Failed to set counter field: " + field.getName(), e);
+        }
+    }
+
+    public String getKey() {
+        return keyName;
+    }
+
+    public String getFieldName() {
+        return field.getName();
+    }
+
+    /**
+     * 是否浮点计数器（HINCRBYFLOAT）
+     */
+    public boolean isFloating() {
+        return floating;
+    }
+
+    private String format(Object value) {
+        if (value == null) {
+            return "0";
+        }
+        if (floating) {
+            return new BigDecimal(value.toString()).toPlainString();
+        }
+        return String.valueOf(((Number) value).longValue());
+    }
+
+    private static byte[] raw(String value) {
+        return StringRedisSerializer.UTF_8.serialize(value);
+    }
+}
@@ -0,0 +1,49 @@
+package com.asd.redis.orm.index;
+
+import com.asd.redis.orm.core.LuaScript;
+import org.springframework.data.redis.connection.RedisConnection;
+
+/**
+ * 实体派生索引
+ * <p>
+ * 索引的更新和清理在调用方的管道或事务中执行。需要旧值才能清理的索引通过状态键（ID到索引值的哈希）保存旧值，
+ * 由服务端脚本原子地读取旧值并替换成员，同一ID的并发写入不会在索引中留下多余的成员。
+ */
+public interface EntityIndex {
+
+    /**
+     * 保存旧索引值的哈希键，不需要旧值或按ID分别保存旧值的索引返回null
+     */
+    String getStateKey();
+
+    /**
+     * 以实体ID为成员的ZSET键，用于对账时枚举索引中的ID，没有时返回null
+     */
+    default String getIdSetKey() {
+        return null;
+    }
+
+    /**
+     * 更新索引使用的脚本，调用方在同一个管道或事务中先加载，没有时返回null
+     */
+    default LuaScript getScript() {
+        return null;
+    }
+
+    /**
+     * 实体写入后更新索引
+     *
+     * @param connection 当前连接
+     * @param id         实体ID
+     * @param entity     实体对象
+     */
+    void onSave(RedisConnection connection, String id, Object entity);
+
+    /**
+     * 实体删除或过期后清理索引
+     *
+     * @param connection 当前连接
+     * @param id         实体ID
+     */
+    void onRemove(RedisConnection connection, String id);
+}
@@ -0,0 +1,106 @@
+package com.asd.redis.orm.index;
+
+import com.asd.redis.orm.core.EntityMetadata;
+import com.asd.redis.orm.core.LuaScript;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * 等值索引
+ * <p>
+ * 每个字段值对应一个ID集合，状态键保存每个ID当前的索引值，空值使用单独的集合，支持按空值查询。
+ */
+public class EqualIndex implements EntityIndex {
+
+    /**
+     * 原子地把ID从旧值的集合移到新值的集合
+     * <p>
+     * KEYS: 状态键；ARGV: ID, 集合键前缀, 新的索引值（删除时省略）。
+     * 旧值的集合键只能在脚本中由状态键里的旧值拼出，无法预先声明，与其他多键脚本一样要求索引的键位于同一个节点
+     */
+    private static final LuaScript SWAP = new LuaScript(String.join("\n",
+            "local old = redis.call('HGET', KEYS[1], ARGV[1])",
+            "if old and old == ARGV[3] then return 0 end",
+            "if old then redis.call('SREM', ARGV[2] .. old, ARGV[1]) end",
+            "if ARGV[3] then",
+            "  redis.call('SADD', ARGV[2] .. ARGV[3], ARGV[1])",
+            "  redis.call('HSET', KEYS[1], ARGV[1], ARGV[3])",
+            "else",
+            "  redis.call('HDEL', KEYS[1], ARGV[1])",
+            "end",
+            "return 1"));
+
+    /**
+     * 空值在索引中的编码
+     */
+    private static final String NULL = "\0null";
+
+    private final EntityMetadata metadata;
+    private final Field field;
+    private final String keyPrefix;
+    private final String stateKey;
+
+    public EqualIndex(EntityMetadata metadata, Field field) {
+        this.metadata = metadata;
+        this.field = field;
+        this.keyPrefix = metadata.getIndexKey("eq:" + field.getName() + ":");
+        this.stateKey = metadata.getIndexKey("eq-rev:" + field.getName());
+    }
+
+    @Override
+    public String getStateKey() {
+        return stateKey;
+    }
+
+    @Override
+    public LuaScript getScript() {
+        return SWAP;
+    }
+
+    @Override
+    public void onSave(RedisConnection connection, String id, Object entity) {
+        String value = encode(metadata.getFieldValue(entity, field.getName()));
+        SWAP.execute(connection, ReturnType.INTEGER, 1, raw(stateKey), raw(id), raw(keyPrefix), raw(value));
+    }
+
+    @Override
+    public void onRemove(RedisConnection connection, String id) {
+        SWAP.execute(connection, ReturnType.INTEGER, 1, raw(stateKey), raw(id), raw(keyPrefix));
+    }
+
+    /**
+     * 字段值对应的ID集合键
+     */
+    public String getKey(Object value) {
+        return keyPrefix + encode(value);
+    }
+
+    /**
+     * 索引值编码，数值按大小归一（1、1L、1.0编码相同），NaN 和正负无穷编码为 NaN、Infinity、-Infinity，
+     * 枚举取名称，日期取毫秒数
+     */
+    static String encode(Object value) {
+        if (value == null) {
+            return NULL;
+        } else if ((value instanceof Double || value instanceof Float)
+                && !Double.isFinite(((Number) value).doubleValue())) {
+            return String.valueOf(((Number) value).doubleValue());
+        } else if (value instanceof Number) {
+            return new BigDecimal(value.toString()).stripTrailingZeros().toPlainString();
+        } else if (value instanceof Enum) {
+            return ((Enum<?>) value).name();
+        } else if (value instanceof Date) {
+            return String.valueOf(((Date) value).getTime());
+        }
+        return value.toString();
+    }
+
+    private static byte[] raw(String value) {
+        return StringRedisSerializer.UTF_8.serialize(value);
+    }
+}
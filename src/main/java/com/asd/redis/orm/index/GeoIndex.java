@@ -0,0 +1,142 @@
+package com.asd.redis.orm.index;
+
+import com.asd.redis.orm.annotation.RedisGeo;
+import com.asd.redis.orm.core.EntityMetadata;
+import com.asd.redis.orm.core.LuaScript;
+import com.asd.redis.orm.utils.ReflectionUtils;
+import org.springframework.data.geo.*;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisGeoCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * GEO索引，成员为实体ID
+ */
+public class GeoIndex implements EntityIndex {
+
+    /**
+     * 矩形检索使用 GEOSEARCH（Redis 6.2+），当前客户端未提供对应命令，通过脚本调用
+     */
+    private static final LuaScript SEARCH_BY_BOX = new LuaScript(
+            "return redis.call('GEOSEARCH', KEYS[1], 'FROMLONLAT', ARGV[1], ARGV[2], "
+                    + "'BYBOX', ARGV[3], ARGV[4], ARGV[5], 'ASC', 'COUNT', ARGV[6], 'WITHDIST')");
+
+    private final Field longitudeField;
+    private final Field latitudeField;
+    private final String keyName;
+    private final byte[] key;
+
+    public GeoIndex(EntityMetadata metadata, RedisGeo geo) {
+        this.longitudeField = findField(metadata, geo.longitude());
+        this.latitudeField = findField(metadata, geo.latitude());
+        this.keyName = metadata.getIndexKey("geo");
+        this.key = raw(keyName);
+    }
+
+    @Override
+    public String getStateKey() {
+        return null;
+    }
+
+    @Override
+    public String getIdSetKey() {
+        return keyName;
+    }
+
+    @Override
+    public void onSave(RedisConnection connection, String id, Object entity) {
+        Number longitude = getValue(entity, longitudeField);
+        Number latitude = getValue(entity, latitudeField);
+        if (longitude != null && latitude != null) {
+            connection.geoAdd(key, new Point(longitude.doubleValue(), latitude.doubleValue()), raw(id));
+        } else {
+            connection.zRem(key, raw(id));
+        }
+    }
+
+    @Override
+    public void onRemove(RedisConnection connection, String id) {
+        connection.zRem(key, raw(id));
+    }
+
+    /**
+     * 圆形范围检索，按距离升序返回ID和距离
+     */
+    public List<GeoResult<String>> radius(RedisConnection connection, double longitude, double latitude,
+                                          Distance radius, int limit) {
+        RedisGeoCommands.GeoRadiusCommandArgs args = RedisGeoCommands.GeoRadiusCommandArgs.newGeoRadiusArgs()
+                .includeDistance()
+                .sortAscending();
+        if (limit > 0) {
+            args = args.limit(limit);
+        }
+
+        GeoResults<RedisGeoCommands.GeoLocation<byte[]>> results = connection.geoRadius(key,
+                new Circle(new Point(longitude, latitude), radius), args);
+
+        List<GeoResult<String>> ids = new ArrayList<>();
+        if (results != null) {
+            for (GeoResult<RedisGeoCommands.GeoLocation<byte[]>> result : results) {
+                ids.add(new GeoResult<>(StringRedisSerializer.UTF_8.deserialize(result.getContent().getName()),
+                        result.getDistance()));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * 矩形范围检索，按距离升序返回ID和距离
+     *
+     * @param width  矩形宽度（东西方向）
+     * @param height 矩形高度（南北方向）
+     * @param metric 宽高及返回距离的单位
+     */
+    public List<GeoResult<String>> box(RedisConnection connection, double longitude, double latitude,
+                                       double width, double height, Metric metric, int limit) {
+        List<Object> results = SEARCH_BY_BOX.execute(connection, ReturnType.MULTI, 1, key,
+                raw(String.valueOf(longitude)), raw(String.valueOf(latitude)),
+                raw(String.valueOf(width)), raw(String.valueOf(height)), raw(metric.getAbbreviation()),
+                raw(String.valueOf(limit > 0 ? limit : Integer.MAX_VALUE)));
+
+        List<GeoResult<String>> ids = new ArrayList<>();
+        if (results != null) {
+            for (Object item : results) {
+                List<?> pair = (List<?>) item;
+                String id = StringRedisSerializer.UTF_8.deserialize((byte[]) pair.get(0));
+                double distance = Double.parseDouble(StringRedisSerializer.UTF_8.deserialize((byte[]) pair.get(1)));
+                ids.add(new GeoResult<>(id, new Distance(distance, metric)));
+            }
+        }
+        return ids;
+    }
+
+    private static Field findField(EntityMetadata metadata, String name) {
+        for (Field field : ReflectionUtils.getAllFields(metadata.getEntityClass())) {
+            if (field.getName().equals(name)) {
+                if (!Number.class.isAssignableFrom(field.getType()) && !field.getType().isPrimitive()) {
+                    throw new IllegalStateException("Geo field must be numeric: "
+                            + metadata.getEntityClass().getName() + "." + name);
+                }
+                return field;
+            }
+        }
+        throw new IllegalStateException("Geo field '" + name + "' not found in " + metadata.getEntityClass().getName());
+    }
+
+    private static Number getValue(Object entity, Field field) {
+        try {
+            return (Number) ReflectionUtils.getFieldValue(entity, field);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Failed to read field: " + field.getName(), e);
+        }
+    }
+
+    private static byte[] raw(String value) {
+        return StringRedisSerializer.UTF_8.serialize(value);
+    }
+}
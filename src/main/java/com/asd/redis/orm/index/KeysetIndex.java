@@ -0,0 +1,49 @@
+package com.asd.redis.orm.index;
+
+import com.asd.redis.orm.core.EntityMetadata;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+/**
+ * 游标分页索引
+ * <p>
+ * 分值都为0、成员为实体ID的ZSET，按ID的字典序排列，通过 ZRANGEBYLEX 从上一页的最后一个ID继续读取。
+ */
+public class KeysetIndex implements EntityIndex {
+
+    private final String keyName;
+    private final byte[] key;
+
+    public KeysetIndex(EntityMetadata metadata) {
+        this.keyName = metadata.getIndexKey("ids");
+        this.key = raw(keyName);
+    }
+
+    @Override
+    public String getStateKey() {
+        return null;
+    }
+
+    @Override
+    public String getIdSetKey() {
+        return keyName;
+    }
+
+    @Override
+    public void onSave(RedisConnection connection, String id, Object entity) {
+        connection.zAdd(key, 0, raw(id));
+    }
+
+    @Override
+    public void onRemove(RedisConnection connection, String id) {
+        connection.zRem(key, raw(id));
+    }
+
+    public String getKey() {
+        return keyName;
+    }
+
+    private static byte[] raw(String value) {
+        return StringRedisSerializer.UTF_8.serialize(value);
+    }
+}
@@ -0,0 +1,193 @@
+package com.asd.redis.orm.index;
+
+import com.asd.redis.orm.core.EntityMetadata;
+import com.asd.redis.orm.core.LuaScript;
+import com.asd.redis.orm.utils.ReflectionUtils;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisZSetCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 字典序前缀索引
+ * <p>
+ * 使用分值全为0的ZSET，成员为 "值\0ID"，通过 ZRANGEBYLEX 只读取匹配的区间。
+ * 同时维护一份小写化的ZSET用于忽略大小写的前缀查询。
+ */
+public class PrefixIndex implements EntityIndex {
+
+    /**
+     * 原子地替换ID在两个ZSET中的成员
+     * <p>
+     * KEYS: 状态键, 索引键, 小写索引键；ARGV: ID, 新的状态值, 新值, 新值的小写形式（值为空或删除时只有ID）。
+     * 状态值的格式见 {@link #state(String, String)}
+     */
+    private static final LuaScript SWAP = new LuaScript(String.join("\n",
+            "local old = redis.call('HGET', KEYS[1], ARGV[1])",
+            "if old and old == ARGV[2] then return 0 end",
+            "if old then",
+            "  local value, lower",
+            "  if string.byte(old, 1) == 0 then",
+            "    local separator = string.find(old, '\\0', 2, true)",
+            "    local length = tonumber(string.sub(old, 2, separator - 1))",
+            "    value = string.sub(old, separator + 1, separator + length)",
+            "    lower = string.sub(old, separator + length + 1)",
+            "  else",
+            "    value, lower = old, string.lower(old)",
+            "  end",
+            "  redis.call('ZREM', KEYS[2], value .. '\\0' .. ARGV[1])",
+            "  redis.call('ZREM', KEYS[3], lower .. '\\0' .. ARGV[1])",
+            "end",
+            "if ARGV[2] then",
+            "  redis.call('ZADD', KEYS[2], 0, ARGV[3] .. '\\0' .. ARGV[1])",
+            "  redis.call('ZADD', KEYS[3], 0, ARGV[4] .. '\\0' .. ARGV[1])",
+            "  redis.call('HSET', KEYS[1], ARGV[1], ARGV[2])",
+            "else",
+            "  redis.call('HDEL', KEYS[1], ARGV[1])",
+            "end",
+            "return 1"));
+
+    private static final char SEPARATOR = '\0';
+
+    private final Field field;
+    private final byte[] key;
+    private final byte[] ignoreCaseKey;
+    private final String stateKey;
+
+    public PrefixIndex(EntityMetadata metadata, Field field) {
+        if (field.getType() != String.class) {
+            throw new IllegalStateException("Prefix index only supports String fields: "
+                    + metadata.getEntityClass().getName() + "." + field.getName());
+        }
+        this.field = field;
+        this.key = raw(metadata.getIndexKey("prefix:" + field.getName()));
+        this.ignoreCaseKey = raw(metadata.getIndexKey("prefix-ci:" + field.getName()));
+        this.stateKey = metadata.getIndexKey("prefix-rev:" + field.getName());
+    }
+
+    @Override
+    public String getStateKey() {
+        return stateKey;
+    }
+
+    @Override
+    public LuaScript getScript() {
+        return SWAP;
+    }
+
+    @Override
+    public void onSave(RedisConnection connection, String id, Object entity) {
+        String value = getValue(entity);
+        if (value == null) {
+            onRemove(connection, id);
+            return;
+        }
+        String lower = value.toLowerCase(Locale.ROOT);
+        SWAP.execute(connection, ReturnType.INTEGER, 3, raw(stateKey), key, ignoreCaseKey, raw(id),
+                raw(state(value, lower)), raw(value), raw(lower));
+    }
+
+    @Override
+    public void onRemove(RedisConnection connection, String id) {
+        SWAP.execute(connection, ReturnType.INTEGER, 3, raw(stateKey), key, ignoreCaseKey, raw(id));
+    }
+
+    /**
+     * 查询以指定前缀开头的实体ID，按字段值排序
+     */
+    public List<String> startsWith(RedisConnection connection, String prefix, boolean ignoreCase, int limit) {
+        String normalized = ignoreCase ? prefix.toLowerCase(Locale.ROOT) : prefix;
+        return range(connection, ignoreCase ? ignoreCaseKey : key, normalized, successor(normalized), limit);
+    }
+
+    /**
+     * 查询字段值在 [from, to) 范围内的实体ID，按字段值排序
+     *
+     * @param from 下界（包含），为null表示无下界
+     * @param to   上界（不包含），为null表示无上界
+     */
+    public List<String> between(RedisConnection connection, String from, String to, int limit) {
+        return range(connection, key, from, to, limit);
+    }
+
+    private List<String> range(RedisConnection connection, byte[] indexKey, String from, String to, int limit) {
+        RedisZSetCommands.Range range = RedisZSetCommands.Range.range();
+        if (from != null && !from.isEmpty()) {
+            range = range.gte(from);
+        }
+        if (to != null) {
+            range = range.lt(to);
+        }
+        RedisZSetCommands.Limit redisLimit = limit > 0
+                ? RedisZSetCommands.Limit.limit().count(limit) : RedisZSetCommands.Limit.unlimited();
+
+        Set<byte[]> members = connection.zRangeByLex(indexKey, range, redisLimit);
+        List<String> ids = new ArrayList<>();
+        if (members != null) {
+            for (byte[] member : members) {
+                String value = StringRedisSerializer.UTF_8.deserialize(member);
+                ids.add(value.substring(value.lastIndexOf(SEPARATOR) + 1));
+            }
+        }
+        return ids;
+    }
+
+    private String getValue(Object entity) {
+        try {
+            return (String) ReflectionUtils.getFieldValue(entity, field);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Failed to read field: " + field.getName(), e);
+        }
+    }
+
+    /**
+     * 字典序上紧邻所有以prefix开头的字符串之后的字符串，prefix为空时返回null（无上界）
+     */
+    private static String successor(String prefix) {
+        StringBuilder builder = new StringBuilder(prefix);
+        while (builder.length() > 0) {
+            int last = builder.length() - 1;
+            char c = builder.charAt(last);
+            if (c != Character.MAX_VALUE) {
+                builder.setCharAt(last, (char) (c + 1));
+                return builder.toString();
+            }
+            builder.setLength(last);
+        }
+        return null;
+    }
+
+    /**
+     * 状态键中保存的值
+     * <p>
+     * 脚本中的 string.lower 只转换 ASCII 字母，小写形式与之相同时直接保存字段值，
+     * 否则保存 "\0字段值的UTF-8字节数\0字段值小写形式"，脚本据此找到小写ZSET中的旧成员
+     */
+    private static String state(String value, String lower) {
+        if ((value.isEmpty() || value.charAt(0) != '\0') && lower.equals(asciiLowerCase(value))) {
+            return value;
+        }
+        return "\0" + value.getBytes(StandardCharsets.UTF_8).length + "\0" + value + lower;
+    }
+
+    private static String asciiLowerCase(String value) {
+        char[] chars = value.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            if (chars[i] >= 'A' && chars[i] <= 'Z') {
+                chars[i] = (char) (chars[i] + ('a' - 'A'));
+            }
+        }
+        return new String(chars);
+    }
+
+    private static byte[] raw(String value) {
+        return StringRedisSerializer.UTF_8.serialize(value);
+    }
+}
@@ -0,0 +1,82 @@
+package com.asd.redis.orm.index;
+
+import com.asd.redis.orm.core.EntityMetadata;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.lang.reflect.Field;
+import java.util.Date;
+
+/**
+ * 数值范围索引
+ * <p>
+ * 以字段值为分值、实体ID为成员的ZSET，空值不进入索引。
+ */
+public class RangeIndex implements EntityIndex {
+
+    private final EntityMetadata metadata;
+    private final Field field;
+    private final String keyName;
+    private final byte[] key;
+
+    public RangeIndex(EntityMetadata metadata, Field field) {
+        Class<?> type = field.getType();
+        boolean numeric = Number.class.isAssignableFrom(type)
+                || (type.isPrimitive() && type != boolean.class && type != char.class);
+        if (!numeric && !Date.class.isAssignableFrom(type)) {
+            throw new IllegalStateException("Range index only supports numeric and date fields: "
+                    + metadata.getEntityClass().getName() + "." + field.getName());
+        }
+        this.metadata = metadata;
+        this.field = field;
+        this.keyName = metadata.getIndexKey("range:" + field.getName());
+        this.key = raw(keyName);
+    }
+
+    @Override
+    public String getStateKey() {
+        return null;
+    }
+
+    @Override
+    public String getIdSetKey() {
+        return keyName;
+    }
+
+    @Override
+    public void onSave(RedisConnection connection, String id, Object entity) {
+        Object value = metadata.getFieldValue(entity, field.getName());
+        if (value != null) {
+            connection.zAdd(key, score(value), raw(id));
+        } else {
+            connection.zRem(key, raw(id));
+        }
+    }
+
+    @Override
+    public void onRemove(RedisConnection connection, String id) {
+        connection.zRem(key, raw(id));
+    }
+
+    public String getKey() {
+        return keyName;
+    }
+
+    /**
+     * 字段值对应的分值
+     *
+     * @throws IllegalArgumentException 值不是数值或日期
+     */
+    public static double score(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        } else if (value instanceof Date) {
+            return ((Date) value).getTime();
+        }
+        throw new IllegalArgumentException("Range index value must be numeric or date: " + value);
+    }
+
+    private static byte[] raw(String value) {
+        return StringRedisSerializer.UTF_8.serialize(value);
+    }
+}
@@ -0,0 +1,200 @@
+package com.asd.redis.orm.index;
+
+import com.asd.redis.orm.core.EntityMetadata;
+import com.asd.redis.orm.core.LuaScript;
+import com.asd.redis.orm.utils.ReflectionUtils;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.lang.reflect.Field;
+import java.time.*;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 时间序列索引
+ * <p>
+ * 按时间字段把实体ID写入时间桶（每个桶一个以毫秒时间戳为分值的ZSET，键为 ts:{桶起始毫秒}），
+ * 范围查询只读取与范围重叠的桶。桶在结束时间加保留时间后过期。每个ID当前的时间戳单独保存在 ts-rev:{ID} 中，
+ * 与所在的桶同时过期，时间字段修改时据此从旧桶移除。
+ */
+public class TimeSeriesIndex implements EntityIndex {
+
+    /**
+     * 原子地把ID从旧时间戳所在的桶移到新的桶
+     * <p>
+     * KEYS: ID的状态键, 新时间戳所在的桶（时间为空或删除时省略）；ARGV: ID, 桶键前缀, 桶跨度, 新时间戳, 桶的过期时间（毫秒时间戳，小于等于0表示不过期）
+     */
+    private static final LuaScript SWAP = new LuaScript(String.join("\n",
+            "local old = redis.call('GET', KEYS[1])",
+            "if old and old == ARGV[4] then return 0 end",
+            "if old then",
+            "  local span = tonumber(ARGV[3])",
+            "  local start = math.floor(tonumber(old) / span) * span",
+            "  redis.call('ZREM', ARGV[2] .. string.format('%.0f', start), ARGV[1])",
+            "end",
+            "if KEYS[2] then",
+            "  redis.call('ZADD', KEYS[2], ARGV[4], ARGV[1])",
+            "  redis.call('SET', KEYS[1], ARGV[4])",
+            "  if tonumber(ARGV[5]) > 0 then",
+            "    redis.call('PEXPIREAT', KEYS[2], ARGV[5])",
+            "    redis.call('PEXPIREAT', KEYS[1], ARGV[5])",
+            "  end",
+            "else",
+            "  redis.call('DEL', KEYS[1])",
+            "end",
+            "return 1"));
+
+    /**
+     * 一次范围查询最多访问的桶数量
+     */
+    private static final long MAX_BUCKETS = 100_000;
+
+    private final EntityMetadata metadata;
+    private final Field field;
+    private final long bucketMillis;
+    private final long retentionMillis;
+    private final String keyPrefix;
+    private final String statePrefix;
+
+    /**
+     * @param bucketSeconds    每个桶的时间跨度（秒）
+     * @param retentionSeconds 桶结束后保留的时间（秒），小于等于0表示桶不过期
+     */
+    public TimeSeriesIndex(EntityMetadata metadata, String fieldName, long bucketSeconds, long retentionSeconds) {
+        this.field = findField(metadata, fieldName);
+        if (bucketSeconds <= 0) {
+            throw new IllegalStateException("Time bucket must be positive: " + metadata.getEntityClass().getName());
+        }
+        this.metadata = metadata;
+        this.bucketMillis = bucketSeconds * 1000;
+        this.retentionMillis = retentionSeconds > 0 ? retentionSeconds * 1000 : -1;
+        this.keyPrefix = metadata.getIndexKey("ts:");
+        this.statePrefix = metadata.getIndexKey("ts-rev:");
+    }
+
+    /**
+     * 旧时间戳按ID分别保存，不使用共享的状态哈希；对账时遍历 {@link #getBucketPattern()} 匹配的桶
+     */
+    @Override
+    public String getStateKey() {
+        return null;
+    }
+
+    @Override
+    public LuaScript getScript() {
+        return SWAP;
+    }
+
+    @Override
+    public void onSave(RedisConnection connection, String id, Object entity) {
+        Long timestamp = getTimestamp(entity);
+        if (timestamp == null) {
+            onRemove(connection, id);
+            return;
+        }
+        long expireAt = retentionMillis > 0 ? bucketStart(timestamp) + bucketMillis + retentionMillis : -1;
+        SWAP.execute(connection, ReturnType.INTEGER, 2, raw(statePrefix + id), raw(getBucketKey(timestamp)), raw(id),
+                raw(keyPrefix), raw(String.valueOf(bucketMillis)), raw(String.valueOf(timestamp)),
+                raw(String.valueOf(expireAt)));
+    }
+
+    @Override
+    public void onRemove(RedisConnection connection, String id) {
+        SWAP.execute(connection, ReturnType.INTEGER, 1, raw(statePrefix + id), raw(id), raw(keyPrefix),
+                raw(String.valueOf(bucketMillis)));
+    }
+
+    /**
+     * 实体的时间戳（毫秒），时间字段为空时返回null
+     */
+    public Long getTimestamp(Object entity) {
+        return toMillis(metadata.getFieldValue(entity, field.getName()));
+    }
+
+    /**
+     * 与时间范围重叠的桶，按时间升序
+     *
+     * @throws IllegalArgumentException 范围覆盖的桶过多
+     */
+    public List<String> getBucketKeys(long from, long to) {
+        List<String> keys = new ArrayList<>();
+        if (from > to) {
+            return keys;
+        }
+        long first = bucketStart(from);
+        long last = bucketStart(to);
+        if ((last - first) / bucketMillis + 1 > MAX_BUCKETS) {
+            throw new IllegalArgumentException("Time range covers more than " + MAX_BUCKETS + " buckets of "
+                    + metadata.getEntityClass().getName());
+        }
+        for (long start = first; start <= last; start += bucketMillis) {
+            keys.add(keyPrefix + start);
+        }
+        return keys;
+    }
+
+    public String getBucketKey(long timestamp) {
+        return keyPrefix + bucketStart(timestamp);
+    }
+
+    /**
+     * 匹配所有时间桶的键模式
+     */
+    public String getBucketPattern() {
+        return keyPrefix + "*";
+    }
+
+    public long getBucketMillis() {
+        return bucketMillis;
+    }
+
+    private long bucketStart(long timestamp) {
+        return Math.floorDiv(timestamp, bucketMillis) * bucketMillis;
+    }
+
+    /**
+     * 时间值转换为毫秒时间戳，数值视为毫秒，LocalDateTime 按系统时区
+     */
+    public static Long toMillis(Object value) {
+        if (value == null) {
+            return null;
+        } else if (value instanceof Number) {
+            return ((Number) value).longValue();
+        } else if (value instanceof Date) {
+            return ((Date) value).getTime();
+        } else if (value instanceof Instant) {
+            return ((Instant) value).toEpochMilli();
+        } else if (value instanceof LocalDateTime) {
+            return ((LocalDateTime) value).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } else if (value instanceof OffsetDateTime) {
+            return ((OffsetDateTime) value).toInstant().toEpochMilli();
+        } else if (value instanceof ZonedDateTime) {
+            return ((ZonedDateTime) value).toInstant().toEpochMilli();
+        }
+        throw new IllegalArgumentException("Unsupported time value: " + value);
+    }
+
+    private static Field findField(EntityMetadata metadata, String name) {
+        for (Field field : ReflectionUtils.getAllFields(metadata.getEntityClass())) {
+            if (field.getName().equals(name)) {
+                Class<?> type = field.getType();
+                boolean integral = type == long.class || type == Long.class || type == int.class
+                        || type == Integer.class;
+                if (!integral && !Date.class.isAssignableFrom(type) && type != Instant.class
+                        && type != LocalDateTime.class && type != OffsetDateTime.class && type != ZonedDateTime.class) {
+                    throw new IllegalStateException("Time field must be an epoch millis number or a date/time: "
+                            + metadata.getEntityClass().getName() + "." + name);
+                }
+                return field;
+            }
+        }
+        throw new IllegalStateException("Time field not found: " + metadata.getEntityClass().getName() + "." + name);
+    }
+
+    private static byte[] raw(String value) {
+        return StringRedisSerializer.UTF_8.serialize(value);
+    }
+}
@@ -1,6 +1,12 @@
 package com.asd.redis.orm.mapper;
 
 import com.asd.redis.orm.model.Page;
+import com.asd.redis.orm.model.TimeSeriesPoint;
+import com.asd.redis.orm.query.QueryPlan;
+import com.asd.redis.orm.query.QueryWrapper;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.GeoResult;
+import org.springframework.data.geo.Metric;
 
 import java.io.Serializable;
 import java.util.Collection;
@@ -42,6 +48,31 @@ public interface BaseMapper<T> {
      */
     boolean deleteBatchIds(Collection<? extends Serializable> idList);
 
+    /**
+     * 根据条件删除（SCAN 或索引分批查找，UNLINK 分批删除）
+     *
+     * @param condition 条件对象，非空字段作为等值条件，不能为空；删除所有实体使用 {@link #deleteAll()}
+     * @return 删除的实体数量
+     * @throws IllegalArgumentException 条件为空或没有非空字段
+     */
+    long deleteByCondition(T condition);
+
+    /**
+     * 按查询构造器删除（SCAN 或索引分批查找，UNLINK 分批删除）
+     *
+     * @param query 查询构造器，至少包含一个条件，排序和limit不生效
+     * @return 删除的实体数量
+     * @throws IllegalArgumentException 没有任何条件
+     */
+    long delete(QueryWrapper<T> query);
+
+    /**
+     * 删除所有实体（SCAN 分批查找，UNLINK 分批删除）
+     *
+     * @return 删除的实体数量
+     */
+    long deleteAll();
+
     /**
      * 根据 ID 修改
      *
@@ -50,6 +81,26 @@ public interface BaseMapper<T> {
      */
     boolean updateById(T entity);
 
+    /**
+     * 原子递增整数计数器字段
+     *
+     * @param id    主键ID
+     * @param field 声明了 @RedisCounter 的整数字段
+     * @param delta 增量，可以为负数
+     * @return 递增后的值，实体不存在时返回null
+     */
+    Long increment(Serializable id, String field, long delta);
+
+    /**
+     * 原子递增浮点计数器字段
+     *
+     * @param id    主键ID
+     * @param field 声明了 @RedisCounter 的浮点字段
+     * @param delta 增量，可以为负数
+     * @return 递增后的值，实体不存在时返回null
+     */
+    Double increment(Serializable id, String field, double delta);
+
     /**
      * 根据ID 批量更新
      *
@@ -137,4 +188,183 @@ public interface BaseMapper<T> {
      * @return 分页结果
      */
     Page<T> selectPageByCondition(T condition, long current, long size, String orderBy, boolean isAsc);
+
+    /**
+     * 游标分页，按ID顺序读取，实体需声明 @RedisEntity(keyset = true)
+     *
+     * @param cursor 上一页返回的 nextCursor，为null表示第一页
+     * @param size   每页显示条数
+     * @return 分页对象，nextCursor为null表示没有下一页
+     */
+    Page<T> selectPageAfter(String cursor, long size);
+
+    /**
+     * 根据条件对象游标分页，按ID顺序读取，实体需声明 @RedisEntity(keyset = true)
+     *
+     * @param condition 条件对象，非空字段将作为查询条件
+     * @param cursor    上一页返回的 nextCursor，为null表示第一页
+     * @param size      每页显示条数
+     * @return 分页对象，匹配的实体稀少时可能不满一页甚至为空，nextCursor为null表示没有下一页
+     */
+    Page<T> selectPageByConditionAfter(T condition, String cursor, long size);
+
+    /**
+     * 前缀查询，字段需声明前缀索引
+     *
+     * @param field  字段名
+     * @param prefix 前缀
+     * @param limit  最大返回数量，小于等于0表示不限制
+     * @return 按字段值排序的实体集合
+     */
+    List<T> selectByPrefix(String field, String prefix, int limit);
+
+    /**
+     * 忽略大小写的前缀查询，字段需声明前缀索引
+     *
+     * @param field  字段名
+     * @param prefix 前缀
+     * @param limit  最大返回数量，小于等于0表示不限制
+     * @return 按字段值排序的实体集合
+     */
+    List<T> selectByPrefixIgnoreCase(String field, String prefix, int limit);
+
+    /**
+     * 字符串范围查询，查询字段值在 [from, to) 之间的记录，字段需声明前缀索引
+     *
+     * @param field 字段名
+     * @param from  下界（包含），为null表示无下界
+     * @param to    上界（不包含），为null表示无上界
+     * @param limit 最大返回数量，小于等于0表示不限制
+     * @return 按字段值排序的实体集合
+     */
+    List<T> selectByRange(String field, String from, String to, int limit);
+
+    /**
+     * 时间范围查询，实体需声明 @RedisEntity(timeField = ...)，只读取与范围重叠的时间桶
+     *
+     * @param from 起始时间（毫秒时间戳，包含）
+     * @param to   结束时间（毫秒时间戳，包含）
+     * @return 按时间升序的实体集合
+     */
+    List<T> selectRange(long from, long to);
+
+    /**
+     * 时间范围降采样聚合，实体需声明 @RedisEntity(timeField = ...)
+     *
+     * @param from        起始时间（毫秒时间戳，包含）
+     * @param to          结束时间（毫秒时间戳，包含）
+     * @param interval    窗口跨度（毫秒）
+     * @param field       聚合的数值字段，COUNT 时忽略
+     * @param aggregation 聚合方式
+     * @return 按时间升序的窗口
+     */
+    List<TimeSeriesPoint> selectAggregate(long from, long to, long interval, String field,
+                                          TimeSeriesPoint.Aggregation aggregation);
+
+    /**
+     * 圆形范围检索，实体需声明 @RedisGeo
+     *
+     * @param longitude 中心点经度
+     * @param latitude  中心点纬度
+     * @param radius    半径
+     * @param limit     最大返回数量，小于等于0表示不限制
+     * @return 按距离由近到远排序的实体及距离
+     */
+    List<GeoResult<T>> selectByRadius(double longitude, double latitude, Distance radius, int limit);
+
+    /**
+     * 矩形范围检索（需要 Redis 6.2+），实体需声明 @RedisGeo
+     *
+     * @param longitude 中心点经度
+     * @param latitude  中心点纬度
+     * @param width     矩形宽度（东西方向）
+     * @param height    矩形高度（南北方向）
+     * @param metric    宽高及返回距离的单位
+     * @param limit     最大返回数量，小于等于0表示不限制
+     * @return 按距离由近到远排序的实体及距离
+     */
+    List<GeoResult<T>> selectByBox(double longitude, double latitude, double width, double height,
+                                   Metric metric, int limit);
+
+    /**
+     * 根据 ID 查询，并批量加载关联实体
+     *
+     * @param id   主键ID
+     * @param refs 需要加载的 @RedisRef 字段名
+     * @return 实体
+     */
+    T selectById(Serializable id, String... refs);
+
+    /**
+     * 查询（根据ID 批量查询），并批量加载关联实体
+     *
+     * @param idList 主键ID列表
+     * @param refs   需要加载的 @RedisRef 字段名
+     * @return 实体集合
+     */
+    List<T> selectBatchIds(Collection<? extends Serializable> idList, String... refs);
+
+    /**
+     * 分页查询，并批量加载当前页记录的关联实体
+     *
+     * @param current 当前页
+     * @param size    每页显示条数
+     * @param refs    需要加载的 @RedisRef 字段名
+     * @return 分页对象
+     */
+    Page<T> selectPage(long current, long size, String... refs);
+
+    /**
+     * 根据条件对象查询列表，并批量加载关联实体
+     *
+     * @param condition 条件对象，非空字段将作为查询条件
+     * @param refs      需要加载的 @RedisRef 字段名
+     * @return 实体集合
+     */
+    List<T> selectByCondition(T condition, String... refs);
+
+    /**
+     * 根据条件对象查询分页，并批量加载当前页记录的关联实体
+     *
+     * @param condition 条件对象，非空字段将作为查询条件
+     * @param current   当前页
+     * @param size      每页显示条数
+     * @param refs      需要加载的 @RedisRef 字段名
+     * @return 分页对象
+     */
+    Page<T> selectPageByCondition(T condition, long current, long size, String... refs);
+
+    /**
+     * 按查询构造器查询列表，条件使用等值索引和范围索引时只获取命中的实体
+     *
+     * @param query 查询构造器
+     * @return 实体集合
+     */
+    List<T> selectList(QueryWrapper<T> query);
+
+    /**
+     * 按查询构造器查询总记录数
+     *
+     * @param query 查询构造器，排序和limit不生效
+     * @return 总记录数
+     */
+    long selectCount(QueryWrapper<T> query);
+
+    /**
+     * 按查询构造器分页查询
+     *
+     * @param query   查询构造器，limit不生效
+     * @param current 当前页
+     * @param size    每页显示条数
+     * @return 分页对象
+     */
+    Page<T> selectPage(QueryWrapper<T> query, long current, long size);
+
+    /**
+     * 查看查询构造器的执行计划
+     *
+     * @param query 查询构造器
+     * @return 执行计划
+     */
+    QueryPlan explain(QueryWrapper<T> query);
 }
\ No newline at end of file
@@ -9,6 +9,11 @@ import org.springframework.beans.factory.annotation.Autowired;
  */
 public class BaseMapperFactoryBean<T> implements FactoryBean<T> {
 
+    /**
+     * 生成的Mapper实现类名后缀
+     */
+    public static final String GENERATED_SUFFIX = "_RedisImpl";
+
     private Class<T> mapperInterface;
 
     @Autowired
@@ -21,8 +26,16 @@ public class BaseMapperFactoryBean<T> implements FactoryBean<T> {
     @Override
     @SuppressWarnings("unchecked")
     public T getObject() throws Exception {
-        BaseMapperProxy<T> mapperProxy = new BaseMapperProxy<>(redisOrmTemplate, mapperInterface);
-        return mapperProxy.getProxy();
+        // 优先使用注解处理器生成的实现，没有时使用动态代理
+        Class<?> generated;
+        try {
+            generated = Class.forName(mapperInterface.getName() + GENERATED_SUFFIX, true,
+                    mapperInterface.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            BaseMapperProxy<T> mapperProxy = new BaseMapperProxy<>(redisOrmTemplate, mapperInterface);
+            return mapperProxy.getProxy();
+        }
+        return (T) generated.getConstructor(RedisOrmTemplate.class).newInstance(redisOrmTemplate);
     }
 
     @Override
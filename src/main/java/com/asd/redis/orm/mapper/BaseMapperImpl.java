@@ -3,9 +3,16 @@ package com.asd.redis.orm.mapper;
 import com.asd.redis.orm.annotation.RedisMapper;
 import com.asd.redis.orm.core.RedisOrmTemplate;
 import com.asd.redis.orm.model.Page;
+import com.asd.redis.orm.model.TimeSeriesPoint;
+import com.asd.redis.orm.query.QueryPlan;
+import com.asd.redis.orm.query.QueryWrapper;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.GeoResult;
+import org.springframework.data.geo.Metric;
 
 import java.io.Serializable;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -26,6 +33,8 @@ public class BaseMapperImpl<T> implements BaseMapper<T> {
         }
 
         this.entityClass = (Class<T>) annotation.entity();
+        // 注册实体元数据，过期清理等功能据此识别键所属的实体
+        redisOrmTemplate.getMetadata(entityClass);
     }
 
     @Override
@@ -48,11 +57,36 @@ public class BaseMapperImpl<T> implements BaseMapper<T> {
         return redisOrmTemplate.removeByIds(entityClass, idList);
     }
 
+    @Override
+    public long deleteByCondition(T condition) {
+        return redisOrmTemplate.deleteByCondition(entityClass, condition);
+    }
+
+    @Override
+    public long delete(QueryWrapper<T> query) {
+        return redisOrmTemplate.deleteByQuery(entityClass, query);
+    }
+
+    @Override
+    public long deleteAll() {
+        return redisOrmTemplate.deleteAll(entityClass);
+    }
+
     @Override
     public boolean updateById(T entity) {
         return redisOrmTemplate.updateById(entity);
     }
 
+    @Override
+    public Long increment(Serializable id, String field, long delta) {
+        return redisOrmTemplate.increment(entityClass, id, field, delta);
+    }
+
+    @Override
+    public Double increment(Serializable id, String field, double delta) {
+        return redisOrmTemplate.increment(entityClass, id, field, delta);
+    }
+
     @Override
     public boolean updateBatchById(Collection<T> entityList) {
         return redisOrmTemplate.updateBatchById(entityList);
@@ -119,6 +153,16 @@ public class BaseMapperImpl<T> implements BaseMapper<T> {
         return redisOrmTemplate.pageByCondition(entityClass, condition, current, size, orderBy, isAsc);
     }
 
+    @Override
+    public Page<T> selectPageAfter(String cursor, long size) {
+        return redisOrmTemplate.pageAfter(entityClass, cursor, size);
+    }
+
+    @Override
+    public Page<T> selectPageByConditionAfter(T condition, String cursor, long size) {
+        return redisOrmTemplate.pageByConditionAfter(entityClass, condition, cursor, size);
+    }
+
     @Override
     public long selectCountByCondition(T condition) {
         // 实现根据条件的计数查询
@@ -129,4 +173,94 @@ public class BaseMapperImpl<T> implements BaseMapper<T> {
         // 使用条件进行计数查询
         return redisOrmTemplate.countByCondition(entityClass, condition);
     }
+
+    @Override
+    public List<T> selectByPrefix(String field, String prefix, int limit) {
+        return redisOrmTemplate.listByPrefix(entityClass, field, prefix, limit);
+    }
+
+    @Override
+    public List<T> selectByPrefixIgnoreCase(String field, String prefix, int limit) {
+        return redisOrmTemplate.listByPrefixIgnoreCase(entityClass, field, prefix, limit);
+    }
+
+    @Override
+    public List<T> selectByRange(String field, String from, String to, int limit) {
+        return redisOrmTemplate.listByRange(entityClass, field, from, to, limit);
+    }
+
+    @Override
+    public List<T> selectRange(long from, long to) {
+        return redisOrmTemplate.listByTimeRange(entityClass, from, to);
+    }
+
+    @Override
+    public List<TimeSeriesPoint> selectAggregate(long from, long to, long interval, String field,
+                                                 TimeSeriesPoint.Aggregation aggregation) {
+        return redisOrmTemplate.aggregateByTimeRange(entityClass, from, to, interval, field, aggregation);
+    }
+
+    @Override
+    public List<GeoResult<T>> selectByRadius(double longitude, double latitude, Distance radius, int limit) {
+        return redisOrmTemplate.listByRadius(entityClass, longitude, latitude, radius, limit);
+    }
+
+    @Override
+    public List<GeoResult<T>> selectByBox(double longitude, double latitude, double width, double height,
+                                          Metric metric, int limit) {
+        return redisOrmTemplate.listByBox(entityClass, longitude, latitude, width, height, metric, limit);
+    }
+
+    @Override
+    public T selectById(Serializable id, String... refs) {
+        T entity = selectById(id);
+        if (entity != null) {
+            redisOrmTemplate.fetchRefs(entityClass, Collections.singletonList(entity), refs);
+        }
+        return entity;
+    }
+
+    @Override
+    public List<T> selectBatchIds(Collection<? extends Serializable> idList, String... refs) {
+        return redisOrmTemplate.fetchRefs(entityClass, selectBatchIds(idList), refs);
+    }
+
+    @Override
+    public Page<T> selectPage(long current, long size, String... refs) {
+        Page<T> page = selectPage(current, size);
+        redisOrmTemplate.fetchRefs(entityClass, page.getRecords(), refs);
+        return page;
+    }
+
+    @Override
+    public List<T> selectByCondition(T condition, String... refs) {
+        return redisOrmTemplate.fetchRefs(entityClass, selectByCondition(condition), refs);
+    }
+
+    @Override
+    public Page<T> selectPageByCondition(T condition, long current, long size, String... refs) {
+        Page<T> page = selectPageByCondition(condition, current, size);
+        redisOrmTemplate.fetchRefs(entityClass, page.getRecords(), refs);
+        return page;
+    }
+
+    @Override
+    public List<T> selectList(QueryWrapper<T> query) {
+        return redisOrmTemplate.listByQuery(entityClass, query);
+    }
+
+    @Override
+    public long selectCount(QueryWrapper<T> query) {
+        return redisOrmTemplate.countByQuery(entityClass, query);
+    }
+
+    @Override
+    public Page<T> selectPage(QueryWrapper<T> query, long current, long size) {
+        return redisOrmTemplate.pageByQuery(entityClass, query, current, size);
+    }
+
+    @Override
+    public QueryPlan explain(QueryWrapper<T> query) {
+        return redisOrmTemplate.explain(entityClass, query);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,96 @@
+package com.asd.redis.orm.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 一种实体类型的采样统计
+ * <p>
+ * 值大小来自扫描到的每个键（STRLEN），内存来自部分键的 MEMORY USAGE，总内存按平均值乘以估算的键数量得到。
+ */
+@Data
+public class EntityStatistics {
+
+    /**
+     * 实体类名
+     */
+    private String entityClass;
+
+    /**
+     * 实体键前缀
+     */
+    private String prefix;
+
+    /**
+     * 是否分桶存储，分桶时实体键为桶的键，不统计单个实体的值大小
+     */
+    private boolean bucketed;
+
+    /**
+     * 估算的实体键数量
+     */
+    private long keyCount;
+
+    /**
+     * 估算的实体数量，不分桶时与键数量相同
+     */
+    private long entityCount;
+
+    /**
+     * 执行了 MEMORY USAGE 的实体键数量
+     */
+    private long sampledKeys;
+
+    /**
+     * 实体键的平均内存（字节）
+     */
+    private long averageMemory;
+
+    /**
+     * 估算的实体键总内存（字节）
+     */
+    private long totalMemory;
+
+    /**
+     * 值大小（字节）的百分位，不分桶时有效
+     */
+    private long valueSizeP50;
+    private long valueSizeP90;
+    private long valueSizeP99;
+    private long valueSizeMax;
+
+    /**
+     * 估算的索引等派生结构的键数量
+     */
+    private long indexKeyCount;
+
+    /**
+     * 估算的派生结构总内存（字节）
+     */
+    private long indexMemory;
+
+    /**
+     * 扫描到的最大的键，不分桶时按值大小、分桶时按桶中的实体数量排列
+     */
+    private List<KeySize> largestKeys;
+
+    /**
+     * 一个键的大小
+     */
+    @Data
+    public static class KeySize {
+
+        private String key;
+
+        /**
+         * 值大小（字节），分桶时为桶中的实体数量
+         */
+        private long size;
+
+        /**
+         * MEMORY USAGE 的结果，未采样时为null
+         */
+        private Long memory;
+    }
+}
@@ -0,0 +1,46 @@
+package com.asd.redis.orm.model;
+
+import lombok.Data;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 多种类型实体的批量获取请求
+ * <pre>
+ * FetchResult result = redisOrmTemplate.fetchAll(FetchRequest.of(User.class, userId)
+ *         .add(Settings.class, userId)
+ *         .add(Cart.class, cartId));
+ * </pre>
+ */
+@Data
+public class FetchRequest {
+
+    /**
+     * 实体类型到请求的ID
+     */
+    private Map<Class<?>, Set<Object>> ids = new LinkedHashMap<>();
+
+    public static FetchRequest of(Class<?> entityClass, Object id) {
+        return new FetchRequest().add(entityClass, id);
+    }
+
+    /**
+     * 添加一个实体
+     */
+    public FetchRequest add(Class<?> entityClass, Object id) {
+        ids.computeIfAbsent(entityClass, k -> new LinkedHashSet<>()).add(id);
+        return this;
+    }
+
+    /**
+     * 添加同一类型的多个实体
+     */
+    public FetchRequest addAll(Class<?> entityClass, Collection<?> entityIds) {
+        ids.computeIfAbsent(entityClass, k -> new LinkedHashSet<>()).addAll(entityIds);
+        return this;
+    }
+}
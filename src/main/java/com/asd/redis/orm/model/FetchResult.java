@@ -0,0 +1,43 @@
+package com.asd.redis.orm.model;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 多种类型实体的批量获取结果，不存在的实体不包含在结果中
+ */
+@Data
+public class FetchResult {
+
+    /**
+     * 实体类型到（ID到实体）的映射
+     */
+    private Map<Class<?>, Map<String, Object>> entities = new HashMap<>();
+
+    /**
+     * 获取实体，不存在时返回null
+     */
+    public <T> T get(Class<T> entityClass, Object id) {
+        return entityClass.cast(entities.getOrDefault(entityClass, Collections.emptyMap()).get(String.valueOf(id)));
+    }
+
+    /**
+     * 获取某种类型的所有实体
+     */
+    public <T> List<T> getAll(Class<T> entityClass) {
+        List<T> result = new ArrayList<>();
+        for (Object entity : entities.getOrDefault(entityClass, Collections.emptyMap()).values()) {
+            result.add(entityClass.cast(entity));
+        }
+        return result;
+    }
+
+    public boolean contains(Class<?> entityClass, Object id) {
+        return entities.getOrDefault(entityClass, Collections.emptyMap()).containsKey(String.valueOf(id));
+    }
+}
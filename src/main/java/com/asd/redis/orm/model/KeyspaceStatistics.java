@@ -0,0 +1,37 @@
+package com.asd.redis.orm.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 按实体类型采样的键空间统计
+ */
+@Data
+public class KeyspaceStatistics {
+
+    /**
+     * 所有节点的键总数（DBSIZE）
+     */
+    private long totalKeys;
+
+    /**
+     * 实际扫描的键数量
+     */
+    private long scannedKeys;
+
+    /**
+     * 扫描到的不属于任何已注册实体的键数量
+     */
+    private long otherKeys;
+
+    /**
+     * 是否扫描了所有节点的全部键，为false时数量和内存都是按扫描比例估算的
+     */
+    private boolean complete;
+
+    /**
+     * 各实体类型的统计，按估算内存从大到小排列
+     */
+    private List<EntityStatistics> entities;
+}
@@ -38,6 +38,11 @@ public class Page<T> implements Serializable {
      */
     private List<T> records = new ArrayList<>();
 
+    /**
+     * 下一页的游标，仅游标分页返回，为null表示没有下一页
+     */
+    private String nextCursor;
+
     public Page() {
         this.current = 1;
         this.size = 10;
@@ -49,7 +54,7 @@ public class Page<T> implements Serializable {
     }
 
     public boolean hasNext() {
-        return this.current < this.pages;
+        return this.nextCursor != null || this.current < this.pages;
     }
 
     public boolean hasPrevious() {
@@ -0,0 +1,55 @@
+package com.asd.redis.orm.model;
+
+import lombok.Data;
+
+/**
+ * 时间序列降采样的一个时间窗口
+ */
+@Data
+public class TimeSeriesPoint {
+
+    /**
+     * 窗口起始时间（毫秒时间戳），按窗口跨度对齐
+     */
+    private long timestamp;
+
+    /**
+     * 参与聚合的实体数量（聚合字段为空的实体不计入）
+     */
+    private long count;
+
+    /**
+     * 聚合值，COUNT 时与 count 相同；其他聚合在窗口内没有实体时为null
+     */
+    private Double value;
+
+    /**
+     * 聚合方式
+     */
+    public enum Aggregation {
+        /**
+         * 实体数量，只统计时间桶，不读取实体
+         */
+        COUNT,
+
+        /**
+         * 字段值之和
+         */
+        SUM,
+
+        /**
+         * 字段值的平均值
+         */
+        AVG,
+
+        /**
+         * 字段的最小值
+         */
+        MIN,
+
+        /**
+         * 字段的最大值
+         */
+        MAX
+    }
+}
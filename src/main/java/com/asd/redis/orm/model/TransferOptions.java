@@ -0,0 +1,57 @@
+package com.asd.redis.orm.model;
+
+import lombok.Data;
+
+/**
+ * 批量导出/导入选项
+ */
+@Data
+public class TransferOptions {
+
+    /**
+     * 文件格式
+     */
+    private Format format = Format.NDJSON;
+
+    /**
+     * 每批读取或写入的实体数量
+     */
+    private int batchSize = 1000;
+
+    /**
+     * 并行处理批次的线程数
+     */
+    private int parallelism = 1;
+
+    /**
+     * 进度回调，每处理完一批调用一次，可以为null
+     */
+    private ProgressListener progressListener;
+
+    /**
+     * 文件格式
+     */
+    public enum Format {
+        /**
+         * 每行一个实体的JSON
+         */
+        NDJSON,
+
+        /**
+         * 文件头之后是长度前缀的序列化值
+         */
+        BINARY
+    }
+
+    /**
+     * 进度回调
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+
+        /**
+         * @param processed 已处理的实体总数
+         */
+        void onProgress(long processed);
+    }
+}
@@ -0,0 +1,163 @@
+package com.asd.redis.orm.query;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * 查询条件
+ */
+public class Condition {
+
+    private final String field;
+    private final Operator operator;
+    private final List<Object> values;
+
+    public Condition(String field, Operator operator, Object... values) {
+        this.field = field;
+        this.operator = operator;
+        this.values = Collections.unmodifiableList(Arrays.asList(values));
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public Operator getOperator() {
+        return operator;
+    }
+
+    public List<Object> getValues() {
+        return values;
+    }
+
+    /**
+     * 判断字段值是否满足条件，数值按大小比较（1、1L、1.0相等）
+     */
+    public boolean matches(Object actual) {
+        switch (operator) {
+            case EQ:
+                return equal(actual, values.get(0));
+            case NE:
+                return !equal(actual, values.get(0));
+            case IN:
+                for (Object value : values) {
+                    if (equal(actual, value)) {
+                        return true;
+                    }
+                }
+                return false;
+            case GT:
+                return ordered(actual, values.get(0)) && compare(actual, values.get(0)) > 0;
+            case LT:
+                return ordered(actual, values.get(0)) && compare(actual, values.get(0)) < 0;
+            case BETWEEN:
+                return ordered(actual, values.get(0)) && ordered(actual, values.get(1))
+                        && compare(actual, values.get(0)) >= 0 && compare(actual, values.get(1)) <= 0;
+            case IS_NULL:
+                return actual == null;
+            default:
+                throw new IllegalStateException("Unsupported operator: " + operator);
+        }
+    }
+
+    static boolean equal(Object a, Object b) {
+        if (a == null || b == null) {
+            return a == b;
+        }
+        if (a instanceof Number && b instanceof Number) {
+            // 与 Double.equals 一致，NaN 只等于 NaN
+            if (isNaN(a) || isNaN(b)) {
+                return isNaN(a) && isNaN(b);
+            }
+            return compare(a, b) == 0;
+        }
+        if (a instanceof Enum || b instanceof Enum) {
+            return a.toString().equals(b.toString());
+        }
+        return a.equals(b);
+    }
+
+    /**
+     * 比较两个非空值，数值按大小比较，其余可比较类型使用自然顺序，否则比较字符串形式
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static int compare(Object a, Object b) {
+        if (a instanceof Number && b instanceof Number) {
+            return compareNumbers((Number) a, (Number) b);
+        }
+        if (a instanceof Date && b instanceof Date) {
+            return Long.compare(((Date) a).getTime(), ((Date) b).getTime());
+        }
+        if (a instanceof Comparable && a.getClass().isInstance(b)) {
+            return ((Comparable) a).compareTo(b);
+        }
+        return a.toString().compareTo(b.toString());
+    }
+
+    /**
+     * 数值按大小比较；NaN 和正负无穷没有十进制形式，按双精度比较，无穷大于（小于）任何有限值
+     */
+    private static int compareNumbers(Number a, Number b) {
+        boolean finiteA = isFinite(a);
+        boolean finiteB = isFinite(b);
+        if (finiteA && finiteB) {
+            return new BigDecimal(a.toString()).compareTo(new BigDecimal(b.toString()));
+        }
+        if (isNaN(a) || isNaN(b)) {
+            return Double.compare(a.doubleValue(), b.doubleValue());
+        }
+        return Double.compare(finiteA ? 0 : a.doubleValue(), finiteB ? 0 : b.doubleValue());
+    }
+
+    /**
+     * 两个值都非空且都不是 NaN 时才有大小关系，否则范围条件不成立
+     */
+    private static boolean ordered(Object actual, Object value) {
+        return actual != null && value != null && !isNaN(actual) && !isNaN(value);
+    }
+
+    private static boolean isNaN(Object value) {
+        return (value instanceof Double || value instanceof Float) && Double.isNaN(((Number) value).doubleValue());
+    }
+
+    private static boolean isFinite(Number value) {
+        return !(value instanceof Double || value instanceof Float) || Double.isFinite(value.doubleValue());
+    }
+
+    @Override
+    public String toString() {
+        switch (operator) {
+            case IN:
+                return field + " IN " + values;
+            case BETWEEN:
+                return field + " BETWEEN " + values.get(0) + " AND " + values.get(1);
+            case IS_NULL:
+                return field + " IS NULL";
+            default:
+                return field + " " + operator.getSymbol() + " " + values.get(0);
+        }
+    }
+
+    /**
+     * 条件运算符
+     */
+    public enum Operator {
+        EQ("="),
+        NE("<>"),
+        IN("IN"),
+        GT(">"),
+        LT("<"),
+        BETWEEN("BETWEEN"),
+        IS_NULL("IS NULL");
+
+        private final String symbol;
+
+        Operator(String symbol) {
+            this.symbol = symbol;
+        }
+
+        public String getSymbol() {
+            return symbol;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.asd.redis.orm.query;
+
+import java.util.*;
+
+/**
+ * 查询执行计划，用于查看查询走了哪些索引、哪些条件在内存中过滤
+ */
+public class QueryPlan {
+
+    private final Access access;
+    private final List<String> steps;
+    private final List<Condition> filters;
+    private final List<QueryWrapper.Order> orders;
+    private final int limit;
+    private final boolean limitPushedDown;
+    private final Map<String, QueryPlan> shards;
+
+    public QueryPlan(Access access, List<String> steps, List<Condition> filters, List<QueryWrapper.Order> orders,
+                     int limit, boolean limitPushedDown) {
+        this.access = access;
+        this.steps = Collections.unmodifiableList(new ArrayList<>(steps));
+        this.filters = Collections.unmodifiableList(new ArrayList<>(filters));
+        this.orders = Collections.unmodifiableList(new ArrayList<>(orders));
+        this.limit = limit;
+        this.limitPushedDown = limitPushedDown;
+        this.shards = Collections.emptyMap();
+    }
+
+    /**
+     * 分片模式下的执行计划，包含各分片的计划
+     */
+    public QueryPlan(Map<String, QueryPlan> shards) {
+        this.access = Access.SHARDED;
+        this.steps = Collections.emptyList();
+        this.filters = Collections.emptyList();
+        this.orders = Collections.emptyList();
+        this.limit = 0;
+        this.limitPushedDown = false;
+        this.shards = Collections.unmodifiableMap(new LinkedHashMap<>(shards));
+    }
+
+    public Access getAccess() {
+        return access;
+    }
+
+    /**
+     * 索引访问步骤，第一个为驱动索引，其余在服务端对驱动结果求交集
+     */
+    public List<String> getSteps() {
+        return steps;
+    }
+
+    /**
+     * 获取实体后在内存中过滤的条件
+     */
+    public List<Condition> getFilters() {
+        return filters;
+    }
+
+    public List<QueryWrapper.Order> getOrders() {
+        return orders;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * 是否在服务端截断结果
+     */
+    public boolean isLimitPushedDown() {
+        return limitPushedDown;
+    }
+
+    public Map<String, QueryPlan> getShards() {
+        return shards;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        if (access == Access.SHARDED) {
+            for (Map.Entry<String, QueryPlan> entry : shards.entrySet()) {
+                builder.append("shard ").append(entry.getKey()).append(":\n");
+                for (String line : entry.getValue().toString().split("\n")) {
+                    builder.append("  ").append(line).append('\n');
+                }
+            }
+            return builder.toString().trim();
+        }
+
+        builder.append(access);
+        for (String step : steps) {
+            builder.append("\n  ").append(step);
+        }
+        if (!filters.isEmpty()) {
+            builder.append("\nFILTER ").append(filters);
+        }
+        if (!orders.isEmpty()) {
+            builder.append("\nSORT ").append(orders);
+        }
+        if (limit > 0) {
+            builder.append("\nLIMIT ").append(limit).append(limitPushedDown ? " (server side)" : "");
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 访问方式
+     */
+    public enum Access {
+        /**
+         * 通过索引获取候选ID
+         */
+        INDEX,
+
+        /**
+         * 遍历实体类型的所有键
+         */
+        SCAN,
+
+        /**
+         * 索引估算结果为空，不访问实体
+         */
+        EMPTY,
+
+        /**
+         * 分片模式，见各分片的计划
+         */
+        SHARDED
+    }
+}
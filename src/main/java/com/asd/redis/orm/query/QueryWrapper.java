@@ -0,0 +1,162 @@
+package com.asd.redis.orm.query;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 条件查询构造器，多个条件之间为AND关系
+ * <pre>
+ * QueryWrapper&lt;User&gt; query = new QueryWrapper&lt;User&gt;()
+ *         .eq("status", "active")
+ *         .between("age", 18, 30)
+ *         .orderBy("age", true)
+ *         .limit(20);
+ * </pre>
+ */
+public class QueryWrapper<T> {
+
+    private final List<Condition> conditions = new ArrayList<>();
+    private final List<Order> orders = new ArrayList<>();
+    private int limit;
+
+    /**
+     * 等于
+     */
+    public QueryWrapper<T> eq(String field, Object value) {
+        if (value == null) {
+            return isNull(field);
+        }
+        conditions.add(new Condition(field, Condition.Operator.EQ, value));
+        return this;
+    }
+
+    /**
+     * 不等于，字段为空也满足
+     */
+    public QueryWrapper<T> ne(String field, Object value) {
+        conditions.add(new Condition(field, Condition.Operator.NE, value));
+        return this;
+    }
+
+    /**
+     * 等于其中任意一个值
+     */
+    public QueryWrapper<T> in(String field, Collection<?> values) {
+        if (values == null || values.isEmpty()) {
+            throw new IllegalArgumentException("IN values must not be empty");
+        }
+        conditions.add(new Condition(field, Condition.Operator.IN, values.toArray()));
+        return this;
+    }
+
+    /**
+     * 大于
+     */
+    public QueryWrapper<T> gt(String field, Object value) {
+        conditions.add(new Condition(field, Condition.Operator.GT, requireValue(value)));
+        return this;
+    }
+
+    /**
+     * 小于
+     */
+    public QueryWrapper<T> lt(String field, Object value) {
+        conditions.add(new Condition(field, Condition.Operator.LT, requireValue(value)));
+        return this;
+    }
+
+    /**
+     * 在闭区间 [from, to] 内
+     */
+    public QueryWrapper<T> between(String field, Object from, Object to) {
+        conditions.add(new Condition(field, Condition.Operator.BETWEEN, requireValue(from), requireValue(to)));
+        return this;
+    }
+
+    /**
+     * 为空
+     */
+    public QueryWrapper<T> isNull(String field) {
+        conditions.add(new Condition(field, Condition.Operator.IS_NULL));
+        return this;
+    }
+
+    /**
+     * 排序，可多次调用按多个字段排序
+     */
+    public QueryWrapper<T> orderBy(String field, boolean isAsc) {
+        orders.add(new Order(field, isAsc));
+        return this;
+    }
+
+    /**
+     * 最多返回的记录数，0表示不限制
+     */
+    public QueryWrapper<T> limit(int limit) {
+        this.limit = Math.max(0, limit);
+        return this;
+    }
+
+    public List<Condition> getConditions() {
+        return Collections.unmodifiableList(conditions);
+    }
+
+    public List<Order> getOrders() {
+        return Collections.unmodifiableList(orders);
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    private static Object requireValue(Object value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Comparison value must not be null");
+        }
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (Condition condition : conditions) {
+            builder.append(builder.length() == 0 ? "WHERE " : " AND ").append(condition);
+        }
+        for (int i = 0; i < orders.size(); i++) {
+            builder.append(i == 0 ? " ORDER BY " : ", ").append(orders.get(i));
+        }
+        if (limit > 0) {
+            builder.append(" LIMIT ").append(limit);
+        }
+        return builder.toString().trim();
+    }
+
+    /**
+     * 排序字段
+     */
+    public static class Order {
+
+        private final String field;
+        private final boolean asc;
+
+        public Order(String field, boolean asc) {
+            this.field = field;
+            this.asc = asc;
+        }
+
+        public String getField() {
+            return field;
+        }
+
+        public boolean isAsc() {
+            return asc;
+        }
+
+        @Override
+        public String toString() {
+            return field + (asc ? " ASC" : " DESC");
+        }
+    }
+}
@@ -7,8 +7,12 @@ import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.beans.factory.support.GenericBeanDefinition;
 import org.springframework.context.annotation.ClassPathBeanDefinitionScanner;
 import org.springframework.core.type.filter.TypeFilter;
+import org.springframework.util.ClassUtils;
 
+import java.beans.Introspector;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.Set;
 
 /**
@@ -18,6 +22,11 @@ public class ClassPathRedisMapperScanner extends ClassPathBeanDefinitionScanner
 
     private Class<?> markerInterface;
 
+    /**
+     * 按索引注册的Mapper数量
+     */
+    private int indexedCount;
+
     public ClassPathRedisMapperScanner(BeanDefinitionRegistry registry) {
         super(registry, false);
     }
@@ -56,7 +65,7 @@ public class ClassPathRedisMapperScanner extends ClassPathBeanDefinitionScanner
     protected Set<BeanDefinitionHolder> doScan(String... basePackages) {
         Set<BeanDefinitionHolder> beanDefinitions = super.doScan(basePackages);
 
-        if (beanDefinitions.isEmpty()) {
+        if (beanDefinitions.isEmpty() && indexedCount == 0) {
             logger.warn("No Redis Mapper was found in '" + Arrays.toString(basePackages) + "' package. Please check your configuration.");
         } else {
             processBeanDefinitions(beanDefinitions);
@@ -65,6 +74,28 @@ public class ClassPathRedisMapperScanner extends ClassPathBeanDefinitionScanner
         return beanDefinitions;
     }
 
+    /**
+     * 注册索引文件中列出的Mapper，之后的类路径扫描跳过已注册的Mapper
+     *
+     * @param mapperClassNames Mapper接口类名
+     */
+    public Set<BeanDefinitionHolder> registerMappers(Collection<String> mapperClassNames) {
+        Set<BeanDefinitionHolder> beanDefinitions = new LinkedHashSet<>();
+        for (String mapperClassName : mapperClassNames) {
+            GenericBeanDefinition definition = new GenericBeanDefinition();
+            definition.setBeanClassName(mapperClassName);
+            String beanName = Introspector.decapitalize(ClassUtils.getShortName(mapperClassName));
+            if (getRegistry().containsBeanDefinition(beanName)) {
+                continue;
+            }
+            getRegistry().registerBeanDefinition(beanName, definition);
+            beanDefinitions.add(new BeanDefinitionHolder(definition, beanName));
+        }
+        processBeanDefinitions(beanDefinitions);
+        indexedCount += beanDefinitions.size();
+        return beanDefinitions;
+    }
+
     private void processBeanDefinitions(Set<BeanDefinitionHolder> beanDefinitions) {
         GenericBeanDefinition definition;
 
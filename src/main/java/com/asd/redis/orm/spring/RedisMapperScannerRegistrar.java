@@ -12,9 +12,12 @@ import org.springframework.core.type.filter.AnnotationTypeFilter;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.StringUtils;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
 import java.util.stream.Collectors;
 
 /**
@@ -22,6 +25,11 @@ import java.util.stream.Collectors;
  */
 public class RedisMapperScannerRegistrar implements ImportBeanDefinitionRegistrar, ResourceLoaderAware {
 
+    /**
+     * 注解处理器生成的Mapper索引文件
+     */
+    public static final String MAPPER_INDEX = "META-INF/redis-orm/mappers";
+
     private ResourceLoader resourceLoader;
 
     @Override
@@ -68,7 +76,54 @@ public class RedisMapperScannerRegistrar implements ImportBeanDefinitionRegistra
             basePackages.add(ClassUtils.getPackageName(annoAttrs.getClass("value")));
         }
 
+        // 先注册注解处理器生成的Mapper索引中的Mapper，再扫描类路径补充索引之外的Mapper：
+        // 索引只包含使用了注解处理器编译的Mapper，其他模块或jar中的Mapper不在索引中，已注册的Mapper扫描时跳过
+        List<String> indexedMappers = loadMapperIndex(basePackages);
+        if (indexedMappers != null) {
+            scanner.registerMappers(indexedMappers);
+        }
+
         scanner.registerFilters();
         scanner.doScan(StringUtils.toStringArray(basePackages));
     }
+
+    /**
+     * 读取Mapper索引中位于扫描包下且存在的Mapper，索引中没有这些包的Mapper时返回null
+     */
+    private List<String> loadMapperIndex(List<String> basePackages) {
+        ClassLoader classLoader = resourceLoader != null ? resourceLoader.getClassLoader() : null;
+        if (classLoader == null) {
+            classLoader = ClassUtils.getDefaultClassLoader();
+        }
+
+        Set<String> mappers = new LinkedHashSet<>();
+        try {
+            Enumeration<URL> resources = classLoader.getResources(MAPPER_INDEX);
+            while (resources.hasMoreElements()) {
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                        resources.nextElement().openStream(), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        line = line.trim();
+                        if (!line.isEmpty() && inPackages(line, basePackages)
+                                && ClassUtils.isPresent(line, classLoader)) {
+                            mappers.add(line);
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read " + MAPPER_INDEX, e);
+        }
+        return mappers.isEmpty() ? null : new ArrayList<>(mappers);
+    }
+
+    private static boolean inPackages(String className, List<String> basePackages) {
+        for (String basePackage : basePackages) {
+            if (className.startsWith(basePackage + ".")) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,61 @@
+package com.asd.redis.orm.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * 一致性哈希环（Ketama算法）
+ */
+public class ConsistentHash<T> {
+
+    private final TreeMap<Long, T> ring = new TreeMap<>();
+
+    /**
+     * @param nodes        节点名称到节点的映射，节点名称决定其在环上的位置
+     * @param virtualNodes 每个节点的虚拟节点数
+     */
+    public ConsistentHash(Map<String, T> nodes, int virtualNodes) {
+        if (nodes == null || nodes.isEmpty()) {
+            throw new IllegalArgumentException("At least one node is required");
+        }
+
+        int replicas = Math.max(1, virtualNodes / 4);
+        for (Map.Entry<String, T> entry : nodes.entrySet()) {
+            for (int i = 0; i < replicas; i++) {
+                byte[] digest = md5(entry.getKey() + "-" + i);
+                // 每个MD5摘要切分为4个虚拟节点
+                for (int h = 0; h < 4; h++) {
+                    ring.put(hash(digest, h), entry.getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * 获取键所在的节点
+     */
+    public T get(String key) {
+        long hash = hash(md5(key), 0);
+        SortedMap<Long, T> tail = ring.tailMap(hash);
+        return tail.isEmpty() ? ring.firstEntry().getValue() : tail.get(tail.firstKey());
+    }
+
+    private static long hash(byte[] digest, int index) {
+        return ((long) (digest[3 + index * 4] & 0xFF) << 24)
+                | ((long) (digest[2 + index * 4] & 0xFF) << 16)
+                | ((long) (digest[1 + index * 4] & 0xFF) << 8)
+                | (digest[index * 4] & 0xFF);
+    }
+
+    private static byte[] md5(String value) {
+        try {
+            return MessageDigest.getInstance("MD5").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 not supported", e);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.asd.redis.orm.utils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 简单的阻塞式限流器，按固定速率发放许可
+ */
+public class RateLimiter {
+
+    private final double permitsPerNano;
+    private long nextFreeNanos = System.nanoTime();
+
+    /**
+     * @param permitsPerSecond 每秒许可数，必须大于0
+     */
+    public RateLimiter(double permitsPerSecond) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive");
+        }
+        this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+    }
+
+    /**
+     * 获取许可，必要时阻塞等待
+     */
+    public synchronized void acquire(int permits) throws InterruptedException {
+        long now = System.nanoTime();
+        long waitNanos = nextFreeNanos - now;
+        nextFreeNanos = Math.max(nextFreeNanos, now) + (long) (permits / permitsPerNano);
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * 根据配置创建限流器，速率小于等于0时返回null表示不限流
+     */
+    public static RateLimiter of(double permitsPerSecond) {
+        return permitsPerSecond > 0 ? new RateLimiter(permitsPerSecond) : null;
+    }
+}
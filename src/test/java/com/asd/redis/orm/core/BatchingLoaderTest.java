@@ -0,0 +1,180 @@
+package com.asd.redis.orm.core;
+
+import com.asd.redis.orm.config.RedisOrmProperties;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchingLoaderTest {
+
+    static class Order {
+    }
+
+    static class User {
+    }
+
+    private static RedisOrmProperties.Coalescing properties(long windowMicros, int maxBatchSize) {
+        RedisOrmProperties.Coalescing properties = new RedisOrmProperties.Coalescing();
+        properties.setEnabled(true);
+        properties.setWindowMicros(windowMicros);
+        properties.setMaxBatchSize(maxBatchSize);
+        return properties;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 返回 "v" + 键，记录每次读取的类型和键
+     */
+    private static BiFunction<Class<?>, List<String>, List<byte[]>> echo(List<String> calls) {
+        return (entityClass, keys) -> {
+            synchronized (calls) {
+                calls.add(entityClass.getSimpleName() + keys);
+            }
+            List<byte[]> values = new ArrayList<>();
+            for (String key : keys) {
+                values.add(bytes("v" + key));
+            }
+            return values;
+        };
+    }
+
+    private static void awaitWaiting(Thread thread) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (thread.getState() != Thread.State.TIMED_WAITING && thread.getState() != Thread.State.WAITING) {
+            assertTrue(System.currentTimeMillis() < deadline, "thread did not start waiting");
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    void disabledLoaderStartsNoThreads() {
+        assertFalse(new BatchingLoader(new RedisOrmProperties.Coalescing(), echo(new ArrayList<>())).isEnabled());
+    }
+
+    @Test
+    void fullBatchIsSentByCallingThread() {
+        List<String> calls = new ArrayList<>();
+        BatchingLoader loader = new BatchingLoader(properties(10_000_000, 1), echo(calls));
+        assertArrayEquals(bytes("vuser:1"), loader.load(User.class, "user:1"));
+        assertEquals(Collections.singletonList("User[user:1]"), calls);
+    }
+
+    @Test
+    void concurrentLoadsShareOneFetchPerType() throws Exception {
+        List<String> calls = new ArrayList<>();
+        BatchingLoader loader = new BatchingLoader(properties(200_000, 100), echo(calls));
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<byte[]>> results = new ArrayList<>();
+            List<String> keys = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                // 每个键被两个线程读取
+                String key = (i % 2 == 0 ? "user:" : "order:") + (i / 4);
+                Class<?> type = i % 2 == 0 ? User.class : Order.class;
+                keys.add(key);
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return loader.load(type, key);
+                }));
+            }
+            start.countDown();
+            for (int i = 0; i < results.size(); i++) {
+                assertArrayEquals(bytes("v" + keys.get(i)), results.get(i).get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // 16 个不同的键，每个只读取一次；同一窗口内的键按类型合并
+        int fetchedKeys = 0;
+        for (String call : calls) {
+            fetchedKeys += call.split(",").length;
+        }
+        assertEquals(16, fetchedKeys, calls.toString());
+        assertTrue(calls.size() < 16, calls.toString());
+    }
+
+    @Test
+    void runtimeExceptionIsRethrownToWaiters() {
+        BatchingLoader loader = new BatchingLoader(properties(1000, 100), (entityClass, keys) -> {
+            throw new IllegalStateException("boom");
+        });
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> loader.load(User.class, "user:1"));
+        assertEquals("boom", e.getMessage());
+    }
+
+    @Test
+    void errorFailsEveryTypeInTheBatch() throws Exception {
+        Error error = new Error("fatal");
+        List<String> calls = new ArrayList<>();
+        BatchingLoader loader = new BatchingLoader(properties(10_000_000, 2), (entityClass, keys) -> {
+            calls.add(entityClass.getSimpleName() + keys);
+            throw error;
+        });
+
+        CompletableFuture<Throwable> waiter = new CompletableFuture<>();
+        Thread thread = new Thread(() -> {
+            try {
+                loader.load(User.class, "user:1");
+                waiter.complete(null);
+            } catch (Throwable e) {
+                waiter.complete(e);
+            }
+        });
+        thread.start();
+        awaitWaiting(thread);
+
+        // 第二个键使批次满，由当前线程发送，User 读取失败后 Order 不再读取
+        Error thrown = assertThrows(Error.class, () -> loader.load(Order.class, "order:1"));
+        assertSame(error, thrown);
+        assertEquals(Collections.singletonList("User[user:1]"), calls);
+
+        Throwable failure = waiter.get(5, TimeUnit.SECONDS);
+        assertNotNull(failure);
+        assertSame(error, failure.getCause());
+    }
+
+    @Test
+    void waitIsBoundedAndRetriedAfterTimeout() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> calls = new ArrayList<>();
+        RedisOrmProperties.Coalescing properties = properties(1000, 100);
+        properties.setLoadTimeout(100);
+        BatchingLoader loader = new BatchingLoader(properties, (entityClass, keys) -> {
+            synchronized (calls) {
+                calls.add(entityClass.getSimpleName() + keys);
+            }
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Collections.singletonList(bytes("late"));
+        });
+
+        try {
+            long start = System.nanoTime();
+            IllegalStateException e = assertThrows(IllegalStateException.class,
+                    () -> loader.load(User.class, "user:1"));
+            assertTrue(e.getMessage().startsWith("Timed out after 100 ms"), e.getMessage());
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 2000);
+
+            // 超时后重新发起加载，而不是继续等待卡住的批次
+            assertThrows(IllegalStateException.class, () -> loader.load(User.class, "user:1"));
+            synchronized (calls) {
+                assertEquals(Arrays.asList("User[user:1]", "User[user:1]"), calls);
+            }
+        } finally {
+            release.countDown();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.asd.redis.orm.core;
+
+import com.asd.redis.orm.annotation.RedisEntity;
+import com.asd.redis.orm.annotation.RedisId;
+import com.asd.redis.orm.annotation.RedisRef;
+import com.asd.redis.orm.config.RedisOrmProperties;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EntityMetadataTest {
+
+    @RedisEntity(prefix = "user")
+    static class User {
+
+        @RedisId
+        private Long id;
+    }
+
+    @RedisEntity(prefix = "order")
+    static class Order {
+
+        @RedisId
+        private Long id;
+
+        private Long userId;
+
+        private List<Long> itemIds;
+
+        @JsonIgnore
+        @RedisRef(idField = "userId")
+        private User user;
+
+        // 没有访问器的私有字段不会被序列化
+        @RedisRef(idField = "itemIds", target = User.class)
+        private List<User> items;
+
+        public Long getId() {
+            return id;
+        }
+    }
+
+    @RedisEntity(prefix = "leaky")
+    static class LeakyOrder {
+
+        @RedisId
+        private Long id;
+
+        private Long userId;
+
+        @RedisRef(idField = "userId")
+        private User user;
+
+        public User getUser() {
+            return user;
+        }
+    }
+
+    @Test
+    void refFieldsSkippedBySerializationAreAccepted() {
+        EntityMetadata metadata = new EntityMetadata(Order.class, new RedisOrmProperties());
+        assertEquals(User.class, metadata.getRef("user").getTarget());
+        assertEquals(User.class, metadata.getRef("items").getTarget());
+    }
+
+    @Test
+    void serializedRefFieldFailsFast() {
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> new EntityMetadata(LeakyOrder.class, new RedisOrmProperties()));
+        assertTrue(e.getMessage().contains("LeakyOrder.user"), e.getMessage());
+    }
+}
@@ -0,0 +1,131 @@
+package com.asd.redis.orm.core;
+
+import com.asd.redis.orm.config.RedisOrmProperties;
+import com.asd.redis.orm.query.Condition;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FilterPushdownTest {
+
+    enum Status {
+        ACTIVE
+    }
+
+    private static Map<String, Object> predicate(String field, Condition.Operator operator, Object... values) {
+        Map<String, Object> predicate = new HashMap<>();
+        predicate.put("f", field);
+        predicate.put("op", operator.name());
+        predicate.put("v", Arrays.asList(values));
+        return predicate;
+    }
+
+    private static List<String> keys(int count) {
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            keys.add("user:" + i);
+        }
+        return keys;
+    }
+
+    @Test
+    void encodesScalarConditions() {
+        Date date = new Date(1_600_000_000_000L);
+        List<Map<String, Object>> predicates = FilterPushdown.toPredicates(Arrays.asList(
+                new Condition("name", Condition.Operator.EQ, "bob"),
+                new Condition("status", Condition.Operator.IN, Status.ACTIVE, "DISABLED"),
+                new Condition("vip", Condition.Operator.NE, true),
+                new Condition("grade", Condition.Operator.EQ, 'A'),
+                new Condition("age", Condition.Operator.BETWEEN, 18, 30.5),
+                new Condition("createdAt", Condition.Operator.GT, date),
+                new Condition("email", Condition.Operator.IS_NULL)));
+
+        assertEquals(Arrays.asList(
+                predicate("name", Condition.Operator.EQ, "bob"),
+                predicate("status", Condition.Operator.IN, "ACTIVE", "DISABLED"),
+                predicate("vip", Condition.Operator.NE, true),
+                predicate("grade", Condition.Operator.EQ, "A"),
+                predicate("age", Condition.Operator.BETWEEN, 18, 30.5),
+                predicate("createdAt", Condition.Operator.GT, date.getTime()),
+                predicate("email", Condition.Operator.IS_NULL)), predicates);
+    }
+
+    @Test
+    void skipsConditionsTheScriptCannotJudge() {
+        List<Map<String, Object>> predicates = FilterPushdown.toPredicates(Arrays.asList(
+                // 字符串范围比较只在客户端判断
+                new Condition("name", Condition.Operator.GT, "m"),
+                // 超过双精度能精确表示的整数
+                new Condition("id", Condition.Operator.EQ, Long.MAX_VALUE),
+                // IN 中任一值无法编码时整个条件不下推
+                new Condition("tag", Condition.Operator.IN, "a", Collections.emptyList()),
+                new Condition("uuid", Condition.Operator.EQ, UUID.randomUUID()),
+                new Condition("age", Condition.Operator.LT, 9007199254740992L)));
+
+        assertEquals(Collections.singletonList(predicate("age", Condition.Operator.LT, 9007199254740992L)),
+                predicates);
+    }
+
+    @Test
+    void filterCollectsMatchesAcrossBatches() {
+        RedisOrmProperties.Pushdown properties = new RedisOrmProperties.Pushdown();
+        properties.setBatchSize(10);
+        properties.setMaxBatchSize(10);
+        FilterPushdown pushdown = new FilterPushdown(properties);
+
+        List<Integer> batchSizes = new ArrayList<>();
+        Map<String, byte[]> result = pushdown.filter(keys(25), Collections.emptyList(), (batch, callback) -> {
+            batchSizes.add(batch.size());
+            // 模拟脚本只返回偶数键及其值
+            List<byte[]> values = new ArrayList<>();
+            for (String key : batch) {
+                if (Integer.parseInt(key.substring(5)) % 2 == 0) {
+                    values.add(key.getBytes(StandardCharsets.UTF_8));
+                    values.add(("v" + key).getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            return values;
+        });
+
+        assertEquals(Arrays.asList(10, 10, 5), batchSizes);
+        assertEquals(13, result.size());
+        assertEquals("user:0", result.keySet().iterator().next());
+        assertArrayEquals("vuser:24".getBytes(StandardCharsets.UTF_8), result.get("user:24"));
+        assertFalse(result.containsKey("user:1"));
+    }
+
+    @Test
+    void batchSizeAdaptsToTimeBudget() {
+        RedisOrmProperties.Pushdown properties = new RedisOrmProperties.Pushdown();
+        properties.setBatchSize(100);
+        properties.setMaxBatchSize(300);
+        properties.setTimeBudget(1);
+        FilterPushdown pushdown = new FilterPushdown(properties);
+
+        // 每批耗时远超 1ms 预算，下一批缩小到下限
+        List<Integer> slowBatches = new ArrayList<>();
+        pushdown.filter(keys(110), Collections.emptyList(), (batch, callback) -> {
+            slowBatches.add(batch.size());
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Collections.emptyList();
+        });
+        assertEquals(Arrays.asList(100, 10), slowBatches);
+
+        // 很快完成的批次逐步放大，不超过上限
+        List<Integer> fastBatches = new ArrayList<>();
+        pushdown.filter(keys(1000), Collections.emptyList(), (batch, callback) -> {
+            fastBatches.add(batch.size());
+            return null;
+        });
+        assertEquals(10, (int) fastBatches.get(0));
+        assertTrue(fastBatches.stream().allMatch(size -> size <= 300), fastBatches.toString());
+        assertEquals(1000, fastBatches.stream().mapToInt(Integer::intValue).sum());
+    }
+}
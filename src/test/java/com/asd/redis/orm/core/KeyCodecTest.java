@@ -0,0 +1,61 @@
+package com.asd.redis.orm.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+class KeyCodecTest {
+
+    private static final String PREFIX = "app:user:";
+
+    private static void assertSameAsString(Object id) {
+        byte[] prefix = PREFIX.getBytes(StandardCharsets.UTF_8);
+        assertArrayEquals((PREFIX + id).getBytes(StandardCharsets.UTF_8), KeyCodec.concat(prefix, id),
+                "id " + id);
+    }
+
+    @Test
+    void integerIdsMatchStringConcatenation() {
+        long[] ids = {0, 1, -1, 9, 10, 99, 100, 123456789, -987654321, Integer.MAX_VALUE, Integer.MIN_VALUE,
+                Long.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE + 1};
+        for (long id : ids) {
+            assertSameAsString(id);
+        }
+        assertSameAsString(42);
+        assertSameAsString((short) -7);
+        assertSameAsString((byte) 3);
+    }
+
+    @Test
+    void stringIdsMatchStringConcatenation() {
+        assertSameAsString("");
+        assertSameAsString("abc-123");
+        assertSameAsString(UUID.randomUUID().toString());
+        assertSameAsString("用户:é");
+        assertSameAsString("emoji-😀");
+    }
+
+    @Test
+    void otherIdTypesUseToString() {
+        assertSameAsString(UUID.fromString("123e4567-e89b-12d3-a456-426614174000"));
+        assertSameAsString(3.5d);
+    }
+
+    @Test
+    void digitBufferIsReusedSafely() {
+        byte[] prefix = PREFIX.getBytes(StandardCharsets.UTF_8);
+        byte[] longer = KeyCodec.concat(prefix, 1234567890L);
+        byte[] shorter = KeyCodec.concat(prefix, 7L);
+        assertArrayEquals((PREFIX + 1234567890L).getBytes(StandardCharsets.UTF_8), longer);
+        assertArrayEquals((PREFIX + 7).getBytes(StandardCharsets.UTF_8), shorter);
+    }
+
+    @Test
+    void emptyPrefix() {
+        assertArrayEquals("42".getBytes(StandardCharsets.UTF_8), KeyCodec.concat(new byte[0], 42L));
+        assertArrayEquals("x".getBytes(StandardCharsets.UTF_8), KeyCodec.concat(new byte[0], "x"));
+    }
+}
@@ -0,0 +1,85 @@
+package com.asd.redis.orm.core;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PooledJsonRedisSerializerTest {
+
+    public static class Sample {
+
+        private Long id;
+        private String name;
+        private Map<String, Object> attributes = new LinkedHashMap<>();
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public Map<String, Object> getAttributes() {
+            return attributes;
+        }
+
+        public void setAttributes(Map<String, Object> attributes) {
+            this.attributes = attributes;
+        }
+    }
+
+    private static Sample sample(int nameLength) {
+        Sample sample = new Sample();
+        sample.setId(42L);
+        char[] name = new char[nameLength];
+        Arrays.fill(name, 'x');
+        sample.setName(new String(name));
+        sample.getAttributes().put("score", 7);
+        return sample;
+    }
+
+    @Test
+    void outputMatchesGenericJackson2JsonRedisSerializer() {
+        GenericJackson2JsonRedisSerializer expected = new GenericJackson2JsonRedisSerializer();
+        PooledJsonRedisSerializer pooled = new PooledJsonRedisSerializer(64 * 1024);
+        for (int length : new int[]{0, 10, 5000, 100000}) {
+            Sample sample = sample(length);
+            assertArrayEquals(expected.serialize(sample), pooled.serialize(sample), "name length " + length);
+        }
+        assertArrayEquals(expected.serialize("text"), pooled.serialize("text"));
+        assertEquals(0, pooled.serialize(null).length);
+    }
+
+    @Test
+    void roundTripsAcrossBufferReuse() {
+        PooledJsonRedisSerializer pooled = new PooledJsonRedisSerializer(1024);
+        // 先写一个超过上限的值（缓冲区被丢弃），再写一个小值（复用新的缓冲区）
+        byte[] large = pooled.serialize(sample(4096));
+        byte[] small = pooled.serialize(sample(3));
+
+        Sample decodedLarge = (Sample) pooled.deserialize(large);
+        Sample decodedSmall = (Sample) pooled.deserialize(small);
+        assertEquals(4096, decodedLarge.getName().length());
+        assertEquals("xxx", decodedSmall.getName());
+        assertEquals(7, decodedSmall.getAttributes().get("score"));
+    }
+
+    @Test
+    void rejectsTooSmallPoolLimit() {
+        assertThrows(IllegalArgumentException.class, () -> new PooledJsonRedisSerializer(16));
+    }
+}
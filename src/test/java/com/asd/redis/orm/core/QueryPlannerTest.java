@@ -0,0 +1,152 @@
+package com.asd.redis.orm.core;
+
+import com.asd.redis.orm.annotation.RedisEntity;
+import com.asd.redis.orm.annotation.RedisField;
+import com.asd.redis.orm.annotation.RedisId;
+import com.asd.redis.orm.config.RedisOrmProperties;
+import com.asd.redis.orm.query.QueryPlan;
+import com.asd.redis.orm.query.QueryWrapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryPlannerTest {
+
+    @RedisEntity(prefix = "user")
+    static class User {
+
+        @RedisId
+        private Long id;
+
+        @RedisField(index = RedisField.IndexType.EQUAL)
+        private String status;
+
+        @RedisField(index = RedisField.IndexType.RANGE)
+        private Integer age;
+
+        private String name;
+    }
+
+    /**
+     * 按管道命令顺序返回固定的计数，记录调用次数
+     */
+    static class CountingTemplate extends RedisTemplate<String, Object> {
+
+        private final List<Object> counts;
+        private int pipelines;
+
+        CountingTemplate(Object... counts) {
+            this.counts = new ArrayList<>(Arrays.asList(counts));
+        }
+
+        @Override
+        public List<Object> executePipelined(RedisCallback<?> action) {
+            pipelines++;
+            return counts;
+        }
+    }
+
+    private final EntityMetadata metadata = new EntityMetadata(User.class, new RedisOrmProperties());
+
+    @Test
+    void smallestIndexDrivesIntersection() {
+        CountingTemplate template = new CountingTemplate(500L, 3L);
+        QueryWrapper<User> query = new QueryWrapper<User>().eq("status", "ACTIVE").gt("age", 18);
+
+        QueryPlan plan = QueryPlanner.plan(template, metadata, query).explain();
+        assertEquals(1, template.pipelines);
+        assertEquals(QueryPlan.Access.INDEX, plan.getAccess());
+        assertEquals(2, plan.getSteps().size());
+        assertTrue(plan.getSteps().get(0).startsWith("DRIVE age > 18 via RANGE index"), plan.getSteps().get(0));
+        assertTrue(plan.getSteps().get(0).endsWith("(estimate 3)"));
+        assertTrue(plan.getSteps().get(1).startsWith("INTERSECT status = ACTIVE via EQUAL index"));
+        assertTrue(plan.getFilters().isEmpty());
+    }
+
+    @Test
+    void inConditionSumsEstimatesOfAllValues() {
+        // status IN (A, B) 两个集合共 4 个，小于 age 的 10 个
+        CountingTemplate template = new CountingTemplate(1L, 3L, 10L);
+        QueryWrapper<User> query = new QueryWrapper<User>().in("status", Arrays.asList("A", "B")).lt("age", 30);
+
+        QueryPlan plan = QueryPlanner.plan(template, metadata, query).explain();
+        assertEquals("DRIVE status IN [A, B] via EQUAL index 2 keys (estimate 4)", plan.getSteps().get(0));
+        assertTrue(plan.getSteps().get(1).startsWith("INTERSECT age < 30 via RANGE index"));
+    }
+
+    @Test
+    void unindexedConditionsAreFilteredInMemory() {
+        CountingTemplate template = new CountingTemplate(7L);
+        QueryWrapper<User> query = new QueryWrapper<User>().eq("status", "ACTIVE").eq("name", "bob")
+                .gt("age", "abc").ne("status", "DISABLED");
+
+        QueryPlanner.Plan plan = QueryPlanner.plan(template, metadata, query);
+        assertFalse(plan.isScan());
+        assertFalse(plan.isEmpty());
+        // 非数值的范围比较和不等条件不能使用索引
+        assertEquals("[name = bob, age > abc, status <> DISABLED]", plan.getFilters().toString());
+        assertFalse(plan.canPushDownLimit());
+    }
+
+    @Test
+    void inexactRangeValueIsAlsoFilteredInMemory() {
+        // 2^53 + 1 不能被双精度精确表示，索引区间放宽后仍需在内存中比较
+        CountingTemplate template = new CountingTemplate(4L);
+        QueryPlanner.Plan plan = QueryPlanner.plan(template, metadata,
+                new QueryWrapper<User>().gt("age", 9007199254740993L).limit(10));
+        assertEquals(QueryPlan.Access.INDEX, plan.explain().getAccess());
+        assertTrue(plan.explain().getSteps().get(0).startsWith("DRIVE age > 9007199254740993 via RANGE index"));
+        assertEquals("[age > 9007199254740993]", plan.getFilters().toString());
+        assertFalse(plan.canPushDownLimit());
+
+        // 2^53 可以精确表示，只使用索引
+        assertTrue(QueryPlanner.plan(new CountingTemplate(4L), metadata,
+                new QueryWrapper<User>().gt("age", 9007199254740992L)).getFilters().isEmpty());
+    }
+
+    @Test
+    void nonFiniteRangeValueIsFilteredInMemory() {
+        CountingTemplate template = new CountingTemplate();
+        QueryPlanner.Plan plan = QueryPlanner.plan(template, metadata,
+                new QueryWrapper<User>().lt("age", Double.NaN).gt("age", Double.NEGATIVE_INFINITY));
+        assertEquals(0, template.pipelines);
+        assertTrue(plan.isScan());
+        assertEquals("[age < NaN, age > -Infinity]", plan.getFilters().toString());
+    }
+
+    @Test
+    void emptyDriverShortCircuits() {
+        QueryPlanner.Plan plan = QueryPlanner.plan(new CountingTemplate(0L, 100L), metadata,
+                new QueryWrapper<User>().eq("status", "GONE").between("age", 1, 99));
+        assertTrue(plan.isEmpty());
+        assertEquals(QueryPlan.Access.EMPTY, plan.explain().getAccess());
+    }
+
+    @Test
+    void scanWithoutUsableIndex() {
+        CountingTemplate template = new CountingTemplate();
+        QueryPlanner.Plan plan = QueryPlanner.plan(template, metadata, new QueryWrapper<User>().eq("name", "bob"));
+        assertEquals(0, template.pipelines);
+        assertTrue(plan.isScan());
+        assertFalse(plan.isEmpty());
+        assertEquals(QueryPlan.Access.SCAN, plan.explain().getAccess());
+        assertEquals(Collections.emptyList(), plan.explain().getSteps());
+    }
+
+    @Test
+    void limitIsPushedDownOnlyForPureIndexQueries() {
+        assertTrue(QueryPlanner.plan(new CountingTemplate(5L), metadata,
+                new QueryWrapper<User>().eq("status", "ACTIVE").limit(10)).canPushDownLimit());
+        assertFalse(QueryPlanner.plan(new CountingTemplate(5L), metadata,
+                new QueryWrapper<User>().eq("status", "ACTIVE").orderBy("age", true).limit(10)).canPushDownLimit());
+        assertFalse(QueryPlanner.plan(new CountingTemplate(5L), metadata,
+                new QueryWrapper<User>().eq("status", "ACTIVE")).canPushDownLimit());
+    }
+}
@@ -0,0 +1,159 @@
+package com.asd.redis.orm.core;
+
+import com.asd.redis.orm.config.RedisOrmProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadThroughTest {
+
+    static class User {
+    }
+
+    /**
+     * 不使用分布式锁，单飞和提前刷新都不访问Redis
+     */
+    private static ReadThrough readThrough(boolean earlyRefresh) {
+        RedisOrmProperties.Loader properties = new RedisOrmProperties.Loader();
+        properties.setLockEnabled(false);
+        properties.setEarlyRefresh(earlyRefresh);
+        return new ReadThrough(properties);
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return true;
+    }
+
+    @Test
+    void concurrentMissesLoadOnce() throws Exception {
+        ReadThrough readThrough = readThrough(true);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<CompletableFuture<Boolean>> results = new ArrayList<>();
+        List<Thread> waiters = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            CompletableFuture<Boolean> result = new CompletableFuture<>();
+            results.add(result);
+            Thread thread = new Thread(() -> {
+                try {
+                    result.complete(readThrough.load(User.class, null, "user:1", "lock", () -> {
+                        loads.incrementAndGet();
+                        loading.countDown();
+                        try {
+                            return release.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            throw new IllegalStateException(e);
+                        }
+                    }, () -> false));
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            });
+            thread.start();
+            if (i == 0) {
+                assertTrue(loading.await(5, TimeUnit.SECONDS));
+            } else {
+                waiters.add(thread);
+            }
+        }
+        // 其余线程都在等待第一次加载，而不是各自加载
+        for (Thread waiter : waiters) {
+            awaitWaiting(waiter);
+        }
+        release.countDown();
+        for (CompletableFuture<Boolean> result : results) {
+            assertTrue(result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+    }
+
+    private static void awaitWaiting(Thread thread) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (thread.getState() != Thread.State.WAITING) {
+            assertTrue(System.currentTimeMillis() < deadline, "thread did not start waiting");
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    void failureIsRethrownAndNextLoadRetries() {
+        ReadThrough readThrough = readThrough(true);
+        IllegalStateException e = assertThrows(IllegalStateException.class, () ->
+                readThrough.load(User.class, null, "user:1", "lock", () -> {
+                    throw new IllegalStateException("source down");
+                }, () -> false));
+        assertEquals("source down", e.getMessage());
+        assertTrue(readThrough.load(User.class, null, "user:1", "lock", () -> true, () -> false));
+    }
+
+    @Test
+    void noEarlyRefreshWithoutLoadHistory() {
+        ReadThrough readThrough = readThrough(true);
+        assertFalse(readThrough.shouldRefresh(User.class, 1));
+    }
+
+    @Test
+    void earlyRefreshDependsOnLoadTimeAndRemainingTtl() {
+        ReadThrough readThrough = readThrough(true);
+        readThrough.load(User.class, null, "user:1", "lock", () -> sleep(50), () -> false);
+
+        // 加载约 50ms：剩余 1ms 时几乎总是刷新（概率 e^(-1/50)），剩余 1 小时时不会刷新
+        int refreshed = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (readThrough.shouldRefresh(User.class, 1)) {
+                refreshed++;
+            }
+            assertFalse(readThrough.shouldRefresh(User.class, 3600_000));
+        }
+        assertTrue(refreshed > 900, "refreshed " + refreshed);
+
+        assertFalse(readThrough.shouldRefresh(User.class, 0));
+        assertFalse(readThrough.shouldRefresh(User.class, -1));
+    }
+
+    @Test
+    void earlyRefreshCanBeDisabled() {
+        ReadThrough readThrough = readThrough(false);
+        readThrough.load(User.class, null, "user:1", "lock", () -> sleep(50), () -> false);
+        assertFalse(readThrough.shouldRefresh(User.class, 1));
+    }
+
+    @Test
+    void refreshIsSkippedWhileKeyIsLoading() throws Exception {
+        ReadThrough readThrough = readThrough(true);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger refreshes = new AtomicInteger();
+        CompletableFuture<Void> done = new CompletableFuture<>();
+
+        readThrough.refreshAsync(User.class, "user:1", () -> {
+            refreshes.incrementAndGet();
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            } finally {
+                done.complete(null);
+            }
+        });
+        readThrough.refreshAsync(User.class, "user:1", () -> {
+            refreshes.incrementAndGet();
+            return true;
+        });
+        release.countDown();
+        done.get(5, TimeUnit.SECONDS);
+        assertEquals(1, refreshes.get());
+    }
+}
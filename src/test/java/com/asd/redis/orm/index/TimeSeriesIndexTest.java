@@ -0,0 +1,123 @@
+package com.asd.redis.orm.index;
+
+import com.asd.redis.orm.annotation.RedisEntity;
+import com.asd.redis.orm.annotation.RedisId;
+import com.asd.redis.orm.config.RedisOrmProperties;
+import com.asd.redis.orm.core.EntityMetadata;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeSeriesIndexTest {
+
+    private static final long HOUR = 3600_000L;
+
+    @RedisEntity(prefix = "event", timeField = "createdAt")
+    static class Event {
+
+        @RedisId
+        private Long id;
+
+        private Long createdAt;
+    }
+
+    @RedisEntity(prefix = "tick", timeField = "time", timeBucket = 60)
+    static class Tick {
+
+        @RedisId
+        private Long id;
+
+        private Instant time;
+    }
+
+    @RedisEntity(prefix = "bad", timeField = "label")
+    static class BadTimeField {
+
+        @RedisId
+        private Long id;
+
+        private String label;
+    }
+
+    private static TimeSeriesIndex index(Class<?> entityClass) {
+        RedisOrmProperties properties = new RedisOrmProperties();
+        properties.setKeyPrefix("app:");
+        return new EntityMetadata(entityClass, properties).getTimeSeriesIndex();
+    }
+
+    @Test
+    void bucketKeyUsesBucketStart() {
+        TimeSeriesIndex index = index(Event.class);
+        assertEquals(HOUR, index.getBucketMillis());
+        assertEquals("app:idx:event:ts:0", index.getBucketKey(0));
+        assertEquals("app:idx:event:ts:0", index.getBucketKey(HOUR - 1));
+        assertEquals("app:idx:event:ts:" + HOUR, index.getBucketKey(HOUR));
+        assertEquals("app:idx:event:ts:" + 5 * HOUR, index.getBucketKey(5 * HOUR + 1234));
+    }
+
+    @Test
+    void negativeTimestampsRoundDown() {
+        TimeSeriesIndex index = index(Event.class);
+        assertEquals("app:idx:event:ts:" + -HOUR, index.getBucketKey(-1));
+        assertEquals("app:idx:event:ts:" + -HOUR, index.getBucketKey(-HOUR));
+        assertEquals("app:idx:event:ts:" + -2 * HOUR, index.getBucketKey(-HOUR - 1));
+    }
+
+    @Test
+    void rangeCoversOverlappingBucketsInOrder() {
+        TimeSeriesIndex index = index(Event.class);
+        assertEquals(Collections.singletonList("app:idx:event:ts:" + HOUR),
+                index.getBucketKeys(HOUR + 10, 2 * HOUR - 1));
+        assertEquals(Arrays.asList("app:idx:event:ts:" + HOUR, "app:idx:event:ts:" + 2 * HOUR,
+                        "app:idx:event:ts:" + 3 * HOUR),
+                index.getBucketKeys(2 * HOUR - 1, 3 * HOUR));
+        assertEquals(Arrays.asList("app:idx:event:ts:" + -HOUR, "app:idx:event:ts:0"),
+                index.getBucketKeys(-1, 0));
+    }
+
+    @Test
+    void emptyAndOversizedRanges() {
+        TimeSeriesIndex index = index(Tick.class);
+        assertTrue(index.getBucketKeys(10, 9).isEmpty());
+
+        // 100000 个一分钟的桶恰好允许，再多一个桶拒绝
+        List<String> keys = index.getBucketKeys(0, 100_000L * 60_000 - 1);
+        assertEquals(100_000, keys.size());
+        assertEquals("app:idx:tick:ts:" + 99_999L * 60_000, keys.get(keys.size() - 1));
+        assertThrows(IllegalArgumentException.class, () -> index.getBucketKeys(0, 100_000L * 60_000));
+    }
+
+    @Test
+    void toMillisConvertsSupportedTypes() {
+        Instant instant = Instant.ofEpochMilli(1_600_000_000_123L);
+        assertNull(TimeSeriesIndex.toMillis(null));
+        assertEquals(42L, TimeSeriesIndex.toMillis(42));
+        assertEquals(instant.toEpochMilli(), TimeSeriesIndex.toMillis(instant));
+        assertEquals(instant.toEpochMilli(), TimeSeriesIndex.toMillis(Date.from(instant)));
+        assertEquals(instant.toEpochMilli(),
+                TimeSeriesIndex.toMillis(LocalDateTime.ofInstant(instant, ZoneId.systemDefault())));
+        assertEquals(instant.toEpochMilli(), TimeSeriesIndex.toMillis(instant.atZone(ZoneId.of("Asia/Shanghai"))));
+        assertThrows(IllegalArgumentException.class, () -> TimeSeriesIndex.toMillis("2020-01-01"));
+    }
+
+    @Test
+    void timestampIsReadFromTimeField() {
+        Tick tick = new Tick();
+        tick.time = Instant.ofEpochMilli(90_000);
+        assertEquals(90_000L, index(Tick.class).getTimestamp(tick));
+        assertNull(index(Tick.class).getTimestamp(new Tick()));
+    }
+
+    @Test
+    void rejectsUnsupportedTimeField() {
+        assertThrows(IllegalStateException.class, () -> index(BadTimeField.class));
+    }
+}
@@ -0,0 +1,102 @@
+package com.asd.redis.orm.query;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConditionTest {
+
+    enum Status {
+        ACTIVE, DISABLED
+    }
+
+    private static Condition condition(Condition.Operator operator, Object... values) {
+        return new Condition("field", operator, values);
+    }
+
+    @Test
+    void numbersCompareByValue() {
+        Condition eq = condition(Condition.Operator.EQ, 1);
+        assertTrue(eq.matches(1L));
+        assertTrue(eq.matches(1.0d));
+        assertTrue(eq.matches(new BigDecimal("1.00")));
+        assertFalse(eq.matches(2));
+        assertFalse(eq.matches("1"));
+    }
+
+    @Test
+    void enumsMatchByName() {
+        assertTrue(condition(Condition.Operator.EQ, "ACTIVE").matches(Status.ACTIVE));
+        assertTrue(condition(Condition.Operator.EQ, Status.ACTIVE).matches("ACTIVE"));
+        assertFalse(condition(Condition.Operator.EQ, Status.DISABLED).matches(Status.ACTIVE));
+    }
+
+    @Test
+    void equalityHandlesNull() {
+        assertFalse(condition(Condition.Operator.EQ, 1).matches(null));
+        assertTrue(condition(Condition.Operator.NE, 1).matches(null));
+        assertFalse(condition(Condition.Operator.NE, 1).matches(1L));
+        assertTrue(condition(Condition.Operator.IS_NULL).matches(null));
+        assertFalse(condition(Condition.Operator.IS_NULL).matches(""));
+    }
+
+    @Test
+    void inMatchesAnyValue() {
+        Condition in = condition(Condition.Operator.IN, 1, "a", null);
+        assertTrue(in.matches(1L));
+        assertTrue(in.matches("a"));
+        assertTrue(in.matches(null));
+        assertFalse(in.matches("b"));
+    }
+
+    @Test
+    void rangeOperators() {
+        assertTrue(condition(Condition.Operator.GT, 10).matches(10.5));
+        assertFalse(condition(Condition.Operator.GT, 10).matches(10L));
+        assertTrue(condition(Condition.Operator.LT, 10).matches(-3));
+        assertFalse(condition(Condition.Operator.LT, 10).matches(10));
+
+        Condition between = condition(Condition.Operator.BETWEEN, 1, 5);
+        assertTrue(between.matches(1));
+        assertTrue(between.matches(5L));
+        assertFalse(between.matches(5.01));
+        assertFalse(between.matches(null));
+        assertFalse(condition(Condition.Operator.GT, 1).matches(null));
+    }
+
+    @Test
+    void nanAndInfinityDoNotFail() {
+        assertTrue(condition(Condition.Operator.EQ, Double.NaN).matches(Float.NaN));
+        assertFalse(condition(Condition.Operator.EQ, Double.NaN).matches(1));
+        assertTrue(condition(Condition.Operator.NE, 1).matches(Double.NaN));
+        // NaN 与任何值都没有大小关系
+        assertFalse(condition(Condition.Operator.GT, 1).matches(Double.NaN));
+        assertFalse(condition(Condition.Operator.LT, Double.NaN).matches(1));
+        assertFalse(condition(Condition.Operator.BETWEEN, Double.NaN, 5).matches(3));
+
+        assertTrue(condition(Condition.Operator.GT, Long.MAX_VALUE).matches(Double.POSITIVE_INFINITY));
+        assertTrue(condition(Condition.Operator.LT, Double.POSITIVE_INFINITY).matches(new BigDecimal("1e400")));
+        assertTrue(condition(Condition.Operator.EQ, Float.NEGATIVE_INFINITY).matches(Double.NEGATIVE_INFINITY));
+        assertTrue(condition(Condition.Operator.BETWEEN, Double.NEGATIVE_INFINITY, 0).matches(-1L));
+        assertFalse(condition(Condition.Operator.GT, Double.POSITIVE_INFINITY).matches(Double.POSITIVE_INFINITY));
+    }
+
+    @Test
+    void datesAndStringsUseNaturalOrder() {
+        assertTrue(condition(Condition.Operator.GT, new Date(1000)).matches(new Date(2000)));
+        assertFalse(condition(Condition.Operator.LT, new Date(1000)).matches(new Date(2000)));
+        assertTrue(condition(Condition.Operator.BETWEEN, "b", "d").matches("c"));
+        assertFalse(condition(Condition.Operator.BETWEEN, "b", "d").matches("e"));
+    }
+
+    @Test
+    void toStringDescribesCondition() {
+        assertEquals("age > 18", new Condition("age", Condition.Operator.GT, 18).toString());
+        assertEquals("age BETWEEN 1 AND 5", new Condition("age", Condition.Operator.BETWEEN, 1, 5).toString());
+        assertEquals("name IS NULL", new Condition("name", Condition.Operator.IS_NULL).toString());
+        assertEquals("status IN [A, B]", new Condition("status", Condition.Operator.IN, "A", "B").toString());
+    }
+}
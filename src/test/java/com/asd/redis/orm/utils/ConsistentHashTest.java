@@ -0,0 +1,79 @@
+package com.asd.redis.orm.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsistentHashTest {
+
+    private static Map<String, Integer> nodes(int count) {
+        Map<String, Integer> nodes = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            nodes.put("10.0.0." + i + ":6379/0", i);
+        }
+        return nodes;
+    }
+
+    @Test
+    void rejectsEmptyNodes() {
+        assertThrows(IllegalArgumentException.class, () -> new ConsistentHash<>(new HashMap<String, Integer>(), 160));
+        assertThrows(IllegalArgumentException.class, () -> new ConsistentHash<Integer>(null, 160));
+    }
+
+    @Test
+    void singleNodeOwnsAllKeys() {
+        ConsistentHash<Integer> ring = new ConsistentHash<>(nodes(1), 160);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(0, ring.get("user:" + i));
+        }
+    }
+
+    @Test
+    void routingIsStableAcrossInstances() {
+        ConsistentHash<Integer> first = new ConsistentHash<>(nodes(4), 160);
+        ConsistentHash<Integer> second = new ConsistentHash<>(nodes(4), 160);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(first.get(String.valueOf(i)), second.get(String.valueOf(i)));
+        }
+    }
+
+    @Test
+    void keysAreSpreadOverAllNodes() {
+        int nodeCount = 4;
+        int keys = 40000;
+        ConsistentHash<Integer> ring = new ConsistentHash<>(nodes(nodeCount), 160);
+        int[] counts = new int[nodeCount];
+        for (int i = 0; i < keys; i++) {
+            counts[ring.get(String.valueOf(i))]++;
+        }
+        for (int count : counts) {
+            // 160 个虚拟节点时各节点的份额偏差在 ±30% 以内
+            assertTrue(count > keys / nodeCount * 0.7 && count < keys / nodeCount * 1.3,
+                    "unbalanced distribution: " + Arrays.toString(counts));
+        }
+    }
+
+    @Test
+    void addingNodeOnlyMovesKeysToTheNewNode() {
+        ConsistentHash<Integer> before = new ConsistentHash<>(nodes(4), 160);
+        ConsistentHash<Integer> after = new ConsistentHash<>(nodes(5), 160);
+        int keys = 20000;
+        int moved = 0;
+        for (int i = 0; i < keys; i++) {
+            String key = String.valueOf(i);
+            int oldNode = before.get(key);
+            int newNode = after.get(key);
+            if (oldNode != newNode) {
+                assertEquals(4, newNode, "key " + key + " moved between existing nodes");
+                moved++;
+            }
+        }
+        // 约 1/5 的键迁移到新节点
+        assertTrue(moved > keys * 0.1 && moved < keys * 0.3, "moved " + moved);
+    }
+}